@@ -20,6 +20,7 @@
 use crate::{FlightData, IpcMessage, SchemaAsIpc, SchemaResult};
 
 use arrow::array::ArrayRef;
+use arrow::buffer::Buffer;
 use arrow::datatypes::{Schema, SchemaRef};
 use arrow::error::{ArrowError, Result};
 use arrow::ipc::{reader, writer, writer::IpcWriteOptions};
@@ -46,13 +47,45 @@ pub fn flight_data_from_arrow_batch(
 }
 
 /// Convert `FlightData` (with supplied schema and dictionaries) to an arrow `RecordBatch`.
+///
+/// The data body is copied into the arrays, see [`flight_data_into_arrow_batch`] to
+/// convert owned `FlightData` without copying it.
 pub fn flight_data_to_arrow_batch(
     data: &FlightData,
     schema: SchemaRef,
     dictionaries_by_field: &[Option<ArrayRef>],
+) -> Result<RecordBatch> {
+    flight_data_body_to_arrow_batch(
+        &data.data_header,
+        &Buffer::from(&data.data_body),
+        schema,
+        dictionaries_by_field,
+    )
+}
+
+/// Convert owned `FlightData` (with supplied schema and dictionaries) to an arrow
+/// `RecordBatch`, whose arrays take ownership of the data body instead of copying it.
+pub fn flight_data_into_arrow_batch(
+    data: FlightData,
+    schema: SchemaRef,
+    dictionaries_by_field: &[Option<ArrayRef>],
+) -> Result<RecordBatch> {
+    flight_data_body_to_arrow_batch(
+        &data.data_header,
+        &Buffer::from_vec(data.data_body),
+        schema,
+        dictionaries_by_field,
+    )
+}
+
+fn flight_data_body_to_arrow_batch(
+    data_header: &[u8],
+    data_body: &Buffer,
+    schema: SchemaRef,
+    dictionaries_by_field: &[Option<ArrayRef>],
 ) -> Result<RecordBatch> {
     // check that the data_header is a record batch message
-    let message = arrow::ipc::root_as_message(&data.data_header[..]).map_err(|err| {
+    let message = arrow::ipc::root_as_message(data_header).map_err(|err| {
         ArrowError::ParseError(format!("Unable to get root as message: {:?}", err))
     })?;
 
@@ -64,8 +97,8 @@ pub fn flight_data_to_arrow_batch(
             )
         })
         .map(|batch| {
-            reader::read_record_batch(
-                &data.data_body,
+            reader::read_record_batch_from_buffer(
+                data_body,
                 batch,
                 schema,
                 &dictionaries_by_field,
@@ -110,3 +143,42 @@ pub fn ipc_message_from_arrow_schema(
     let IpcMessage(vals) = message;
     Ok(vals)
 }
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+    use arrow::array::{Float64Array, Int32Array};
+    use arrow::datatypes::{DataType, Field};
+    use std::sync::Arc;
+
+    #[test]
+    fn test_flight_data_into_arrow_batch_without_copy() {
+        let schema = Arc::new(Schema::new(vec![
+            Field::new("a", DataType::Int32, false),
+            Field::new("b", DataType::Float64, true),
+        ]));
+        let batch = RecordBatch::try_new(
+            schema.clone(),
+            vec![
+                Arc::new(Int32Array::from(vec![1, 2, 3])),
+                Arc::new(Float64Array::from(vec![Some(1.5), None, Some(3.5)])),
+            ],
+        )
+        .unwrap();
+        let (_, data) = flight_data_from_arrow_batch(&batch, &IpcWriteOptions::default());
+        let body_start = data.data_body.as_ptr() as usize;
+        let body_range = body_start..body_start + data.data_body.len();
+
+        let read_batch =
+            flight_data_into_arrow_batch(data, schema, &[None, None]).unwrap();
+        for (read, expected) in read_batch.columns().iter().zip(batch.columns()) {
+            assert_eq!(read, expected);
+        }
+        for column in read_batch.columns() {
+            // the buffers of the columns are slices of the data body
+            for buffer in column.data().buffers() {
+                assert!(body_range.contains(&(buffer.as_ptr() as usize)));
+            }
+        }
+    }
+}
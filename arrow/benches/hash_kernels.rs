@@ -0,0 +1,92 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+#[macro_use]
+extern crate criterion;
+use criterion::Criterion;
+use std::sync::Arc;
+extern crate arrow;
+use arrow::compute::kernels::hash::{combine_hashes, hash, hash_columns};
+use arrow::util::bench_util::*;
+use arrow::{
+    array::*,
+    datatypes::{Float64Type, Int32Type, Int64Type},
+};
+
+fn bench_hash(array: &dyn Array) {
+    criterion::black_box(hash(array, 0).unwrap());
+}
+
+fn bench_hash_columns(columns: &[ArrayRef]) {
+    criterion::black_box(hash_columns(columns, 0).unwrap());
+}
+
+fn bench_combine_hashes(array: &dyn Array, hashes: &mut [u64]) {
+    combine_hashes(array, hashes).unwrap();
+    criterion::black_box(hashes);
+}
+
+fn add_benchmark(c: &mut Criterion) {
+    let size = 65536;
+
+    let array = create_primitive_array::<Int64Type>(size, 0.0);
+    c.bench_function("hash i64 2^16", |b| b.iter(|| bench_hash(&array)));
+
+    let array = create_primitive_array::<Int64Type>(size, 0.5);
+    c.bench_function("hash i64 2^16 with nulls", |b| {
+        b.iter(|| bench_hash(&array))
+    });
+
+    let array = create_primitive_array::<Float64Type>(size, 0.0);
+    c.bench_function("hash f64 2^16", |b| b.iter(|| bench_hash(&array)));
+
+    let array = create_boolean_array(size, 0.0, 0.5);
+    c.bench_function("hash bool 2^16", |b| b.iter(|| bench_hash(&array)));
+
+    let array = create_string_array::<i32>(size, 0.0);
+    c.bench_function("hash utf8 2^16", |b| b.iter(|| bench_hash(&array)));
+
+    let array = create_string_array::<i32>(size, 0.5);
+    c.bench_function("hash utf8 2^16 with nulls", |b| {
+        b.iter(|| bench_hash(&array))
+    });
+
+    let array = create_string_array::<i32>(size, 0.0)
+        .iter()
+        .map(|value| value.map(|value| &value[..1]))
+        .collect::<DictionaryArray<Int32Type>>();
+    c.bench_function("hash dictionary(i32, utf8) 2^16", |b| {
+        b.iter(|| bench_hash(&array))
+    });
+
+    let columns: Vec<ArrayRef> = vec![
+        Arc::new(create_primitive_array::<Int32Type>(size, 0.0)),
+        Arc::new(create_primitive_array::<Int64Type>(size, 0.1)),
+        Arc::new(create_string_array::<i32>(size, 0.1)),
+    ];
+    c.bench_function("hash_columns(i32, i64, utf8) 2^16", |b| {
+        b.iter(|| bench_hash_columns(&columns))
+    });
+
+    let array = create_primitive_array::<Int32Type>(size, 0.0);
+    let mut hashes = vec![0; size];
+    c.bench_function("combine_hashes i32 2^16", |b| {
+        b.iter(|| bench_combine_hashes(&array, &mut hashes))
+    });
+}
+
+criterion_group!(benches, add_benchmark);
+criterion_main!(benches);
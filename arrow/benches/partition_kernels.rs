@@ -20,12 +20,17 @@ extern crate criterion;
 use criterion::Criterion;
 use std::sync::Arc;
 extern crate arrow;
-use arrow::compute::kernels::partition::lexicographical_partition_ranges;
+use arrow::compute::kernels::partition::{
+    hash_partition, lexicographical_partition_ranges,
+};
 use arrow::compute::kernels::sort::{lexsort, SortColumn};
+use arrow::record_batch::RecordBatch;
 use arrow::util::bench_util::*;
 use arrow::{
     array::*,
-    datatypes::{ArrowPrimitiveType, Float64Type, UInt8Type},
+    datatypes::{
+        ArrowPrimitiveType, DataType, Field, Float64Type, Int64Type, Schema, UInt8Type,
+    },
 };
 use rand::distributions::{Distribution, Standard};
 use std::iter;
@@ -107,6 +112,25 @@ fn create_sorted_data(pow: u32, with_nulls: bool) -> Vec<ArrayRef> {
     .unwrap()
 }
 
+fn create_batch(size: usize) -> RecordBatch {
+    let schema = Arc::new(Schema::new(vec![
+        Field::new("key", DataType::Int64, true),
+        Field::new("value", DataType::Float64, true),
+        Field::new("name", DataType::Utf8, true),
+    ]));
+    let columns: Vec<ArrayRef> = vec![
+        create_array::<Int64Type>(size, false),
+        create_array::<Float64Type>(size, true),
+        Arc::new(create_string_array::<i32>(size, 0.1)),
+    ];
+    RecordBatch::try_new(schema, columns).unwrap()
+}
+
+fn bench_hash_partition(batch: &RecordBatch, num_partitions: usize) {
+    let keys = vec![batch.column(0).clone()];
+    criterion::black_box(hash_partition(batch, &keys, num_partitions).unwrap());
+}
+
 fn add_benchmark(c: &mut Criterion) {
     let sorted_columns = create_sorted_data(10, false);
     c.bench_function("lexicographical_partition_ranges(u8) 2^10", |b| {
@@ -140,6 +164,15 @@ fn add_benchmark(c: &mut Criterion) {
         "lexicographical_partition_ranges(low cardinality) 1024",
         |b| b.iter(|| bench_partition(&sorted_columns)),
     );
+
+    let batch = create_batch(2usize.pow(16));
+    for num_partitions in &[16, 64, 256, 1024] {
+        let num_partitions = *num_partitions;
+        c.bench_function(
+            &format!("hash_partition(i64, f64, utf8) 2^16 into {}", num_partitions),
+            |b| b.iter(|| bench_hash_partition(&batch, num_partitions)),
+        );
+    }
 }
 
 criterion_group!(benches, add_benchmark);
@@ -23,7 +23,8 @@ use std::sync::Arc;
 
 extern crate arrow;
 
-use arrow::compute::kernels::sort::{lexsort, SortColumn};
+use arrow::compute::kernels::row::RowConverter;
+use arrow::compute::kernels::sort::{lexsort, lexsort_to_indices, SortColumn};
 use arrow::util::bench_util::*;
 use arrow::{array::*, datatypes::Float32Type};
 
@@ -55,6 +56,14 @@ fn bench_sort(array_a: &ArrayRef, array_b: &ArrayRef, limit: Option<usize>) {
     criterion::black_box(lexsort(&columns, limit).unwrap());
 }
 
+/// Sorts the indices of the rows of `columns` by their row format encoding
+fn bench_sort_rows(columns: &[SortColumn]) {
+    let (_, rows) = RowConverter::try_from_sort_columns(columns).unwrap();
+    let mut indices = (0..rows.num_rows() as u32).collect::<Vec<_>>();
+    indices.sort_unstable_by(|a, b| rows.row(*a as usize).cmp(rows.row(*b as usize)));
+    criterion::black_box(indices);
+}
+
 fn add_benchmark(c: &mut Criterion) {
     let arr_a = create_f32_array(2u64.pow(10) as usize, false);
     let arr_b = create_f32_array(2u64.pow(10) as usize, false);
@@ -92,6 +101,22 @@ fn add_benchmark(c: &mut Criterion) {
         b.iter(|| bench_sort(&arr_a, &arr_b, None))
     });
 
+    // four sort keys, compared with comparators or in the row format
+    {
+        let columns = (0..4)
+            .map(|_| SortColumn {
+                values: create_f32_array(2u64.pow(12) as usize, true),
+                options: None,
+            })
+            .collect::<Vec<_>>();
+        c.bench_function("lexsort_to_indices 4 columns nulls 2^12", |b| {
+            b.iter(|| criterion::black_box(lexsort_to_indices(&columns, None).unwrap()))
+        });
+        c.bench_function("row format sort 4 columns nulls 2^12", |b| {
+            b.iter(|| bench_sort_rows(&columns))
+        });
+    }
+
     // with limit
     {
         let arr_a = create_f32_array(2u64.pow(12) as usize, false);
@@ -0,0 +1,285 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+//! Defines [`Allocator`], the backend that the memory of
+//! [`MutableBuffer`](crate::buffer::MutableBuffer)s is allocated from, such as an
+//! arena, a NUMA-local heap or a region backed by huge pages.
+//!
+//! A buffer is allocated from the allocator that is current when it is created: the
+//! allocator of the innermost [`with_allocator`] scope of the thread, or else the
+//! allocator set with [`set_global_allocator`]. Buffers created while no allocator is
+//! set use Rust's global allocator. A buffer, and the [`Buffer`](crate::buffer::Buffer)
+//! created from it, is always freed by the allocator it was allocated from.
+//!
+//! # Example
+//! ```
+//! use std::sync::Arc;
+//! use arrow::alloc::{with_allocator, SystemAllocator};
+//! use arrow::buffer::MutableBuffer;
+//!
+//! // aligns large buffers to 2 MiB, so that transparent huge pages can back them
+//! let allocator = Arc::new(SystemAllocator::with_alignment(2 * 1024 * 1024));
+//! let buffer = with_allocator(allocator, || MutableBuffer::new(8 * 1024 * 1024));
+//! assert_eq!(buffer.as_ptr() as usize % (2 * 1024 * 1024), 0);
+//! ```
+
+use std::alloc::{GlobalAlloc, Layout, System};
+use std::cell::RefCell;
+use std::fmt::Debug;
+use std::panic::RefUnwindSafe;
+use std::ptr;
+use std::sync::atomic::{AtomicBool, Ordering};
+use std::sync::{Arc, RwLock};
+
+use lazy_static::lazy_static;
+
+use super::ALIGNMENT;
+
+/// A thread-safe memory allocator of buffers.
+///
+/// The methods have the same contract as those of [`GlobalAlloc`], and are only called
+/// with layouts of a non-zero size and an alignment of [`ALIGNMENT`]. An allocator may
+/// align the memory it returns further, as long as it does so consistently.
+///
+/// # Safety
+///
+/// Implementors must uphold the contract of [`GlobalAlloc`]. In particular, memory
+/// returned by [`alloc`](Allocator::alloc) must remain valid until it is passed to
+/// [`dealloc`](Allocator::dealloc) or [`realloc`](Allocator::realloc) of the same
+/// allocator.
+pub unsafe trait Allocator: Debug + RefUnwindSafe + Send + Sync {
+    /// Allocates memory as described by `layout`, returning a null pointer on failure.
+    ///
+    /// # Safety
+    ///
+    /// See [`GlobalAlloc::alloc`].
+    unsafe fn alloc(&self, layout: Layout) -> *mut u8;
+
+    /// Deallocates the memory at `ptr`, allocated with `layout`.
+    ///
+    /// # Safety
+    ///
+    /// See [`GlobalAlloc::dealloc`].
+    unsafe fn dealloc(&self, ptr: *mut u8, layout: Layout);
+
+    /// Like [`alloc`](Allocator::alloc), but the memory is zeroed.
+    ///
+    /// # Safety
+    ///
+    /// See [`GlobalAlloc::alloc_zeroed`].
+    unsafe fn alloc_zeroed(&self, layout: Layout) -> *mut u8 {
+        let ptr = self.alloc(layout);
+        if !ptr.is_null() {
+            ptr::write_bytes(ptr, 0, layout.size());
+        }
+        ptr
+    }
+
+    /// Shrinks or grows the memory at `ptr`, allocated with `layout`, to `new_size`
+    /// bytes, returning a null pointer, and leaving the memory unchanged, on failure.
+    ///
+    /// # Safety
+    ///
+    /// See [`GlobalAlloc::realloc`].
+    unsafe fn realloc(&self, ptr: *mut u8, layout: Layout, new_size: usize) -> *mut u8 {
+        let new_layout = Layout::from_size_align_unchecked(new_size, layout.align());
+        let new_ptr = self.alloc(new_layout);
+        if !new_ptr.is_null() {
+            ptr::copy_nonoverlapping(ptr, new_ptr, layout.size().min(new_size));
+            self.dealloc(ptr, layout);
+        }
+        new_ptr
+    }
+}
+
+/// An [`Allocator`] backed by the system allocator, that aligns the memory it
+/// allocates to a configurable alignment.
+///
+/// Aligning large buffers to the size of a huge page (e.g. 2 MiB on x86_64) allows
+/// the transparent huge pages of Linux to back them, which reduces TLB misses of
+/// large sort and join buffers.
+#[derive(Debug, Clone, Copy, PartialEq, Eq)]
+pub struct SystemAllocator {
+    alignment: usize,
+}
+
+impl Default for SystemAllocator {
+    fn default() -> Self {
+        Self::new()
+    }
+}
+
+impl SystemAllocator {
+    /// Creates an allocator that aligns memory to [`ALIGNMENT`].
+    pub fn new() -> Self {
+        Self {
+            alignment: ALIGNMENT,
+        }
+    }
+
+    /// Creates an allocator that aligns memory to `alignment` bytes, or to
+    /// [`ALIGNMENT`] if that is larger.
+    ///
+    /// # Panics
+    ///
+    /// Panics if `alignment` is not a power of two.
+    pub fn with_alignment(alignment: usize) -> Self {
+        assert!(
+            alignment.is_power_of_two(),
+            "alignment must be a power of two, got {}",
+            alignment
+        );
+        Self {
+            alignment: alignment.max(ALIGNMENT),
+        }
+    }
+
+    /// Returns the alignment of the memory allocated by this allocator.
+    pub fn alignment(&self) -> usize {
+        self.alignment
+    }
+
+    #[inline]
+    unsafe fn layout(&self, layout: Layout) -> Layout {
+        Layout::from_size_align_unchecked(layout.size(), layout.align().max(self.alignment))
+    }
+}
+
+unsafe impl Allocator for SystemAllocator {
+    unsafe fn alloc(&self, layout: Layout) -> *mut u8 {
+        System.alloc(self.layout(layout))
+    }
+
+    unsafe fn dealloc(&self, ptr: *mut u8, layout: Layout) {
+        System.dealloc(ptr, self.layout(layout))
+    }
+
+    unsafe fn alloc_zeroed(&self, layout: Layout) -> *mut u8 {
+        System.alloc_zeroed(self.layout(layout))
+    }
+
+    unsafe fn realloc(&self, ptr: *mut u8, layout: Layout, new_size: usize) -> *mut u8 {
+        System.realloc(ptr, self.layout(layout), new_size)
+    }
+}
+
+// Whether `GLOBAL_ALLOCATOR` is set, so that buffers are created without taking its
+// lock while no global allocator is used.
+static GLOBAL_ALLOCATOR_SET: AtomicBool = AtomicBool::new(false);
+
+lazy_static! {
+    static ref GLOBAL_ALLOCATOR: RwLock<Option<Arc<dyn Allocator>>> = RwLock::new(None);
+}
+
+thread_local! {
+    static SCOPED_ALLOCATORS: RefCell<Vec<Arc<dyn Allocator>>> = RefCell::new(Vec::new());
+}
+
+/// Sets the allocator of the buffers created outside of any [`with_allocator`] scope,
+/// or removes it if `allocator` is `None`, and returns the previous one.
+///
+/// This does not affect Rust's `#[global_allocator]`, and buffers that already exist
+/// are still freed by the allocator they were allocated from.
+pub fn set_global_allocator(
+    allocator: Option<Arc<dyn Allocator>>,
+) -> Option<Arc<dyn Allocator>> {
+    let mut global = GLOBAL_ALLOCATOR
+        .write()
+        .unwrap_or_else(|poisoned| poisoned.into_inner());
+    GLOBAL_ALLOCATOR_SET.store(allocator.is_some(), Ordering::Release);
+    std::mem::replace(&mut *global, allocator)
+}
+
+/// Returns the allocator set with [`set_global_allocator`], if any.
+pub fn global_allocator() -> Option<Arc<dyn Allocator>> {
+    if !GLOBAL_ALLOCATOR_SET.load(Ordering::Acquire) {
+        return None;
+    }
+    GLOBAL_ALLOCATOR
+        .read()
+        .unwrap_or_else(|poisoned| poisoned.into_inner())
+        .clone()
+}
+
+/// Calls `f` with `allocator` as the allocator of the buffers created by `f` on the
+/// current thread.
+///
+/// Scopes nest, and the buffers created by other threads, including threads spawned
+/// by `f`, are not affected.
+pub fn with_allocator<R, F: FnOnce() -> R>(allocator: Arc<dyn Allocator>, f: F) -> R {
+    // Pops the allocator even if `f` panics
+    struct Scope;
+
+    impl Drop for Scope {
+        fn drop(&mut self) {
+            SCOPED_ALLOCATORS.with(|allocators| allocators.borrow_mut().pop());
+        }
+    }
+
+    SCOPED_ALLOCATORS.with(|allocators| allocators.borrow_mut().push(allocator));
+    let _scope = Scope;
+    f()
+}
+
+/// Returns the allocator that buffers created now on the current thread are allocated
+/// from, or `None` if they use Rust's global allocator.
+pub fn current_allocator() -> Option<Arc<dyn Allocator>> {
+    SCOPED_ALLOCATORS
+        .with(|allocators| allocators.borrow().last().cloned())
+        .or_else(global_allocator)
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    #[test]
+    fn test_system_allocator() {
+        let allocator = SystemAllocator::with_alignment(4096);
+        assert_eq!(allocator.alignment(), 4096);
+        assert_eq!(SystemAllocator::with_alignment(1).alignment(), ALIGNMENT);
+
+        unsafe {
+            let layout = Layout::from_size_align_unchecked(100, ALIGNMENT);
+            let ptr = allocator.alloc_zeroed(layout);
+            assert_eq!(ptr as usize % 4096, 0);
+            assert!(std::slice::from_raw_parts(ptr, 100).iter().all(|b| *b == 0));
+
+            ptr::write_bytes(ptr, 1, 100);
+            let ptr = allocator.realloc(ptr, layout, 10000);
+            assert_eq!(ptr as usize % 4096, 0);
+            assert!(std::slice::from_raw_parts(ptr, 100).iter().all(|b| *b == 1));
+            allocator.dealloc(ptr, Layout::from_size_align_unchecked(10000, ALIGNMENT));
+        }
+    }
+
+    #[test]
+    #[should_panic(expected = "alignment must be a power of two")]
+    fn test_system_allocator_alignment() {
+        SystemAllocator::with_alignment(100);
+    }
+
+    #[test]
+    fn test_scoped_allocators() {
+        let allocator: Arc<dyn Allocator> = Arc::new(SystemAllocator::new());
+        assert!(SCOPED_ALLOCATORS.with(|allocators| allocators.borrow().is_empty()));
+        with_allocator(allocator.clone(), || {
+            assert!(Arc::ptr_eq(&current_allocator().unwrap(), &allocator));
+        });
+        assert!(SCOPED_ALLOCATORS.with(|allocators| allocators.borrow().is_empty()));
+    }
+}
@@ -26,9 +26,19 @@ use std::{
 };
 
 mod alignment;
+mod allocator;
+mod pool;
 mod types;
 
 pub use alignment::ALIGNMENT;
+pub use allocator::{
+    current_allocator, global_allocator, set_global_allocator, with_allocator,
+    Allocator, SystemAllocator,
+};
+pub use pool::{
+    current_memory_pool, global_memory_pool, set_global_memory_pool, with_memory_pool,
+    MemoryPool, TrackingMemoryPool,
+};
 pub use types::NativeType;
 
 // If this number is not zero after all objects have been `drop`, there is a memory leak
@@ -134,3 +144,83 @@ pub unsafe fn reallocate<T: NativeType>(
         handle_alloc_error(Layout::from_size_align_unchecked(new_size, ALIGNMENT))
     })
 }
+
+/// Allocates a memory region of `size` bytes from `allocator`, zeroed if `zeroed` is set,
+/// like [allocate_aligned] and [allocate_aligned_zeroed] do from Rust's global allocator.
+pub fn allocate_aligned_in(
+    allocator: &dyn Allocator,
+    size: usize,
+    zeroed: bool,
+) -> NonNull<u8> {
+    unsafe {
+        if size == 0 {
+            null_pointer()
+        } else {
+            ALLOCATIONS.fetch_add(size as isize, std::sync::atomic::Ordering::SeqCst);
+
+            let layout = Layout::from_size_align_unchecked(size, ALIGNMENT);
+            let raw_ptr = if zeroed {
+                allocator.alloc_zeroed(layout)
+            } else {
+                allocator.alloc(layout)
+            };
+            NonNull::new(raw_ptr).unwrap_or_else(|| handle_alloc_error(layout))
+        }
+    }
+}
+
+/// # Safety
+///
+/// This function is unsafe because undefined behavior can result if the caller does not ensure all
+/// of the following:
+///
+/// * ptr must denote a block of memory currently allocated via [allocate_aligned_in] from `allocator`,
+///
+/// * size must be the same size that was used to allocate that block of memory,
+pub unsafe fn free_aligned_in(allocator: &dyn Allocator, ptr: NonNull<u8>, size: usize) {
+    if ptr != null_pointer() {
+        ALLOCATIONS.fetch_sub(size as isize, std::sync::atomic::Ordering::SeqCst);
+        allocator.dealloc(
+            ptr.as_ptr(),
+            Layout::from_size_align_unchecked(size, ALIGNMENT),
+        );
+    }
+}
+
+/// # Safety
+///
+/// This function is unsafe because undefined behavior can result if the caller does not ensure all
+/// of the following:
+///
+/// * ptr must be currently allocated via [allocate_aligned_in] from `allocator`,
+///
+/// * new_size, when rounded up to the nearest multiple of [ALIGNMENT], must not overflow (i.e.,
+/// the rounded value must be less than usize::MAX).
+pub unsafe fn reallocate_in(
+    allocator: &dyn Allocator,
+    ptr: NonNull<u8>,
+    old_size: usize,
+    new_size: usize,
+) -> NonNull<u8> {
+    if ptr == null_pointer() {
+        return allocate_aligned_in(allocator, new_size, false);
+    }
+
+    if new_size == 0 {
+        free_aligned_in(allocator, ptr, old_size);
+        return null_pointer();
+    }
+
+    ALLOCATIONS.fetch_add(
+        new_size as isize - old_size as isize,
+        std::sync::atomic::Ordering::SeqCst,
+    );
+    let raw_ptr = allocator.realloc(
+        ptr.as_ptr(),
+        Layout::from_size_align_unchecked(old_size, ALIGNMENT),
+        new_size,
+    );
+    NonNull::new(raw_ptr).unwrap_or_else(|| {
+        handle_alloc_error(Layout::from_size_align_unchecked(new_size, ALIGNMENT))
+    })
+}
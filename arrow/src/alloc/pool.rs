@@ -0,0 +1,273 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+//! Defines [`MemoryPool`], which accounts for the memory allocated by
+//! [`MutableBuffer`](crate::buffer::MutableBuffer)s and the [`Buffer`](crate::buffer::Buffer)s
+//! created from them.
+//!
+//! A buffer reports to the pool that is current when it is created: the pool of the
+//! innermost [`with_memory_pool`] scope of the thread, or else the global pool set with
+//! [`set_global_memory_pool`]. Buffers created while no pool is set are not accounted
+//! for.
+//!
+//! # Example
+//! ```
+//! use std::sync::Arc;
+//! use arrow::alloc::{with_memory_pool, MemoryPool, TrackingMemoryPool};
+//! use arrow::buffer::MutableBuffer;
+//!
+//! let pool = Arc::new(TrackingMemoryPool::with_limit(1024));
+//! let buffer = with_memory_pool(pool.clone(), || {
+//!     let mut buffer = MutableBuffer::new(512);
+//!     // fails instead of growing the buffer beyond the limit of the pool
+//!     assert!(buffer.try_reserve(2048).is_err());
+//!     buffer
+//! });
+//! assert_eq!(pool.reserved(), 512);
+//! drop(buffer);
+//! assert_eq!(pool.reserved(), 0);
+//! ```
+
+use std::cell::RefCell;
+use std::fmt::Debug;
+use std::panic::RefUnwindSafe;
+use std::sync::atomic::{AtomicBool, AtomicUsize, Ordering};
+use std::sync::{Arc, RwLock};
+
+use lazy_static::lazy_static;
+
+use crate::error::{ArrowError, Result};
+
+/// A thread-safe account of allocated memory, optionally with a limit.
+///
+/// Buffers [`grow`](MemoryPool::grow) the pool by the number of bytes they allocate
+/// and [`shrink`](MemoryPool::shrink) it by the number of bytes they free, so that
+/// [`reserved`](MemoryPool::reserved) is the number of live bytes of all buffers of the
+/// pool. Only fallible allocations, such as
+/// [`MutableBuffer::try_reserve`](crate::buffer::MutableBuffer::try_reserve), use
+/// [`try_grow`](MemoryPool::try_grow) and thus respect the limit of the pool.
+pub trait MemoryPool: Debug + RefUnwindSafe + Send + Sync {
+    /// Records that `size` bytes were allocated, regardless of the limit of the pool.
+    fn grow(&self, size: usize);
+
+    /// Records that `size` bytes are about to be allocated, or returns
+    /// [`ArrowError::MemoryError`] without recording anything if that would exceed
+    /// the limit of the pool.
+    fn try_grow(&self, size: usize) -> Result<()>;
+
+    /// Records that `size` bytes, previously recorded as allocated, were freed.
+    fn shrink(&self, size: usize);
+
+    /// Returns the number of bytes currently allocated from this pool.
+    fn reserved(&self) -> usize;
+
+    /// Returns the maximum number of bytes that can be reserved with
+    /// [`try_grow`](MemoryPool::try_grow), if any.
+    fn limit(&self) -> Option<usize> {
+        None
+    }
+}
+
+/// A [`MemoryPool`] that counts the reserved bytes with atomics, and records their peak.
+#[derive(Debug, Default)]
+pub struct TrackingMemoryPool {
+    limit: Option<usize>,
+    reserved: AtomicUsize,
+    peak: AtomicUsize,
+}
+
+impl TrackingMemoryPool {
+    /// Creates a pool without a limit.
+    pub fn new() -> Self {
+        Self::default()
+    }
+
+    /// Creates a pool that can reserve at most `limit` bytes with
+    /// [`try_grow`](MemoryPool::try_grow).
+    pub fn with_limit(limit: usize) -> Self {
+        Self {
+            limit: Some(limit),
+            ..Self::default()
+        }
+    }
+
+    /// Returns the largest number of bytes that were reserved at once.
+    pub fn peak(&self) -> usize {
+        self.peak.load(Ordering::Relaxed)
+    }
+}
+
+impl MemoryPool for TrackingMemoryPool {
+    fn grow(&self, size: usize) {
+        let reserved = self.reserved.fetch_add(size, Ordering::Relaxed) + size;
+        self.peak.fetch_max(reserved, Ordering::Relaxed);
+    }
+
+    fn try_grow(&self, size: usize) -> Result<()> {
+        let limit = self.limit.unwrap_or(usize::MAX);
+        let mut current = self.reserved.load(Ordering::Relaxed);
+        loop {
+            let new = match current.checked_add(size) {
+                Some(new) if new <= limit => new,
+                _ => {
+                    return Err(ArrowError::MemoryError(format!(
+                        "Failed to reserve {} bytes: {} of {} bytes reserved",
+                        size, current, limit
+                    )))
+                }
+            };
+            match self.reserved.compare_exchange_weak(
+                current,
+                new,
+                Ordering::Relaxed,
+                Ordering::Relaxed,
+            ) {
+                Ok(_) => {
+                    self.peak.fetch_max(new, Ordering::Relaxed);
+                    return Ok(());
+                }
+                Err(actual) => current = actual,
+            }
+        }
+    }
+
+    fn shrink(&self, size: usize) {
+        self.reserved.fetch_sub(size, Ordering::Relaxed);
+    }
+
+    fn reserved(&self) -> usize {
+        self.reserved.load(Ordering::Relaxed)
+    }
+
+    fn limit(&self) -> Option<usize> {
+        self.limit
+    }
+}
+
+// Whether `GLOBAL_POOL` is set, so that buffers are created without taking its lock
+// while no global pool is used.
+static GLOBAL_POOL_SET: AtomicBool = AtomicBool::new(false);
+
+lazy_static! {
+    static ref GLOBAL_POOL: RwLock<Option<Arc<dyn MemoryPool>>> = RwLock::new(None);
+}
+
+thread_local! {
+    static SCOPED_POOLS: RefCell<Vec<Arc<dyn MemoryPool>>> = RefCell::new(Vec::new());
+}
+
+/// Sets the pool of the buffers created outside of any [`with_memory_pool`] scope,
+/// or removes it if `pool` is `None`, and returns the previous one.
+///
+/// Buffers that already exist keep reporting to the pool they were created with.
+pub fn set_global_memory_pool(
+    pool: Option<Arc<dyn MemoryPool>>,
+) -> Option<Arc<dyn MemoryPool>> {
+    let mut global = GLOBAL_POOL
+        .write()
+        .unwrap_or_else(|poisoned| poisoned.into_inner());
+    GLOBAL_POOL_SET.store(pool.is_some(), Ordering::Release);
+    std::mem::replace(&mut *global, pool)
+}
+
+/// Returns the pool set with [`set_global_memory_pool`], if any.
+pub fn global_memory_pool() -> Option<Arc<dyn MemoryPool>> {
+    if !GLOBAL_POOL_SET.load(Ordering::Acquire) {
+        return None;
+    }
+    GLOBAL_POOL
+        .read()
+        .unwrap_or_else(|poisoned| poisoned.into_inner())
+        .clone()
+}
+
+/// Calls `f` with `pool` as the pool of the buffers created by `f` on the current
+/// thread, e.g. to account for the memory of a query separately from the others.
+///
+/// Scopes nest, and the buffers created by other threads, including threads spawned
+/// by `f`, are not affected.
+pub fn with_memory_pool<R, F: FnOnce() -> R>(pool: Arc<dyn MemoryPool>, f: F) -> R {
+    // Pops the pool even if `f` panics
+    struct Scope;
+
+    impl Drop for Scope {
+        fn drop(&mut self) {
+            SCOPED_POOLS.with(|pools| pools.borrow_mut().pop());
+        }
+    }
+
+    SCOPED_POOLS.with(|pools| pools.borrow_mut().push(pool));
+    let _scope = Scope;
+    f()
+}
+
+/// Returns the pool that buffers created now on the current thread report to.
+pub fn current_memory_pool() -> Option<Arc<dyn MemoryPool>> {
+    SCOPED_POOLS
+        .with(|pools| pools.borrow().last().cloned())
+        .or_else(global_memory_pool)
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    #[test]
+    fn test_tracking_pool() {
+        let pool = TrackingMemoryPool::with_limit(100);
+        assert_eq!(pool.limit(), Some(100));
+
+        pool.try_grow(60).unwrap();
+        let err = pool.try_grow(50).unwrap_err();
+        assert!(matches!(err, ArrowError::MemoryError(_)));
+        assert_eq!(pool.reserved(), 60);
+
+        // growing is infallible
+        pool.grow(50);
+        assert_eq!(pool.reserved(), 110);
+        pool.shrink(100);
+        pool.try_grow(90).unwrap();
+        assert_eq!(pool.reserved(), 100);
+        assert_eq!(pool.peak(), 110);
+
+        let pool = TrackingMemoryPool::new();
+        assert_eq!(pool.limit(), None);
+        pool.try_grow(usize::MAX).unwrap();
+        assert!(pool.try_grow(1).is_err());
+    }
+
+    #[test]
+    fn test_scoped_pools() {
+        let outer: Arc<dyn MemoryPool> = Arc::new(TrackingMemoryPool::new());
+        let inner: Arc<dyn MemoryPool> = Arc::new(TrackingMemoryPool::new());
+
+        with_memory_pool(outer.clone(), || {
+            assert!(Arc::ptr_eq(&current_memory_pool().unwrap(), &outer));
+            with_memory_pool(inner.clone(), || {
+                assert!(Arc::ptr_eq(&current_memory_pool().unwrap(), &inner));
+                // other threads are not affected
+                std::thread::spawn(|| {
+                    assert!(SCOPED_POOLS.with(|pools| pools.borrow().is_empty()))
+                })
+                .join()
+                .unwrap();
+            });
+            assert!(Arc::ptr_eq(&current_memory_pool().unwrap(), &outer));
+        });
+        assert!(SCOPED_POOLS.with(|pools| pools.borrow().is_empty()));
+    }
+}
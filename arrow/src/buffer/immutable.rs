@@ -23,7 +23,7 @@ use std::{convert::AsRef, usize};
 
 use crate::util::bit_chunk_iterator::BitChunks;
 use crate::{
-    bytes::{Bytes, Deallocation},
+    bytes::{Allocation, Bytes, Deallocation},
     datatypes::ArrowNativeType,
     ffi,
 };
@@ -33,22 +33,33 @@ use super::MutableBuffer;
 
 /// Buffer represents a contiguous memory region that can be shared with other buffers and across
 /// thread boundaries.
-#[derive(Clone, PartialEq, Debug)]
+#[derive(Clone, Debug)]
 pub struct Buffer {
     /// the internal byte buffer.
     data: Arc<Bytes>,
 
     /// The offset into the buffer.
     offset: usize,
+
+    /// The length of the buffer, in bytes, starting at `offset`.
+    length: usize,
+}
+
+impl PartialEq for Buffer {
+    fn eq(&self, other: &Self) -> bool {
+        self.as_slice() == other.as_slice()
+    }
 }
 
 impl Buffer {
     /// Auxiliary method to create a new Buffer
     #[inline]
     pub fn from_bytes(bytes: Bytes) -> Self {
+        let length = bytes.len();
         Buffer {
             data: Arc::new(bytes),
             offset: 0,
+            length,
         }
     }
 
@@ -100,6 +111,41 @@ impl Buffer {
         Buffer::build_with_arguments(ptr, len, Deallocation::Foreign(data))
     }
 
+    /// Creates a buffer from an existing memory region owned by `owner`, such as a
+    /// memory mapped file. The region is not copied, and `owner` is dropped once this
+    /// buffer and all its slices are dropped.
+    ///
+    /// # Arguments
+    ///
+    /// * `ptr` - Pointer to the start of the region
+    /// * `len` - Length of the region in **bytes**
+    /// * `owner` - The owner of the region
+    ///
+    /// # Safety
+    ///
+    /// This function is unsafe as there is no guarantee that the given pointer is valid
+    /// for `len` bytes, and that the region is neither mutated nor freed while `owner`
+    /// is alive.
+    pub unsafe fn from_custom_allocation(
+        ptr: NonNull<u8>,
+        len: usize,
+        owner: Arc<dyn Allocation>,
+    ) -> Self {
+        Buffer::build_with_arguments(ptr, len, Deallocation::Custom(owner))
+    }
+
+    /// Creates a buffer that takes ownership of `vec`, without copying its bytes.
+    ///
+    /// Unlike buffers allocated by arrow, the bytes are only aligned as the global
+    /// allocator aligns them, and the buffer has no spare capacity.
+    pub fn from_vec(vec: Vec<u8>) -> Self {
+        let len = vec.len();
+        let ptr = NonNull::new(vec.as_ptr() as *mut u8).unwrap();
+        // Safety: the bytes of `vec` are neither mutated nor freed while it is owned
+        // by the buffer, and moving it does not move its bytes
+        unsafe { Buffer::from_custom_allocation(ptr, len, Arc::new(vec)) }
+    }
+
     /// Auxiliary method to create a new Buffer
     unsafe fn build_with_arguments(
         ptr: NonNull<u8>,
@@ -110,12 +156,13 @@ impl Buffer {
         Buffer {
             data: Arc::new(bytes),
             offset: 0,
+            length: len,
         }
     }
 
     /// Returns the number of bytes in the buffer
     pub fn len(&self) -> usize {
-        self.data.len() - self.offset
+        self.length
     }
 
     /// Returns the capacity of this buffer.
@@ -126,12 +173,12 @@ impl Buffer {
 
     /// Returns whether the buffer is empty.
     pub fn is_empty(&self) -> bool {
-        self.data.len() - self.offset == 0
+        self.length == 0
     }
 
     /// Returns the byte slice stored in this buffer
     pub fn as_slice(&self) -> &[u8] {
-        &self.data[self.offset..]
+        &self.data[self.offset..(self.offset + self.length)]
     }
 
     /// Returns a new [Buffer] that is a slice of this buffer starting at `offset`.
@@ -146,6 +193,24 @@ impl Buffer {
         Self {
             data: self.data.clone(),
             offset: self.offset + offset,
+            length: self.length - offset,
+        }
+    }
+
+    /// Returns a new [Buffer] that is a slice of this buffer starting at `offset`,
+    /// with `length` bytes. Doing so allows the same memory region to be shared
+    /// between buffers.
+    /// # Panics
+    /// Panics iff `offset + length` is larger than `len`.
+    pub fn slice_with_length(&self, offset: usize, length: usize) -> Self {
+        assert!(
+            offset.saturating_add(length) <= self.len(),
+            "the offset and length of the new Buffer cannot exceed the existing length"
+        );
+        Self {
+            data: self.data.clone(),
+            offset: self.offset + offset,
+            length,
         }
     }
 
@@ -406,6 +471,64 @@ mod tests {
         assert_eq!(buf2.slice(2).as_slice(), &[10]);
     }
 
+    #[test]
+    fn test_slice_with_length() {
+        let buf = Buffer::from(&[2, 4, 6, 8, 10]);
+        let buf2 = buf.slice_with_length(1, 3);
+
+        assert_eq!([4, 6, 8], buf2.as_slice());
+        assert_eq!(3, buf2.len());
+        assert_eq!(unsafe { buf.as_ptr().offset(1) }, buf2.as_ptr());
+
+        let buf3 = buf2.slice(1);
+        assert_eq!([6, 8], buf3.as_slice());
+        assert_eq!(buf3, Buffer::from(&[6, 8]));
+
+        let buf4 = buf2.slice_with_length(3, 0);
+        assert!(buf4.is_empty());
+    }
+
+    #[test]
+    #[should_panic(
+        expected = "the offset and length of the new Buffer cannot exceed the existing length"
+    )]
+    fn test_slice_with_length_out_of_bound() {
+        let buf = Buffer::from(&[2, 4, 6, 8, 10]);
+        buf.slice(1).slice_with_length(2, 3);
+    }
+
+    #[test]
+    fn test_from_vec() {
+        let vec = vec![1u8, 2, 3, 4, 5];
+        let ptr = vec.as_ptr();
+        let buffer = Buffer::from_vec(vec);
+        assert_eq!([1, 2, 3, 4, 5], buffer.as_slice());
+        assert_eq!(ptr, buffer.as_ptr());
+
+        let empty = Buffer::from_vec(Vec::new());
+        assert!(empty.is_empty());
+    }
+
+    #[test]
+    fn test_from_custom_allocation() {
+        let owner = Arc::new(vec![1u8, 2, 3, 4, 5]);
+        let ptr = NonNull::new(owner.as_ptr() as *mut u8).unwrap();
+        let buffer = unsafe { Buffer::from_custom_allocation(ptr, 5, owner.clone()) };
+
+        assert_eq!([1, 2, 3, 4, 5], buffer.as_slice());
+        assert_eq!(owner.as_ptr(), buffer.as_ptr());
+        assert_eq!(0, buffer.capacity());
+        assert_eq!(2, Arc::strong_count(&owner));
+
+        let sliced = buffer.slice_with_length(1, 2);
+        drop(buffer);
+        assert_eq!([2, 3], sliced.as_slice());
+        assert_eq!(2, Arc::strong_count(&owner));
+
+        drop(sliced);
+        assert_eq!(1, Arc::strong_count(&owner));
+    }
+
     #[test]
     #[should_panic(
         expected = "the offset of the new Buffer cannot exceed the existing length"
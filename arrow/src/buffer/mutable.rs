@@ -1,9 +1,11 @@
 use std::ptr::NonNull;
+use std::sync::Arc;
 
 use crate::{
-    alloc,
+    alloc::{self, Allocator, MemoryPool},
     bytes::{Bytes, Deallocation},
     datatypes::{ArrowNativeType, ToByteSlice},
+    error::{ArrowError, Result},
     util::bit_util,
 };
 
@@ -40,6 +42,11 @@ use super::Buffer;
 /// let buffer: Buffer = buffer.into();
 /// assert_eq!(buffer.as_slice(), &[0u8, 1, 0, 0, 1, 0, 0, 0])
 /// ```
+///
+/// The capacity of a [`MutableBuffer`], and of the [`Buffer`] created from it, is
+/// accounted for in the [`MemoryPool`] that is current when the buffer is created,
+/// see [`alloc::current_memory_pool`], and allocated from the [`Allocator`] that is
+/// current then, see [`alloc::current_allocator`].
 #[derive(Debug)]
 pub struct MutableBuffer {
     // dangling iff capacity = 0
@@ -47,6 +54,10 @@ pub struct MutableBuffer {
     // invariant: len <= capacity
     len: usize,
     capacity: usize,
+    // the allocator that `data` is allocated from, if not Rust's global allocator
+    allocator: Option<Arc<dyn Allocator>>,
+    // the pool that `capacity` is accounted for in
+    pool: Option<Arc<dyn MemoryPool>>,
 }
 
 impl MutableBuffer {
@@ -60,12 +71,61 @@ impl MutableBuffer {
     #[inline]
     pub fn with_capacity(capacity: usize) -> Self {
         let capacity = bit_util::round_upto_multiple_of_64(capacity);
-        let ptr = alloc::allocate_aligned(capacity);
-        Self {
-            data: ptr,
-            len: 0,
-            capacity,
+        let pool = alloc::current_memory_pool();
+        if let Some(pool) = &pool {
+            pool.grow(capacity);
+        }
+        Self::allocate(capacity, false, alloc::current_allocator(), pool)
+    }
+
+    /// Allocate a new [MutableBuffer] from `allocator` with initial capacity to be at
+    /// least `capacity`. The buffer, and the [`Buffer`] created from it, is freed by
+    /// `allocator`.
+    /// # Example
+    /// ```
+    /// # use std::sync::Arc;
+    /// # use arrow::alloc::SystemAllocator;
+    /// # use arrow::buffer::MutableBuffer;
+    /// let allocator = Arc::new(SystemAllocator::with_alignment(4096));
+    /// let mut buffer = MutableBuffer::with_capacity_in(100, allocator);
+    /// buffer.extend_from_slice(&[1u8, 2, 3]);
+    /// assert_eq!(buffer.as_ptr() as usize % 4096, 0);
+    /// ```
+    #[inline]
+    pub fn with_capacity_in(capacity: usize, allocator: Arc<dyn Allocator>) -> Self {
+        let capacity = bit_util::round_upto_multiple_of_64(capacity);
+        let pool = alloc::current_memory_pool();
+        if let Some(pool) = &pool {
+            pool.grow(capacity);
         }
+        Self::allocate(capacity, false, Some(allocator), pool)
+    }
+
+    /// Like [`MutableBuffer::with_capacity`], but returns [`ArrowError::MemoryError`]
+    /// instead of allocating beyond the limit of the current [`MemoryPool`].
+    /// # Example
+    /// ```
+    /// # use std::sync::Arc;
+    /// # use arrow::alloc::{with_memory_pool, TrackingMemoryPool};
+    /// # use arrow::buffer::MutableBuffer;
+    /// let pool = Arc::new(TrackingMemoryPool::with_limit(1024));
+    /// with_memory_pool(pool, || {
+    ///     assert!(MutableBuffer::try_with_capacity(1024).is_ok());
+    ///     assert!(MutableBuffer::try_with_capacity(1025).is_err());
+    /// });
+    /// ```
+    pub fn try_with_capacity(capacity: usize) -> Result<Self> {
+        let capacity = bit_util::round_upto_multiple_of_64(capacity);
+        let pool = alloc::current_memory_pool();
+        if let Some(pool) = &pool {
+            pool.try_grow(capacity)?;
+        }
+        Ok(Self::allocate(
+            capacity,
+            false,
+            alloc::current_allocator(),
+            pool,
+        ))
     }
 
     /// Allocates a new [MutableBuffer] with `len` and capacity to be at least `len` where
@@ -81,11 +141,39 @@ impl MutableBuffer {
     /// ```
     pub fn from_len_zeroed(len: usize) -> Self {
         let new_capacity = bit_util::round_upto_multiple_of_64(len);
-        let ptr = alloc::allocate_aligned_zeroed(new_capacity);
+        let pool = alloc::current_memory_pool();
+        if let Some(pool) = &pool {
+            pool.grow(new_capacity);
+        }
+        let mut buffer =
+            Self::allocate(new_capacity, true, alloc::current_allocator(), pool);
+        buffer.len = len;
+        buffer
+    }
+
+    /// Allocates an empty buffer of `capacity` bytes, a multiple of 64, from
+    /// `allocator`, or from Rust's global allocator. The capacity must already be
+    /// accounted for in `pool`.
+    #[inline]
+    fn allocate(
+        capacity: usize,
+        zeroed: bool,
+        allocator: Option<Arc<dyn Allocator>>,
+        pool: Option<Arc<dyn MemoryPool>>,
+    ) -> Self {
+        let data = match &allocator {
+            Some(allocator) => {
+                alloc::allocate_aligned_in(allocator.as_ref(), capacity, zeroed)
+            }
+            None if zeroed => alloc::allocate_aligned_zeroed(capacity),
+            None => alloc::allocate_aligned(capacity),
+        };
         Self {
-            data: ptr,
-            len,
-            capacity: new_capacity,
+            data,
+            len: 0,
+            capacity,
+            allocator,
+            pool,
         }
     }
 
@@ -146,13 +234,74 @@ impl MutableBuffer {
             //      necessity
             //  Soundness
             //      `self.data` is valid for `self.capacity`.
-            let (ptr, new_capacity) =
-                unsafe { reallocate(self.data, self.capacity, required_cap) };
+            let (ptr, new_capacity) = unsafe {
+                reallocate(
+                    self.allocator.as_deref(),
+                    self.data,
+                    self.capacity,
+                    required_cap,
+                )
+            };
+            if let Some(pool) = &self.pool {
+                pool.grow(new_capacity - self.capacity);
+            }
             self.data = ptr;
             self.capacity = new_capacity;
         }
     }
 
+    /// Like [`MutableBuffer::reserve`], but returns [`ArrowError::MemoryError`] instead
+    /// of growing the buffer beyond the limit of its [`MemoryPool`], in which case the
+    /// buffer is left unchanged.
+    ///
+    /// When doubling the capacity would exceed the limit, the buffer is grown to just
+    /// the required capacity instead.
+    /// # Example
+    /// ```
+    /// # use std::sync::Arc;
+    /// # use arrow::alloc::{with_memory_pool, MemoryPool, TrackingMemoryPool};
+    /// # use arrow::buffer::MutableBuffer;
+    /// let pool = Arc::new(TrackingMemoryPool::with_limit(200));
+    /// let mut buffer = with_memory_pool(pool.clone(), || MutableBuffer::new(128));
+    /// assert!(buffer.try_reserve(192).is_ok());
+    /// assert_eq!(buffer.capacity(), 192);
+    /// assert!(buffer.try_reserve(512).is_err());
+    /// assert_eq!(pool.reserved(), 192);
+    /// ```
+    pub fn try_reserve(&mut self, additional: usize) -> Result<()> {
+        let required_cap = self.len.checked_add(additional).ok_or_else(|| {
+            ArrowError::MemoryError(format!(
+                "Failed to reserve {} additional bytes: capacity overflow",
+                additional
+            ))
+        })?;
+        if required_cap <= self.capacity {
+            return Ok(());
+        }
+        let mut new_capacity = grown_capacity(self.capacity, required_cap);
+        if let Some(pool) = &self.pool {
+            if pool.try_grow(new_capacity - self.capacity).is_err() {
+                new_capacity = bit_util::round_upto_multiple_of_64(required_cap);
+                pool.try_grow(new_capacity - self.capacity)?;
+            }
+        }
+        // JUSTIFICATION
+        //  Benefit
+        //      necessity
+        //  Soundness
+        //      `self.data` is valid for `self.capacity`.
+        self.data = unsafe {
+            reallocate_exact(
+                self.allocator.as_deref(),
+                self.data,
+                self.capacity,
+                new_capacity,
+            )
+        };
+        self.capacity = new_capacity;
+        Ok(())
+    }
+
     /// Resizes the buffer, either truncating its contents (with no change in capacity), or
     /// growing it (potentially reallocating it) and writing `value` in the newly available bytes.
     /// # Example
@@ -199,8 +348,17 @@ impl MutableBuffer {
             //      necessity
             //  Soundness
             //      `self.data` is valid for `self.capacity`.
-            let ptr =
-                unsafe { alloc::reallocate(self.data, self.capacity, new_capacity) };
+            let ptr = unsafe {
+                reallocate_exact(
+                    self.allocator.as_deref(),
+                    self.data,
+                    self.capacity,
+                    new_capacity,
+                )
+            };
+            if let Some(pool) = &self.pool {
+                pool.shrink(self.capacity - new_capacity);
+            }
 
             self.data = ptr;
             self.capacity = new_capacity;
@@ -227,6 +385,20 @@ impl MutableBuffer {
         self.capacity
     }
 
+    /// Returns the [`MemoryPool`] that the capacity of this buffer is accounted for in,
+    /// if any.
+    #[inline]
+    pub fn memory_pool(&self) -> Option<&Arc<dyn MemoryPool>> {
+        self.pool.as_ref()
+    }
+
+    /// Returns the [`Allocator`] that this buffer is allocated from, or `None` if it
+    /// is allocated from Rust's global allocator.
+    #[inline]
+    pub fn allocator(&self) -> Option<&Arc<dyn Allocator>> {
+        self.allocator.as_ref()
+    }
+
     /// Clear all existing data from this buffer.
     pub fn clear(&mut self) {
         self.len = 0
@@ -266,10 +438,13 @@ impl MutableBuffer {
     }
 
     #[inline]
-    pub(super) fn into_buffer(self) -> Buffer {
-        let bytes = unsafe {
-            Bytes::new(self.data, self.len, Deallocation::Native(self.capacity))
+    pub(super) fn into_buffer(mut self) -> Buffer {
+        let deallocation = match self.allocator.take() {
+            Some(allocator) => Deallocation::Allocator(self.capacity, allocator),
+            None => Deallocation::Native(self.capacity),
         };
+        let bytes = unsafe { Bytes::new(self.data, self.len, deallocation) }
+            .with_memory_pool(self.pool.take());
         std::mem::forget(self);
         Buffer::from_bytes(bytes)
     }
@@ -353,19 +528,46 @@ impl MutableBuffer {
 }
 
 /// # Safety
-/// `ptr` must be allocated for `old_capacity`.
+/// `ptr` must be allocated for `old_capacity` from `allocator`.
 #[inline]
 unsafe fn reallocate(
+    allocator: Option<&dyn Allocator>,
     ptr: NonNull<u8>,
     old_capacity: usize,
     new_capacity: usize,
 ) -> (NonNull<u8>, usize) {
-    let new_capacity = bit_util::round_upto_multiple_of_64(new_capacity);
-    let new_capacity = std::cmp::max(new_capacity, old_capacity * 2);
-    let ptr = alloc::reallocate(ptr, old_capacity, new_capacity);
+    let new_capacity = grown_capacity(old_capacity, new_capacity);
+    let ptr = reallocate_exact(allocator, ptr, old_capacity, new_capacity);
     (ptr, new_capacity)
 }
 
+/// Reallocates `ptr` to exactly `new_capacity` bytes from `allocator`, or from Rust's
+/// global allocator.
+/// # Safety
+/// `ptr` must be allocated for `old_capacity` from `allocator`.
+#[inline]
+unsafe fn reallocate_exact(
+    allocator: Option<&dyn Allocator>,
+    ptr: NonNull<u8>,
+    old_capacity: usize,
+    new_capacity: usize,
+) -> NonNull<u8> {
+    match allocator {
+        Some(allocator) => {
+            alloc::reallocate_in(allocator, ptr, old_capacity, new_capacity)
+        }
+        None => alloc::reallocate(ptr, old_capacity, new_capacity),
+    }
+}
+
+/// Returns the capacity that a buffer of `old_capacity` grows to in order to hold at
+/// least `required_capacity` bytes.
+#[inline]
+fn grown_capacity(old_capacity: usize, required_capacity: usize) -> usize {
+    let new_capacity = bit_util::round_upto_multiple_of_64(required_capacity);
+    std::cmp::max(new_capacity, old_capacity * 2)
+}
+
 impl<A: ArrowNativeType> Extend<A> for MutableBuffer {
     #[inline]
     fn extend<T: IntoIterator<Item = A>>(&mut self, iter: T) {
@@ -556,7 +758,15 @@ impl std::ops::DerefMut for MutableBuffer {
 
 impl Drop for MutableBuffer {
     fn drop(&mut self) {
-        unsafe { alloc::free_aligned(self.data, self.capacity) };
+        match &self.allocator {
+            Some(allocator) => unsafe {
+                alloc::free_aligned_in(allocator.as_ref(), self.data, self.capacity)
+            },
+            None => unsafe { alloc::free_aligned(self.data, self.capacity) },
+        }
+        if let Some(pool) = &self.pool {
+            pool.shrink(self.capacity);
+        }
     }
 }
 
@@ -788,4 +998,72 @@ mod tests {
         buffer.shrink_to_fit();
         assert!(buffer.capacity() >= 64 && buffer.capacity() < 128);
     }
+
+    #[test]
+    fn test_mutable_memory_pool() {
+        let pool = Arc::new(alloc::TrackingMemoryPool::with_limit(1024));
+        let mut buffer =
+            alloc::with_memory_pool(pool.clone(), || MutableBuffer::new(100));
+        assert!(buffer.memory_pool().is_some());
+        assert_eq!(pool.reserved(), 128);
+
+        // infallible growth is accounted for beyond the limit
+        buffer.resize(2000, 1);
+        assert_eq!(pool.reserved(), buffer.capacity());
+        assert!(buffer.try_reserve(2048).is_err());
+        assert_eq!(pool.reserved(), buffer.capacity());
+
+        buffer.resize(100, 0);
+        buffer.shrink_to_fit();
+        assert_eq!(pool.reserved(), 128);
+
+        // the accounting is handed over to the immutable buffer
+        let immutable: Buffer = buffer.into();
+        let slice = immutable.slice(64);
+        drop(immutable);
+        assert_eq!(pool.reserved(), 128);
+        drop(slice);
+        assert_eq!(pool.reserved(), 0);
+        assert_eq!(pool.peak(), 2048);
+
+        let zeroed = alloc::with_memory_pool(pool.clone(), || {
+            MutableBuffer::from_len_zeroed(1000)
+        });
+        assert_eq!(pool.reserved(), 1024);
+        let result =
+            alloc::with_memory_pool(pool.clone(), || MutableBuffer::try_with_capacity(1));
+        assert!(result.is_err());
+        drop(zeroed);
+        assert_eq!(pool.reserved(), 0);
+
+        // buffers created outside of the scope are not accounted for
+        assert!(MutableBuffer::new(64).memory_pool().is_none());
+    }
+
+    #[test]
+    fn test_mutable_allocator() {
+        let allocator = Arc::new(alloc::SystemAllocator::with_alignment(4096));
+        let mut buffer = MutableBuffer::with_capacity_in(10, allocator.clone());
+        assert_eq!(buffer.capacity(), 64);
+        assert!(buffer.allocator().is_some());
+
+        // reallocations keep the alignment of the allocator
+        buffer.extend_from_slice(&[7u8; 10000]);
+        assert_eq!(buffer.as_ptr() as usize % 4096, 0);
+        buffer.resize(10, 0);
+        buffer.shrink_to_fit();
+        assert_eq!(buffer.as_ptr() as usize % 4096, 0);
+
+        let immutable: Buffer = buffer.into();
+        assert_eq!(immutable.as_slice(), &[7u8; 10]);
+        assert_eq!(immutable.capacity(), 64);
+
+        let zeroed =
+            alloc::with_allocator(allocator, || MutableBuffer::from_len_zeroed(100));
+        assert!(zeroed.allocator().is_some());
+        assert_eq!(zeroed.as_ptr() as usize % 4096, 0);
+        assert_eq!(zeroed.as_slice(), &[0u8; 100]);
+
+        assert!(MutableBuffer::new(64).allocator().is_none());
+    }
 }
@@ -20,18 +20,32 @@
 //! Note that this is a low-level functionality of this crate.
 
 use core::slice;
+use std::panic::RefUnwindSafe;
 use std::ptr::NonNull;
 use std::sync::Arc;
 use std::{fmt::Debug, fmt::Formatter};
 
-use crate::{alloc, ffi};
+use crate::alloc::{self, Allocator, MemoryPool};
+use crate::ffi;
+
+/// The owner of a memory region that is not allocated by arrow, such as a memory
+/// mapped file, which frees the region when it is dropped.
+pub trait Allocation: RefUnwindSafe + Send + Sync {}
+
+impl<T: RefUnwindSafe + Send + Sync> Allocation for T {}
 
 /// Mode of deallocating memory regions
 pub enum Deallocation {
     /// Native deallocation, using Rust deallocator with Arrow-specific memory aligment
     Native(usize),
+    /// Deallocation of a region of the given capacity, with the [`Allocator`] that it
+    /// was allocated from
+    Allocator(usize, Arc<dyn Allocator>),
     /// Foreign interface, via a callback
     Foreign(Arc<ffi::FFI_ArrowArray>),
+    /// Memory owned by a custom [`Allocation`], freed when its last reference is
+    /// dropped
+    Custom(Arc<dyn Allocation>),
 }
 
 impl Debug for Deallocation {
@@ -40,9 +54,17 @@ impl Debug for Deallocation {
             Deallocation::Native(capacity) => {
                 write!(f, "Deallocation::Native {{ capacity: {} }}", capacity)
             }
+            Deallocation::Allocator(capacity, allocator) => write!(
+                f,
+                "Deallocation::Allocator {{ capacity: {}, allocator: {:?} }}",
+                capacity, allocator
+            ),
             Deallocation::Foreign(_) => {
                 write!(f, "Deallocation::Foreign {{ capacity: unknown }}")
             }
+            Deallocation::Custom(_) => {
+                write!(f, "Deallocation::Custom {{ capacity: unknown }}")
+            }
         }
     }
 }
@@ -64,6 +86,9 @@ pub struct Bytes {
 
     /// how to deallocate this region
     deallocation: Deallocation,
+
+    /// The pool that the capacity of a region allocated by arrow is accounted for in
+    pool: Option<Arc<dyn MemoryPool>>,
 }
 
 impl Bytes {
@@ -89,9 +114,18 @@ impl Bytes {
             ptr,
             len,
             deallocation,
+            pool: None,
         }
     }
 
+    /// Sets the pool that the capacity of this region is accounted for in, and that is
+    /// shrunk by it when this region is deallocated.
+    #[inline]
+    pub(crate) fn with_memory_pool(mut self, pool: Option<Arc<dyn MemoryPool>>) -> Self {
+        self.pool = pool;
+        self
+    }
+
     fn as_slice(&self) -> &[u8] {
         self
     }
@@ -113,10 +147,12 @@ impl Bytes {
 
     pub fn capacity(&self) -> usize {
         match self.deallocation {
-            Deallocation::Native(capacity) => capacity,
+            Deallocation::Native(capacity) | Deallocation::Allocator(capacity, _) => {
+                capacity
+            }
             // we cannot determine this in general,
             // and thus we state that this is externally-owned memory
-            Deallocation::Foreign(_) => 0,
+            Deallocation::Foreign(_) | Deallocation::Custom(_) => 0,
         }
     }
 }
@@ -127,9 +163,22 @@ impl Drop for Bytes {
         match &self.deallocation {
             Deallocation::Native(capacity) => {
                 unsafe { alloc::free_aligned::<u8>(self.ptr, *capacity) };
+                if let Some(pool) = &self.pool {
+                    pool.shrink(*capacity);
+                }
+            }
+            Deallocation::Allocator(capacity, allocator) => {
+                unsafe {
+                    alloc::free_aligned_in(allocator.as_ref(), self.ptr, *capacity)
+                };
+                if let Some(pool) = &self.pool {
+                    pool.shrink(*capacity);
+                }
             }
             // foreign interface knows how to deallocate itself.
             Deallocation::Foreign(_) => (),
+            // the allocation is freed when its last reference is dropped.
+            Deallocation::Custom(_) => (),
         }
     }
 }
@@ -0,0 +1,634 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+//! Defines kernels that compute 64-bit hashes of the values of arrays, e.g. to
+//! partition or aggregate rows by hash.
+//!
+//! The hashes are not stable across versions of this crate, and must not be persisted.
+//!
+//! # Example
+//! ```
+//! # use std::sync::Arc;
+//! # use arrow::array::{ArrayRef, Int32Array, StringArray};
+//! # use arrow::compute::kernels::hash::{combine_hashes, hash, hash_columns};
+//! let ids: ArrayRef = Arc::new(Int32Array::from(vec![Some(1), None, Some(1)]));
+//! let names: ArrayRef = Arc::new(StringArray::from(vec!["a", "b", "a"]));
+//!
+//! // the hashes of the rows of both columns, e.g. of a record batch
+//! let hashes = hash_columns(&[ids.clone(), names.clone()], 0).unwrap();
+//! assert_eq!(hashes.value(0), hashes.value(2));
+//!
+//! // the same, combining the hashes of the columns in place
+//! let mut combined = hash(ids.as_ref(), 0).unwrap().values().to_vec();
+//! combine_hashes(names.as_ref(), &mut combined).unwrap();
+//! assert_eq!(hashes.values(), combined.as_slice());
+//! ```
+
+use std::convert::TryInto;
+
+use crate::array::*;
+use crate::datatypes::*;
+use crate::error::{ArrowError, Result};
+
+/// Multiplier of [`combine`], from the PCG family of random number generators
+const MULTIPLE: u64 = 6364136223846793005;
+
+/// The value hash of null values
+const NULL_HASH: u64 = 0x9E37_79B9_7F4A_7C15;
+
+/// The initial state of the hashes of byte slices, lists and structs
+const NESTED_SEED: u64 = 0x2D35_8DCC_AA6C_78A5;
+
+/// Mixes `value` into `hash`. The low bits of the result depend on all bits of both.
+#[inline]
+fn combine(hash: u64, value: u64) -> u64 {
+    let full = (hash ^ value) as u128 * MULTIPLE as u128;
+    (full as u64) ^ ((full >> 64) as u64)
+}
+
+#[inline]
+fn hash_bytes(bytes: &[u8]) -> u64 {
+    let mut hash = combine(NESTED_SEED, bytes.len() as u64);
+    let mut chunks = bytes.chunks_exact(8);
+    for chunk in &mut chunks {
+        hash = combine(hash, u64::from_le_bytes(chunk.try_into().unwrap()));
+    }
+    let remainder = chunks.remainder();
+    if !remainder.is_empty() {
+        let mut last = [0u8; 8];
+        last[..remainder.len()].copy_from_slice(remainder);
+        hash = combine(hash, u64::from_le_bytes(last));
+    }
+    hash
+}
+
+/// A native value that is hashed by its 64-bit representation.
+trait HashValue: Copy {
+    fn hash_value(self) -> u64;
+}
+
+macro_rules! hash_value_as_u64 {
+    ($($native:ty),*) => {
+        $(
+            impl HashValue for $native {
+                #[inline]
+                fn hash_value(self) -> u64 {
+                    self as u64
+                }
+            }
+        )*
+    };
+}
+
+hash_value_as_u64!(i8, i16, i32, i64, u8, u16, u32, u64);
+
+// Values that compare equal have equal hashes: `-0.0` is hashed as `0.0`, and all NaNs
+// are hashed alike.
+impl HashValue for f32 {
+    #[inline]
+    fn hash_value(self) -> u64 {
+        (self as f64).hash_value()
+    }
+}
+
+impl HashValue for f64 {
+    #[inline]
+    fn hash_value(self) -> u64 {
+        if self == 0.0 {
+            0
+        } else if self.is_nan() {
+            f64::NAN.to_bits()
+        } else {
+            self.to_bits()
+        }
+    }
+}
+
+impl HashValue for i128 {
+    #[inline]
+    fn hash_value(self) -> u64 {
+        combine(self as u64, (self >> 64) as u64)
+    }
+}
+
+/// How the hash of a value is applied to the hash of its row.
+trait HashOp {
+    fn apply(hash: &mut u64, value_hash: u64);
+}
+
+/// Combines the value hash with the hash of the row.
+struct Combine;
+
+impl HashOp for Combine {
+    #[inline]
+    fn apply(hash: &mut u64, value_hash: u64) {
+        *hash = combine(*hash, value_hash);
+    }
+}
+
+/// Replaces the hash of the row with the value hash, to compute the hashes of the
+/// values of nested arrays.
+struct Assign;
+
+impl HashOp for Assign {
+    #[inline]
+    fn apply(hash: &mut u64, value_hash: u64) {
+        *hash = value_hash;
+    }
+}
+
+/// Applies the value hash `value_hash(i)`, or that of null, of each slot `i` of `array`.
+#[inline]
+fn hash_each<O: HashOp, F: Fn(usize) -> u64>(
+    array: &dyn Array,
+    hashes: &mut [u64],
+    value_hash: F,
+) {
+    if array.null_count() == 0 {
+        hashes
+            .iter_mut()
+            .enumerate()
+            .for_each(|(i, hash)| O::apply(hash, value_hash(i)));
+    } else {
+        hashes.iter_mut().enumerate().for_each(|(i, hash)| {
+            let value_hash = if array.is_null(i) {
+                NULL_HASH
+            } else {
+                value_hash(i)
+            };
+            O::apply(hash, value_hash)
+        });
+    }
+}
+
+/// The native type of the values of a primitive array of at most 64 bits.
+#[derive(Debug, Clone, Copy, PartialEq, Eq)]
+pub(crate) enum NativeKind {
+    Int8,
+    Int16,
+    Int32,
+    Int64,
+    UInt8,
+    UInt16,
+    UInt32,
+    UInt64,
+    Float32,
+    Float64,
+}
+
+/// Returns the native type of the values of arrays of `data_type`, if it is a
+/// primitive type of at most 64 bits.
+pub(crate) fn native_kind(data_type: &DataType) -> Option<NativeKind> {
+    Some(match data_type {
+        DataType::Int8 => NativeKind::Int8,
+        DataType::Int16 => NativeKind::Int16,
+        DataType::Int32
+        | DataType::Date32
+        | DataType::Time32(_)
+        | DataType::Interval(IntervalUnit::YearMonth) => NativeKind::Int32,
+        DataType::Int64
+        | DataType::Date64
+        | DataType::Time64(_)
+        | DataType::Timestamp(_, _)
+        | DataType::Duration(_)
+        | DataType::Interval(IntervalUnit::DayTime) => NativeKind::Int64,
+        DataType::UInt8 => NativeKind::UInt8,
+        DataType::UInt16 => NativeKind::UInt16,
+        DataType::UInt32 => NativeKind::UInt32,
+        DataType::UInt64 => NativeKind::UInt64,
+        DataType::Float32 => NativeKind::Float32,
+        DataType::Float64 => NativeKind::Float64,
+        _ => return None,
+    })
+}
+
+/// Returns the values of a primitive array of native type `T`, including those of
+/// null slots.
+#[inline]
+pub(crate) fn native_values<T: ArrowNativeType + num::Num>(array: &dyn Array) -> &[T] {
+    let data = array.data_ref();
+    // JUSTIFICATION
+    //  Benefit
+    //      hashes all primitive types with the same native type alike, without
+    //      downcasting to each of them
+    //  Soundness
+    //      the data type of the array has the native type `T`.
+    let values = unsafe { data.buffers()[0].typed_data::<T>() };
+    &values[data.offset()..data.offset() + data.len()]
+}
+
+/// Appends a 64-bit representation of each value of `array`, under which values
+/// are equal if they compare equal, like their hashes, to `out`. The representation
+/// of null slots is unspecified.
+///
+/// Returns `false`, without appending anything, if `array` is not of a primitive type
+/// of at most 64 bits.
+pub(crate) fn native_values_as_u64(array: &dyn Array, out: &mut Vec<u64>) -> bool {
+    fn extend<T>(array: &dyn Array, out: &mut Vec<u64>)
+    where
+        T: ArrowNativeType + num::Num + HashValue,
+    {
+        out.extend(native_values::<T>(array).iter().map(|value| value.hash_value()))
+    }
+
+    match native_kind(array.data_type()) {
+        Some(NativeKind::Int8) => extend::<i8>(array, out),
+        Some(NativeKind::Int16) => extend::<i16>(array, out),
+        Some(NativeKind::Int32) => extend::<i32>(array, out),
+        Some(NativeKind::Int64) => extend::<i64>(array, out),
+        Some(NativeKind::UInt8) => extend::<u8>(array, out),
+        Some(NativeKind::UInt16) => extend::<u16>(array, out),
+        Some(NativeKind::UInt32) => extend::<u32>(array, out),
+        Some(NativeKind::UInt64) => extend::<u64>(array, out),
+        Some(NativeKind::Float32) => extend::<f32>(array, out),
+        Some(NativeKind::Float64) => extend::<f64>(array, out),
+        None => return false,
+    }
+    true
+}
+
+fn hash_native<T, O>(array: &dyn Array, hashes: &mut [u64])
+where
+    T: ArrowNativeType + num::Num + HashValue,
+    O: HashOp,
+{
+    let values = native_values::<T>(array);
+    if array.null_count() == 0 {
+        hashes
+            .iter_mut()
+            .zip(values.iter())
+            .for_each(|(hash, value)| O::apply(hash, value.hash_value()));
+    } else {
+        hash_each::<O, _>(array, hashes, |i| values[i].hash_value());
+    }
+}
+
+fn hash_list<S: OffsetSizeTrait, O: HashOp>(
+    array: &dyn Array,
+    hashes: &mut [u64],
+) -> Result<()> {
+    let array = array
+        .as_any()
+        .downcast_ref::<GenericListArray<S>>()
+        .unwrap();
+    if array.is_empty() {
+        return Ok(());
+    }
+    let offsets = array.value_offsets();
+    let start = offsets[0].to_usize().unwrap();
+    let end = offsets[array.len()].to_usize().unwrap();
+    let values = array.values().slice(start, end - start);
+    let mut value_hashes = vec![0; values.len()];
+    hash_array::<Assign>(values.as_ref(), &mut value_hashes)?;
+
+    hash_each::<O, _>(array, hashes, |i| {
+        let first = offsets[i].to_usize().unwrap() - start;
+        let last = offsets[i + 1].to_usize().unwrap() - start;
+        value_hashes[first..last]
+            .iter()
+            .fold(combine(NESTED_SEED, (last - first) as u64), |hash, value| {
+                combine(hash, *value)
+            })
+    });
+    Ok(())
+}
+
+fn hash_fixed_size_list<O: HashOp>(array: &dyn Array, hashes: &mut [u64]) -> Result<()> {
+    let array = array
+        .as_any()
+        .downcast_ref::<FixedSizeListArray>()
+        .unwrap();
+    let size = array.value_length() as usize;
+    let values = array
+        .values()
+        .slice(array.value_offset(0) as usize, array.len() * size);
+    let mut value_hashes = vec![0; values.len()];
+    hash_array::<Assign>(values.as_ref(), &mut value_hashes)?;
+
+    hash_each::<O, _>(array, hashes, |i| {
+        value_hashes[i * size..(i + 1) * size]
+            .iter()
+            .fold(combine(NESTED_SEED, size as u64), |hash, value| {
+                combine(hash, *value)
+            })
+    });
+    Ok(())
+}
+
+fn hash_struct<O: HashOp>(array: &dyn Array, hashes: &mut [u64]) -> Result<()> {
+    let array = array.as_any().downcast_ref::<StructArray>().unwrap();
+    let mut row_hashes = vec![NESTED_SEED; array.len()];
+    for column in array.columns() {
+        hash_array::<Combine>(column.as_ref(), &mut row_hashes)?;
+    }
+    hash_each::<O, _>(array, hashes, |i| row_hashes[i]);
+    Ok(())
+}
+
+fn hash_dictionary<K: ArrowDictionaryKeyType, O: HashOp>(
+    array: &dyn Array,
+    hashes: &mut [u64],
+) -> Result<()> {
+    let array = array
+        .as_any()
+        .downcast_ref::<DictionaryArray<K>>()
+        .unwrap();
+    // hash each distinct value once
+    let values = array.values();
+    let mut value_hashes = vec![0; values.len()];
+    hash_array::<Assign>(values.as_ref(), &mut value_hashes)?;
+
+    let keys = array.keys();
+    hash_each::<O, _>(keys, hashes, |i| {
+        value_hashes[keys.value(i).to_usize().unwrap()]
+    });
+    Ok(())
+}
+
+/// Applies the value hashes of the slots of `array` to `hashes`.
+fn hash_array<O: HashOp>(array: &dyn Array, hashes: &mut [u64]) -> Result<()> {
+    if let Some(native) = native_kind(array.data_type()) {
+        match native {
+            NativeKind::Int8 => hash_native::<i8, O>(array, hashes),
+            NativeKind::Int16 => hash_native::<i16, O>(array, hashes),
+            NativeKind::Int32 => hash_native::<i32, O>(array, hashes),
+            NativeKind::Int64 => hash_native::<i64, O>(array, hashes),
+            NativeKind::UInt8 => hash_native::<u8, O>(array, hashes),
+            NativeKind::UInt16 => hash_native::<u16, O>(array, hashes),
+            NativeKind::UInt32 => hash_native::<u32, O>(array, hashes),
+            NativeKind::UInt64 => hash_native::<u64, O>(array, hashes),
+            NativeKind::Float32 => hash_native::<f32, O>(array, hashes),
+            NativeKind::Float64 => hash_native::<f64, O>(array, hashes),
+        }
+        return Ok(());
+    }
+    match array.data_type() {
+        DataType::Null => hashes
+            .iter_mut()
+            .for_each(|hash| O::apply(hash, NULL_HASH)),
+        DataType::Boolean => {
+            let array = array.as_any().downcast_ref::<BooleanArray>().unwrap();
+            hash_each::<O, _>(array, hashes, |i| array.value(i) as u64)
+        }
+        DataType::Decimal(_, _) => {
+            let array = array.as_any().downcast_ref::<DecimalArray>().unwrap();
+            hash_each::<O, _>(array, hashes, |i| array.value(i).hash_value())
+        }
+        DataType::Utf8 => {
+            let array = array.as_any().downcast_ref::<StringArray>().unwrap();
+            hash_each::<O, _>(array, hashes, |i| hash_bytes(array.value(i).as_bytes()))
+        }
+        DataType::LargeUtf8 => {
+            let array = array.as_any().downcast_ref::<LargeStringArray>().unwrap();
+            hash_each::<O, _>(array, hashes, |i| hash_bytes(array.value(i).as_bytes()))
+        }
+        DataType::Binary => {
+            let array = array.as_any().downcast_ref::<BinaryArray>().unwrap();
+            hash_each::<O, _>(array, hashes, |i| hash_bytes(array.value(i)))
+        }
+        DataType::LargeBinary => {
+            let array = array.as_any().downcast_ref::<LargeBinaryArray>().unwrap();
+            hash_each::<O, _>(array, hashes, |i| hash_bytes(array.value(i)))
+        }
+        DataType::FixedSizeBinary(_) => {
+            let array = array
+                .as_any()
+                .downcast_ref::<FixedSizeBinaryArray>()
+                .unwrap();
+            hash_each::<O, _>(array, hashes, |i| hash_bytes(array.value(i)))
+        }
+        DataType::List(_) => hash_list::<i32, O>(array, hashes)?,
+        DataType::LargeList(_) => hash_list::<i64, O>(array, hashes)?,
+        DataType::FixedSizeList(_, _) => hash_fixed_size_list::<O>(array, hashes)?,
+        DataType::Struct(_) => hash_struct::<O>(array, hashes)?,
+        DataType::Dictionary(key_type, _) => match key_type.as_ref() {
+            DataType::Int8 => hash_dictionary::<Int8Type, O>(array, hashes)?,
+            DataType::Int16 => hash_dictionary::<Int16Type, O>(array, hashes)?,
+            DataType::Int32 => hash_dictionary::<Int32Type, O>(array, hashes)?,
+            DataType::Int64 => hash_dictionary::<Int64Type, O>(array, hashes)?,
+            DataType::UInt8 => hash_dictionary::<UInt8Type, O>(array, hashes)?,
+            DataType::UInt16 => hash_dictionary::<UInt16Type, O>(array, hashes)?,
+            DataType::UInt32 => hash_dictionary::<UInt32Type, O>(array, hashes)?,
+            DataType::UInt64 => hash_dictionary::<UInt64Type, O>(array, hashes)?,
+            t => {
+                return Err(ArrowError::ComputeError(format!(
+                    "Hash not supported for dictionary key type {:?}",
+                    t
+                )))
+            }
+        },
+        t => {
+            return Err(ArrowError::ComputeError(format!(
+                "Hash not supported for data type {:?}",
+                t
+            )))
+        }
+    }
+    Ok(())
+}
+
+/// Combines the hashes of the values of `array` into `hashes` in place, e.g. to hash
+/// the rows of several columns one column at a time.
+///
+/// Null values are hashed alike, regardless of their type, and the values of a
+/// dictionary array are hashed like the same values of a plain array.
+///
+/// Returns an `ArrowError::InvalidArgumentError` if `hashes` and `array` have
+/// different lengths, and an `ArrowError::ComputeError` if the type of `array` cannot
+/// be hashed.
+pub fn combine_hashes(array: &dyn Array, hashes: &mut [u64]) -> Result<()> {
+    if array.len() != hashes.len() {
+        return Err(ArrowError::InvalidArgumentError(format!(
+            "Cannot combine the hashes of an array of length {} into {} hashes",
+            array.len(),
+            hashes.len()
+        )));
+    }
+    hash_array::<Combine>(array, hashes)
+}
+
+/// Returns the 64-bit hashes of the values of `array`, starting from `seed`.
+///
+/// Arrays hashed with different seeds have unrelated hashes, e.g. to hash the rows
+/// of each level of a recursive hash partitioning differently.
+pub fn hash(array: &dyn Array, seed: u64) -> Result<UInt64Array> {
+    let mut hashes = vec![seed; array.len()];
+    hash_array::<Combine>(array, &mut hashes)?;
+    Ok(UInt64Array::from(hashes))
+}
+
+/// Returns the 64-bit hashes of the rows of `columns`, such as the columns of a
+/// [`RecordBatch`](crate::record_batch::RecordBatch), starting from `seed`.
+///
+/// Returns an `ArrowError::InvalidArgumentError` if the columns have different
+/// lengths, and a hash of `seed` for each of `num_rows` rows if there are no columns.
+pub fn hash_columns(columns: &[ArrayRef], seed: u64) -> Result<UInt64Array> {
+    let num_rows = columns.first().map(|column| column.len()).unwrap_or(0);
+    let mut hashes = vec![seed; num_rows];
+    for column in columns {
+        combine_hashes(column.as_ref(), &mut hashes)?;
+    }
+    Ok(UInt64Array::from(hashes))
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    use std::sync::Arc;
+
+    use crate::buffer::Buffer;
+
+    fn hashes(array: &dyn Array) -> Vec<u64> {
+        hash(array, 0).unwrap().values().to_vec()
+    }
+
+    #[test]
+    fn test_hash_primitive() {
+        let array = Int32Array::from(vec![Some(1), None, Some(2), Some(1), None]);
+        let h = hashes(&array);
+        assert_eq!(h[0], h[3]);
+        assert_eq!(h[1], h[4]);
+        assert_ne!(h[0], h[2]);
+        assert_ne!(h[0], h[1]);
+
+        // slices hash like the values they contain
+        assert_eq!(hashes(array.slice(2, 3).as_ref()), &h[2..]);
+
+        // seeds change the hashes
+        assert_ne!(hash(&array, 1).unwrap().value(0), h[0]);
+
+        let array = Float64Array::from(vec![0.0, -0.0, f64::NAN, -f64::NAN, 1.0]);
+        let h = hashes(&array);
+        assert_eq!(h[0], h[1]);
+        assert_eq!(h[2], h[3]);
+        assert_ne!(h[0], h[4]);
+    }
+
+    #[test]
+    fn test_hash_boolean_and_null() {
+        let array = BooleanArray::from(vec![Some(true), Some(false), None, Some(true)]);
+        let h = hashes(&array);
+        assert_eq!(h[0], h[3]);
+        assert_ne!(h[0], h[1]);
+        assert_ne!(h[1], h[2]);
+
+        // nulls are hashed alike regardless of their type
+        let null = hashes(&NullArray::new(2));
+        assert_eq!(null, vec![h[2], h[2]]);
+    }
+
+    #[test]
+    fn test_hash_strings() {
+        let array = StringArray::from(vec![
+            Some("hello"),
+            Some("hello world, a long string"),
+            None,
+            Some("hello"),
+            Some(""),
+        ]);
+        let h = hashes(&array);
+        assert_eq!(h[0], h[3]);
+        assert_ne!(h[0], h[1]);
+        assert_ne!(h[2], h[4]);
+
+        // strings hash like their bytes
+        let large = LargeStringArray::from(vec!["hello", "hello world, a long string"]);
+        let binary = BinaryArray::from(vec![b"hello".as_ref(), b"x".as_ref()]);
+        assert_eq!(hashes(&large), &h[..2]);
+        assert_eq!(hashes(&binary)[0], h[0]);
+    }
+
+    #[test]
+    fn test_hash_dictionary() {
+        let values = vec![Some("a"), None, Some("b"), Some("a"), Some("c")];
+        let dictionary = values
+            .iter()
+            .cloned()
+            .collect::<DictionaryArray<Int8Type>>();
+        let plain = StringArray::from(values);
+        assert_eq!(hashes(&dictionary), hashes(&plain));
+    }
+
+    #[test]
+    fn test_hash_list() {
+        let value_data = Int32Array::from(vec![1, 2, 3, 1, 2, 3, 1, 2]).data().clone();
+        let value_offsets = Buffer::from_slice_ref(&[0, 3, 6, 8, 8]);
+        let list_data = ArrayData::builder(DataType::List(Box::new(Field::new(
+            "item",
+            DataType::Int32,
+            false,
+        ))))
+        .len(4)
+        .add_buffer(value_offsets)
+        .add_child_data(value_data)
+        .build();
+        let array = ListArray::from(list_data);
+        let h = hashes(&array);
+        assert_eq!(h[0], h[1]);
+        assert_ne!(h[0], h[2]);
+        assert_ne!(h[2], h[3]);
+        assert_eq!(hashes(array.slice(1, 3).as_ref()), &h[1..]);
+    }
+
+    #[test]
+    fn test_hash_struct() {
+        let ints: ArrayRef = Arc::new(Int32Array::from(vec![1, 2, 1]));
+        let strings: ArrayRef = Arc::new(StringArray::from(vec!["a", "b", "a"]));
+        let array = StructArray::from(vec![
+            (Field::new("i", DataType::Int32, false), ints.clone()),
+            (Field::new("s", DataType::Utf8, false), strings.clone()),
+        ]);
+        let h = hashes(&array);
+        assert_eq!(h[0], h[2]);
+        assert_ne!(h[0], h[1]);
+        assert_eq!(hashes(array.slice(1, 2).as_ref()), &h[1..]);
+    }
+
+    #[test]
+    fn test_hash_columns() {
+        let a: ArrayRef = Arc::new(Int32Array::from(vec![1, 2, 1, 2]));
+        let b: ArrayRef = Arc::new(Int32Array::from(vec![2, 1, 2, 2]));
+        let h = hash_columns(&[a.clone(), b.clone()], 0).unwrap();
+        assert_eq!(h.value(0), h.value(2));
+        assert_ne!(h.value(0), h.value(1));
+        assert_ne!(h.value(1), h.value(3));
+
+        // the hashes depend on the order of the columns
+        let reversed = hash_columns(&[b, a.clone()], 0).unwrap();
+        assert_ne!(h.value(0), reversed.value(0));
+
+        let short: ArrayRef = Arc::new(Int32Array::from(vec![1]));
+        assert!(hash_columns(&[a, short], 0).is_err());
+        assert_eq!(hash_columns(&[], 0).unwrap().len(), 0);
+    }
+
+    #[test]
+    fn test_hash_unsupported() {
+        let array = UnionArray::try_new(
+            Buffer::from_slice_ref(&[0_i8]),
+            None,
+            vec![(
+                Field::new("a", DataType::Int32, false),
+                Arc::new(Int32Array::from(vec![1])) as ArrayRef,
+            )],
+            None,
+        )
+        .unwrap();
+        assert!(matches!(hash(&array, 0), Err(ArrowError::ComputeError(_))));
+    }
+}
@@ -0,0 +1,894 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+//! Defines a hash aggregation kernel, that groups rows by the values of key columns
+//! and aggregates value columns per group, without sorting.
+//!
+//! # Example
+//! ```
+//! # use std::sync::Arc;
+//! # use arrow::array::{ArrayRef, Float64Array, Int32Array, UInt64Array};
+//! # use arrow::compute::kernels::hash_aggregate::{AggregateFunction, HashAggregator};
+//! # use arrow::datatypes::DataType;
+//! let mut aggregator = HashAggregator::try_new(
+//!     vec![DataType::Int32],
+//!     vec![
+//!         (AggregateFunction::Sum, DataType::Float64),
+//!         (AggregateFunction::Count, DataType::Float64),
+//!     ],
+//! )
+//! .unwrap();
+//!
+//! // aggregates a stream of batches incrementally
+//! let batches = vec![(vec![1, 2, 1], vec![1.0, 2.0, 3.0]), (vec![2], vec![4.0])];
+//! for (keys, values) in batches {
+//!     let keys: ArrayRef = Arc::new(Int32Array::from(keys));
+//!     let values: ArrayRef = Arc::new(Float64Array::from(values));
+//!     aggregator.update(&[keys], &[values.clone(), values]).unwrap();
+//! }
+//!
+//! let (keys, aggregates) = aggregator.finish().unwrap();
+//! assert_eq!(keys[0].as_ref(), &Int32Array::from(vec![1, 2]));
+//! assert_eq!(aggregates[0].as_ref(), &Float64Array::from(vec![4.0, 6.0]));
+//! assert_eq!(aggregates[1].as_ref(), &UInt64Array::from(vec![2, 2]));
+//! ```
+
+use std::fmt::Debug;
+use std::marker::PhantomData;
+use std::ops::Add;
+use std::sync::Arc;
+
+use num::ToPrimitive;
+
+use crate::array::*;
+use crate::compute::kernels::concat::concat;
+use crate::compute::kernels::hash::{hash_columns, native_kind, native_values_as_u64};
+use crate::compute::kernels::take::take;
+use crate::datatypes::*;
+use crate::error::{ArrowError, Result};
+
+/// An aggregate function of [`HashAggregator`].
+#[derive(Debug, Clone, Copy, PartialEq, Eq)]
+pub enum AggregateFunction {
+    /// The number of non-null values of each group, as `UInt64`
+    Count,
+    /// The sum of the values of each group, of the type of the values, or null if the
+    /// group has no non-null values
+    Sum,
+    /// The minimum value of each group, or null if the group has no non-null values.
+    /// NaN values are greater than any other value.
+    Min,
+    /// The maximum value of each group, or null if the group has no non-null values.
+    /// NaN values are greater than any other value.
+    Max,
+    /// The mean of the values of each group, as `Float64`, or null if the group has no
+    /// non-null values
+    Avg,
+}
+
+/// Marks an empty slot of [`GroupTable`]
+pub(crate) const EMPTY: u32 = u32::MAX;
+
+/// The keys of the groups of [`GroupTable`], by which the rows of a group are
+/// recognized.
+#[derive(Debug)]
+enum GroupKeys {
+    /// A single key column of a primitive type of at most 64 bits, whose values are
+    /// compared by their 64-bit representation
+    Native {
+        values: Vec<u64>,
+        null_group: Option<usize>,
+    },
+    /// Any key columns, whose values are compared by a binary encoding of each row
+    Encoded { data: Vec<u8>, offsets: Vec<usize> },
+}
+
+/// An open addressing hash table with linear probing, of the groups of the rows of
+/// all batches inserted so far, which is shared by the hash aggregation and the hash
+/// join kernels.
+#[derive(Debug)]
+pub(crate) struct GroupTable {
+    /// The groups in the slots, or [`EMPTY`]. The number of slots is a power of two,
+    /// and at least twice the number of groups.
+    slots: Vec<u32>,
+    /// The hash of the keys of each group
+    hashes: Vec<u64>,
+    keys: GroupKeys,
+}
+
+/// Returns the slot of the group with `hash` for which `is_group` holds, or the empty
+/// slot where such a group is inserted.
+#[inline]
+fn probe<F: Fn(usize) -> bool>(slots: &[u32], hash: u64, is_group: F) -> usize {
+    let mask = slots.len() - 1;
+    let mut slot = hash as usize & mask;
+    loop {
+        let group = slots[slot];
+        if group == EMPTY || is_group(group as usize) {
+            return slot;
+        }
+        slot = (slot + 1) & mask;
+    }
+}
+
+/// Doubles the number of `slots` if they are more than half full, re-inserting the
+/// groups of `hashes` except `skip`, which is in no slot.
+fn grow(slots: &mut Vec<u32>, hashes: &[u64], skip: Option<usize>) {
+    if hashes.len() * 2 <= slots.len() {
+        return;
+    }
+    *slots = vec![EMPTY; slots.len() * 2];
+    for (group, hash) in hashes.iter().enumerate() {
+        if Some(group) != skip {
+            let slot = probe(slots, *hash, |_| false);
+            slots[slot] = group as u32;
+        }
+    }
+}
+
+/// Appends the encoding of the value of each row of `array` to a row key. Null values
+/// are encoded by the caller.
+type KeyEncoder<'a> = Box<dyn Fn(usize, &mut Vec<u8>) + 'a>;
+
+fn key_encoder(array: &dyn Array) -> Result<KeyEncoder<'_>> {
+    let mut native = Vec::with_capacity(array.len());
+    if native_values_as_u64(array, &mut native) {
+        return Ok(Box::new(move |row: usize, key: &mut Vec<u8>| {
+            key.extend_from_slice(&native[row].to_le_bytes())
+        }));
+    }
+
+    macro_rules! encode_bytes {
+        ($array_type:ty) => {{
+            let array = array.as_any().downcast_ref::<$array_type>().unwrap();
+            Box::new(move |row: usize, key: &mut Vec<u8>| {
+                let bytes: &[u8] = array.value(row).as_ref();
+                key.extend_from_slice(&(bytes.len() as u64).to_le_bytes());
+                key.extend_from_slice(bytes);
+            })
+        }};
+    }
+
+    let encoder: KeyEncoder = match array.data_type() {
+        DataType::Boolean => {
+            let array = array.as_any().downcast_ref::<BooleanArray>().unwrap();
+            Box::new(move |row: usize, key: &mut Vec<u8>| {
+                key.push(array.value(row) as u8)
+            })
+        }
+        DataType::Decimal(_, _) => {
+            let array = array.as_any().downcast_ref::<DecimalArray>().unwrap();
+            Box::new(move |row: usize, key: &mut Vec<u8>| {
+                key.extend_from_slice(&array.value(row).to_le_bytes())
+            })
+        }
+        DataType::Utf8 => encode_bytes!(StringArray),
+        DataType::LargeUtf8 => encode_bytes!(LargeStringArray),
+        DataType::Binary => encode_bytes!(BinaryArray),
+        DataType::LargeBinary => encode_bytes!(LargeBinaryArray),
+        DataType::FixedSizeBinary(_) => encode_bytes!(FixedSizeBinaryArray),
+        t => {
+            return Err(ArrowError::ComputeError(format!(
+                "Hash table keys of type {:?} are not supported",
+                t
+            )))
+        }
+    };
+    Ok(encoder)
+}
+
+impl GroupTable {
+    /// Creates a table of the groups of rows with keys of `key_types`.
+    ///
+    /// Returns an `ArrowError::ComputeError` if a key type is not supported.
+    pub(crate) fn try_new(key_types: &[DataType]) -> Result<Self> {
+        for key_type in key_types {
+            // validates the key type
+            key_encoder(new_empty_array(key_type).as_ref())?;
+        }
+        let keys = match key_types {
+            [key_type] if native_kind(key_type).is_some() => GroupKeys::Native {
+                values: Vec::new(),
+                null_group: None,
+            },
+            _ => GroupKeys::Encoded {
+                data: Vec::new(),
+                offsets: vec![0],
+            },
+        };
+        Ok(Self {
+            slots: vec![EMPTY; 64],
+            hashes: Vec::new(),
+            keys,
+        })
+    }
+
+    pub(crate) fn num_groups(&self) -> usize {
+        self.hashes.len()
+    }
+
+    /// Appends the group of each row of `keys`, with hashes `row_hashes`, to `groups`,
+    /// inserting new groups for new keys, and the first row of each new group to
+    /// `new_group_rows`.
+    pub(crate) fn find_groups(
+        &mut self,
+        keys: &[ArrayRef],
+        row_hashes: &[u64],
+        groups: &mut Vec<usize>,
+        new_group_rows: &mut Vec<u32>,
+    ) -> Result<()> {
+        let Self {
+            slots,
+            hashes,
+            keys: group_keys,
+        } = self;
+        match group_keys {
+            GroupKeys::Native { values, null_group } => {
+                let key = keys[0].as_ref();
+                let mut row_values = Vec::with_capacity(key.len());
+                native_values_as_u64(key, &mut row_values);
+                let rows = row_values.iter().zip(row_hashes).enumerate();
+                for (row, (value, hash)) in rows {
+                    if key.is_null(row) {
+                        let group = *null_group.get_or_insert_with(|| {
+                            new_group_rows.push(row as u32);
+                            hashes.push(*hash);
+                            values.push(0);
+                            hashes.len() - 1
+                        });
+                        groups.push(group);
+                        continue;
+                    }
+                    let slot = probe(slots, *hash, |group| values[group] == *value);
+                    if slots[slot] == EMPTY {
+                        slots[slot] = hashes.len() as u32;
+                        new_group_rows.push(row as u32);
+                        hashes.push(*hash);
+                        values.push(*value);
+                        groups.push(hashes.len() - 1);
+                        grow(slots, hashes, *null_group);
+                    } else {
+                        groups.push(slots[slot] as usize);
+                    }
+                }
+            }
+            GroupKeys::Encoded { data, offsets } => {
+                let encoders = keys
+                    .iter()
+                    .map(|key| key_encoder(key.as_ref()))
+                    .collect::<Result<Vec<_>>>()?;
+                let mut row_key = Vec::new();
+                for (row, hash) in row_hashes.iter().enumerate() {
+                    row_key.clear();
+                    for (key, encoder) in keys.iter().zip(&encoders) {
+                        if key.is_null(row) {
+                            row_key.push(0);
+                        } else {
+                            row_key.push(1);
+                            encoder(row, &mut row_key);
+                        }
+                    }
+                    let slot = probe(slots, *hash, |group| {
+                        hashes[group] == *hash
+                            && data[offsets[group]..offsets[group + 1]] == row_key[..]
+                    });
+                    if slots[slot] == EMPTY {
+                        slots[slot] = hashes.len() as u32;
+                        new_group_rows.push(row as u32);
+                        hashes.push(*hash);
+                        data.extend_from_slice(&row_key);
+                        offsets.push(data.len());
+                        groups.push(hashes.len() - 1);
+                        grow(slots, hashes, None);
+                    } else {
+                        groups.push(slots[slot] as usize);
+                    }
+                }
+            }
+        }
+        Ok(())
+    }
+
+    /// Appends the group of each row of `keys`, with hashes `row_hashes`, to `groups`,
+    /// or [`EMPTY`] if the keys of the row are in no group.
+    pub(crate) fn lookup_groups(
+        &self,
+        keys: &[ArrayRef],
+        row_hashes: &[u64],
+        groups: &mut Vec<u32>,
+    ) -> Result<()> {
+        let slots = &self.slots;
+        match &self.keys {
+            GroupKeys::Native { values, null_group } => {
+                let key = keys[0].as_ref();
+                let mut row_values = Vec::with_capacity(key.len());
+                native_values_as_u64(key, &mut row_values);
+                let rows = row_values.iter().zip(row_hashes).enumerate();
+                for (row, (value, hash)) in rows {
+                    if key.is_null(row) {
+                        groups.push(null_group.map_or(EMPTY, |group| group as u32));
+                    } else {
+                        let slot = probe(slots, *hash, |group| values[group] == *value);
+                        groups.push(slots[slot]);
+                    }
+                }
+            }
+            GroupKeys::Encoded { data, offsets } => {
+                let encoders = keys
+                    .iter()
+                    .map(|key| key_encoder(key.as_ref()))
+                    .collect::<Result<Vec<_>>>()?;
+                let mut row_key = Vec::new();
+                for (row, hash) in row_hashes.iter().enumerate() {
+                    row_key.clear();
+                    for (key, encoder) in keys.iter().zip(&encoders) {
+                        if key.is_null(row) {
+                            row_key.push(0);
+                        } else {
+                            row_key.push(1);
+                            encoder(row, &mut row_key);
+                        }
+                    }
+                    let slot = probe(slots, *hash, |group| {
+                        self.hashes[group] == *hash
+                            && data[offsets[group]..offsets[group + 1]] == row_key[..]
+                    });
+                    groups.push(slots[slot]);
+                }
+            }
+        }
+        Ok(())
+    }
+}
+
+/// The state of an aggregate function for each group.
+trait Accumulator: Debug + Send {
+    /// Aggregates `values`, whose row `i` belongs to group `groups[i]`, where there are
+    /// `num_groups` groups in total.
+    fn update(&mut self, values: &dyn Array, groups: &[usize], num_groups: usize);
+
+    /// Returns the aggregate of each of the `num_groups` groups.
+    fn finish(&mut self, num_groups: usize) -> ArrayRef;
+}
+
+/// Calls `f` with the group and the value of each non-null row of `values`.
+#[inline]
+fn for_each_valid<T, F>(values: &PrimitiveArray<T>, groups: &[usize], mut f: F)
+where
+    T: ArrowPrimitiveType,
+    F: FnMut(usize, T::Native),
+{
+    let slice = values.values();
+    if values.null_count() == 0 {
+        groups
+            .iter()
+            .zip(slice)
+            .for_each(|(group, value)| f(*group, *value));
+    } else {
+        groups
+            .iter()
+            .zip(slice)
+            .enumerate()
+            .filter(|(row, _)| values.is_valid(*row))
+            .for_each(|(_, (group, value))| f(*group, *value));
+    }
+}
+
+#[derive(Debug, Default)]
+struct CountAccumulator {
+    counts: Vec<u64>,
+}
+
+impl Accumulator for CountAccumulator {
+    fn update(&mut self, values: &dyn Array, groups: &[usize], num_groups: usize) {
+        self.counts.resize(num_groups, 0);
+        if values.null_count() == 0 {
+            groups.iter().for_each(|group| self.counts[*group] += 1);
+        } else {
+            groups
+                .iter()
+                .enumerate()
+                .filter(|(row, _)| values.is_valid(*row))
+                .for_each(|(_, group)| self.counts[*group] += 1);
+        }
+    }
+
+    fn finish(&mut self, num_groups: usize) -> ArrayRef {
+        self.counts.resize(num_groups, 0);
+        Arc::new(UInt64Array::from(std::mem::take(&mut self.counts)))
+    }
+}
+
+/// The sum, minimum or maximum of each group, and whether it has non-null values.
+struct FoldAccumulator<T: ArrowPrimitiveType> {
+    values: Vec<T::Native>,
+    valid: Vec<bool>,
+    fold: fn(T::Native, T::Native) -> T::Native,
+}
+
+impl<T: ArrowPrimitiveType> FoldAccumulator<T> {
+    fn new(fold: fn(T::Native, T::Native) -> T::Native) -> Self {
+        Self {
+            values: Vec::new(),
+            valid: Vec::new(),
+            fold,
+        }
+    }
+}
+
+impl<T: ArrowPrimitiveType> Debug for FoldAccumulator<T> {
+    fn fmt(&self, f: &mut std::fmt::Formatter<'_>) -> std::fmt::Result {
+        f.debug_struct("FoldAccumulator")
+            .field("values", &self.values)
+            .field("valid", &self.valid)
+            .finish()
+    }
+}
+
+impl<T: ArrowPrimitiveType> Accumulator for FoldAccumulator<T> {
+    fn update(&mut self, values: &dyn Array, groups: &[usize], num_groups: usize) {
+        let values = values.as_any().downcast_ref::<PrimitiveArray<T>>().unwrap();
+        self.values.resize(num_groups, T::default_value());
+        self.valid.resize(num_groups, false);
+        let fold = self.fold;
+        let Self {
+            values: aggregates,
+            valid,
+            ..
+        } = self;
+        for_each_valid(values, groups, |group, value| {
+            aggregates[group] = if valid[group] {
+                fold(aggregates[group], value)
+            } else {
+                valid[group] = true;
+                value
+            };
+        });
+    }
+
+    fn finish(&mut self, num_groups: usize) -> ArrayRef {
+        self.values.resize(num_groups, T::default_value());
+        self.valid.resize(num_groups, false);
+        let array = self
+            .values
+            .iter()
+            .zip(&self.valid)
+            .map(|(value, valid)| if *valid { Some(*value) } else { None })
+            .collect::<PrimitiveArray<T>>();
+        Arc::new(array)
+    }
+}
+
+/// The sum, as `f64`, and the number of the non-null values of each group.
+struct AvgAccumulator<T: ArrowPrimitiveType> {
+    sums: Vec<f64>,
+    counts: Vec<u64>,
+    values_type: PhantomData<T::Native>,
+}
+
+impl<T: ArrowPrimitiveType> AvgAccumulator<T> {
+    fn new() -> Self {
+        Self {
+            sums: Vec::new(),
+            counts: Vec::new(),
+            values_type: PhantomData,
+        }
+    }
+}
+
+impl<T: ArrowPrimitiveType> Debug for AvgAccumulator<T> {
+    fn fmt(&self, f: &mut std::fmt::Formatter<'_>) -> std::fmt::Result {
+        f.debug_struct("AvgAccumulator")
+            .field("sums", &self.sums)
+            .field("counts", &self.counts)
+            .finish()
+    }
+}
+
+impl<T> Accumulator for AvgAccumulator<T>
+where
+    T: ArrowPrimitiveType,
+    T::Native: ToPrimitive,
+{
+    fn update(&mut self, values: &dyn Array, groups: &[usize], num_groups: usize) {
+        let values = values.as_any().downcast_ref::<PrimitiveArray<T>>().unwrap();
+        self.sums.resize(num_groups, 0.0);
+        self.counts.resize(num_groups, 0);
+        let Self { sums, counts, .. } = self;
+        for_each_valid(values, groups, |group, value| {
+            sums[group] += value.to_f64().unwrap_or(f64::NAN);
+            counts[group] += 1;
+        });
+    }
+
+    fn finish(&mut self, num_groups: usize) -> ArrayRef {
+        self.sums.resize(num_groups, 0.0);
+        self.counts.resize(num_groups, 0);
+        let array = self
+            .sums
+            .iter()
+            .zip(&self.counts)
+            .map(|(sum, count)| {
+                if *count > 0 {
+                    Some(sum / *count as f64)
+                } else {
+                    None
+                }
+            })
+            .collect::<Float64Array>();
+        Arc::new(array)
+    }
+}
+
+/// Generic test for NaN, the optimizer should be able to remove this for integer types.
+#[inline]
+fn is_nan<T: PartialOrd + Copy>(a: T) -> bool {
+    #[allow(clippy::eq_op)]
+    !(a == a)
+}
+
+fn sum<T: Add<Output = T>>(a: T, b: T) -> T {
+    a + b
+}
+
+/// Like the `min` kernel, NaN is greater than any other value.
+fn min<T: PartialOrd + Copy>(a: T, b: T) -> T {
+    if (is_nan(a) && !is_nan(b)) || a > b {
+        b
+    } else {
+        a
+    }
+}
+
+/// Like the `max` kernel, NaN is greater than any other value.
+fn max<T: PartialOrd + Copy>(a: T, b: T) -> T {
+    if (!is_nan(a) && is_nan(b)) || a < b {
+        b
+    } else {
+        a
+    }
+}
+
+fn numeric_accumulator<T>(function: AggregateFunction) -> Box<dyn Accumulator>
+where
+    T: ArrowNumericType,
+    T::Native: Add<Output = T::Native> + ToPrimitive,
+{
+    match function {
+        AggregateFunction::Count => Box::new(CountAccumulator::default()),
+        AggregateFunction::Sum => Box::new(FoldAccumulator::<T>::new(sum)),
+        AggregateFunction::Min => Box::new(FoldAccumulator::<T>::new(min)),
+        AggregateFunction::Max => Box::new(FoldAccumulator::<T>::new(max)),
+        AggregateFunction::Avg => Box::new(AvgAccumulator::<T>::new()),
+    }
+}
+
+fn accumulator(
+    function: AggregateFunction,
+    data_type: &DataType,
+) -> Result<Box<dyn Accumulator>> {
+    let accumulator: Box<dyn Accumulator> = match (function, data_type) {
+        (AggregateFunction::Count, _) => Box::new(CountAccumulator::default()),
+        (_, DataType::Int8) => numeric_accumulator::<Int8Type>(function),
+        (_, DataType::Int16) => numeric_accumulator::<Int16Type>(function),
+        (_, DataType::Int32) => numeric_accumulator::<Int32Type>(function),
+        (_, DataType::Int64) => numeric_accumulator::<Int64Type>(function),
+        (_, DataType::UInt8) => numeric_accumulator::<UInt8Type>(function),
+        (_, DataType::UInt16) => numeric_accumulator::<UInt16Type>(function),
+        (_, DataType::UInt32) => numeric_accumulator::<UInt32Type>(function),
+        (_, DataType::UInt64) => numeric_accumulator::<UInt64Type>(function),
+        (_, DataType::Float32) => numeric_accumulator::<Float32Type>(function),
+        (_, DataType::Float64) => numeric_accumulator::<Float64Type>(function),
+        (function, t) => {
+            return Err(ArrowError::ComputeError(format!(
+                "Hash aggregation {:?} not supported for value type {:?}",
+                function, t
+            )))
+        }
+    };
+    Ok(accumulator)
+}
+
+/// Groups rows by the values of key columns with a hash table, and aggregates value
+/// columns per group, across any number of batches.
+///
+/// Rows whose keys compare equal are in the same group, where null keys are equal to
+/// each other and floating point keys are compared like in
+/// [`hash`](crate::compute::kernels::hash::hash). A single key column of a primitive type
+/// of at most 64 bits is looked up by its values. Other keys are looked up by a binary
+/// encoding of the keys of each row.
+///
+/// The groups are in the order of their first row.
+#[derive(Debug)]
+pub struct HashAggregator {
+    key_types: Vec<DataType>,
+    value_types: Vec<DataType>,
+    table: GroupTable,
+    /// The keys of the first row of the groups, of each batch with new groups
+    group_keys: Vec<Vec<ArrayRef>>,
+    accumulators: Vec<Box<dyn Accumulator>>,
+}
+
+impl HashAggregator {
+    /// Creates an aggregator of rows with keys of `key_types`, that aggregates a value
+    /// column of the given type with the given function for each of `aggregates`.
+    ///
+    /// Returns an `ArrowError::ComputeError` if a key or value type is not supported.
+    /// Any value type can be counted, and all other functions support numeric types.
+    pub fn try_new(
+        key_types: Vec<DataType>,
+        aggregates: Vec<(AggregateFunction, DataType)>,
+    ) -> Result<Self> {
+        if key_types.is_empty() {
+            return Err(ArrowError::InvalidArgumentError(
+                "Hash aggregation requires at least one key column".to_string(),
+            ));
+        }
+        let table = GroupTable::try_new(&key_types)?;
+        let accumulators = aggregates
+            .iter()
+            .map(|(function, data_type)| accumulator(*function, data_type))
+            .collect::<Result<Vec<_>>>()?;
+        Ok(Self {
+            table,
+            group_keys: vec![Vec::new(); key_types.len()],
+            key_types,
+            value_types: aggregates.into_iter().map(|(_, t)| t).collect(),
+            accumulators,
+        })
+    }
+
+    /// Returns the number of groups found so far.
+    pub fn num_groups(&self) -> usize {
+        self.table.num_groups()
+    }
+
+    /// Groups the rows of `keys` and aggregates the rows of `values` into their groups,
+    /// where `values` has one column for each aggregate of the aggregator.
+    ///
+    /// Returns an `ArrowError::InvalidArgumentError` if the columns do not match the
+    /// types of the aggregator or have different lengths.
+    pub fn update(&mut self, keys: &[ArrayRef], values: &[ArrayRef]) -> Result<()> {
+        let types_match = |columns: &[ArrayRef], types: &[DataType]| {
+            columns.len() == types.len()
+                && columns
+                    .iter()
+                    .zip(types)
+                    .all(|(column, data_type)| column.data_type() == data_type)
+        };
+        if !types_match(keys, &self.key_types) || !types_match(values, &self.value_types)
+        {
+            return Err(ArrowError::InvalidArgumentError(
+                "Hash aggregation columns do not match the types of the aggregator"
+                    .to_string(),
+            ));
+        }
+        let num_rows = keys[0].len();
+        if keys.iter().chain(values).any(|column| column.len() != num_rows) {
+            return Err(ArrowError::InvalidArgumentError(
+                "Hash aggregation columns have different lengths".to_string(),
+            ));
+        }
+
+        let row_hashes = hash_columns(keys, 0)?;
+        let mut groups = Vec::with_capacity(num_rows);
+        let mut new_group_rows = Vec::new();
+        self.table.find_groups(
+            keys,
+            row_hashes.values(),
+            &mut groups,
+            &mut new_group_rows,
+        )?;
+
+        if !new_group_rows.is_empty() {
+            let indices = UInt32Array::from(new_group_rows);
+            for (group_keys, key) in self.group_keys.iter_mut().zip(keys) {
+                group_keys.push(take(key.as_ref(), &indices, None)?);
+            }
+        }
+
+        let num_groups = self.table.num_groups();
+        for (accumulator, values) in self.accumulators.iter_mut().zip(values) {
+            accumulator.update(values.as_ref(), &groups, num_groups);
+        }
+        Ok(())
+    }
+
+    /// Returns the key columns and the aggregate columns of all groups.
+    pub fn finish(mut self) -> Result<(Vec<ArrayRef>, Vec<ArrayRef>)> {
+        let keys = self
+            .group_keys
+            .iter()
+            .zip(&self.key_types)
+            .map(|(chunks, key_type)| match chunks.as_slice() {
+                [] => Ok(new_empty_array(key_type)),
+                [chunk] => Ok(chunk.clone()),
+                chunks => {
+                    concat(&chunks.iter().map(|a| a.as_ref()).collect::<Vec<_>>())
+                }
+            })
+            .collect::<Result<Vec<_>>>()?;
+        let num_groups = self.table.num_groups();
+        let aggregates = self
+            .accumulators
+            .iter_mut()
+            .map(|accumulator| accumulator.finish(num_groups))
+            .collect();
+        Ok((keys, aggregates))
+    }
+}
+
+/// Groups the rows of `keys` and aggregates each column of `values` with the function
+/// of the same index of `functions`, see [`HashAggregator`].
+pub fn hash_aggregate(
+    keys: &[ArrayRef],
+    values: &[ArrayRef],
+    functions: &[AggregateFunction],
+) -> Result<(Vec<ArrayRef>, Vec<ArrayRef>)> {
+    if values.len() != functions.len() {
+        return Err(ArrowError::InvalidArgumentError(format!(
+            "Hash aggregation of {} value columns with {} functions",
+            values.len(),
+            functions.len()
+        )));
+    }
+    let mut aggregator = HashAggregator::try_new(
+        keys.iter().map(|key| key.data_type().clone()).collect(),
+        functions
+            .iter()
+            .zip(values)
+            .map(|(function, values)| (*function, values.data_type().clone()))
+            .collect(),
+    )?;
+    aggregator.update(keys, values)?;
+    aggregator.finish()
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    fn aggregate(
+        keys: Vec<ArrayRef>,
+        values: ArrayRef,
+    ) -> (Vec<ArrayRef>, Vec<ArrayRef>) {
+        use AggregateFunction::*;
+        let functions = [Count, Sum, Min, Max, Avg];
+        let values = vec![values; functions.len()];
+        hash_aggregate(&keys, &values, &functions).unwrap()
+    }
+
+    #[test]
+    fn test_hash_aggregate_primitive_keys() {
+        let keys: ArrayRef = Arc::new(Int32Array::from(vec![
+            Some(3),
+            None,
+            Some(1),
+            Some(3),
+            None,
+            Some(1),
+            Some(2),
+        ]));
+        let values: ArrayRef = Arc::new(Int64Array::from(vec![
+            Some(1),
+            Some(2),
+            Some(3),
+            Some(4),
+            Some(5),
+            None,
+            None,
+        ]));
+        let (keys, aggregates) = aggregate(vec![keys], values);
+
+        let expected = Int32Array::from(vec![Some(3), None, Some(1), Some(2)]);
+        assert_eq!(keys[0].as_ref(), &expected);
+        assert_eq!(aggregates[0].as_ref(), &UInt64Array::from(vec![2, 2, 1, 0]));
+        let expected = Int64Array::from(vec![Some(5), Some(7), Some(3), None]);
+        assert_eq!(aggregates[1].as_ref(), &expected);
+        let expected = Int64Array::from(vec![Some(1), Some(2), Some(3), None]);
+        assert_eq!(aggregates[2].as_ref(), &expected);
+        let expected = Int64Array::from(vec![Some(4), Some(5), Some(3), None]);
+        assert_eq!(aggregates[3].as_ref(), &expected);
+        let expected = Float64Array::from(vec![Some(2.5), Some(3.5), Some(3.0), None]);
+        assert_eq!(aggregates[4].as_ref(), &expected);
+    }
+
+    #[test]
+    fn test_hash_aggregate_encoded_keys() {
+        let ints: ArrayRef = Arc::new(Int32Array::from(vec![1, 1, 2, 1, 2]));
+        let strings: ArrayRef = Arc::new(StringArray::from(vec![
+            Some("a"),
+            Some("b"),
+            Some("a"),
+            Some("a"),
+            None,
+        ]));
+        let values: ArrayRef =
+            Arc::new(Float64Array::from(vec![1.0, 2.0, 3.0, 4.0, f64::NAN]));
+        let (keys, aggregates) = aggregate(vec![ints, strings], values);
+
+        assert_eq!(keys[0].as_ref(), &Int32Array::from(vec![1, 1, 2, 2]));
+        let expected = StringArray::from(vec![Some("a"), Some("b"), Some("a"), None]);
+        assert_eq!(keys[1].as_ref(), &expected);
+        assert_eq!(aggregates[0].as_ref(), &UInt64Array::from(vec![2, 1, 1, 1]));
+        let expected = Float64Array::from(vec![5.0, 2.0, 3.0, f64::NAN]);
+        let sums = aggregates[1]
+            .as_any()
+            .downcast_ref::<Float64Array>()
+            .unwrap();
+        assert_eq!(&sums.values()[..3], &expected.values()[..3]);
+        assert!(sums.value(3).is_nan());
+    }
+
+    #[test]
+    fn test_hash_aggregator_incremental() {
+        let mut aggregator = HashAggregator::try_new(
+            vec![DataType::Utf8],
+            vec![(AggregateFunction::Sum, DataType::Int32)],
+        )
+        .unwrap();
+
+        // enough groups to grow the table
+        for batch in 0..3 {
+            let keys: ArrayRef = Arc::new(
+                (0..1000)
+                    .map(|i| Some(format!("key {}", (i + batch * 500) % 1500)))
+                    .collect::<StringArray>(),
+            );
+            let values: ArrayRef = Arc::new(Int32Array::from(vec![1; 1000]));
+            aggregator.update(&[keys], &[values]).unwrap();
+        }
+        assert_eq!(aggregator.num_groups(), 1500);
+
+        let (keys, aggregates) = aggregator.finish().unwrap();
+        let keys = keys[0].as_any().downcast_ref::<StringArray>().unwrap();
+        let sums = aggregates[0]
+            .as_any()
+            .downcast_ref::<Int32Array>()
+            .unwrap();
+        assert_eq!(keys.len(), 1500);
+        assert_eq!(keys.value(0), "key 0");
+        assert_eq!(keys.value(1499), "key 1499");
+        assert!(sums.iter().all(|sum| sum == Some(2)));
+    }
+
+    #[test]
+    fn test_hash_aggregator_invalid() {
+        assert!(HashAggregator::try_new(vec![], vec![]).is_err());
+        let list = DataType::List(Box::new(Field::new("item", DataType::Int32, true)));
+        assert!(HashAggregator::try_new(vec![list], vec![]).is_err());
+        assert!(HashAggregator::try_new(
+            vec![DataType::Int32],
+            vec![(AggregateFunction::Sum, DataType::Utf8)]
+        )
+        .is_err());
+
+        let mut aggregator = HashAggregator::try_new(
+            vec![DataType::Int32],
+            vec![(AggregateFunction::Count, DataType::Utf8)],
+        )
+        .unwrap();
+        let keys: ArrayRef = Arc::new(Int32Array::from(vec![1, 2]));
+        let values: ArrayRef = Arc::new(StringArray::from(vec!["a"]));
+        assert!(aggregator.update(&[keys.clone()], &[values]).is_err());
+        assert!(aggregator.update(&[keys.clone()], &[keys]).is_err());
+
+        let (keys, aggregates) = aggregator.finish().unwrap();
+        assert_eq!(keys[0].len(), 0);
+        assert_eq!(aggregates[0].len(), 0);
+    }
+}
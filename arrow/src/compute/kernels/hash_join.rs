@@ -0,0 +1,353 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+//! Defines hash join kernels, that find the pairs of rows of two sides of an
+//! equi-join as indices, to be gathered with [`take`](crate::compute::take).
+//!
+//! The rows of the build side are inserted into a [`JoinHashTable`], which the batches
+//! of the probe side are then probed against.
+//!
+//! # Example
+//! ```
+//! # use std::sync::Arc;
+//! # use arrow::array::{ArrayRef, Int32Array, StringArray, UInt32Array, UInt64Array};
+//! # use arrow::compute::kernels::hash_join::{JoinHashTable, JoinType};
+//! # use arrow::compute::take;
+//! let build_keys: ArrayRef = Arc::new(Int32Array::from(vec![1, 2, 1]));
+//! let build_values = StringArray::from(vec!["a", "b", "c"]);
+//! let table = JoinHashTable::try_new(&[build_keys]).unwrap();
+//!
+//! let probe_keys: ArrayRef = Arc::new(Int32Array::from(vec![3, 1]));
+//! let (probe_indices, build_indices) =
+//!     table.probe(&[probe_keys], JoinType::Inner).unwrap();
+//! assert_eq!(probe_indices, UInt32Array::from(vec![1, 1]));
+//! assert_eq!(build_indices, UInt64Array::from(vec![0, 2]));
+//!
+//! let joined = take(&build_values, &build_indices, None).unwrap();
+//! assert_eq!(joined.as_ref(), &StringArray::from(vec!["a", "c"]));
+//! ```
+
+use crate::array::*;
+use crate::compute::kernels::hash::hash_columns;
+use crate::compute::kernels::hash_aggregate::{GroupTable, EMPTY};
+use crate::datatypes::*;
+use crate::error::{ArrowError, Result};
+
+/// The rows of the probe side that a join returns.
+///
+/// Keys are equal if they compare equal like the groups of
+/// [`HashAggregator`](crate::compute::kernels::hash_aggregate::HashAggregator), except
+/// that rows with a null key never match.
+#[derive(Debug, Clone, Copy, PartialEq, Eq)]
+pub enum JoinType {
+    /// Each pair of a probe row and a build row with equal keys
+    Inner,
+    /// Each pair of a probe row and a build row with equal keys, and each probe row
+    /// without such a build row, paired with a null build index
+    Left,
+    /// Each probe row with a build row with equal keys, paired with the first such
+    /// build row
+    Semi,
+    /// Each probe row without a build row with equal keys, paired with a null build
+    /// index
+    Anti,
+}
+
+/// Returns an error if `keys` do not match `key_types` or have different lengths.
+fn check_keys(keys: &[ArrayRef], key_types: &[DataType]) -> Result<()> {
+    if keys.len() != key_types.len()
+        || keys
+            .iter()
+            .zip(key_types)
+            .any(|(key, key_type)| key.data_type() != key_type)
+    {
+        return Err(ArrowError::InvalidArgumentError(
+            "Hash join keys do not match the key types of the table".to_string(),
+        ));
+    }
+    if keys.iter().any(|key| key.len() != keys[0].len()) {
+        return Err(ArrowError::InvalidArgumentError(
+            "Hash join keys have different lengths".to_string(),
+        ));
+    }
+    Ok(())
+}
+
+/// Builds a [`JoinHashTable`] from the key columns of the build side of a join, one
+/// batch at a time.
+///
+/// The rows of all batches are numbered consecutively, so that the build indices of
+/// [`JoinHashTable::probe`] index the concatenation of the batches.
+#[derive(Debug)]
+pub struct JoinHashTableBuilder {
+    key_types: Vec<DataType>,
+    table: GroupTable,
+    /// The group of each build row, or [`EMPTY`] if the row has a null key
+    row_groups: Vec<u32>,
+}
+
+impl JoinHashTableBuilder {
+    /// Creates a builder of a table of keys of `key_types`.
+    ///
+    /// Returns an `ArrowError::ComputeError` if a key type is not supported. Keys of
+    /// primitive, boolean, decimal, binary and string types are supported.
+    pub fn try_new(key_types: Vec<DataType>) -> Result<Self> {
+        if key_types.is_empty() {
+            return Err(ArrowError::InvalidArgumentError(
+                "Hash join requires at least one key column".to_string(),
+            ));
+        }
+        Ok(Self {
+            table: GroupTable::try_new(&key_types)?,
+            key_types,
+            row_groups: Vec::new(),
+        })
+    }
+
+    /// Returns the number of rows appended so far.
+    pub fn num_rows(&self) -> usize {
+        self.row_groups.len()
+    }
+
+    /// Appends the rows of the key columns `keys` of a batch of the build side.
+    pub fn append(&mut self, keys: &[ArrayRef]) -> Result<()> {
+        check_keys(keys, &self.key_types)?;
+        let num_rows = keys[0].len();
+        let row_hashes = hash_columns(keys, 0)?;
+        let mut groups = Vec::with_capacity(num_rows);
+        self.table.find_groups(
+            keys,
+            row_hashes.values(),
+            &mut groups,
+            &mut Vec::new(),
+        )?;
+
+        // rows with a null key can not match, but still take a build index
+        let start = self.row_groups.len();
+        self.row_groups.extend(groups.into_iter().map(|group| group as u32));
+        for key in keys.iter().filter(|key| key.null_count() > 0) {
+            for row in (0..num_rows).filter(|row| key.is_null(*row)) {
+                self.row_groups[start + row] = EMPTY;
+            }
+        }
+        Ok(())
+    }
+
+    /// Returns the table of the rows appended so far.
+    pub fn finish(self) -> JoinHashTable {
+        // lays out the rows of each group contiguously, in the order of the rows
+        let num_groups = self.table.num_groups();
+        let mut offsets = vec![0; num_groups + 1];
+        for group in self.row_groups.iter().filter(|group| **group != EMPTY) {
+            offsets[*group as usize + 1] += 1;
+        }
+        for group in 0..num_groups {
+            offsets[group + 1] += offsets[group];
+        }
+        let mut next = offsets.clone();
+        let mut rows = vec![0; offsets[num_groups]];
+        for (row, group) in self.row_groups.iter().enumerate() {
+            if *group != EMPTY {
+                let next = &mut next[*group as usize];
+                rows[*next] = row as u64;
+                *next += 1;
+            }
+        }
+
+        JoinHashTable {
+            key_types: self.key_types,
+            table: self.table,
+            num_rows: self.row_groups.len(),
+            offsets,
+            rows,
+        }
+    }
+}
+
+/// A hash table of the key columns of the build side of an equi-join, that batches of
+/// the probe side are probed against with [`probe`](JoinHashTable::probe).
+///
+/// The distinct keys of the build side are in an open addressing hash table, and the
+/// build rows of each key are stored contiguously, so that probing a row takes a
+/// lookup of its key followed by a sequential scan of the matching rows.
+#[derive(Debug)]
+pub struct JoinHashTable {
+    key_types: Vec<DataType>,
+    table: GroupTable,
+    num_rows: usize,
+    /// The build rows of group `i` are `rows[offsets[i]..offsets[i + 1]]`
+    offsets: Vec<usize>,
+    rows: Vec<u64>,
+}
+
+impl JoinHashTable {
+    /// Creates a table of the rows of the build side key columns `keys`, see
+    /// [`JoinHashTableBuilder`].
+    pub fn try_new(keys: &[ArrayRef]) -> Result<Self> {
+        let key_types = keys.iter().map(|key| key.data_type().clone()).collect();
+        let mut builder = JoinHashTableBuilder::try_new(key_types)?;
+        builder.append(keys)?;
+        Ok(builder.finish())
+    }
+
+    /// Returns the number of rows of the build side.
+    pub fn num_rows(&self) -> usize {
+        self.num_rows
+    }
+
+    /// Returns the pairs of rows of the batch of the probe side with key columns `keys`
+    /// and of the build side that `join_type` joins, as indices of the probe rows and
+    /// of the build rows.
+    ///
+    /// The pairs are ordered by probe row, and then by build row.
+    pub fn probe(
+        &self,
+        keys: &[ArrayRef],
+        join_type: JoinType,
+    ) -> Result<(UInt32Array, UInt64Array)> {
+        check_keys(keys, &self.key_types)?;
+        let num_rows = keys[0].len();
+        let row_hashes = hash_columns(keys, 0)?;
+        let mut groups = Vec::with_capacity(num_rows);
+        self.table.lookup_groups(keys, row_hashes.values(), &mut groups)?;
+
+        let mut probe_indices = Vec::with_capacity(num_rows);
+        let mut build_indices = Vec::with_capacity(num_rows);
+        for (row, group) in groups.into_iter().enumerate() {
+            // groups of keys with nulls have no rows
+            let matches: &[u64] = if group == EMPTY {
+                &[]
+            } else {
+                let group = group as usize;
+                &self.rows[self.offsets[group]..self.offsets[group + 1]]
+            };
+            match join_type {
+                JoinType::Inner | JoinType::Left if !matches.is_empty() => {
+                    probe_indices
+                        .extend(std::iter::repeat(row as u32).take(matches.len()));
+                    build_indices
+                        .extend(matches.iter().map(|build_row| Some(*build_row)));
+                }
+                JoinType::Left | JoinType::Anti if matches.is_empty() => {
+                    probe_indices.push(row as u32);
+                    build_indices.push(None);
+                }
+                JoinType::Semi if !matches.is_empty() => {
+                    probe_indices.push(row as u32);
+                    build_indices.push(Some(matches[0]));
+                }
+                _ => {}
+            }
+        }
+        Ok((
+            UInt32Array::from(probe_indices),
+            UInt64Array::from(build_indices),
+        ))
+    }
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+    use std::sync::Arc;
+
+    fn probe(
+        table: &JoinHashTable,
+        keys: Vec<ArrayRef>,
+        join_type: JoinType,
+    ) -> (Vec<u32>, Vec<Option<u64>>) {
+        let (probe_indices, build_indices) = table.probe(&keys, join_type).unwrap();
+        (
+            probe_indices.values().to_vec(),
+            build_indices.iter().collect(),
+        )
+    }
+
+    #[test]
+    fn test_hash_join_primitive_keys() {
+        let build: ArrayRef = Arc::new(Int64Array::from(vec![
+            Some(1),
+            None,
+            Some(2),
+            Some(1),
+            Some(4),
+        ]));
+        let table = JoinHashTable::try_new(&[build]).unwrap();
+        assert_eq!(table.num_rows(), 5);
+
+        let keys: ArrayRef =
+            Arc::new(Int64Array::from(vec![Some(1), None, Some(3), Some(4)]));
+        let keys = vec![keys];
+
+        let (probe_indices, build_indices) =
+            probe(&table, keys.clone(), JoinType::Inner);
+        assert_eq!(probe_indices, vec![0, 0, 3]);
+        assert_eq!(build_indices, vec![Some(0), Some(3), Some(4)]);
+
+        let (probe_indices, build_indices) =
+            probe(&table, keys.clone(), JoinType::Left);
+        assert_eq!(probe_indices, vec![0, 0, 1, 2, 3]);
+        assert_eq!(build_indices, vec![Some(0), Some(3), None, None, Some(4)]);
+
+        let (probe_indices, build_indices) =
+            probe(&table, keys.clone(), JoinType::Semi);
+        assert_eq!(probe_indices, vec![0, 3]);
+        assert_eq!(build_indices, vec![Some(0), Some(4)]);
+
+        let (probe_indices, build_indices) = probe(&table, keys, JoinType::Anti);
+        assert_eq!(probe_indices, vec![1, 2]);
+        assert_eq!(build_indices, vec![None, None]);
+    }
+
+    #[test]
+    fn test_hash_join_multiple_keys() {
+        let mut builder =
+            JoinHashTableBuilder::try_new(vec![DataType::Utf8, DataType::Int32]).unwrap();
+        let strings: ArrayRef = Arc::new(StringArray::from(vec!["a", "b"]));
+        let ints: ArrayRef = Arc::new(Int32Array::from(vec![1, 1]));
+        builder.append(&[strings, ints]).unwrap();
+        let strings: ArrayRef = Arc::new(StringArray::from(vec![Some("a"), None]));
+        let ints: ArrayRef = Arc::new(Int32Array::from(vec![1, 2]));
+        builder.append(&[strings, ints]).unwrap();
+        assert_eq!(builder.num_rows(), 4);
+        let table = builder.finish();
+
+        let strings: ArrayRef = Arc::new(StringArray::from(vec![
+            None,
+            Some("a"),
+            Some("a"),
+            Some("b"),
+        ]));
+        let ints: ArrayRef = Arc::new(Int32Array::from(vec![2, 2, 1, 1]));
+        let (probe_indices, build_indices) =
+            probe(&table, vec![strings, ints], JoinType::Left);
+        assert_eq!(probe_indices, vec![0, 1, 2, 2, 3]);
+        assert_eq!(build_indices, vec![None, None, Some(0), Some(2), Some(1)]);
+    }
+
+    #[test]
+    fn test_hash_join_invalid() {
+        assert!(JoinHashTableBuilder::try_new(vec![]).is_err());
+        let list = DataType::List(Box::new(Field::new("item", DataType::Int32, true)));
+        assert!(JoinHashTableBuilder::try_new(vec![list]).is_err());
+
+        let build: ArrayRef = Arc::new(Int32Array::from(vec![1, 2]));
+        let table = JoinHashTable::try_new(&[build]).unwrap();
+        let keys: ArrayRef = Arc::new(Int64Array::from(vec![1, 2]));
+        assert!(table.probe(&[keys], JoinType::Inner).is_err());
+    }
+}
@@ -26,10 +26,14 @@ pub mod cast_utils;
 pub mod comparison;
 pub mod concat;
 pub mod filter;
+pub mod hash;
+pub mod hash_aggregate;
+pub mod hash_join;
 pub mod length;
 pub mod limit;
 pub mod partition;
 pub mod regexp;
+pub mod row;
 pub mod sort;
 pub mod substring;
 pub mod take;
@@ -15,11 +15,14 @@
 // specific language governing permissions and limitations
 // under the License.
 
-//! Defines partition kernel for `ArrayRef`
+//! Defines partition kernels for `ArrayRef` and `RecordBatch`
 
+use crate::array::{make_array, ArrayRef, MutableArrayData};
+use crate::compute::kernels::hash::hash_columns;
 use crate::compute::kernels::sort::LexicographicalComparator;
 use crate::compute::SortColumn;
 use crate::error::{ArrowError, Result};
+use crate::record_batch::RecordBatch;
 use std::cmp::Ordering;
 use std::iter::Iterator;
 use std::ops::Range;
@@ -126,12 +129,137 @@ impl<'a> Iterator for LexicographicalPartitionIterator<'a> {
     }
 }
 
+/// Returns the partition, in `0..num_partitions`, of each row of the `keys` columns,
+/// by the hash of the values of the row (see [`hash_columns`]).
+///
+/// Rows with equal keys are in the same partition.
+pub fn hash_partition_ids(keys: &[ArrayRef], num_partitions: usize) -> Result<Vec<u32>> {
+    if keys.is_empty() {
+        return Err(ArrowError::InvalidArgumentError(
+            "Hash partitioning requires at least one key column".to_string(),
+        ));
+    }
+    check_num_partitions(num_partitions)?;
+    let hashes = hash_columns(keys, 0)?;
+    // maps the hashes to `0..num_partitions` with a multiplication instead of a modulo
+    Ok(hashes
+        .values()
+        .iter()
+        .map(|hash| ((*hash as u128 * num_partitions as u128) >> 64) as u32)
+        .collect())
+}
+
+/// Splits `batch` into `num_partitions` batches, where row `i` of `batch` is copied
+/// to the batch of partition `partitions[i]`, in a single pass over each column.
+///
+/// The rows of each partition keep their order in `batch`, and partitions without
+/// rows are empty batches.
+///
+/// # Example
+/// ```
+/// # use std::sync::Arc;
+/// # use arrow::array::{Int32Array, ArrayRef};
+/// # use arrow::compute::kernels::partition::partition_record_batch;
+/// # use arrow::datatypes::{DataType, Field, Schema};
+/// # use arrow::record_batch::RecordBatch;
+/// let schema = Arc::new(Schema::new(vec![Field::new("a", DataType::Int32, false)]));
+/// let array: ArrayRef = Arc::new(Int32Array::from(vec![1, 2, 3, 4]));
+/// let batch = RecordBatch::try_new(schema, vec![array]).unwrap();
+///
+/// let batches = partition_record_batch(&batch, &[1, 0, 1, 1], 3).unwrap();
+/// assert_eq!(batches[0].num_rows(), 1);
+/// assert_eq!(batches[1].num_rows(), 3);
+/// assert_eq!(batches[2].num_rows(), 0);
+/// ```
+pub fn partition_record_batch(
+    batch: &RecordBatch,
+    partitions: &[u32],
+    num_partitions: usize,
+) -> Result<Vec<RecordBatch>> {
+    check_num_partitions(num_partitions)?;
+    if partitions.len() != batch.num_rows() {
+        return Err(ArrowError::InvalidArgumentError(format!(
+            "Cannot partition {} rows with {} partition ids",
+            batch.num_rows(),
+            partitions.len()
+        )));
+    }
+
+    // the runs of consecutive rows of the same partition, and the rows per partition
+    let mut runs = Vec::new();
+    let mut num_rows = vec![0; num_partitions];
+    let mut start = 0;
+    for (i, partition) in partitions.iter().enumerate() {
+        let partition = *partition as usize;
+        if partition >= num_partitions {
+            return Err(ArrowError::InvalidArgumentError(format!(
+                "Partition id {} of row {} is not less than the {} partitions",
+                partition, i, num_partitions
+            )));
+        }
+        num_rows[partition] += 1;
+        if partitions.get(i + 1) != Some(&partitions[i]) {
+            runs.push((partition, start, i + 1));
+            start = i + 1;
+        }
+    }
+
+    let mut columns = (0..num_partitions)
+        .map(|_| Vec::with_capacity(batch.num_columns()))
+        .collect::<Vec<Vec<ArrayRef>>>();
+    for column in batch.columns() {
+        let data = column.data();
+        let mut partitioned = num_rows
+            .iter()
+            .map(|num_rows| MutableArrayData::new(vec![data], false, *num_rows))
+            .collect::<Vec<_>>();
+        for (partition, start, end) in &runs {
+            partitioned[*partition].extend(0, *start, *end);
+        }
+        for (columns, data) in columns.iter_mut().zip(partitioned) {
+            columns.push(make_array(data.freeze()));
+        }
+    }
+
+    columns
+        .into_iter()
+        .map(|columns| RecordBatch::try_new(batch.schema(), columns))
+        .collect()
+}
+
+/// Splits `batch` into `num_partitions` batches by the hash of the values of the
+/// `keys` columns, e.g. columns of `batch`, see [`hash_partition_ids`] and
+/// [`partition_record_batch`].
+pub fn hash_partition(
+    batch: &RecordBatch,
+    keys: &[ArrayRef],
+    num_partitions: usize,
+) -> Result<Vec<RecordBatch>> {
+    if keys.iter().any(|key| key.len() != batch.num_rows()) {
+        return Err(ArrowError::InvalidArgumentError(
+            "Hash partitioning keys must have as many rows as the batch".to_string(),
+        ));
+    }
+    let partitions = hash_partition_ids(keys, num_partitions)?;
+    partition_record_batch(batch, &partitions, num_partitions)
+}
+
+fn check_num_partitions(num_partitions: usize) -> Result<()> {
+    if num_partitions == 0 || num_partitions as u64 > u32::MAX as u64 + 1 {
+        return Err(ArrowError::InvalidArgumentError(format!(
+            "The number of partitions must be in 1..=2^32, got {}",
+            num_partitions
+        )));
+    }
+    Ok(())
+}
+
 #[cfg(test)]
 mod tests {
     use super::*;
     use crate::array::*;
     use crate::compute::SortOptions;
-    use crate::datatypes::DataType;
+    use crate::datatypes::{DataType, Field, Schema};
     use std::sync::Arc;
 
     #[test]
@@ -322,4 +450,89 @@ mod tests {
         }
         Ok(())
     }
+
+    fn create_batch() -> RecordBatch {
+        let schema = Arc::new(Schema::new(vec![
+            Field::new("key", DataType::Int32, true),
+            Field::new("value", DataType::Utf8, true),
+        ]));
+        let keys: ArrayRef = Arc::new(Int32Array::from(vec![
+            Some(1),
+            Some(2),
+            None,
+            Some(1),
+            Some(3),
+            Some(2),
+        ]));
+        let values: ArrayRef = Arc::new(StringArray::from(vec![
+            Some("a"),
+            Some("b"),
+            Some("c"),
+            None,
+            Some("e"),
+            Some("f"),
+        ]));
+        RecordBatch::try_new(schema, vec![keys, values]).unwrap()
+    }
+
+    #[test]
+    fn test_partition_record_batch() {
+        let batch = create_batch();
+        let batches = partition_record_batch(&batch, &[2, 0, 0, 2, 2, 0], 4).unwrap();
+        assert_eq!(batches.len(), 4);
+        assert_eq!(batches[1].num_rows(), 0);
+        assert_eq!(batches[3].num_rows(), 0);
+
+        let values = batches[0]
+            .column(1)
+            .as_any()
+            .downcast_ref::<StringArray>()
+            .unwrap();
+        assert_eq!(values, &StringArray::from(vec!["b", "c", "f"]));
+        let keys = batches[2]
+            .column(0)
+            .as_any()
+            .downcast_ref::<Int32Array>()
+            .unwrap();
+        assert_eq!(keys, &Int32Array::from(vec![1, 1, 3]));
+        let values = batches[2]
+            .column(1)
+            .as_any()
+            .downcast_ref::<StringArray>()
+            .unwrap();
+        assert_eq!(values, &StringArray::from(vec![Some("a"), None, Some("e")]));
+    }
+
+    #[test]
+    fn test_partition_record_batch_invalid() {
+        let batch = create_batch();
+        assert!(partition_record_batch(&batch, &[0; 5], 1).is_err());
+        assert!(partition_record_batch(&batch, &[0, 0, 0, 0, 0, 1], 1).is_err());
+        assert!(partition_record_batch(&batch, &[0; 6], 0).is_err());
+    }
+
+    #[test]
+    fn test_hash_partition() {
+        let batch = create_batch();
+        let keys = vec![batch.column(0).clone()];
+        let batches = hash_partition(&batch, &keys, 16).unwrap();
+        assert_eq!(batches.len(), 16);
+        assert_eq!(
+            batches.iter().map(|batch| batch.num_rows()).sum::<usize>(),
+            batch.num_rows()
+        );
+
+        // rows with equal keys are in the same partition
+        let partitions = hash_partition_ids(&keys, 16).unwrap();
+        assert!(partitions.iter().all(|partition| *partition < 16));
+        assert_eq!(partitions[0], partitions[3]);
+        assert_eq!(partitions[1], partitions[5]);
+
+        // all rows are in the only partition
+        let batches = hash_partition(&batch, &keys, 1).unwrap();
+        assert_eq!(batches[0].num_rows(), batch.num_rows());
+
+        assert!(hash_partition(&batch, &[], 16).is_err());
+        assert!(hash_partition(&batch, &[keys[0].slice(0, 2)], 16).is_err());
+    }
 }
@@ -0,0 +1,911 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+//! Defines a normalized row format, that encodes the values of multiple columns of
+//! each row into bytes which compare, with `memcmp`, like the rows compare under the
+//! [`SortOptions`] of the columns.
+//!
+//! Sorting, merging and grouping rows by multiple columns can then compare plain byte
+//! slices, instead of comparing each column with a dynamically dispatched comparator.
+//!
+//! # Example
+//! ```
+//! # use std::sync::Arc;
+//! # use arrow::array::{ArrayRef, Int32Array, StringArray};
+//! # use arrow::compute::kernels::row::{RowConverter, SortField};
+//! # use arrow::compute::SortOptions;
+//! # use arrow::datatypes::DataType;
+//! let converter = RowConverter::try_new(vec![
+//!     SortField::new(DataType::Utf8, SortOptions::default()),
+//!     SortField::new(
+//!         DataType::Int32,
+//!         SortOptions {
+//!             descending: true,
+//!             nulls_first: false,
+//!         },
+//!     ),
+//! ])
+//! .unwrap();
+//!
+//! let strings: ArrayRef = Arc::new(StringArray::from(vec!["b", "a", "a"]));
+//! let ints: ArrayRef = Arc::new(Int32Array::from(vec![Some(1), Some(1), None]));
+//! let rows = converter.convert_columns(&[strings.clone(), ints.clone()]).unwrap();
+//!
+//! // ("a", 1) < ("a", null) < ("b", 1)
+//! assert!(rows.row(1) < rows.row(2));
+//! assert!(rows.row(2) < rows.row(0));
+//!
+//! let columns = converter.convert_rows(&rows).unwrap();
+//! assert_eq!(columns, vec![strings, ints]);
+//! ```
+
+use std::convert::TryInto;
+
+use crate::array::*;
+use crate::buffer::{Buffer, MutableBuffer};
+use crate::compute::kernels::cast::cast;
+use crate::compute::kernels::hash::{native_kind, native_values, NativeKind};
+use crate::compute::kernels::sort::{SortColumn, SortOptions};
+use crate::datatypes::*;
+use crate::error::{ArrowError, Result};
+use crate::util::bit_util;
+
+/// Precedes the encoding of a non-null value
+const VALID: u8 = 1;
+
+/// Returns the byte that encodes a null value, which sorts before or after [`VALID`].
+#[inline]
+fn null_byte(options: SortOptions) -> u8 {
+    if options.nulls_first {
+        0
+    } else {
+        2
+    }
+}
+
+/// The type and the sort options of a column of a [`RowConverter`].
+#[derive(Debug, Clone, PartialEq)]
+pub struct SortField {
+    pub data_type: DataType,
+    pub options: SortOptions,
+}
+
+impl SortField {
+    /// Creates a field of `data_type`, that sorts according to `options`.
+    pub fn new(data_type: DataType, options: SortOptions) -> Self {
+        Self { data_type, options }
+    }
+}
+
+/// The rows encoded by a [`RowConverter`], stored contiguously.
+#[derive(Debug, Clone, PartialEq, Eq)]
+pub struct Rows {
+    buffer: Vec<u8>,
+    /// The bytes of row `i` are `buffer[offsets[i]..offsets[i + 1]]`
+    offsets: Vec<usize>,
+}
+
+impl Rows {
+    /// Returns the number of rows.
+    pub fn num_rows(&self) -> usize {
+        self.offsets.len() - 1
+    }
+
+    /// Returns the bytes of row `i`, which compare like the values of the row.
+    ///
+    /// # Panics
+    ///
+    /// Panics if `i` is out of bounds.
+    pub fn row(&self, i: usize) -> &[u8] {
+        &self.buffer[self.offsets[i]..self.offsets[i + 1]]
+    }
+
+    /// Returns an iterator over the bytes of the rows.
+    pub fn iter(&self) -> impl Iterator<Item = &[u8]> + '_ {
+        (0..self.num_rows()).map(move |i| self.row(i))
+    }
+}
+
+/// Converts columns into [`Rows`] whose bytes compare like the rows of the columns, and
+/// back.
+///
+/// The values of each column are encoded in turn, as a byte that sorts nulls first or
+/// last, followed by the bytes of non-null values:
+///
+/// * integers, floats, decimals and temporal types as big endian bytes with their sign
+///   bit flipped, where the other bits of negative floats are flipped as well. Like
+///   the comparators of `lexsort`, `-0.0` equals `0.0` and all NaNs are equal and
+///   greater than any other value, so they decode as `0.0` and a positive NaN.
+/// * booleans as a single byte
+/// * strings and binaries as their bytes, with each `0` byte followed by `0xFF`, and a
+///   terminating `0, 0`, so that a string sorts before the strings it is a prefix of
+/// * dictionaries as their values
+///
+/// The bytes of descending columns are inverted, except for the null byte.
+///
+/// Dictionaries of integer or string values are supported, and decode into a new
+/// dictionary of the same type.
+#[derive(Debug, Clone)]
+pub struct RowConverter {
+    fields: Vec<SortField>,
+}
+
+/// Returns whether columns of `data_type` can be converted into rows and back.
+fn is_supported(data_type: &DataType) -> bool {
+    match data_type {
+        DataType::Boolean
+        | DataType::Decimal(_, _)
+        | DataType::Utf8
+        | DataType::LargeUtf8
+        | DataType::Binary
+        | DataType::LargeBinary => true,
+        DataType::Dictionary(_, value_type) => matches!(
+            **value_type,
+            DataType::Int8
+                | DataType::Int16
+                | DataType::Int32
+                | DataType::Int64
+                | DataType::UInt8
+                | DataType::UInt16
+                | DataType::UInt32
+                | DataType::UInt64
+                | DataType::Utf8
+        ),
+        t => native_kind(t).is_some(),
+    }
+}
+
+impl RowConverter {
+    /// Creates a converter of columns of the types of `fields`.
+    ///
+    /// Returns an `ArrowError::ComputeError` if the type of a field is not supported.
+    pub fn try_new(fields: Vec<SortField>) -> Result<Self> {
+        if let Some(field) = fields.iter().find(|field| !is_supported(&field.data_type)) {
+            return Err(ArrowError::ComputeError(format!(
+                "Row format not supported for type {:?}",
+                field.data_type
+            )));
+        }
+        Ok(Self { fields })
+    }
+
+    /// Creates a converter of the values of `columns`, and converts them into rows,
+    /// using the default sort options for columns without options.
+    pub fn try_from_sort_columns(columns: &[SortColumn]) -> Result<(Self, Rows)> {
+        let converter = Self::try_new(
+            columns
+                .iter()
+                .map(|column| {
+                    SortField::new(
+                        column.values.data_type().clone(),
+                        column.options.unwrap_or_default(),
+                    )
+                })
+                .collect(),
+        )?;
+        let values = columns
+            .iter()
+            .map(|column| column.values.clone())
+            .collect::<Vec<_>>();
+        let rows = converter.convert_columns(&values)?;
+        Ok((converter, rows))
+    }
+
+    /// Returns the fields of the rows of this converter.
+    pub fn fields(&self) -> &[SortField] {
+        &self.fields
+    }
+
+    /// Encodes the rows of `columns`, which has a column of the type of each field of
+    /// the converter.
+    ///
+    /// Returns an `ArrowError::InvalidArgumentError` if the columns do not match the
+    /// fields or have different lengths.
+    pub fn convert_columns(&self, columns: &[ArrayRef]) -> Result<Rows> {
+        if columns.len() != self.fields.len()
+            || columns
+                .iter()
+                .zip(&self.fields)
+                .any(|(column, field)| column.data_type() != &field.data_type)
+        {
+            return Err(ArrowError::InvalidArgumentError(
+                "Row format columns do not match the fields of the converter".to_string(),
+            ));
+        }
+        let num_rows = columns.first().map(|column| column.len()).unwrap_or(0);
+        if columns.iter().any(|column| column.len() != num_rows) {
+            return Err(ArrowError::InvalidArgumentError(
+                "Row format columns have different lengths".to_string(),
+            ));
+        }
+
+        // dictionaries are encoded as their values
+        let columns = columns
+            .iter()
+            .map(|column| match column.data_type() {
+                DataType::Dictionary(_, value_type) => cast(column, value_type),
+                _ => Ok(column.clone()),
+            })
+            .collect::<Result<Vec<_>>>()?;
+
+        // sizes the rows first, to encode each column into all rows at once
+        let mut offsets = vec![0; num_rows + 1];
+        for column in &columns {
+            add_lengths(column.as_ref(), &mut offsets[1..]);
+        }
+        for row in 0..num_rows {
+            offsets[row + 1] += offsets[row];
+        }
+
+        let mut buffer = vec![0; offsets[num_rows]];
+        let mut cursors = offsets[..num_rows].to_vec();
+        for (column, field) in columns.iter().zip(&self.fields) {
+            encode_column(column.as_ref(), field.options, &mut cursors, &mut buffer);
+        }
+        Ok(Rows { buffer, offsets })
+    }
+
+    /// Decodes `rows` into a column for each field of the converter.
+    ///
+    /// Returns an `ArrowError::ComputeError` if a string does not decode into valid
+    /// UTF-8. The result is unspecified, and may panic, if `rows` were not encoded by
+    /// a converter with the same fields.
+    pub fn convert_rows(&self, rows: &Rows) -> Result<Vec<ArrayRef>> {
+        let mut cursors = rows.offsets[..rows.num_rows()].to_vec();
+        self.fields
+            .iter()
+            .map(|field| {
+                let value_type = match &field.data_type {
+                    DataType::Dictionary(_, value_type) => value_type.as_ref(),
+                    data_type => data_type,
+                };
+                let data =
+                    decode_column(value_type, field.options, &mut cursors, &rows.buffer)?;
+                let array = make_array(data);
+                match &field.data_type {
+                    DataType::Dictionary(_, _) => cast(&array, &field.data_type),
+                    _ => Ok(array),
+                }
+            })
+            .collect()
+    }
+}
+
+/// A fixed width value, whose encoding compares like the value.
+trait FixedCodec: Copy + Default {
+    const WIDTH: usize;
+
+    /// Writes the encoding of the value to `out` of length [`WIDTH`](Self::WIDTH).
+    fn encode(self, out: &mut [u8]);
+
+    /// Reads a value from its encoding `bytes` of length [`WIDTH`](Self::WIDTH).
+    fn decode(bytes: &[u8]) -> Self;
+}
+
+macro_rules! unsigned_codec {
+    ($native_ty:ty) => {
+        impl FixedCodec for $native_ty {
+            const WIDTH: usize = std::mem::size_of::<$native_ty>();
+
+            #[inline]
+            fn encode(self, out: &mut [u8]) {
+                out.copy_from_slice(&self.to_be_bytes());
+            }
+
+            #[inline]
+            fn decode(bytes: &[u8]) -> Self {
+                Self::from_be_bytes(bytes.try_into().unwrap())
+            }
+        }
+    };
+}
+
+unsigned_codec!(u8);
+unsigned_codec!(u16);
+unsigned_codec!(u32);
+unsigned_codec!(u64);
+
+// flips the sign bit, so that negative values sort before positive values
+macro_rules! signed_codec {
+    ($native_ty:ty, $unsigned_ty:ty) => {
+        impl FixedCodec for $native_ty {
+            const WIDTH: usize = std::mem::size_of::<$native_ty>();
+
+            #[inline]
+            fn encode(self, out: &mut [u8]) {
+                let flipped = (self as $unsigned_ty) ^ (1 << (Self::WIDTH * 8 - 1));
+                flipped.encode(out)
+            }
+
+            #[inline]
+            fn decode(bytes: &[u8]) -> Self {
+                let flipped = <$unsigned_ty>::decode(bytes);
+                (flipped ^ (1 << (Self::WIDTH * 8 - 1))) as Self
+            }
+        }
+    };
+}
+
+signed_codec!(i8, u8);
+signed_codec!(i16, u16);
+signed_codec!(i32, u32);
+signed_codec!(i64, u64);
+signed_codec!(i128, u128);
+
+// canonicalizes `-0.0` to `0.0` and all NaNs to a positive NaN, which sort like the
+// comparators of `lexsort`, and flips all but the sign bit of negative values, so
+// that their bits, as signed integers, sort like the values
+macro_rules! float_codec {
+    ($native_ty:ty, $signed_ty:ty, $unsigned_ty:ty) => {
+        impl FixedCodec for $native_ty {
+            const WIDTH: usize = std::mem::size_of::<$native_ty>();
+
+            #[inline]
+            fn encode(self, out: &mut [u8]) {
+                let value = if self.is_nan() {
+                    <$native_ty>::NAN
+                } else if self == 0.0 {
+                    0.0
+                } else {
+                    self
+                };
+                let bits = value.to_bits() as $signed_ty;
+                let bits = bits ^ (((bits >> (Self::WIDTH * 8 - 1)) as $unsigned_ty) >> 1)
+                    as $signed_ty;
+                bits.encode(out)
+            }
+
+            #[inline]
+            fn decode(bytes: &[u8]) -> Self {
+                let bits = <$signed_ty>::decode(bytes);
+                let bits = bits ^ (((bits >> (Self::WIDTH * 8 - 1)) as $unsigned_ty) >> 1)
+                    as $signed_ty;
+                Self::from_bits(bits as $unsigned_ty)
+            }
+        }
+    };
+}
+
+float_codec!(f32, i32, u32);
+float_codec!(f64, i64, u64);
+
+impl FixedCodec for bool {
+    const WIDTH: usize = 1;
+
+    #[inline]
+    fn encode(self, out: &mut [u8]) {
+        out[0] = self as u8;
+    }
+
+    #[inline]
+    fn decode(bytes: &[u8]) -> Self {
+        bytes[0] != 0
+    }
+}
+
+/// Returns the number of bytes of the fixed width values of `data_type`, or `None` if
+/// its values have a variable width.
+fn fixed_width(data_type: &DataType) -> Option<usize> {
+    Some(match data_type {
+        DataType::Boolean => bool::WIDTH,
+        DataType::Decimal(_, _) => i128::WIDTH,
+        t => match native_kind(t)? {
+            NativeKind::Int8 | NativeKind::UInt8 => 1,
+            NativeKind::Int16 | NativeKind::UInt16 => 2,
+            NativeKind::Int32 | NativeKind::UInt32 | NativeKind::Float32 => 4,
+            NativeKind::Int64 | NativeKind::UInt64 | NativeKind::Float64 => 8,
+        },
+    })
+}
+
+/// Returns the number of bytes of the encoding of `bytes`, including the escapes of
+/// its `0` bytes and the terminator.
+#[inline]
+fn encoded_bytes_len(bytes: &[u8]) -> usize {
+    bytes.len() + bytes.iter().filter(|byte| **byte == 0).count() + 2
+}
+
+/// Adds the number of bytes of the encoding of each row of `array` to `lengths`.
+fn add_lengths(array: &dyn Array, lengths: &mut [usize]) {
+    macro_rules! add_bytes_lengths {
+        ($array_type:ty) => {{
+            let array = array.as_any().downcast_ref::<$array_type>().unwrap();
+            for (row, length) in lengths.iter_mut().enumerate() {
+                *length += 1;
+                if array.is_valid(row) {
+                    let bytes: &[u8] = array.value(row).as_ref();
+                    *length += encoded_bytes_len(bytes);
+                }
+            }
+        }};
+    }
+
+    match array.data_type() {
+        DataType::Utf8 => add_bytes_lengths!(StringArray),
+        DataType::LargeUtf8 => add_bytes_lengths!(LargeStringArray),
+        DataType::Binary => add_bytes_lengths!(BinaryArray),
+        DataType::LargeBinary => add_bytes_lengths!(LargeBinaryArray),
+        t => {
+            let width = fixed_width(t).unwrap();
+            if array.null_count() == 0 {
+                lengths.iter_mut().for_each(|length| *length += 1 + width);
+            } else {
+                for (row, length) in lengths.iter_mut().enumerate() {
+                    *length += if array.is_valid(row) { 1 + width } else { 1 };
+                }
+            }
+        }
+    }
+}
+
+/// Encodes the fixed width value `value(row)` of each row of `array` at the cursor of
+/// the row in `buffer`, and advances the cursors.
+fn encode_fixed<T: FixedCodec, F: Fn(usize) -> T>(
+    array: &dyn Array,
+    value: F,
+    options: SortOptions,
+    cursors: &mut [usize],
+    buffer: &mut [u8],
+) {
+    for (row, cursor) in cursors.iter_mut().enumerate() {
+        if array.is_null(row) {
+            buffer[*cursor] = null_byte(options);
+            *cursor += 1;
+            continue;
+        }
+        buffer[*cursor] = VALID;
+        let out = &mut buffer[*cursor + 1..*cursor + 1 + T::WIDTH];
+        value(row).encode(out);
+        if options.descending {
+            out.iter_mut().for_each(|byte| *byte = !*byte);
+        }
+        *cursor += 1 + T::WIDTH;
+    }
+}
+
+/// Encodes the bytes of each row of `array` at the cursor of the row in `buffer`, and
+/// advances the cursors.
+fn encode_bytes<'a, F: Fn(usize) -> &'a [u8]>(
+    array: &dyn Array,
+    value: F,
+    options: SortOptions,
+    cursors: &mut [usize],
+    buffer: &mut [u8],
+) {
+    for (row, cursor) in cursors.iter_mut().enumerate() {
+        if array.is_null(row) {
+            buffer[*cursor] = null_byte(options);
+            *cursor += 1;
+            continue;
+        }
+        buffer[*cursor] = VALID;
+        let start = *cursor + 1;
+        let mut end = start;
+        for byte in value(row) {
+            buffer[end] = *byte;
+            end += 1;
+            if *byte == 0 {
+                buffer[end] = 0xFF;
+                end += 1;
+            }
+        }
+        // the terminator `0, 0` is already zeroed
+        end += 2;
+        if options.descending {
+            buffer[start..end].iter_mut().for_each(|byte| *byte = !*byte);
+        }
+        *cursor = end;
+    }
+}
+
+fn encode_column(
+    array: &dyn Array,
+    options: SortOptions,
+    cursors: &mut [usize],
+    buffer: &mut [u8],
+) {
+    macro_rules! encode_native {
+        ($native_ty:ty) => {{
+            let values = native_values::<$native_ty>(array);
+            encode_fixed(array, |row| values[row], options, cursors, buffer)
+        }};
+    }
+
+    macro_rules! encode_binary {
+        ($array_type:ty) => {{
+            let array = array.as_any().downcast_ref::<$array_type>().unwrap();
+            encode_bytes(
+                array,
+                |row| array.value(row).as_ref(),
+                options,
+                cursors,
+                buffer,
+            )
+        }};
+    }
+
+    match array.data_type() {
+        DataType::Boolean => {
+            let array = array.as_any().downcast_ref::<BooleanArray>().unwrap();
+            encode_fixed(array, |row| array.value(row), options, cursors, buffer)
+        }
+        DataType::Decimal(_, _) => {
+            let array = array.as_any().downcast_ref::<DecimalArray>().unwrap();
+            encode_fixed(array, |row| array.value(row), options, cursors, buffer)
+        }
+        DataType::Utf8 => encode_binary!(StringArray),
+        DataType::LargeUtf8 => encode_binary!(LargeStringArray),
+        DataType::Binary => encode_binary!(BinaryArray),
+        DataType::LargeBinary => encode_binary!(LargeBinaryArray),
+        t => match native_kind(t).unwrap() {
+            NativeKind::Int8 => encode_native!(i8),
+            NativeKind::Int16 => encode_native!(i16),
+            NativeKind::Int32 => encode_native!(i32),
+            NativeKind::Int64 => encode_native!(i64),
+            NativeKind::UInt8 => encode_native!(u8),
+            NativeKind::UInt16 => encode_native!(u16),
+            NativeKind::UInt32 => encode_native!(u32),
+            NativeKind::UInt64 => encode_native!(u64),
+            NativeKind::Float32 => encode_native!(f32),
+            NativeKind::Float64 => encode_native!(f64),
+        },
+    }
+}
+
+/// Decodes the validity of the value at the cursor of each row in `buffer`, returning
+/// the null bit buffer, if there are null values.
+fn decode_nulls(cursors: &[usize], buffer: &[u8]) -> Option<Buffer> {
+    if cursors.iter().all(|cursor| buffer[*cursor] == VALID) {
+        return None;
+    }
+    let mut nulls = MutableBuffer::new_null(cursors.len());
+    let slice = nulls.as_slice_mut();
+    for (row, cursor) in cursors.iter().enumerate() {
+        if buffer[*cursor] == VALID {
+            bit_util::set_bit(slice, row);
+        }
+    }
+    Some(nulls.into())
+}
+
+/// Decodes the fixed width value at the cursor of each row in `buffer`, and advances
+/// the cursors. Null values decode as the default value.
+fn decode_fixed<T: FixedCodec>(
+    options: SortOptions,
+    cursors: &mut [usize],
+    buffer: &[u8],
+) -> Vec<T> {
+    let mut bytes = vec![0; T::WIDTH];
+    cursors
+        .iter_mut()
+        .map(|cursor| {
+            if buffer[*cursor] != VALID {
+                *cursor += 1;
+                return T::default();
+            }
+            bytes.copy_from_slice(&buffer[*cursor + 1..*cursor + 1 + T::WIDTH]);
+            if options.descending {
+                bytes.iter_mut().for_each(|byte| *byte = !*byte);
+            }
+            *cursor += 1 + T::WIDTH;
+            T::decode(&bytes)
+        })
+        .collect()
+}
+
+/// Decodes the bytes at the cursor of each row in `buffer` into an array of
+/// `data_type`, and advances the cursors.
+fn decode_bytes<O: OffsetSizeTrait>(
+    data_type: &DataType,
+    options: SortOptions,
+    cursors: &mut [usize],
+    buffer: &[u8],
+) -> Result<ArrayData> {
+    let nulls = decode_nulls(cursors, buffer);
+    let invert = if options.descending { 0xFF } else { 0 };
+    let mut values = Vec::new();
+    let mut offsets = Vec::with_capacity(cursors.len() + 1);
+    offsets.push(O::zero());
+    for cursor in cursors.iter_mut() {
+        let valid = buffer[*cursor] == VALID;
+        *cursor += 1;
+        if valid {
+            loop {
+                let byte = buffer[*cursor] ^ invert;
+                *cursor += 1;
+                if byte == 0 {
+                    let next = buffer[*cursor] ^ invert;
+                    *cursor += 1;
+                    if next == 0 {
+                        break;
+                    }
+                }
+                values.push(byte);
+            }
+        }
+        let offset = O::from_usize(values.len()).ok_or_else(|| {
+            ArrowError::ComputeError("Row format offset overflow".to_string())
+        })?;
+        offsets.push(offset);
+    }
+    if matches!(data_type, DataType::Utf8 | DataType::LargeUtf8) {
+        std::str::from_utf8(&values).map_err(|e| {
+            ArrowError::ComputeError(format!("Row format decoded invalid UTF-8: {}", e))
+        })?;
+    }
+
+    let mut builder = ArrayData::builder(data_type.clone())
+        .len(cursors.len())
+        .add_buffer(Buffer::from_slice_ref(&offsets))
+        .add_buffer(Buffer::from(values));
+    if let Some(nulls) = nulls {
+        builder = builder.null_bit_buffer(nulls);
+    }
+    Ok(builder.build())
+}
+
+fn decode_column(
+    data_type: &DataType,
+    options: SortOptions,
+    cursors: &mut [usize],
+    buffer: &[u8],
+) -> Result<ArrayData> {
+    macro_rules! decode_native {
+        ($native_ty:ty) => {{
+            let values = decode_fixed::<$native_ty>(options, cursors, buffer);
+            Buffer::from_slice_ref(&values)
+        }};
+    }
+
+    match data_type {
+        DataType::Utf8 | DataType::Binary => {
+            return decode_bytes::<i32>(data_type, options, cursors, buffer)
+        }
+        DataType::LargeUtf8 | DataType::LargeBinary => {
+            return decode_bytes::<i64>(data_type, options, cursors, buffer)
+        }
+        _ => {}
+    }
+
+    let nulls = decode_nulls(cursors, buffer);
+    let values = match data_type {
+        DataType::Boolean => {
+            let values = decode_fixed::<bool>(options, cursors, buffer);
+            let mut bits = MutableBuffer::new_null(values.len());
+            let slice = bits.as_slice_mut();
+            for (row, value) in values.iter().enumerate() {
+                if *value {
+                    bit_util::set_bit(slice, row);
+                }
+            }
+            bits.into()
+        }
+        DataType::Decimal(_, _) => {
+            let values = decode_fixed::<i128>(options, cursors, buffer);
+            let bytes = values
+                .iter()
+                .flat_map(|value| value.to_le_bytes().to_vec())
+                .collect::<Vec<u8>>();
+            Buffer::from(bytes)
+        }
+        t => match native_kind(t).unwrap() {
+            NativeKind::Int8 => decode_native!(i8),
+            NativeKind::Int16 => decode_native!(i16),
+            NativeKind::Int32 => decode_native!(i32),
+            NativeKind::Int64 => decode_native!(i64),
+            NativeKind::UInt8 => decode_native!(u8),
+            NativeKind::UInt16 => decode_native!(u16),
+            NativeKind::UInt32 => decode_native!(u32),
+            NativeKind::UInt64 => decode_native!(u64),
+            NativeKind::Float32 => decode_native!(f32),
+            NativeKind::Float64 => decode_native!(f64),
+        },
+    };
+
+    let mut builder = ArrayData::builder(data_type.clone())
+        .len(cursors.len())
+        .add_buffer(values);
+    if let Some(nulls) = nulls {
+        builder = builder.null_bit_buffer(nulls);
+    }
+    Ok(builder.build())
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+    use crate::compute::kernels::sort::lexsort_to_indices;
+    use std::sync::Arc;
+
+    fn options(descending: bool, nulls_first: bool) -> SortOptions {
+        SortOptions {
+            descending,
+            nulls_first,
+        }
+    }
+
+    /// Asserts that the rows of `columns` are ordered like `lexsort_to_indices` orders
+    /// them, and that the rows decode back into the columns. Returns the rows.
+    fn check_sort_columns(columns: Vec<SortColumn>) -> Rows {
+        let (converter, rows) = RowConverter::try_from_sort_columns(&columns).unwrap();
+        assert_eq!(rows.num_rows(), columns[0].values.len());
+
+        // lexsort is not stable, so compare orderings rather than indices of ties
+        let expected = lexsort_to_indices(&columns, None).unwrap();
+        for pair in expected.values().windows(2) {
+            let (a, b) = (pair[0] as usize, pair[1] as usize);
+            assert!(rows.row(a) <= rows.row(b), "rows {} and {} out of order", a, b);
+        }
+
+        // floats decode canonicalized, into the same rows
+        let decoded = converter.convert_rows(&rows).unwrap();
+        assert_eq!(converter.convert_columns(&decoded).unwrap(), rows);
+        for (decoded, column) in decoded.iter().zip(&columns) {
+            let data_type = column.values.data_type();
+            if !matches!(data_type, DataType::Float32 | DataType::Float64) {
+                assert_eq!(decoded, &column.values);
+            }
+        }
+        rows
+    }
+
+    #[test]
+    fn test_row_primitive() {
+        for (descending, nulls_first) in
+            vec![(false, false), (false, true), (true, false), (true, true)]
+        {
+            let options = Some(options(descending, nulls_first));
+            let rows = check_sort_columns(vec![
+                SortColumn {
+                    values: Arc::new(Int32Array::from(vec![
+                        Some(1),
+                        None,
+                        Some(-5),
+                        Some(1),
+                        Some(i32::MIN),
+                        Some(i32::MAX),
+                        Some(-5),
+                        Some(7),
+                        Some(7),
+                        Some(7),
+                    ])),
+                    options,
+                },
+                SortColumn {
+                    values: Arc::new(Float64Array::from(vec![
+                        Some(0.5),
+                        Some(1.0),
+                        Some(0.0),
+                        None,
+                        Some(-1.5),
+                        Some(2.5),
+                        Some(-0.0),
+                        Some(-f64::NAN),
+                        Some(f64::INFINITY),
+                        Some(f64::NAN),
+                    ])),
+                    options,
+                },
+            ]);
+
+            // (-5, 0.0) ties with (-5, -0.0), and (7, -NaN) with (7, NaN)
+            assert_eq!(rows.row(2), rows.row(6));
+            assert_eq!(rows.row(7), rows.row(9));
+            assert_ne!(rows.row(7), rows.row(8));
+        }
+    }
+
+    #[test]
+    fn test_row_strings() {
+        for (descending, nulls_first) in
+            vec![(false, false), (false, true), (true, false), (true, true)]
+        {
+            let options = Some(options(descending, nulls_first));
+            check_sort_columns(vec![
+                SortColumn {
+                    values: Arc::new(StringArray::from(vec![
+                        Some("a"),
+                        Some(""),
+                        None,
+                        Some("ab"),
+                        Some("a\0"),
+                        Some("b"),
+                        Some("a"),
+                    ])),
+                    options,
+                },
+                SortColumn {
+                    values: Arc::new(BooleanArray::from(vec![
+                        Some(true),
+                        None,
+                        Some(false),
+                        Some(true),
+                        Some(false),
+                        None,
+                        Some(false),
+                    ])),
+                    options,
+                },
+            ]);
+        }
+    }
+
+    #[test]
+    fn test_row_dictionary() {
+        let dictionary: DictionaryArray<Int32Type> =
+            vec![Some("b"), Some("a"), None, Some("c"), Some("a")]
+                .into_iter()
+                .collect();
+        let dictionary: ArrayRef = Arc::new(dictionary);
+        let field = SortField::new(dictionary.data_type().clone(), options(true, false));
+        let converter = RowConverter::try_new(vec![field]).unwrap();
+        let rows = converter.convert_columns(&[dictionary.clone()]).unwrap();
+
+        // descending, nulls last
+        let mut indices = (0..rows.num_rows()).collect::<Vec<_>>();
+        indices.sort_by(|a, b| rows.row(*a).cmp(rows.row(*b)));
+        assert_eq!(indices, vec![3, 0, 1, 4, 2]);
+
+        let decoded = converter.convert_rows(&rows).unwrap();
+        assert_eq!(decoded[0].data_type(), dictionary.data_type());
+        let expected = cast(&dictionary, &DataType::Utf8).unwrap();
+        assert_eq!(&cast(&decoded[0], &DataType::Utf8).unwrap(), &expected);
+    }
+
+    #[test]
+    fn test_row_float_order() {
+        let values = vec![
+            f64::NEG_INFINITY,
+            -1.5,
+            0.0,
+            f64::MIN_POSITIVE,
+            2.0,
+            f64::INFINITY,
+            f64::NAN,
+            // equal to 0.0 and NaN
+            -0.0,
+            -f64::NAN,
+        ];
+        let converter = RowConverter::try_new(vec![SortField::new(
+            DataType::Float64,
+            SortOptions::default(),
+        )])
+        .unwrap();
+        let array: ArrayRef = Arc::new(Float64Array::from(values));
+        let rows = converter.convert_columns(&[array]).unwrap();
+        assert!((1..7).all(|i| rows.row(i - 1) < rows.row(i)));
+        assert_eq!(rows.row(7), rows.row(2));
+        assert_eq!(rows.row(8), rows.row(6));
+
+        let decoded = converter.convert_rows(&rows).unwrap();
+        let decoded = decoded[0].as_any().downcast_ref::<Float64Array>().unwrap();
+        assert_eq!(decoded.value(7).to_bits(), 0.0f64.to_bits());
+        assert_eq!(decoded.value(8).to_bits(), f64::NAN.to_bits());
+    }
+
+    #[test]
+    fn test_row_invalid() {
+        let list = DataType::List(Box::new(Field::new("item", DataType::Int32, true)));
+        let field = SortField::new(list, SortOptions::default());
+        assert!(RowConverter::try_new(vec![field]).is_err());
+
+        let field = SortField::new(DataType::Int32, SortOptions::default());
+        let converter = RowConverter::try_new(vec![field]).unwrap();
+        let array: ArrayRef = Arc::new(Int64Array::from(vec![1]));
+        assert!(converter.convert_columns(&[array]).is_err());
+    }
+}
@@ -0,0 +1,367 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+//! Compression of the buffers of IPC record batches
+//!
+//! Each buffer of a compressed record batch is stored as its uncompressed length, a
+//! 64-bit little-endian integer, followed by the compressed data. A length of -1
+//! means that the data that follows is not compressed.
+
+use std::convert::TryFrom;
+
+use crate::buffer::{Buffer, MutableBuffer};
+use crate::error::{ArrowError, Result};
+use crate::ipc;
+
+/// Uncompressed length of a buffer whose data is stored uncompressed
+const LENGTH_NO_COMPRESSED_DATA: i64 = -1;
+
+/// Size of the uncompressed length that precedes the data of a buffer
+const LENGTH_OF_PREFIX_DATA: usize = 8;
+
+/// Upper bound of the compression ratio of the supported codecs, used to reject corrupt
+/// uncompressed lengths before allocating the output. ZSTD has the highest, with
+/// run-length blocks of 128 KiB stored in 4 bytes.
+const MAX_COMPRESSION_RATIO: u64 = 32 * 1024;
+
+/// Compression level of ZSTD, 1 favours compression speed
+#[cfg(feature = "ipc_compression")]
+const ZSTD_COMPRESSION_LEVEL: i32 = 1;
+
+/// Codec that compresses each buffer of a record batch
+#[derive(Debug, Clone, Copy, PartialEq)]
+pub(crate) enum CompressionCodec {
+    Lz4Frame,
+    Zstd,
+}
+
+impl TryFrom<ipc::CompressionType> for CompressionCodec {
+    type Error = ArrowError;
+
+    fn try_from(compression_type: ipc::CompressionType) -> Result<Self> {
+        match compression_type {
+            ipc::CompressionType::LZ4_FRAME => Ok(CompressionCodec::Lz4Frame),
+            ipc::CompressionType::ZSTD => Ok(CompressionCodec::Zstd),
+            other => Err(ArrowError::InvalidArgumentError(format!(
+                "Unsupported IPC compression type {:?}",
+                other
+            ))),
+        }
+    }
+}
+
+impl CompressionCodec {
+    /// Returns the codec of the buffers of `batch`, if they are compressed
+    pub(crate) fn from_batch(batch: &ipc::RecordBatch) -> Result<Option<Self>> {
+        match batch.compression() {
+            None => Ok(None),
+            Some(compression) => {
+                if compression.method() != ipc::BodyCompressionMethod::BUFFER {
+                    return Err(ArrowError::IoError(format!(
+                        "Unsupported IPC body compression method {:?}",
+                        compression.method()
+                    )));
+                }
+                Self::try_from(compression.codec()).map(Some)
+            }
+        }
+    }
+
+    /// Returns the IPC compression type of this codec
+    pub(crate) fn compression_type(&self) -> ipc::CompressionType {
+        match self {
+            CompressionCodec::Lz4Frame => ipc::CompressionType::LZ4_FRAME,
+            CompressionCodec::Zstd => ipc::CompressionType::ZSTD,
+        }
+    }
+
+    /// Appends `input` to `output` as a compressed buffer, which is stored uncompressed
+    /// if compressing it does not make it smaller. Nothing is appended for an empty
+    /// `input`.
+    pub(crate) fn compress_to_vec(
+        &self,
+        input: &[u8],
+        output: &mut Vec<u8>,
+    ) -> Result<()> {
+        if input.is_empty() {
+            return Ok(());
+        }
+        let start = output.len();
+        output.extend_from_slice(&(input.len() as i64).to_le_bytes());
+        self.compress(input, output)?;
+
+        if output.len() - start >= LENGTH_OF_PREFIX_DATA + input.len() {
+            output.truncate(start);
+            output.extend_from_slice(&LENGTH_NO_COMPRESSED_DATA.to_le_bytes());
+            output.extend_from_slice(input);
+        }
+        Ok(())
+    }
+
+    /// Decompresses the compressed buffer `input` into `output`, whose length must be
+    /// the [`decompressed_length`] of `input`
+    fn decompress_to_slice(&self, input: &[u8], output: &mut [u8]) -> Result<()> {
+        if input.is_empty() {
+            return Ok(());
+        }
+        let data = &input[LENGTH_OF_PREFIX_DATA..];
+        if read_prefix(input) == LENGTH_NO_COMPRESSED_DATA {
+            output.copy_from_slice(data);
+            Ok(())
+        } else {
+            self.decompress(data, output)
+        }
+    }
+
+    #[cfg(feature = "ipc_compression")]
+    fn compress(&self, input: &[u8], output: &mut Vec<u8>) -> Result<()> {
+        use std::io::Write;
+
+        match self {
+            CompressionCodec::Lz4Frame => {
+                let mut encoder = lz4::EncoderBuilder::new().build(output)?;
+                encoder.write_all(input)?;
+                encoder.finish().1?;
+            }
+            CompressionCodec::Zstd => {
+                let mut encoder = zstd::Encoder::new(output, ZSTD_COMPRESSION_LEVEL)?;
+                encoder.write_all(input)?;
+                encoder.finish()?;
+            }
+        }
+        Ok(())
+    }
+
+    #[cfg(feature = "ipc_compression")]
+    fn decompress(&self, input: &[u8], output: &mut [u8]) -> Result<()> {
+        use std::io::Read;
+
+        match self {
+            CompressionCodec::Lz4Frame => {
+                lz4::Decoder::new(input)?.read_exact(output)?;
+            }
+            CompressionCodec::Zstd => {
+                zstd::Decoder::new(input)?.read_exact(output)?;
+            }
+        }
+        Ok(())
+    }
+
+    #[cfg(not(feature = "ipc_compression"))]
+    fn compress(&self, _input: &[u8], _output: &mut Vec<u8>) -> Result<()> {
+        check_compression_support()
+    }
+
+    #[cfg(not(feature = "ipc_compression"))]
+    fn decompress(&self, _input: &[u8], _output: &mut [u8]) -> Result<()> {
+        check_compression_support()
+    }
+}
+
+/// Returns an error if buffers cannot be compressed or decompressed, because the
+/// `ipc_compression` feature is disabled
+pub(crate) fn check_compression_support() -> Result<()> {
+    if cfg!(feature = "ipc_compression") {
+        Ok(())
+    } else {
+        Err(ArrowError::InvalidArgumentError(
+            "IPC compression requires the ipc_compression feature".to_string(),
+        ))
+    }
+}
+
+/// Reads the uncompressed length that precedes the data of a compressed buffer
+fn read_prefix(input: &[u8]) -> i64 {
+    let mut prefix = [0; LENGTH_OF_PREFIX_DATA];
+    prefix.copy_from_slice(&input[..LENGTH_OF_PREFIX_DATA]);
+    i64::from_le_bytes(prefix)
+}
+
+/// Returns the uncompressed length of the compressed buffer `input`
+fn decompressed_length(input: &[u8]) -> Result<usize> {
+    if input.is_empty() {
+        return Ok(0);
+    }
+    if input.len() < LENGTH_OF_PREFIX_DATA {
+        return Err(ArrowError::IoError(format!(
+            "Compressed IPC buffer of {} bytes is too short",
+            input.len()
+        )));
+    }
+    let compressed_length = input.len() - LENGTH_OF_PREFIX_DATA;
+    let max_length = (compressed_length as u64).saturating_mul(MAX_COMPRESSION_RATIO);
+    match read_prefix(input) {
+        LENGTH_NO_COMPRESSED_DATA => Ok(compressed_length),
+        length if length >= 0 && length as u64 <= max_length => Ok(length as usize),
+        length => Err(ArrowError::IoError(format!(
+            "Invalid uncompressed length {} of IPC buffer of {} bytes",
+            length,
+            input.len()
+        ))),
+    }
+}
+
+/// Decompresses the `buffers` of the message body `body` into a single new body,
+/// returning it along with the positions of the decompressed buffers in it.
+pub(crate) fn decompress_body(
+    body: &Buffer,
+    buffers: &[ipc::Buffer],
+    codec: CompressionCodec,
+) -> Result<(Buffer, Vec<ipc::Buffer>)> {
+    let compressed = buffers
+        .iter()
+        .map(|buffer| {
+            let range = usize::try_from(buffer.offset())
+                .ok()
+                .zip(usize::try_from(buffer.length()).ok())
+                .and_then(|(offset, length)| Some(offset..offset.checked_add(length)?))
+                .filter(|range| range.end <= body.len());
+            match range {
+                Some(range) => Ok(&body.as_slice()[range]),
+                None => Err(ArrowError::IoError(format!(
+                    "IPC buffer at {} of {} bytes exceeds the body length {}",
+                    buffer.offset(),
+                    buffer.length(),
+                    body.len()
+                ))),
+            }
+        })
+        .collect::<Result<Vec<_>>>()?;
+
+    // keep the decompressed buffers 8-byte aligned, like in an uncompressed body
+    let mut decompressed = Vec::with_capacity(buffers.len());
+    let mut offset: usize = 0;
+    for input in &compressed {
+        let length = decompressed_length(input)?;
+        decompressed.push(ipc::Buffer::new(offset as i64, length as i64));
+        offset = length
+            .checked_add(7)
+            .map(|length| length & !7)
+            .and_then(|length| offset.checked_add(length))
+            .filter(|&offset| offset <= isize::MAX as usize)
+            .ok_or_else(|| {
+                ArrowError::IoError(
+                    "Uncompressed IPC buffers exceed the maximum body length".to_string(),
+                )
+            })?;
+    }
+
+    let mut output = MutableBuffer::from_len_zeroed(offset);
+    for (input, buffer) in compressed.iter().zip(&decompressed) {
+        let start = buffer.offset() as usize;
+        let end = start + buffer.length() as usize;
+        codec.decompress_to_slice(input, &mut output.as_slice_mut()[start..end])?;
+    }
+    Ok((output.into(), decompressed))
+}
+
+#[cfg(all(test, feature = "ipc_compression"))]
+mod tests {
+    use super::*;
+
+    fn round_trip(codec: CompressionCodec, inputs: &[Vec<u8>]) {
+        let mut body = vec![];
+        let mut buffers = vec![];
+        for input in inputs {
+            let offset = body.len();
+            codec.compress_to_vec(input, &mut body).unwrap();
+            buffers.push(ipc::Buffer::new(offset as i64, (body.len() - offset) as i64));
+        }
+
+        let (output, decompressed) =
+            decompress_body(&Buffer::from(&body), &buffers, codec).unwrap();
+        assert_eq!(decompressed.len(), inputs.len());
+        for (input, buffer) in inputs.iter().zip(&decompressed) {
+            assert_eq!(buffer.offset() % 8, 0);
+            let start = buffer.offset() as usize;
+            let end = start + buffer.length() as usize;
+            assert_eq!(&output.as_slice()[start..end], input.as_slice());
+        }
+    }
+
+    fn test_inputs() -> Vec<Vec<u8>> {
+        vec![
+            (0..1000).map(|i| (i % 7) as u8).collect(),
+            vec![],
+            // too short to be compressed
+            vec![1, 2, 3],
+            vec![42; 13],
+        ]
+    }
+
+    #[test]
+    fn test_lz4_frame_round_trip() {
+        round_trip(CompressionCodec::Lz4Frame, &test_inputs());
+    }
+
+    #[test]
+    fn test_zstd_round_trip() {
+        round_trip(CompressionCodec::Zstd, &test_inputs());
+    }
+
+    #[test]
+    fn test_incompressible_buffer_is_not_compressed() {
+        let mut output = vec![];
+        CompressionCodec::Zstd
+            .compress_to_vec(&[1, 2, 3], &mut output)
+            .unwrap();
+        assert_eq!(&output[..8], &(-1i64).to_le_bytes());
+        assert_eq!(&output[8..], &[1, 2, 3]);
+    }
+
+    #[test]
+    fn test_decompress_out_of_bounds() {
+        let buffers = vec![ipc::Buffer::new(8, 16)];
+        let err = decompress_body(
+            &Buffer::from(&[0u8; 16]),
+            &buffers,
+            CompressionCodec::Lz4Frame,
+        )
+        .unwrap_err();
+        assert_eq!(
+            err.to_string(),
+            "Io error: IPC buffer at 8 of 16 bytes exceeds the body length 16"
+        );
+
+        let buffers = vec![ipc::Buffer::new(i64::MAX, i64::MAX)];
+        let err = decompress_body(
+            &Buffer::from(&[0u8; 16]),
+            &buffers,
+            CompressionCodec::Lz4Frame,
+        )
+        .unwrap_err();
+        assert!(err.to_string().contains("exceeds the body length 16"));
+    }
+
+    #[test]
+    fn test_decompress_corrupt_length() {
+        // an uncompressed length that no codec can reach from 8 bytes
+        for length in [i64::MAX, 1 << 40, -2] {
+            let mut body = length.to_le_bytes().to_vec();
+            body.extend_from_slice(&[0; 8]);
+            let buffers = vec![ipc::Buffer::new(0, 16)];
+            let err =
+                decompress_body(&Buffer::from(&body), &buffers, CompressionCodec::Zstd)
+                    .unwrap_err();
+            let expected = format!(
+                "Io error: Invalid uncompressed length {} of IPC buffer of 16 bytes",
+                length
+            );
+            assert_eq!(err.to_string(), expected);
+        }
+    }
+}
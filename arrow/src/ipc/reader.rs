@@ -21,26 +21,37 @@
 //! however the `FileReader` expects a reader that supports `Seek`ing
 
 use std::collections::HashMap;
+use std::convert::TryFrom;
 use std::io::{BufReader, Read, Seek, SeekFrom};
 use std::sync::Arc;
 
 use crate::array::*;
-use crate::buffer::Buffer;
+use crate::buffer::{Buffer, MutableBuffer};
 use crate::compute::cast;
 use crate::datatypes::{DataType, Field, IntervalUnit, Schema, SchemaRef};
 use crate::error::{ArrowError, Result};
 use crate::ipc;
+use crate::ipc::compression::{decompress_body, CompressionCodec};
 use crate::record_batch::{RecordBatch, RecordBatchReader};
 
 use ipc::CONTINUATION_MARKER;
 use DataType::*;
 
+/// The alignment, in bytes, that a buffer of the message body must have to be used
+/// without copying it, which is the largest alignment of the native types.
+const BUFFER_ALIGNMENT: usize = 8;
+
 /// Read a buffer based on offset and length
-fn read_buffer(buf: &ipc::Buffer, a_data: &[u8]) -> Buffer {
-    let start_offset = buf.offset() as usize;
-    let end_offset = start_offset + buf.length() as usize;
-    let buf_data = &a_data[start_offset..end_offset];
-    Buffer::from(&buf_data)
+///
+/// The returned buffer is a slice of `a_data`, unless it is not aligned to
+/// [`BUFFER_ALIGNMENT`], in which case it is copied to a new aligned buffer.
+fn read_buffer(buf: &ipc::Buffer, a_data: &Buffer) -> Buffer {
+    let buf_data = a_data.slice_with_length(buf.offset() as usize, buf.length() as usize);
+    if buf_data.as_ptr() as usize % BUFFER_ALIGNMENT == 0 {
+        buf_data
+    } else {
+        Buffer::from(buf_data.as_slice())
+    }
 }
 
 /// Coordinates reading arrays based on data types.
@@ -55,7 +66,7 @@ fn read_buffer(buf: &ipc::Buffer, a_data: &[u8]) -> Buffer {
 fn create_array(
     nodes: &[ipc::FieldNode],
     data_type: &DataType,
-    data: &[u8],
+    data: &Buffer,
     buffers: &[ipc::Buffer],
     dictionaries: &[Option<ArrayRef>],
     mut node_index: usize,
@@ -407,11 +418,29 @@ fn create_dictionary_array(
 }
 
 /// Creates a record batch from binary data using the `ipc::RecordBatch` indexes and the `Schema`
+///
+/// The binary data is copied into the buffers of the arrays, see
+/// [`read_record_batch_from_buffer`] to read a message body without copying it.
 pub fn read_record_batch(
     buf: &[u8],
     batch: ipc::RecordBatch,
     schema: SchemaRef,
     dictionaries: &[Option<ArrayRef>],
+) -> Result<RecordBatch> {
+    read_record_batch_from_buffer(&Buffer::from(buf), batch, schema, dictionaries)
+}
+
+/// Creates a record batch from the message body `buf` using the `ipc::RecordBatch`
+/// indexes and the `Schema`.
+///
+/// The buffers of the arrays are slices of `buf`, so no data is copied unless a buffer
+/// is not aligned in the message body. Compressed buffers are decompressed into a new
+/// body.
+pub fn read_record_batch_from_buffer(
+    buf: &Buffer,
+    batch: ipc::RecordBatch,
+    schema: SchemaRef,
+    dictionaries: &[Option<ArrayRef>],
 ) -> Result<RecordBatch> {
     let buffers = batch.buffers().ok_or_else(|| {
         ArrowError::IoError("Unable to get buffers from IPC RecordBatch".to_string())
@@ -419,6 +448,14 @@ pub fn read_record_batch(
     let field_nodes = batch.nodes().ok_or_else(|| {
         ArrowError::IoError("Unable to get field nodes from IPC RecordBatch".to_string())
     })?;
+    let decompressed = match CompressionCodec::from_batch(&batch)? {
+        Some(codec) => Some(decompress_body(buf, buffers, codec)?),
+        None => None,
+    };
+    let (buf, buffers) = match decompressed {
+        Some((ref body, ref buffers)) => (body, buffers.as_slice()),
+        None => (buf, buffers),
+    };
     // keep track of buffer and node index, the functions that create arrays mutate these
     let mut buffer_index = 0;
     let mut node_index = 0;
@@ -429,7 +466,7 @@ pub fn read_record_batch(
         let triple = create_array(
             field_nodes,
             field.data_type(),
-            &buf,
+            buf,
             buffers,
             dictionaries,
             node_index,
@@ -445,11 +482,27 @@ pub fn read_record_batch(
 
 /// Read the dictionary from the buffer and provided metadata,
 /// updating the `dictionaries_by_field` with the resulting dictionary
+///
+/// The binary data is copied into the buffers of the dictionary, see
+/// [`read_dictionary_from_buffer`] to read a message body without copying it.
 pub fn read_dictionary(
     buf: &[u8],
     batch: ipc::DictionaryBatch,
     schema: &Schema,
     dictionaries_by_field: &mut [Option<ArrayRef>],
+) -> Result<()> {
+    read_dictionary_from_buffer(&Buffer::from(buf), batch, schema, dictionaries_by_field)
+}
+
+/// Reads the dictionary from the message body `buf`, like [`read_dictionary`].
+///
+/// Like [`read_record_batch_from_buffer`], the buffers of the dictionary are slices of
+/// `buf`.
+pub fn read_dictionary_from_buffer(
+    buf: &Buffer,
+    batch: ipc::DictionaryBatch,
+    schema: &Schema,
+    dictionaries_by_field: &mut [Option<ArrayRef>],
 ) -> Result<()> {
     if batch.isDelta() {
         return Err(ArrowError::IoError(
@@ -474,8 +527,8 @@ pub fn read_dictionary(
                 metadata: HashMap::new(),
             };
             // Read a single column
-            let record_batch = read_record_batch(
-                &buf,
+            let record_batch = read_record_batch_from_buffer(
+                buf,
                 batch.data().unwrap(),
                 Arc::new(schema),
                 &dictionaries_by_field,
@@ -528,6 +581,10 @@ pub struct FileReader<R: Read + Seek> {
 
     /// Metadata version
     metadata_version: ipc::MetadataVersion,
+
+    /// The whole file, if it is in memory, whose message bodies are sliced instead of
+    /// being read
+    file_buffer: Option<Buffer>,
 }
 
 impl<R: Read + Seek> FileReader<R> {
@@ -536,6 +593,10 @@ impl<R: Read + Seek> FileReader<R> {
     /// Returns errors if the file does not meet the Arrow Format header and footer
     /// requirements
     pub fn try_new(reader: R) -> Result<Self> {
+        Self::try_new_impl(reader, None)
+    }
+
+    fn try_new_impl(reader: R, file_buffer: Option<Buffer>) -> Result<Self> {
         let mut reader = BufReader::new(reader);
         // check if header and footer contain correct magic bytes
         let mut magic_buffer: [u8; 6] = [0; 6];
@@ -602,13 +663,14 @@ impl<R: Read + Seek> FileReader<R> {
                     let batch = message.header_as_dictionary_batch().unwrap();
 
                     // read the block that makes up the dictionary batch into a buffer
-                    let mut buf = vec![0; block.bodyLength() as usize];
-                    reader.seek(SeekFrom::Start(
-                        block.offset() as u64 + block.metaDataLength() as u64,
-                    ))?;
-                    reader.read_exact(&mut buf)?;
-
-                    read_dictionary(&buf, batch, &schema, &mut dictionaries_by_field)?;
+                    let buf = read_block_body(&mut reader, file_buffer.as_ref(), block)?;
+
+                    read_dictionary_from_buffer(
+                        &buf,
+                        batch,
+                        &schema,
+                        &mut dictionaries_by_field,
+                    )?;
                 }
                 t => {
                     return Err(ArrowError::IoError(format!(
@@ -627,6 +689,7 @@ impl<R: Read + Seek> FileReader<R> {
             total_blocks,
             dictionaries_by_field,
             metadata_version: footer.version(),
+            file_buffer,
         })
     }
 
@@ -696,13 +759,13 @@ impl<R: Read + Seek> FileReader<R> {
                     )
                 })?;
                 // read the block that makes up the record batch into a buffer
-                let mut buf = vec![0; block.bodyLength() as usize];
-                self.reader.seek(SeekFrom::Start(
-                    block.offset() as u64 + block.metaDataLength() as u64,
-                ))?;
-                self.reader.read_exact(&mut buf)?;
+                let buf = read_block_body(
+                    &mut self.reader,
+                    self.file_buffer.as_ref(),
+                    &block,
+                )?;
 
-                read_record_batch(
+                read_record_batch_from_buffer(
                     &buf,
                     batch,
                     self.schema(),
@@ -719,6 +782,133 @@ impl<R: Read + Seek> FileReader<R> {
     }
 }
 
+impl FileReader<BufferReader> {
+    /// Try to create a new file reader from a file that is in memory, e.g. memory
+    /// mapped.
+    ///
+    /// The buffers of the record batches are slices of `buffer` when they are aligned,
+    /// so no data is copied.
+    pub fn try_new_from_buffer(buffer: Buffer) -> Result<Self> {
+        let reader = BufferReader::new(buffer.clone());
+        Self::try_new_impl(reader, Some(buffer))
+    }
+
+    /// Try to create a new file reader from a memory mapping of `file`, whose record
+    /// batches reference the mapping without copying it, see
+    /// [`try_new_from_buffer`](Self::try_new_from_buffer).
+    ///
+    /// The file must not be modified while the mapping or any of the arrays read from it
+    /// are alive.
+    #[cfg(feature = "mmap")]
+    pub fn try_new_mmap(file: &std::fs::File) -> Result<Self> {
+        // SAFETY: the mapping is read-only and is owned by the buffer, which keeps it
+        // alive as long as any slice of it is referenced
+        let mmap = unsafe { memmap2::Mmap::map(file)? };
+        let len = mmap.len();
+        let ptr = std::ptr::NonNull::new(mmap.as_ptr() as *mut u8)
+            .ok_or_else(|| ArrowError::IoError("Unable to map file".to_string()))?;
+        let buffer = unsafe { Buffer::from_custom_allocation(ptr, len, Arc::new(mmap)) };
+        Self::try_new_from_buffer(buffer)
+    }
+}
+
+/// Reads the message body of `block`, which is a slice of `file_buffer` if the whole
+/// file is in memory.
+fn read_block_body<R: Read + Seek>(
+    reader: &mut BufReader<R>,
+    file_buffer: Option<&Buffer>,
+    block: &ipc::Block,
+) -> Result<Buffer> {
+    let range = usize::try_from(block.offset())
+        .ok()
+        .zip(usize::try_from(block.metaDataLength()).ok())
+        .zip(usize::try_from(block.bodyLength()).ok())
+        .and_then(|((offset, metadata_length), length)| {
+            let start = offset.checked_add(metadata_length)?;
+            Some((start, length, start.checked_add(length)?))
+        });
+    let (offset, length, end) = range.ok_or_else(|| {
+        ArrowError::IoError(format!(
+            "Invalid block at {} with metadata of {} bytes and body of {} bytes",
+            block.offset(),
+            block.metaDataLength(),
+            block.bodyLength()
+        ))
+    })?;
+    match file_buffer {
+        Some(file_buffer) => {
+            if end > file_buffer.len() {
+                return Err(ArrowError::IoError(format!(
+                    "Block body at {} of {} bytes exceeds the file length {}",
+                    offset,
+                    length,
+                    file_buffer.len()
+                )));
+            }
+            Ok(file_buffer.slice_with_length(offset, length))
+        }
+        None => {
+            reader.seek(SeekFrom::Start(offset as u64))?;
+            read_body(reader, length)
+        }
+    }
+}
+
+/// Reads a message body of `length` bytes from `reader` into a single aligned buffer,
+/// which the buffers of the arrays are then sliced from.
+fn read_body<R: Read>(reader: &mut R, length: usize) -> Result<Buffer> {
+    let mut buf = MutableBuffer::from_len_zeroed(length);
+    reader.read_exact(buf.as_slice_mut())?;
+    Ok(buf.into())
+}
+
+/// A [`Read`] and [`Seek`] cursor over a [`Buffer`], used to read files that are in
+/// memory with [`FileReader::try_new_from_buffer`].
+#[derive(Debug)]
+pub struct BufferReader {
+    buffer: Buffer,
+    position: usize,
+}
+
+impl BufferReader {
+    /// Creates a reader positioned at the start of `buffer`.
+    pub fn new(buffer: Buffer) -> Self {
+        Self {
+            buffer,
+            position: 0,
+        }
+    }
+}
+
+impl Read for BufferReader {
+    fn read(&mut self, buf: &mut [u8]) -> std::io::Result<usize> {
+        let start = self.position.min(self.buffer.len());
+        let n = (&self.buffer.as_slice()[start..]).read(buf)?;
+        self.position = start + n;
+        Ok(n)
+    }
+}
+
+impl Seek for BufferReader {
+    fn seek(&mut self, pos: SeekFrom) -> std::io::Result<u64> {
+        let position = match pos {
+            SeekFrom::Start(offset) => Some(offset as i64),
+            SeekFrom::End(offset) => (self.buffer.len() as i64).checked_add(offset),
+            SeekFrom::Current(offset) => (self.position as i64).checked_add(offset),
+        };
+        match position {
+            Some(position) if position >= 0 => {
+                self.position = position as usize;
+                Ok(position as u64)
+            }
+            _ => Err(std::io::Error::new(
+                std::io::ErrorKind::InvalidInput,
+                "invalid seek to a negative or overflowing position",
+            )),
+        }
+    }
+}
+
 impl<R: Read + Seek> Iterator for FileReader<R> {
     type Item = Result<RecordBatch>;
 
@@ -866,10 +1056,9 @@ impl<R: Read> StreamReader<R> {
                     )
                 })?;
                 // read the block that makes up the record batch into a buffer
-                let mut buf = vec![0; message.bodyLength() as usize];
-                self.reader.read_exact(&mut buf)?;
+                let buf = read_body(&mut self.reader, message.bodyLength() as usize)?;
 
-                read_record_batch(&buf, batch, self.schema(), &self.dictionaries_by_field).map(Some)
+                read_record_batch_from_buffer(&buf, batch, self.schema(), &self.dictionaries_by_field).map(Some)
             }
             ipc::MessageHeader::DictionaryBatch => {
                 let batch = message.header_as_dictionary_batch().ok_or_else(|| {
@@ -878,10 +1067,9 @@ impl<R: Read> StreamReader<R> {
                     )
                 })?;
                 // read the block that makes up the dictionary batch into a buffer
-                let mut buf = vec![0; message.bodyLength() as usize];
-                self.reader.read_exact(&mut buf)?;
+                let buf = read_body(&mut self.reader, message.bodyLength() as usize)?;
 
-                read_dictionary(
+                read_dictionary_from_buffer(
                     &buf, batch, &self.schema, &mut self.dictionaries_by_field
                 )?;
 
@@ -1090,6 +1278,171 @@ mod tests {
         });
     }
 
+    #[test]
+    fn read_generated_files_100_from_buffer() {
+        let testdata = crate::util::test_util::arrow_test_data();
+        let version = "1.0.0-littleendian";
+        let paths = vec![
+            "generated_interval",
+            "generated_datetime",
+            "generated_dictionary",
+            "generated_nested",
+            "generated_null",
+            "generated_primitive_zerolength",
+            "generated_primitive",
+        ];
+        paths.iter().for_each(|path| {
+            let data = std::fs::read(format!(
+                "{}/arrow-ipc-stream/integration/{}/{}.arrow_file",
+                testdata, version, path
+            ))
+            .unwrap();
+
+            let mut reader = FileReader::try_new_from_buffer(Buffer::from(data)).unwrap();
+
+            // read expected JSON output
+            let arrow_json = read_gzip_json(version, path);
+            assert!(arrow_json.equals_reader(&mut reader));
+        });
+    }
+
+    /// Writes `batch` to an IPC file at `path` and returns the written bytes.
+    fn write_ipc_file(path: &str, batch: &RecordBatch) -> Vec<u8> {
+        let file = File::create(path).unwrap();
+        let mut writer =
+            crate::ipc::writer::FileWriter::try_new(file, &batch.schema()).unwrap();
+        writer.write(batch).unwrap();
+        writer.finish().unwrap();
+        std::fs::read(path).unwrap()
+    }
+
+    fn test_batch() -> RecordBatch {
+        let schema = Schema::new(vec![
+            Field::new("a", DataType::Int64, true),
+            Field::new("b", DataType::Utf8, false),
+        ]);
+        let arrays = vec![
+            Arc::new(Int64Array::from(vec![Some(1), None, Some(3), Some(4)])) as ArrayRef,
+            Arc::new(StringArray::from(vec!["a", "bb", "", "dddd"])) as ArrayRef,
+        ];
+        RecordBatch::try_new(Arc::new(schema), arrays).unwrap()
+    }
+
+    #[test]
+    fn test_read_file_from_buffer_without_copy() {
+        let batch = test_batch();
+        let data = write_ipc_file("target/debug/testdata/from_buffer.arrow_file", &batch);
+        let buffer = Buffer::from(data);
+        let start = buffer.as_ptr() as usize;
+        let file_range = start..start + buffer.len();
+
+        let mut reader = FileReader::try_new_from_buffer(buffer.clone()).unwrap();
+        let read_batch = reader.next().unwrap().unwrap();
+        assert!(reader.next().is_none());
+
+        assert_eq!(read_batch.schema(), batch.schema());
+        for (read, expected) in read_batch.columns().iter().zip(batch.columns()) {
+            assert_eq!(read, expected);
+            // all buffers point into the file buffer
+            for buffer in read.data().buffers() {
+                assert!(file_range.contains(&(buffer.as_ptr() as usize)));
+            }
+        }
+    }
+
+    #[test]
+    fn test_read_block_body_invalid() {
+        let buffer = Buffer::from(vec![0u8; 64]);
+        let mut reader = BufReader::new(BufferReader::new(buffer.clone()));
+        let blocks = vec![
+            ipc::Block::new(-8, 8, 16),
+            ipc::Block::new(0, -1, 16),
+            ipc::Block::new(0, 8, -16),
+            ipc::Block::new(i64::MAX, 8, 16),
+            ipc::Block::new(8, 8, i64::MAX),
+        ];
+        for block in &blocks {
+            let err = read_block_body(&mut reader, Some(&buffer), block).unwrap_err();
+            assert!(matches!(err, ArrowError::IoError(_)), "{}", err);
+        }
+
+        let block = ipc::Block::new(0, 8, 16);
+        let body = read_block_body(&mut reader, Some(&buffer), &block).unwrap();
+        assert_eq!(body.len(), 16);
+        let err = read_block_body(&mut reader, Some(&buffer), &ipc::Block::new(32, 8, 32))
+            .unwrap_err();
+        assert_eq!(
+            err.to_string(),
+            "Io error: Block body at 40 of 32 bytes exceeds the file length 64"
+        );
+    }
+
+    #[test]
+    fn test_read_record_batch_without_copy() {
+        let batch = test_batch();
+        let (_, encoded) = ipc::writer::IpcDataGenerator::default()
+            .encoded_batch(
+                &batch,
+                &mut ipc::writer::DictionaryTracker::new(false),
+                &ipc::writer::IpcWriteOptions::default(),
+            )
+            .unwrap();
+        let message = ipc::root_as_message(&encoded.ipc_message).unwrap();
+        let body = Buffer::from(&encoded.arrow_data);
+        let start = body.as_ptr() as usize;
+        let body_range = start..start + body.len();
+
+        let read_batch = read_record_batch_from_buffer(
+            &body,
+            message.header_as_record_batch().unwrap(),
+            batch.schema(),
+            &[None, None],
+        )
+        .unwrap();
+
+        for (read, expected) in read_batch.columns().iter().zip(batch.columns()) {
+            assert_eq!(read, expected);
+            // all buffers are slices of the message body
+            for buffer in read.data().buffers() {
+                assert!(body_range.contains(&(buffer.as_ptr() as usize)));
+            }
+        }
+    }
+
+    #[test]
+    fn test_buffer_reader() {
+        let mut reader = BufferReader::new(Buffer::from(&[1, 2, 3, 4, 5]));
+        let mut buf = [0; 2];
+        reader.read_exact(&mut buf).unwrap();
+        assert_eq!(buf, [1, 2]);
+
+        assert_eq!(reader.seek(SeekFrom::End(-1)).unwrap(), 4);
+        let mut rest = vec![];
+        reader.read_to_end(&mut rest).unwrap();
+        assert_eq!(rest, vec![5]);
+
+        assert_eq!(reader.seek(SeekFrom::Current(2)).unwrap(), 7);
+        assert_eq!(reader.read(&mut buf).unwrap(), 0);
+        assert!(reader.seek(SeekFrom::Current(-8)).is_err());
+    }
+
+    #[test]
+    #[cfg(feature = "mmap")]
+    fn test_read_file_mmap() {
+        let batch = test_batch();
+        let path = "target/debug/testdata/mmap.arrow_file";
+        write_ipc_file(path, &batch);
+
+        let file = File::open(path).unwrap();
+        let mut reader = FileReader::try_new_mmap(&file).unwrap();
+        let read_batch = reader.next().unwrap().unwrap();
+        assert!(reader.next().is_none());
+        drop(reader);
+
+        // the arrays keep the mapping alive
+        assert_eq!(read_batch.columns(), batch.columns());
+    }
+
     #[test]
     fn test_arrow_single_float_row() {
         let schema = Schema::new(vec![
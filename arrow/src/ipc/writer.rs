@@ -21,6 +21,7 @@
 //! however the `FileWriter` expects a reader that supports `Seek`ing
 
 use std::collections::HashMap;
+use std::convert::TryFrom;
 use std::io::{BufWriter, Write};
 
 use flatbuffers::FlatBufferBuilder;
@@ -30,6 +31,7 @@ use crate::buffer::{Buffer, MutableBuffer};
 use crate::datatypes::*;
 use crate::error::{ArrowError, Result};
 use crate::ipc;
+use crate::ipc::compression::{check_compression_support, CompressionCodec};
 use crate::record_batch::RecordBatch;
 use crate::util::bit_util;
 
@@ -52,6 +54,8 @@ pub struct IpcWriteOptions {
     /// version 2.0.0: V4, with legacy format enabled
     /// version 4.0.0: V5
     metadata_version: ipc::MetadataVersion,
+    /// The codec that compresses the buffers of record batches, if any
+    batch_compression: Option<CompressionCodec>,
 }
 
 impl IpcWriteOptions {
@@ -76,6 +80,7 @@ impl IpcWriteOptions {
                 alignment,
                 write_legacy_ipc_format,
                 metadata_version,
+                batch_compression: None,
             }),
             ipc::MetadataVersion::V5 => {
                 if write_legacy_ipc_format {
@@ -88,12 +93,37 @@ impl IpcWriteOptions {
                         alignment,
                         write_legacy_ipc_format,
                         metadata_version,
+                        batch_compression: None,
                     })
                 }
             }
             z => panic!("Unsupported ipc::MetadataVersion {:?}", z),
         }
     }
+
+    /// Try to set the compression of the buffers of record batches, `None` to write
+    /// them uncompressed.
+    ///
+    /// Compression requires metadata version 5 and the `ipc_compression` feature.
+    pub fn try_with_compression(
+        mut self,
+        batch_compression_type: Option<ipc::CompressionType>,
+    ) -> Result<Self> {
+        self.batch_compression = match batch_compression_type {
+            None => None,
+            Some(compression_type) => {
+                if self.metadata_version < ipc::MetadataVersion::V5 {
+                    return Err(ArrowError::InvalidArgumentError(
+                        "Compression only supported in metadata v5 and above"
+                            .to_string(),
+                    ));
+                }
+                check_compression_support()?;
+                Some(CompressionCodec::try_from(compression_type)?)
+            }
+        };
+        Ok(self)
+    }
 }
 
 impl Default for IpcWriteOptions {
@@ -102,6 +132,7 @@ impl Default for IpcWriteOptions {
             alignment: 8,
             write_legacy_ipc_format: false,
             metadata_version: ipc::MetadataVersion::V5,
+            batch_compression: None,
         }
     }
 }
@@ -164,12 +195,12 @@ impl IpcDataGenerator {
                         dict_id,
                         dict_values,
                         write_options,
-                    ));
+                    )?);
                 }
             }
         }
 
-        let encoded_message = self.record_batch_to_bytes(batch, write_options);
+        let encoded_message = self.record_batch_to_bytes(batch, write_options)?;
 
         Ok((encoded_dictionaries, encoded_message))
     }
@@ -180,7 +211,7 @@ impl IpcDataGenerator {
         &self,
         batch: &RecordBatch,
         write_options: &IpcWriteOptions,
-    ) -> EncodedData {
+    ) -> Result<EncodedData> {
         let mut fbb = FlatBufferBuilder::new();
 
         let mut nodes: Vec<ipc::FieldNode> = vec![];
@@ -197,18 +228,25 @@ impl IpcDataGenerator {
                 offset,
                 array.len(),
                 array.null_count(),
-            );
+                write_options.batch_compression,
+            )?;
         }
 
         // write data
         let buffers = fbb.create_vector(&buffers);
         let nodes = fbb.create_vector(&nodes);
+        let compression = write_options
+            .batch_compression
+            .map(|codec| create_body_compression(&mut fbb, codec));
 
         let root = {
             let mut batch_builder = ipc::RecordBatchBuilder::new(&mut fbb);
             batch_builder.add_length(batch.num_rows() as i64);
             batch_builder.add_nodes(nodes);
             batch_builder.add_buffers(buffers);
+            if let Some(compression) = compression {
+                batch_builder.add_compression(compression);
+            }
             let b = batch_builder.finish();
             b.as_union_value()
         };
@@ -222,10 +260,10 @@ impl IpcDataGenerator {
         fbb.finish(root, None);
         let finished_data = fbb.finished_data();
 
-        EncodedData {
+        Ok(EncodedData {
             ipc_message: finished_data.to_vec(),
             arrow_data,
-        }
+        })
     }
 
     /// Write dictionary values into two sets of bytes, one for the header (ipc::Message) and the
@@ -235,7 +273,7 @@ impl IpcDataGenerator {
         dict_id: i64,
         array_data: &ArrayData,
         write_options: &IpcWriteOptions,
-    ) -> EncodedData {
+    ) -> Result<EncodedData> {
         let mut fbb = FlatBufferBuilder::new();
 
         let mut nodes: Vec<ipc::FieldNode> = vec![];
@@ -250,17 +288,24 @@ impl IpcDataGenerator {
             0,
             array_data.len(),
             array_data.null_count(),
-        );
+            write_options.batch_compression,
+        )?;
 
         // write data
         let buffers = fbb.create_vector(&buffers);
         let nodes = fbb.create_vector(&nodes);
+        let compression = write_options
+            .batch_compression
+            .map(|codec| create_body_compression(&mut fbb, codec));
 
         let root = {
             let mut batch_builder = ipc::RecordBatchBuilder::new(&mut fbb);
             batch_builder.add_length(array_data.len() as i64);
             batch_builder.add_nodes(nodes);
             batch_builder.add_buffers(buffers);
+            if let Some(compression) = compression {
+                batch_builder.add_compression(compression);
+            }
             batch_builder.finish()
         };
 
@@ -283,10 +328,10 @@ impl IpcDataGenerator {
         fbb.finish(root, None);
         let finished_data = fbb.finished_data();
 
-        EncodedData {
+        Ok(EncodedData {
             ipc_message: finished_data.to_vec(),
             arrow_data,
-        }
+        })
     }
 }
 
@@ -701,7 +746,20 @@ fn write_continuation<W: Write>(
     Ok(written)
 }
 
+/// Creates the `BodyCompression` of a record batch whose buffers are compressed with
+/// `codec`
+fn create_body_compression<'a>(
+    fbb: &mut FlatBufferBuilder<'a>,
+    codec: CompressionCodec,
+) -> flatbuffers::WIPOffset<ipc::BodyCompression<'a>> {
+    let mut builder = ipc::BodyCompressionBuilder::new(fbb);
+    builder.add_codec(codec.compression_type());
+    builder.add_method(ipc::BodyCompressionMethod::BUFFER);
+    builder.finish()
+}
+
 /// Write array data to a vector of bytes
+#[allow(clippy::too_many_arguments)]
 fn write_array_data(
     array_data: &ArrayData,
     mut buffers: &mut Vec<ipc::Buffer>,
@@ -710,7 +768,8 @@ fn write_array_data(
     offset: i64,
     num_rows: usize,
     null_count: usize,
-) -> i64 {
+    compression_codec: Option<CompressionCodec>,
+) -> Result<i64> {
     let mut offset = offset;
     nodes.push(ipc::FieldNode::new(num_rows as i64, null_count as i64));
     // NullArray does not have any buffers, thus the null buffer is not generated
@@ -727,16 +786,28 @@ fn write_array_data(
             Some(buffer) => buffer.clone(),
         };
 
-        offset = write_buffer(&null_buffer, &mut buffers, &mut arrow_data, offset);
+        offset = write_buffer(
+            &null_buffer,
+            &mut buffers,
+            &mut arrow_data,
+            offset,
+            compression_codec,
+        )?;
     }
 
-    array_data.buffers().iter().for_each(|buffer| {
-        offset = write_buffer(buffer, &mut buffers, &mut arrow_data, offset);
-    });
+    for buffer in array_data.buffers() {
+        offset = write_buffer(
+            buffer,
+            &mut buffers,
+            &mut arrow_data,
+            offset,
+            compression_codec,
+        )?;
+    }
 
     if !matches!(array_data.data_type(), DataType::Dictionary(_, _)) {
         // recursively write out nested structures
-        array_data.child_data().iter().for_each(|data_ref| {
+        for data_ref in array_data.child_data() {
             // write the nested data (e.g list data)
             offset = write_array_data(
                 data_ref,
@@ -746,28 +817,46 @@ fn write_array_data(
                 offset,
                 data_ref.len(),
                 data_ref.null_count(),
-            );
-        });
+                compression_codec,
+            )?;
+        }
     }
 
-    offset
+    Ok(offset)
 }
 
-/// Write a buffer to a vector of bytes, and add its ipc::Buffer to a vector
+/// Write a buffer to a vector of bytes, compressed with `compression_codec` if any,
+/// and add its ipc::Buffer to a vector
 fn write_buffer(
     buffer: &Buffer,
     buffers: &mut Vec<ipc::Buffer>,
     arrow_data: &mut Vec<u8>,
     offset: i64,
-) -> i64 {
-    let len = buffer.len();
+    compression_codec: Option<CompressionCodec>,
+) -> Result<i64> {
+    let len = match compression_codec {
+        Some(codec) => {
+            let start = arrow_data.len();
+            codec.compress_to_vec(buffer.as_slice(), arrow_data)?;
+            arrow_data.len() - start
+        }
+        None => {
+            arrow_data.extend_from_slice(buffer.as_slice());
+            buffer.len()
+        }
+    };
     let pad_len = pad_to_8(len as u32);
     let total_len: i64 = (len + pad_len) as i64;
     // assert_eq!(len % 8, 0, "Buffer width not a multiple of 8 bytes");
-    buffers.push(ipc::Buffer::new(offset, total_len));
-    arrow_data.extend_from_slice(buffer.as_slice());
+    // the length of a compressed buffer excludes the padding, which would otherwise be
+    // read as part of the compressed data
+    let buffer_len = match compression_codec {
+        Some(_) => len as i64,
+        None => total_len,
+    };
+    buffers.push(ipc::Buffer::new(offset, buffer_len));
     arrow_data.extend_from_slice(&vec![0u8; pad_len][..]);
-    offset + total_len
+    Ok(offset + total_len)
 }
 
 /// Calculate an 8-byte boundary and return the number of bytes needed to pad to 8 bytes
@@ -839,6 +928,78 @@ mod tests {
         }
     }
 
+    #[cfg(feature = "ipc_compression")]
+    fn write_and_read_compressed_stream(compression_type: ipc::CompressionType) {
+        let schema = Schema::new(vec![
+            Field::new("a", DataType::Int32, true),
+            Field::new_dict(
+                "b",
+                DataType::Dictionary(Box::new(DataType::Int32), Box::new(DataType::Utf8)),
+                false,
+                0,
+                false,
+            ),
+        ]);
+        let a: Int32Array = (0..1000)
+            .map(|i| if i % 3 == 0 { None } else { Some(i % 10) })
+            .collect();
+        let b: DictionaryArray<Int32Type> = (0..1000)
+            .map(|i| if i % 2 == 0 { "foo" } else { "bar" })
+            .collect();
+        let batch = RecordBatch::try_new(
+            Arc::new(schema.clone()),
+            vec![Arc::new(a) as ArrayRef, Arc::new(b) as ArrayRef],
+        )
+        .unwrap();
+
+        let options = IpcWriteOptions::default()
+            .try_with_compression(Some(compression_type))
+            .unwrap();
+        let mut writer =
+            StreamWriter::try_new_with_options(vec![], &schema, options).unwrap();
+        writer.write(&batch).unwrap();
+        let data = writer.into_inner().unwrap();
+
+        let uncompressed = {
+            let mut writer = StreamWriter::try_new(vec![], &schema).unwrap();
+            writer.write(&batch).unwrap();
+            writer.into_inner().unwrap()
+        };
+        assert!(data.len() < uncompressed.len());
+
+        let mut reader = StreamReader::try_new(std::io::Cursor::new(data)).unwrap();
+        let read_batch = reader.next().unwrap().unwrap();
+        assert!(reader.next().is_none());
+        assert_eq!(read_batch.schema(), batch.schema());
+        for (read, expected) in read_batch.columns().iter().zip(batch.columns()) {
+            assert_eq!(read, expected);
+        }
+    }
+
+    #[test]
+    #[cfg(feature = "ipc_compression")]
+    fn test_write_lz4_frame_compressed_stream() {
+        write_and_read_compressed_stream(ipc::CompressionType::LZ4_FRAME);
+    }
+
+    #[test]
+    #[cfg(feature = "ipc_compression")]
+    fn test_write_zstd_compressed_stream() {
+        write_and_read_compressed_stream(ipc::CompressionType::ZSTD);
+    }
+
+    #[test]
+    fn test_compression_requires_v5() {
+        let options = IpcWriteOptions::try_new(8, false, MetadataVersion::V4).unwrap();
+        let err = options
+            .try_with_compression(Some(ipc::CompressionType::ZSTD))
+            .unwrap_err();
+        assert_eq!(
+            err.to_string(),
+            "Invalid argument error: Compression only supported in metadata v5 and above"
+        );
+    }
+
     fn write_null_file(options: IpcWriteOptions, suffix: &str) {
         let schema = Schema::new(vec![
             Field::new("nulls", DataType::Null, true),
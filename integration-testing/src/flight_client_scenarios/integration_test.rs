@@ -19,13 +19,14 @@ use crate::{read_json_file, ArrowFile};
 
 use arrow::{
     array::ArrayRef,
+    buffer::Buffer,
     datatypes::SchemaRef,
     ipc::{self, reader, writer},
     record_batch::RecordBatch,
 };
 use arrow_flight::{
     flight_descriptor::DescriptorType, flight_service_client::FlightServiceClient,
-    utils::flight_data_to_arrow_batch, FlightData, FlightDescriptor, Location,
+    utils::flight_data_into_arrow_batch, FlightData, FlightDescriptor, Location,
     SchemaAsIpc, Ticket,
 };
 use futures::{channel::mpsc, sink::SinkExt, stream, StreamExt};
@@ -216,7 +217,7 @@ async fn consume_flight_location(
         assert_eq!(metadata, data.app_metadata);
 
         let actual_batch =
-            flight_data_to_arrow_batch(&data, schema.clone(), &dictionaries_by_field)
+            flight_data_into_arrow_batch(data, schema.clone(), &dictionaries_by_field)
                 .expect("Unable to convert flight data to Arrow batch");
 
         assert_eq!(expected_batch.schema(), actual_batch.schema());
@@ -253,8 +254,8 @@ async fn receive_batch_flight_data(
         .expect("Error parsing first message");
 
     while message.header_type() == ipc::MessageHeader::DictionaryBatch {
-        reader::read_dictionary(
-            &data.data_body,
+        reader::read_dictionary_from_buffer(
+            &Buffer::from_vec(std::mem::take(&mut data.data_body)),
             message
                 .header_as_dictionary_batch()
                 .expect("Error parsing dictionary"),
@@ -22,6 +22,7 @@ use std::sync::Arc;
 
 use arrow::{
     array::ArrayRef,
+    buffer::Buffer,
     datatypes::Schema,
     datatypes::SchemaRef,
     ipc::{self, reader},
@@ -282,7 +283,7 @@ async fn send_app_metadata(
 
 async fn record_batch_from_message(
     message: ipc::Message<'_>,
-    data_body: &[u8],
+    data_body: Vec<u8>,
     schema_ref: SchemaRef,
     dictionaries_by_field: &[Option<ArrayRef>],
 ) -> Result<RecordBatch, Status> {
@@ -290,8 +291,8 @@ async fn record_batch_from_message(
         Status::internal("Could not parse message header as record batch")
     })?;
 
-    let arrow_batch_result = reader::read_record_batch(
-        data_body,
+    let arrow_batch_result = reader::read_record_batch_from_buffer(
+        &Buffer::from_vec(data_body),
         ipc_batch,
         schema_ref,
         &dictionaries_by_field,
@@ -304,7 +305,7 @@ async fn record_batch_from_message(
 
 async fn dictionary_from_message(
     message: ipc::Message<'_>,
-    data_body: &[u8],
+    data_body: Vec<u8>,
     schema_ref: SchemaRef,
     dictionaries_by_field: &mut [Option<ArrayRef>],
 ) -> Result<(), Status> {
@@ -312,8 +313,12 @@ async fn dictionary_from_message(
         Status::internal("Could not parse message header as dictionary batch")
     })?;
 
-    let dictionary_batch_result =
-        reader::read_dictionary(data_body, ipc_batch, &schema_ref, dictionaries_by_field);
+    let dictionary_batch_result = reader::read_dictionary_from_buffer(
+        &Buffer::from_vec(data_body),
+        ipc_batch,
+        &schema_ref,
+        dictionaries_by_field,
+    );
     dictionary_batch_result.map_err(|e| {
         Status::internal(format!("Could not convert to Dictionary: {:?}", e))
     })
@@ -347,7 +352,7 @@ async fn save_uploaded_chunks(
 
                 let batch = record_batch_from_message(
                     message,
-                    &data.data_body,
+                    data.data_body,
                     schema_ref.clone(),
                     &dictionaries_by_field,
                 )
@@ -358,7 +363,7 @@ async fn save_uploaded_chunks(
             ipc::MessageHeader::DictionaryBatch => {
                 dictionary_from_message(
                     message,
-                    &data.data_body,
+                    data.data_body,
                     schema_ref.clone(),
                     &mut dictionaries_by_field,
                 )
@@ -0,0 +1,143 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+#[macro_use]
+extern crate criterion;
+use criterion::{Criterion, Throughput};
+
+extern crate parquet;
+
+use std::sync::Arc;
+
+use parquet::basic::{Compression, Encoding, Type as PhysicalType};
+use parquet::file::footer::decode_metadata;
+use parquet::file::lazy_metadata::LazyParquetMetaData;
+use parquet::file::metadata::{ColumnChunkMetaData, RowGroupMetaData};
+use parquet::file::statistics::Statistics;
+use parquet::schema::types::{self, SchemaDescriptor, Type};
+use parquet_format::FileMetaData as TFileMetaData;
+use thrift::protocol::{TCompactOutputProtocol, TOutputProtocol};
+
+const NUM_COLUMNS: usize = 5000;
+const NUM_ROW_GROUPS: usize = 4;
+
+/// Returns the Thrift encoded file metadata of a file with `num_columns` INT64
+/// columns with statistics, in `num_row_groups` row groups.
+fn encoded_metadata(num_columns: usize, num_row_groups: usize) -> Vec<u8> {
+    let mut fields = (0..num_columns)
+        .map(|i| {
+            Arc::new(
+                Type::primitive_type_builder(&format!("col_{}", i), PhysicalType::INT64)
+                    .build()
+                    .unwrap(),
+            )
+        })
+        .collect::<Vec<_>>();
+    let schema = Type::group_type_builder("schema")
+        .with_fields(&mut fields)
+        .build()
+        .unwrap();
+    let schema_descr = Arc::new(SchemaDescriptor::new(Arc::new(schema.clone())));
+
+    let row_groups = (0..num_row_groups)
+        .map(|_| {
+            let columns = schema_descr
+                .columns()
+                .iter()
+                .enumerate()
+                .map(|(i, descr)| {
+                    let offset = 4 + 1024 * i as i64;
+                    ColumnChunkMetaData::builder(descr.clone())
+                        .set_encodings(vec![Encoding::PLAIN, Encoding::RLE])
+                        .set_compression(Compression::SNAPPY)
+                        .set_file_offset(offset + 1024)
+                        .set_num_values(1000)
+                        .set_total_compressed_size(1024)
+                        .set_total_uncompressed_size(8000)
+                        .set_data_page_offset(offset)
+                        .set_statistics(Statistics::int64(
+                            Some(i as i64),
+                            Some(i as i64 + 1000),
+                            None,
+                            0,
+                            false,
+                        ))
+                        .build()
+                        .unwrap()
+                })
+                .collect();
+            RowGroupMetaData::builder(schema_descr.clone())
+                .set_num_rows(1000)
+                .set_total_byte_size(8000 * num_columns as i64)
+                .set_column_metadata(columns)
+                .build()
+                .unwrap()
+                .to_thrift()
+        })
+        .collect();
+
+    let metadata = TFileMetaData {
+        version: 1,
+        schema: types::to_thrift(&schema).unwrap(),
+        num_rows: 1000 * num_row_groups as i64,
+        row_groups,
+        key_value_metadata: None,
+        created_by: Some("parquet-rs".to_owned()),
+        column_orders: None,
+    };
+    let mut buffer = Vec::new();
+    let mut protocol = TCompactOutputProtocol::new(&mut buffer);
+    metadata.write_to_out_protocol(&mut protocol).unwrap();
+    protocol.flush().unwrap();
+    buffer
+}
+
+fn bench_decode_metadata(c: &mut Criterion) {
+    let buffer = encoded_metadata(NUM_COLUMNS, NUM_ROW_GROUPS);
+    let mut group = c.benchmark_group("decode_metadata 5000 columns");
+    group.throughput(Throughput::Bytes(buffer.len() as u64));
+
+    group.bench_function("eager", |b| b.iter(|| decode_metadata(&buffer).unwrap()));
+
+    // The lazy metadata owns a copy of the footer
+    group.bench_function("lazy", |b| {
+        b.iter(|| LazyParquetMetaData::decode(buffer.clone()).unwrap())
+    });
+
+    group.bench_function("lazy, one column", |b| {
+        b.iter(|| {
+            let metadata = LazyParquetMetaData::decode(buffer.clone()).unwrap();
+            (0..metadata.num_row_groups())
+                .map(|i| metadata.column_chunk(i, NUM_COLUMNS / 2).unwrap())
+                .collect::<Vec<_>>()
+        })
+    });
+
+    group.bench_function("lazy, all row groups", |b| {
+        b.iter(|| {
+            LazyParquetMetaData::decode(buffer.clone())
+                .unwrap()
+                .decode_all()
+                .unwrap()
+        })
+    });
+
+    group.finish();
+}
+
+criterion_group!(benches, bench_decode_metadata);
+criterion_main!(benches);
@@ -19,6 +19,7 @@ use std::cmp::{max, min};
 use std::collections::{HashMap, HashSet};
 use std::marker::PhantomData;
 use std::mem::size_of;
+use std::rc::Rc;
 use std::result::Result::Ok;
 use std::sync::Arc;
 use std::vec::Vec;
@@ -62,6 +63,7 @@ use crate::arrow::converter::{
     IntervalYearMonthConverter, LargeBinaryArrayConverter, LargeBinaryConverter,
     LargeUtf8ArrayConverter, LargeUtf8Converter,
 };
+use crate::arrow::dictionary_array_reader::build_dictionary_array_reader;
 use crate::arrow::record_reader::RecordReader;
 use crate::arrow::schema::parquet_to_arrow_field;
 use crate::basic::{ConvertedType, Repetition, Type as PhysicalType};
@@ -72,7 +74,7 @@ use crate::data_type::{
     Int32Type, Int64Type, Int96Type,
 };
 use crate::errors::{ParquetError, ParquetError::ArrowError, Result};
-use crate::file::reader::{FilePageIterator, FileReader};
+use crate::file::reader::{ColumnChunkPrefetch, FilePageIterator, FileReader};
 use crate::schema::types::{
     ColumnDescPtr, ColumnDescriptor, ColumnPath, SchemaDescPtr, Type, TypePtr,
 };
@@ -89,6 +91,14 @@ pub trait ArrayReader {
     /// Reads at most `batch_size` records into an arrow array and return it.
     fn next_batch(&mut self, batch_size: usize) -> Result<ArrayRef>;
 
+    /// Skips at most `num_records` records without reading them into an arrow array,
+    /// and returns the number of records actually skipped.
+    ///
+    /// By default the records are read with `next_batch` and discarded.
+    fn skip_records(&mut self, num_records: usize) -> Result<usize> {
+        Ok(self.next_batch(num_records)?.len())
+    }
+
     /// Returns the definition levels of data from last call of `next_batch`.
     /// The result is used by parent array reader to calculate its own definition
     /// levels and repetition levels, so that its parent can calculate null bitmap.
@@ -100,6 +110,35 @@ pub trait ArrayReader {
     fn get_rep_levels(&self) -> Option<&[i16]>;
 }
 
+/// Skips at most `num_records` records of `record_reader`, moving on to the next
+/// column chunks of `pages` as the current one is exhausted, and returns the number of
+/// records actually skipped.
+fn skip_records<T: DataType>(
+    record_reader: &mut RecordReader<T>,
+    pages: &mut dyn PageIterator,
+    num_records: usize,
+) -> Result<usize> {
+    let mut records_skipped = 0usize;
+    while records_skipped < num_records {
+        let records_to_skip = num_records - records_skipped;
+
+        let records_skipped_once = record_reader.skip_records(records_to_skip)?;
+        records_skipped += records_skipped_once;
+
+        // Record reader exhausted
+        if records_skipped_once < records_to_skip {
+            if let Some(page_reader) = pages.next() {
+                // Skip from new page reader
+                record_reader.set_page_reader(page_reader?)?;
+            } else {
+                // Page reader also exhausted
+                break;
+            }
+        }
+    }
+    Ok(records_skipped)
+}
+
 /// A NullArrayReader reads Parquet columns stored as null int32s with an Arrow
 /// NullArray type.
 pub struct NullArrayReader<T: DataType> {
@@ -178,6 +217,10 @@ impl<T: DataType> ArrayReader for NullArrayReader<T> {
         Ok(Arc::new(array))
     }
 
+    fn skip_records(&mut self, num_records: usize) -> Result<usize> {
+        skip_records(&mut self.record_reader, self.pages.as_mut(), num_records)
+    }
+
     fn get_def_levels(&self) -> Option<&[i16]> {
         self.def_levels_buffer
             .as_ref()
@@ -408,6 +451,10 @@ impl<T: DataType> ArrayReader for PrimitiveArrayReader<T> {
         Ok(array)
     }
 
+    fn skip_records(&mut self, num_records: usize) -> Result<usize> {
+        skip_records(&mut self.record_reader, self.pages.as_mut(), num_records)
+    }
+
     fn get_def_levels(&self) -> Option<&[i16]> {
         self.def_levels_buffer
             .as_ref()
@@ -556,6 +603,30 @@ where
         Ok(array)
     }
 
+    fn skip_records(&mut self, num_records: usize) -> Result<usize> {
+        // Try to initialize column reader
+        if self.column_reader.is_none() {
+            self.next_column_reader()?;
+        }
+
+        let mut records_skipped = 0;
+        while self.column_reader.is_some() && records_skipped < num_records {
+            let records_to_skip = num_records - records_skipped;
+            let records_skipped_once = self
+                .column_reader
+                .as_mut()
+                .unwrap()
+                .skip_records(records_to_skip)?;
+            records_skipped += records_skipped_once;
+
+            // current page exhausted && page iterator exhausted
+            if records_skipped_once < records_to_skip && !self.next_column_reader()? {
+                break;
+            }
+        }
+        Ok(records_skipped)
+    }
+
     fn get_def_levels(&self) -> Option<&[i16]> {
         self.def_levels_buffer.as_deref()
     }
@@ -911,6 +982,12 @@ impl<OffsetSize: OffsetSizeTrait> ArrayReader for ListArrayReader<OffsetSize> {
         Ok(Arc::new(result_array))
     }
 
+    /// Skips `num_records` lists. Each list is a single record of the item reader,
+    /// so this is delegated to it.
+    fn skip_records(&mut self, num_records: usize) -> Result<usize> {
+        self.item_reader.skip_records(num_records)
+    }
+
     fn get_def_levels(&self) -> Option<&[i16]> {
         self.def_level_buffer
             .as_ref()
@@ -1078,6 +1155,27 @@ impl ArrayReader for StructArrayReader {
         Ok(Arc::new(StructArray::from(array_data)))
     }
 
+    /// Skips `num_records` struct records in all children, which must all skip the
+    /// same number of records.
+    fn skip_records(&mut self, num_records: usize) -> Result<usize> {
+        let mut records_skipped = None;
+        for child in self.children.iter_mut() {
+            let child_records_skipped = child.skip_records(num_records)?;
+            match records_skipped {
+                Some(records_skipped) if records_skipped != child_records_skipped => {
+                    return Err(general_err!(
+                        "Children of StructArrayReader skipped different number of \
+                        records: {} and {}",
+                        records_skipped,
+                        child_records_skipped
+                    ));
+                }
+                _ => records_skipped = Some(child_records_skipped),
+            }
+        }
+        Ok(records_skipped.unwrap_or(0))
+    }
+
     fn get_def_levels(&self) -> Option<&[i16]> {
         self.def_level_buffer
             .as_ref()
@@ -1098,6 +1196,25 @@ pub fn build_array_reader<T>(
     column_indices: T,
     file_reader: Arc<dyn FileReader>,
 ) -> Result<Box<dyn ArrayReader>>
+where
+    T: IntoIterator<Item = usize>,
+{
+    // The column chunks of each row group are read together
+    let column_indices = column_indices.into_iter().collect::<Vec<_>>();
+    let prefetch =
+        Rc::new(ColumnChunkPrefetch::new(file_reader, column_indices.clone()));
+    build_array_reader_with_prefetch(parquet_schema, arrow_schema, column_indices, prefetch)
+}
+
+/// Creates an array reader like [`build_array_reader`], which takes the page readers of
+/// its columns from `prefetch`. The prefetch may hold the columns of other array
+/// readers too, as long as no column is read by two of them.
+pub(crate) fn build_array_reader_with_prefetch<T>(
+    parquet_schema: SchemaDescPtr,
+    arrow_schema: Schema,
+    column_indices: T,
+    prefetch: Rc<ColumnChunkPrefetch>,
+) -> Result<Box<dyn ArrayReader>>
 where
     T: IntoIterator<Item = usize>,
 {
@@ -1138,7 +1255,7 @@ where
         Arc::new(proj),
         Arc::new(arrow_schema),
         Arc::new(leaves),
-        file_reader,
+        prefetch,
     )
     .build_array_reader()
 }
@@ -1150,7 +1267,7 @@ struct ArrayReaderBuilder {
     // Key: columns that need to be included in final array builder
     // Value: column index in schema
     columns_included: Arc<HashMap<*const Type, usize>>,
-    file_reader: Arc<dyn FileReader>,
+    prefetch: Rc<ColumnChunkPrefetch>,
 }
 
 /// Used in type visitor.
@@ -1376,13 +1493,13 @@ impl<'a> ArrayReaderBuilder {
         root_schema: TypePtr,
         arrow_schema: Arc<Schema>,
         columns_included: Arc<HashMap<*const Type, usize>>,
-        file_reader: Arc<dyn FileReader>,
+        prefetch: Rc<ColumnChunkPrefetch>,
     ) -> Self {
         Self {
             root_schema,
             arrow_schema,
             columns_included,
-            file_reader,
+            prefetch,
         }
     }
 
@@ -1415,9 +1532,9 @@ impl<'a> ArrayReaderBuilder {
             context.rep_level,
             context.path.clone(),
         ));
-        let page_iterator = Box::new(FilePageIterator::new(
+        let page_iterator = Box::new(FilePageIterator::with_prefetch(
             self.columns_included[&(cur_type.as_ref() as *const Type)],
-            self.file_reader.clone(),
+            self.prefetch.clone(),
         )?);
 
         let arrow_type: Option<ArrowType> = self
@@ -1485,7 +1602,25 @@ impl<'a> ArrayReaderBuilder {
                 )?))
             }
             PhysicalType::BYTE_ARRAY => {
-                if cur_type.get_basic_info().converted_type() == ConvertedType::UTF8 {
+                let reads_dictionary = matches!(
+                    arrow_type,
+                    Some(ArrowType::Dictionary(_, ref value_type)) if matches!(
+                        value_type.as_ref(),
+                        ArrowType::Utf8
+                            | ArrowType::LargeUtf8
+                            | ArrowType::Binary
+                            | ArrowType::LargeBinary
+                    )
+                );
+                if reads_dictionary {
+                    build_dictionary_array_reader(
+                        page_iterator,
+                        column_desc,
+                        arrow_type.unwrap(),
+                    )
+                } else if cur_type.get_basic_info().converted_type()
+                    == ConvertedType::UTF8
+                {
                     if let Some(ArrowType::LargeUtf8) = arrow_type {
                         let converter =
                             LargeUtf8Converter::new(LargeUtf8ArrayConverter {});
@@ -1733,8 +1868,9 @@ mod tests {
     use crate::util::test_common::{get_test_file, make_pages};
     use arrow::array::{
         Array, ArrayRef, LargeListArray, ListArray, PrimitiveArray, StringArray,
-        StructArray,
+        StructArray, UInt32Array,
     };
+    use arrow::compute::take;
     use arrow::datatypes::{
         ArrowPrimitiveType, DataType as ArrowType, Date32Type as ArrowDate32, Field,
         Int32Type as ArrowInt32, Int64Type as ArrowInt64,
@@ -1747,6 +1883,7 @@ mod tests {
     use rand::{thread_rng, Rng};
     use std::any::Any;
     use std::collections::VecDeque;
+    use std::ops::Range;
     use std::sync::Arc;
 
     fn make_column_chunks<T: DataType>(
@@ -2276,12 +2413,16 @@ mod tests {
         );
     }
 
-    /// Array reader for test.
+    /// Array reader for test, which returns the records of `array` following the ones
+    /// returned or skipped before. Records start at the values with a repetition level
+    /// of 0, or are single values if there are no repetition levels.
     struct InMemoryArrayReader {
         data_type: ArrowType,
         array: ArrayRef,
         def_levels: Option<Vec<i16>>,
         rep_levels: Option<Vec<i16>>,
+        // positions of the values returned by the last call to `next_batch`
+        last_batch: Range<usize>,
     }
 
     impl InMemoryArrayReader {
@@ -2296,7 +2437,25 @@ mod tests {
                 array,
                 def_levels,
                 rep_levels,
+                last_batch: 0..0,
+            }
+        }
+
+        /// Returns the end of the next `num_records` records, or of the remaining
+        /// ones if there are fewer, and their number.
+        fn records_end(&self, num_records: usize) -> (usize, usize) {
+            let mut end = self.last_batch.end;
+            let mut records = 0;
+            while end < self.array.len() && records < num_records {
+                end += 1;
+                records += 1;
+                if let Some(rep_levels) = self.rep_levels.as_ref() {
+                    while end < self.array.len() && rep_levels[end] != 0 {
+                        end += 1;
+                    }
+                }
             }
+            (end, records)
         }
     }
 
@@ -2309,16 +2468,30 @@ mod tests {
             &self.data_type
         }
 
-        fn next_batch(&mut self, _batch_size: usize) -> Result<ArrayRef> {
-            Ok(self.array.clone())
+        fn next_batch(&mut self, batch_size: usize) -> Result<ArrayRef> {
+            let (end, _) = self.records_end(batch_size);
+            self.last_batch = self.last_batch.end..end;
+            // Taken rather than sliced, as ListArrayReader expects items without offset
+            let indices = UInt32Array::from_iter_values(
+                self.last_batch.clone().map(|index| index as u32),
+            );
+            Ok(take(self.array.as_ref(), &indices, None)?)
+        }
+
+        fn skip_records(&mut self, num_records: usize) -> Result<usize> {
+            let (end, records) = self.records_end(num_records);
+            self.last_batch = end..end;
+            Ok(records)
         }
 
         fn get_def_levels(&self) -> Option<&[i16]> {
-            self.def_levels.as_deref()
+            let last_batch = self.last_batch.clone();
+            self.def_levels.as_ref().map(|levels| &levels[last_batch])
         }
 
         fn get_rep_levels(&self) -> Option<&[i16]> {
-            self.rep_levels.as_deref()
+            let last_batch = self.last_batch.clone();
+            self.rep_levels.as_ref().map(|levels| &levels[last_batch])
         }
     }
 
@@ -2487,6 +2660,56 @@ mod tests {
         );
     }
 
+    #[test]
+    fn test_list_array_reader_skip_records() {
+        // [[1, null, 2], null, [3, 4], [], [5]]
+        let array = Arc::new(PrimitiveArray::<ArrowInt32>::from(vec![
+            Some(1),
+            None,
+            Some(2),
+            None,
+            Some(3),
+            Some(4),
+            None,
+            Some(5),
+        ]));
+        let item_array_reader = InMemoryArrayReader::new(
+            ArrowType::Int32,
+            array,
+            Some(vec![3, 2, 3, 0, 3, 3, 1, 3]),
+            Some(vec![0, 1, 1, 0, 0, 1, 0, 0]),
+        );
+
+        let mut list_array_reader = ListArrayReader::<i32>::new(
+            Box::new(item_array_reader),
+            ArrowType::List(Box::new(Field::new("item", ArrowType::Int32, true))),
+            ArrowType::Int32,
+            1,
+            1,
+            0,
+            1,
+        );
+
+        assert_eq!(list_array_reader.skip_records(2).unwrap(), 2);
+        let next_batch = list_array_reader.next_batch(2).unwrap();
+        let list_array = next_batch.as_any().downcast_ref::<ListArray>().unwrap();
+        assert_eq!(2, list_array.len());
+        assert_eq!(0, list_array.null_count());
+        assert_eq!(
+            list_array
+                .value(0)
+                .as_any()
+                .downcast_ref::<PrimitiveArray<ArrowInt32>>()
+                .unwrap(),
+            &PrimitiveArray::<ArrowInt32>::from(vec![Some(3), Some(4)])
+        );
+        assert_eq!(list_array.value_length(1), 0);
+
+        // Only one list is left
+        assert_eq!(list_array_reader.skip_records(5).unwrap(), 1);
+        assert_eq!(list_array_reader.next_batch(5).unwrap().len(), 0);
+    }
+
     #[test]
     fn test_large_list_array_reader() {
         // [[1, null, 2], null, [3, 4]]
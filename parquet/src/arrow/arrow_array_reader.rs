@@ -160,6 +160,9 @@ pub struct ArrowArrayReader<'a, C: ArrayConverter + 'a> {
     value_decoder: Box<dyn ValueDecoder + 'a>,
     last_def_levels: Option<Int16Array>,
     last_rep_levels: Option<Int16Array>,
+    // repetition and definition levels of the first value of the record following the
+    // records skipped by `skip_records`, which had to be decoded to find their end
+    pending_levels: Option<(i16, i16)>,
     array_converter: C,
 }
 
@@ -239,6 +242,7 @@ impl<'a, C: ArrayConverter + 'a> ArrowArrayReader<'a, C> {
             value_decoder: Box::new(CompositeValueDecoder::new(value_iter)),
             last_def_levels: None,
             last_rep_levels: None,
+            pending_levels: None,
             array_converter,
         })
     }
@@ -531,6 +535,24 @@ impl<'a, C: ArrayConverter + 'a> ArrowArrayReader<'a, C> {
             level_converter.convert_value_bytes(level_decoder, batch_size)?;
         Ok(Int16Array::from(array_data))
     }
+
+    /// Decodes at most `batch_size` levels, preceded by `first_level` if any.
+    fn build_level_array_after(
+        first_level: Option<i16>,
+        level_decoder: &mut impl ValueDecoder,
+        batch_size: usize,
+    ) -> Result<Int16Array> {
+        match first_level {
+            Some(first_level) => {
+                let levels = Self::build_level_array(level_decoder, batch_size - 1)?;
+                let mut buffer = Vec::with_capacity(levels.len() + 1);
+                buffer.push(first_level);
+                buffer.extend_from_slice(levels.values());
+                Ok(Int16Array::from(buffer))
+            }
+            None => Self::build_level_array(level_decoder, batch_size),
+        }
+    }
 }
 
 impl<C: ArrayConverter> ArrayReader for ArrowArrayReader<'static, C> {
@@ -543,10 +565,19 @@ impl<C: ArrayConverter> ArrayReader for ArrowArrayReader<'static, C> {
     }
 
     fn next_batch(&mut self, batch_size: usize) -> Result<ArrayRef> {
+        // levels read ahead by `skip_records` come first
+        let pending_levels = match self.pending_levels {
+            Some(_) if batch_size == 0 => None,
+            _ => self.pending_levels.take(),
+        };
+
         if Self::rep_levels_available(&self.column_desc) {
             // read rep levels if available
-            let rep_level_array =
-                Self::build_level_array(&mut self.rep_level_decoder, batch_size)?;
+            let rep_level_array = Self::build_level_array_after(
+                pending_levels.map(|(rep_level, _)| rep_level),
+                &mut self.rep_level_decoder,
+                batch_size,
+            )?;
             self.last_rep_levels = Some(rep_level_array);
         }
 
@@ -558,8 +589,11 @@ impl<C: ArrayConverter> ArrayReader for ArrowArrayReader<'static, C> {
             } else {
                 // if def levels are available - they determine how many values will be read
                 // decode def levels, return first error if any
-                let def_level_array =
-                    Self::build_level_array(&mut self.def_level_decoder, batch_size)?;
+                let def_level_array = Self::build_level_array_after(
+                    pending_levels.map(|(_, def_level)| def_level),
+                    &mut self.def_level_decoder,
+                    batch_size,
+                )?;
                 let def_level_count = def_level_array.len();
                 // use eq_scalar to efficiently build null bitmap array from def levels
                 let null_bitmap_array = arrow::compute::eq_scalar(
@@ -629,6 +663,74 @@ impl<C: ArrayConverter> ArrayReader for ArrowArrayReader<'static, C> {
         Ok(array)
     }
 
+    /// Skips `num_records` records, records starting at the values whose repetition
+    /// level is 0. Values of a record left incomplete by `next_batch` are skipped as
+    /// well, without being counted.
+    fn skip_records(&mut self, num_records: usize) -> Result<usize> {
+        self.last_def_levels = None;
+        self.last_rep_levels = None;
+
+        // levels still need to be decoded to find the number of values to skip,
+        // but the values themselves are not copied anywhere
+        if !Self::rep_levels_available(&self.column_desc) {
+            // every level is a record
+            if !Self::def_levels_available(&self.column_desc) {
+                return self
+                    .value_decoder
+                    .read_value_bytes(num_records, &mut |_, _| {});
+            }
+            let def_level_array =
+                Self::build_level_array(&mut self.def_level_decoder, num_records)?;
+            let values_to_skip = count_levels(&def_level_array, self.column_desc.max_def_level());
+            self.value_decoder
+                .read_value_bytes(values_to_skip, &mut |_, _| {})?;
+            return Ok(def_level_array.len());
+        }
+
+        // a repeated column always has definition levels
+        let max_def_level = self.column_desc.max_def_level();
+        let mut records_skipped = 0;
+        let mut values_to_skip = 0;
+        if num_records > 0 {
+            if let Some((_, def_level)) = self.pending_levels.take() {
+                records_skipped += 1;
+                values_to_skip += (def_level == max_def_level) as usize;
+            }
+        }
+        if self.pending_levels.is_none() {
+            loop {
+                // As every record has at least one level, this doesn't read past the
+                // start of the record following the skipped ones, which is then
+                // searched level by level
+                let levels_to_read = std::cmp::max(num_records - records_skipped, 1);
+                let rep_level_array =
+                    Self::build_level_array(&mut self.rep_level_decoder, levels_to_read)?;
+                let def_level_array =
+                    Self::build_level_array(&mut self.def_level_decoder, levels_to_read)?;
+                if rep_level_array.len() != def_level_array.len() {
+                    return Err(general_err!(
+                        "Read {} repetition levels but {} definition levels",
+                        rep_level_array.len(),
+                        def_level_array.len()
+                    ));
+                }
+                if rep_level_array.len() == 0 {
+                    break;
+                }
+                if records_skipped == num_records && rep_level_array.value(0) == 0 {
+                    self.pending_levels = Some((0, def_level_array.value(0)));
+                    break;
+                }
+                records_skipped += count_levels(&rep_level_array, 0);
+                values_to_skip += count_levels(&def_level_array, max_def_level);
+            }
+        }
+
+        self.value_decoder
+            .read_value_bytes(values_to_skip, &mut |_, _| {})?;
+        Ok(records_skipped)
+    }
+
     fn get_def_levels(&self) -> Option<&[i16]> {
         self.last_def_levels.as_ref().map(|x| x.values())
     }
@@ -638,6 +740,11 @@ impl<C: ArrayConverter> ArrayReader for ArrowArrayReader<'static, C> {
     }
 }
 
+/// Returns the number of levels of `levels` equal to `level`.
+fn count_levels(levels: &Int16Array, level: i16) -> usize {
+    levels.values().iter().filter(|l| **l == level).count()
+}
+
 use crate::encodings::rle::RleDecoder;
 
 pub trait ValueDecoder {
@@ -1559,4 +1666,63 @@ mod tests {
             array_reader.get_rep_levels()
         );
     }
+
+    #[test]
+    fn test_arrow_array_reader_skip_records_list() {
+        let message_type = "
+        message test_schema {
+            REPEATED Group test_mid {
+                OPTIONAL BYTE_ARRAY leaf (UTF8);
+            }
+        }
+        ";
+
+        // Records of 3, 1, 2, 4 and 1 levels
+        let rep_levels = vec![0, 1, 1, 0, 0, 1, 0, 1, 1, 1, 0];
+        let def_levels = vec![2, 1, 2, 0, 2, 2, 2, 1, 2, 2, 2];
+        let values = (0..rep_levels.len())
+            .filter(|i| def_levels[*i] == 2)
+            .map(|i| ByteArray::from(format!("v{}", i).as_str()))
+            .collect::<Vec<_>>();
+
+        let new_array_reader = || {
+            let schema = parse_message_type(message_type)
+                .map(|t| Arc::new(SchemaDescriptor::new(Arc::new(t))))
+                .unwrap();
+            let column_desc = schema.column(0);
+            let mut pb =
+                DataPageBuilderImpl::new(column_desc.clone(), values.len() as u32, true);
+            pb.add_rep_levels(1, &rep_levels);
+            pb.add_def_levels(2, &def_levels);
+            pb.add_values::<ByteArrayType>(Encoding::PLAIN, &values);
+            let pages = vec![vec![pb.consume()]];
+
+            let page_iterator =
+                InMemoryPageIterator::new(schema, column_desc.clone(), pages);
+            let converter = StringArrayConverter::new();
+            ArrowArrayReader::try_new(page_iterator, column_desc, converter, None)
+                .unwrap()
+        };
+
+        // Skipping the first two records leaves the reader at the start of the third
+        let mut array_reader = new_array_reader();
+        assert_eq!(array_reader.skip_records(2).unwrap(), 2);
+        let array = array_reader.next_batch(2).unwrap();
+        let strings = array.as_any().downcast_ref::<StringArray>().unwrap();
+        assert_eq!(strings, &StringArray::from(vec!["v4", "v5"]));
+        assert_eq!(array_reader.get_rep_levels(), Some(&rep_levels[4..6]));
+        assert_eq!(array_reader.get_def_levels(), Some(&def_levels[4..6]));
+
+        assert_eq!(array_reader.skip_records(1).unwrap(), 1);
+        assert_eq!(array_reader.skip_records(0).unwrap(), 0);
+        let array = array_reader.next_batch(1).unwrap();
+        let strings = array.as_any().downcast_ref::<StringArray>().unwrap();
+        assert_eq!(strings, &StringArray::from(vec!["v10"]));
+
+        // The rest of a record left incomplete by `next_batch` is skipped uncounted
+        let mut array_reader = new_array_reader();
+        assert_eq!(array_reader.next_batch(2).unwrap().len(), 2);
+        assert_eq!(array_reader.skip_records(10).unwrap(), 4);
+        assert_eq!(array_reader.next_batch(10).unwrap().len(), 0);
+    }
 }
@@ -17,18 +17,32 @@
 
 //! Contains reader which reads parquet data into arrow array.
 
-use crate::arrow::array_reader::{build_array_reader, ArrayReader, StructArrayReader};
+use crate::arrow::array_reader::{
+    build_array_reader, build_array_reader_with_prefetch, ArrayReader, StructArrayReader,
+};
 use crate::arrow::schema::parquet_to_arrow_schema;
 use crate::arrow::schema::{
     parquet_to_arrow_schema_by_columns, parquet_to_arrow_schema_by_root_columns,
 };
+use crate::basic::Type as PhysicalType;
+use crate::column::page::PageReader;
 use crate::errors::{ParquetError, Result};
-use crate::file::metadata::ParquetMetaData;
-use crate::file::reader::FileReader;
-use arrow::datatypes::{DataType as ArrowType, Schema, SchemaRef};
+use crate::file::bloom_filter::Sbbf;
+use crate::file::metadata::{ParquetMetaData, RowGroupMetaData};
+use crate::file::reader::{ColumnChunkPrefetch, FileReader, RowGroupReader};
+use crate::file::statistics::Statistics;
+use crate::record::reader::RowIter;
+use crate::schema::types::{SchemaDescriptor, Type as SchemaType};
+use arrow::datatypes::{DataType as ArrowType, Field, Schema, SchemaRef};
 use arrow::error::Result as ArrowResult;
 use arrow::record_batch::{RecordBatch, RecordBatchReader};
-use arrow::{array::StructArray, error::ArrowError};
+use arrow::array::{Array, ArrayRef, BooleanArray, StructArray};
+use arrow::compute::{filter_record_batch, prep_null_mask_filter, SlicesIterator};
+use arrow::error::ArrowError;
+use std::cmp::min;
+use std::collections::{BTreeMap, BTreeSet, HashMap, VecDeque};
+use std::ops::Range;
+use std::rc::Rc;
 use std::sync::Arc;
 
 /// Arrow reader api.
@@ -78,6 +92,40 @@ pub trait ArrowReader {
 
 pub struct ParquetFileArrowReader {
     file_reader: Arc<dyn FileReader>,
+    page_filter: Option<PageFilter>,
+    row_selection: Option<RowSelection>,
+    row_filter: Option<RowFilter>,
+    dictionary_key_types: HashMap<usize, ArrowType>,
+}
+
+/// Predicate on the page statistics of a leaf column, used to skip pages.
+struct PageFilter {
+    column: usize,
+    predicate: Box<dyn Fn(&Statistics) -> bool>,
+}
+
+/// Predicate on the values of some leaf columns, used to select the rows read by
+/// [`ParquetFileArrowReader`].
+///
+/// The predicate is called with record batches holding the filter columns and returns
+/// whether each of their rows is selected. Null values of the returned array do not
+/// select their rows.
+pub struct RowFilter {
+    columns: Vec<usize>,
+    predicate: Box<dyn FnMut(&RecordBatch) -> ArrowResult<BooleanArray>>,
+}
+
+impl RowFilter {
+    /// Creates a filter that evaluates `predicate` on the leaf columns at `columns`.
+    pub fn new<F>(columns: Vec<usize>, predicate: F) -> Self
+    where
+        F: FnMut(&RecordBatch) -> ArrowResult<BooleanArray> + 'static,
+    {
+        Self {
+            columns,
+            predicate: Box::new(predicate),
+        }
+    }
 }
 
 impl ArrowReader for ParquetFileArrowReader {
@@ -85,10 +133,11 @@ impl ArrowReader for ParquetFileArrowReader {
 
     fn get_schema(&mut self) -> Result<Schema> {
         let file_metadata = self.file_reader.metadata().file_metadata();
-        parquet_to_arrow_schema(
+        let schema = parquet_to_arrow_schema(
             file_metadata.schema_descr(),
             file_metadata.key_value_metadata(),
-        )
+        )?;
+        self.with_dictionary_key_types(schema)
     }
 
     fn get_schema_by_columns<T>(
@@ -100,19 +149,20 @@ impl ArrowReader for ParquetFileArrowReader {
         T: IntoIterator<Item = usize>,
     {
         let file_metadata = self.file_reader.metadata().file_metadata();
-        if leaf_columns {
+        let schema = if leaf_columns {
             parquet_to_arrow_schema_by_columns(
                 file_metadata.schema_descr(),
                 column_indices,
                 file_metadata.key_value_metadata(),
-            )
+            )?
         } else {
             parquet_to_arrow_schema_by_root_columns(
                 file_metadata.schema_descr(),
                 column_indices,
                 file_metadata.key_value_metadata(),
-            )
-        }
+            )?
+        };
+        self.with_dictionary_key_types(schema)
     }
 
     fn get_record_reader(
@@ -137,66 +187,689 @@ impl ArrowReader for ParquetFileArrowReader {
     where
         T: IntoIterator<Item = usize>,
     {
+        let column_indices = column_indices.into_iter().collect::<Vec<_>>();
+        let row_filter = self.row_filter.take();
+        let file_reader = match self.page_filter {
+            Some(ref filter) => {
+                // The filter columns have to be read from the same pages
+                let mut columns = column_indices.clone();
+                if let Some(ref row_filter) = row_filter {
+                    columns.extend(&row_filter.columns);
+                }
+                filter_pages(self.file_reader.clone(), filter, &columns)?
+            }
+            None => self.file_reader.clone(),
+        };
+        let arrow_schema = self.get_schema()?;
+        let selection = self.row_selection.clone();
+
+        if let Some(row_filter) = row_filter {
+            return build_filtered_reader(
+                file_reader,
+                arrow_schema,
+                column_indices,
+                row_filter,
+                selection,
+                batch_size,
+            );
+        }
+
+        let parquet_schema = file_reader.metadata().file_metadata().schema_descr_ptr();
         let array_reader = build_array_reader(
-            self.file_reader
-                .metadata()
-                .file_metadata()
-                .schema_descr_ptr(),
-            self.get_schema()?,
+            parquet_schema,
+            arrow_schema,
             column_indices,
-            self.file_reader.clone(),
+            file_reader,
         )?;
 
-        ParquetRecordBatchReader::try_new(batch_size, array_reader)
+        match selection {
+            Some(selection) => ParquetRecordBatchReader::try_new_with_selection(
+                batch_size,
+                array_reader,
+                selection,
+            ),
+            None => ParquetRecordBatchReader::try_new(batch_size, array_reader),
+        }
     }
 }
 
 impl ParquetFileArrowReader {
     pub fn new(file_reader: Arc<dyn FileReader>) -> Self {
-        Self { file_reader }
+        Self {
+            file_reader,
+            page_filter: None,
+            row_selection: None,
+            row_filter: None,
+            dictionary_key_types: HashMap::new(),
+        }
+    }
+
+    /// Sets a predicate on the page statistics of the leaf column `column`, used to
+    /// skip the pages that cannot contain matching rows.
+    ///
+    /// Record readers created afterwards only read the rows of the pages whose
+    /// statistics satisfy `predicate`, widened to whole pages of every projected column.
+    /// Rows of these pages are not filtered individually, so `predicate` must return
+    /// `true` whenever a page may contain a matching row.
+    ///
+    /// Pages can only be skipped in row groups whose page index has been read, see
+    /// [`ReadOptionsBuilder::set_page_index_enabled`](crate::file::serialized_reader::ReadOptionsBuilder::set_page_index_enabled).
+    /// Other row groups are read entirely.
+    pub fn set_page_filter<F>(&mut self, column: usize, predicate: F)
+    where
+        F: Fn(&Statistics) -> bool + 'static,
+    {
+        self.page_filter = Some(PageFilter {
+            column,
+            predicate: Box::new(predicate),
+        });
+    }
+
+    /// Sets the rows to read, record readers created afterwards skip all the other
+    /// rows without decoding them.
+    ///
+    /// Row positions of `selection` are relative to the first row of the file. If a
+    /// page filter is set as well, they are relative to the first row left after
+    /// skipping pages instead.
+    pub fn set_row_selection(&mut self, selection: RowSelection) {
+        self.row_selection = Some(selection);
+    }
+
+    /// Sets a filter on the values of some columns, the next record reader created
+    /// only returns the rows it selects. The filter is moved into that record reader,
+    /// record readers created after it read all the rows.
+    ///
+    /// For each record batch, the filter columns of the next `batch_size` rows, or
+    /// of the next rows of the row selection if one is set, are read and passed to
+    /// the filter. The other projected columns are then only decoded for the rows
+    /// that pass the filter, other rows are skipped without being decoded. Projected
+    /// columns that are also filter columns are taken from the filtered values of the
+    /// filter columns rather than decoded again.
+    pub fn set_row_filter(&mut self, filter: RowFilter) {
+        self.row_filter = Some(filter);
+    }
+
+    /// Reads the top level byte array column at leaf index `column` into dictionary
+    /// arrays with keys of the integer type `key_type`, whatever the arrow type stored
+    /// in the file for this column.
+    ///
+    /// Dictionary encoded pages are read without decoding their values, all the arrays
+    /// read from a column chunk share its dictionary values. Plain encoded pages are
+    /// read into the dictionary values as they are.
+    pub fn set_dictionary_key_type(&mut self, column: usize, key_type: ArrowType) {
+        self.dictionary_key_types.insert(column, key_type);
     }
 
     // Expose the reader metadata
     pub fn get_metadata(&mut self) -> ParquetMetaData {
         self.file_reader.metadata().clone()
     }
+
+    /// Changes the types of the fields of `schema` that are read into dictionary
+    /// arrays, see [`Self::set_dictionary_key_type`].
+    fn with_dictionary_key_types(&self, schema: Schema) -> Result<Schema> {
+        if self.dictionary_key_types.is_empty() {
+            return Ok(schema);
+        }
+
+        let schema_descr = self.file_reader.metadata().file_metadata().schema_descr();
+        let mut fields = schema.fields().clone();
+        for (&column, key_type) in &self.dictionary_key_types {
+            if column >= schema_descr.num_columns() {
+                return Err(ParquetError::IndexOutOfBound(
+                    column,
+                    schema_descr.num_columns(),
+                ));
+            }
+            let column_descr = schema_descr.column(column);
+            if column_descr.path().parts().len() != 1
+                || column_descr.physical_type() != PhysicalType::BYTE_ARRAY
+            {
+                return Err(ParquetError::ArrowError(format!(
+                    "Column {} is not a top level byte array column",
+                    column_descr.path()
+                )));
+            }
+            if !matches!(
+                key_type,
+                ArrowType::Int8
+                    | ArrowType::Int16
+                    | ArrowType::Int32
+                    | ArrowType::Int64
+                    | ArrowType::UInt8
+                    | ArrowType::UInt16
+                    | ArrowType::UInt32
+                    | ArrowType::UInt64
+            ) {
+                return Err(ParquetError::ArrowError(format!(
+                    "Dictionary key type {:?} is not an integer type",
+                    key_type
+                )));
+            }
+
+            let name = column_descr.name();
+            if let Some(field) = fields.iter_mut().find(|f| f.name() == name) {
+                let value_type = match field.data_type() {
+                    ArrowType::Dictionary(_, value_type) => value_type.as_ref().clone(),
+                    value_type => value_type.clone(),
+                };
+                *field = Field::new(
+                    field.name(),
+                    ArrowType::Dictionary(
+                        Box::new(key_type.clone()),
+                        Box::new(value_type),
+                    ),
+                    field.is_nullable(),
+                );
+            }
+        }
+        Ok(Schema::new_with_metadata(fields, schema.metadata().clone()))
+    }
+}
+
+/// Creates the reader of the columns at `column_indices` that only returns the rows
+/// passing `filter`, see [`ParquetFileArrowReader::set_row_filter`].
+fn build_filtered_reader(
+    file_reader: Arc<dyn FileReader>,
+    arrow_schema: Schema,
+    column_indices: Vec<usize>,
+    filter: RowFilter,
+    selection: Option<RowSelection>,
+    batch_size: usize,
+) -> Result<ParquetRecordBatchReader> {
+    if filter.columns.is_empty() {
+        return Err(general_err!("Row filter must have at least one column"));
+    }
+
+    let parquet_schema = file_reader.metadata().file_metadata().schema_descr_ptr();
+    let projected_roots = leaves_by_root(&parquet_schema, &column_indices)?;
+    let filter_roots = leaves_by_root(&parquet_schema, &filter.columns)?;
+
+    // The arrays of a root column are the same if both readers read the same leaves
+    // of it, so it is taken from the filter batches rather than decoded again
+    let mut columns = Vec::with_capacity(projected_roots.len());
+    let mut other_columns = Vec::new();
+    for (root, leaves) in &projected_roots {
+        match filter_roots.get(root) {
+            Some(filter_leaves) if filter_leaves == leaves => {
+                columns.push(Some(filter_roots.range(..*root).count()));
+            }
+            _ => {
+                columns.push(None);
+                other_columns.extend(leaves);
+            }
+        }
+    }
+
+    // Both readers take their page readers from a single prefetch, unless they share
+    // a leaf column, which can only be handed out once
+    let shared = other_columns.iter().all(|c| !filter.columns.contains(c));
+    let mut filter_prefetch_columns = filter.columns.clone();
+    if shared {
+        filter_prefetch_columns.extend(&other_columns);
+    }
+    let filter_prefetch = Rc::new(ColumnChunkPrefetch::new(
+        file_reader.clone(),
+        filter_prefetch_columns,
+    ));
+
+    let filter_reader = build_array_reader_with_prefetch(
+        parquet_schema.clone(),
+        arrow_schema.clone(),
+        filter.columns.iter().cloned(),
+        filter_prefetch.clone(),
+    )?;
+    let array_reader = if other_columns.is_empty() {
+        None
+    } else {
+        let prefetch = if shared {
+            filter_prefetch
+        } else {
+            Rc::new(ColumnChunkPrefetch::new(file_reader, other_columns.clone()))
+        };
+        Some(build_array_reader_with_prefetch(
+            parquet_schema,
+            arrow_schema,
+            other_columns,
+            prefetch,
+        )?)
+    };
+
+    let mut reader = ParquetRecordBatchReader::try_new(batch_size, filter_reader)?;
+    let filter_schema = reader.schema.clone();
+    let other_fields = match array_reader.as_ref().map(|r| r.get_data_type()) {
+        Some(ArrowType::Struct(fields)) => fields.clone(),
+        Some(_) => return Err(general_err!("The input must be struct array reader!")),
+        None => Vec::new(),
+    };
+    let mut other_fields = other_fields.into_iter();
+    let fields = columns
+        .iter()
+        .map(|column| match column {
+            Some(i) => filter_schema.field(*i).clone(),
+            None => other_fields.next().unwrap(),
+        })
+        .collect();
+
+    reader.schema = Arc::new(Schema::new(fields));
+    reader.selection = selection;
+    reader.filter = Some(FilterState {
+        predicate: filter.predicate,
+        filter_schema,
+        array_reader,
+        columns,
+        finished: false,
+    });
+    Ok(reader)
+}
+
+/// Returns the leaf columns at `columns` grouped by the index of their root column.
+fn leaves_by_root(
+    parquet_schema: &SchemaDescriptor,
+    columns: &[usize],
+) -> Result<BTreeMap<usize, BTreeSet<usize>>> {
+    let root_fields = parquet_schema.root_schema().get_fields();
+    let mut roots = BTreeMap::<usize, BTreeSet<usize>>::new();
+    for &column in columns {
+        if column >= parquet_schema.num_columns() {
+            return Err(ParquetError::IndexOutOfBound(
+                column,
+                parquet_schema.num_columns(),
+            ));
+        }
+        let root_name = parquet_schema.get_column_root(column).name();
+        let root = root_fields
+            .iter()
+            .position(|field| field.name() == root_name)
+            .unwrap();
+        roots.entry(root).or_default().insert(column);
+    }
+    Ok(roots)
+}
+
+/// Returns a file reader that only reads the pages of the columns at `columns` that
+/// hold the rows selected by `filter`.
+fn filter_pages(
+    file_reader: Arc<dyn FileReader>,
+    filter: &PageFilter,
+    columns: &[usize],
+) -> Result<Arc<dyn FileReader>> {
+    let metadata = file_reader.metadata();
+    let mut row_groups = Vec::new();
+    let mut row_group_metadata = Vec::new();
+    let mut selected_pages = Vec::new();
+
+    for (i, row_group) in metadata.row_groups().iter().enumerate() {
+        let num_rows = row_group.num_rows() as usize;
+        let mut pages = vec![None; row_group.num_columns()];
+        let selected_rows = match select_rows(row_group, filter, columns)? {
+            None => num_rows,
+            Some(ranges) if ranges.is_empty() => continue,
+            Some(ranges) => {
+                for &c in columns {
+                    pages[c] = row_group
+                        .column(c)
+                        .offset_index()
+                        .map(|index| index.pages_for_rows(num_rows, &ranges));
+                }
+                ranges.iter().map(|range| range.len()).sum()
+            }
+        };
+
+        row_groups.push(i);
+        row_group_metadata.push(
+            RowGroupMetaData::builder(row_group.schema_descr_ptr())
+                .set_num_rows(selected_rows as i64)
+                .set_total_byte_size(row_group.total_byte_size())
+                .set_column_metadata(row_group.columns().to_vec())
+                .build()?,
+        );
+        selected_pages.push(pages);
+    }
+
+    let metadata =
+        ParquetMetaData::new(metadata.file_metadata().clone(), row_group_metadata);
+    Ok(Arc::new(PageFilteredFileReader {
+        file_reader,
+        metadata,
+        row_groups,
+        selected_pages,
+    }))
+}
+
+/// Returns the ranges of rows of `row_group` held by the pages whose statistics satisfy
+/// `filter`, widened so that they start and end on page boundaries of every column at
+/// `columns`. Returns `None` if the page index of any of these columns is missing.
+fn select_rows(
+    row_group: &RowGroupMetaData,
+    filter: &PageFilter,
+    columns: &[usize],
+) -> Result<Option<Vec<Range<usize>>>> {
+    if filter.column >= row_group.num_columns() {
+        return Err(ParquetError::IndexOutOfBound(
+            filter.column,
+            row_group.num_columns(),
+        ));
+    }
+    let filter_column = row_group.column(filter.column);
+    let (column_index, offset_index) =
+        match (filter_column.column_index(), filter_column.offset_index()) {
+            (Some(column_index), Some(offset_index)) => (column_index, offset_index),
+            _ => return Ok(None),
+        };
+    if column_index.num_pages() != offset_index.num_pages() {
+        return Err(general_err!(
+            "Column index and offset index of column {} have different page counts ({} vs {})",
+            filter.column,
+            column_index.num_pages(),
+            offset_index.num_pages()
+        ));
+    }
+
+    let mut offset_indexes = Vec::with_capacity(columns.len());
+    for &c in columns {
+        match row_group.column(c).offset_index() {
+            Some(index) => offset_indexes.push(index),
+            None => return Ok(None),
+        }
+    }
+
+    let num_rows = row_group.num_rows() as usize;
+    let mut ranges = merge_ranges(
+        column_index
+            .statistics()
+            .iter()
+            .zip(offset_index.page_row_ranges(num_rows))
+            .filter(|(stats, _)| (filter.predicate)(stats))
+            .map(|(_, range)| range)
+            .collect(),
+    );
+
+    // Widening the ranges to the pages of one column can cross page boundaries of
+    // another one, so repeat until all columns agree
+    loop {
+        let mut widened = ranges.clone();
+        for index in &offset_indexes {
+            let page_ranges = index.page_row_ranges(num_rows);
+            for page in index.pages_for_rows(num_rows, &ranges) {
+                widened.push(page_ranges[page].clone());
+            }
+        }
+        let widened = merge_ranges(widened);
+        if widened == ranges {
+            return Ok(Some(ranges));
+        }
+        ranges = widened;
+    }
+}
+
+/// Sorts `ranges` and merges the ones that overlap or are adjacent.
+fn merge_ranges(mut ranges: Vec<Range<usize>>) -> Vec<Range<usize>> {
+    ranges.sort_by_key(|range| range.start);
+    let mut merged: Vec<Range<usize>> = Vec::with_capacity(ranges.len());
+    for range in ranges {
+        match merged.last_mut() {
+            Some(last) if range.start <= last.end => {
+                last.end = last.end.max(range.end);
+            }
+            _ => merged.push(range),
+        }
+    }
+    merged
+}
+
+/// File reader over the row groups and pages selected by a [`PageFilter`].
+struct PageFilteredFileReader {
+    file_reader: Arc<dyn FileReader>,
+    metadata: ParquetMetaData,
+    // Position of each selected row group in the underlying file
+    row_groups: Vec<usize>,
+    // Selected pages of every column of each selected row group, `None` for all pages
+    selected_pages: Vec<Vec<Option<Vec<usize>>>>,
+}
+
+impl FileReader for PageFilteredFileReader {
+    fn metadata(&self) -> &ParquetMetaData {
+        &self.metadata
+    }
+
+    fn num_row_groups(&self) -> usize {
+        self.row_groups.len()
+    }
+
+    fn get_row_group(&self, i: usize) -> Result<Box<dyn RowGroupReader + '_>> {
+        let row_group_reader = self.file_reader.get_row_group(self.row_groups[i])?;
+        Ok(Box::new(PageFilteredRowGroupReader {
+            row_group_reader,
+            metadata: self.metadata.row_group(i),
+            selected_pages: &self.selected_pages[i],
+        }))
+    }
+
+    fn get_row_iter(&self, projection: Option<SchemaType>) -> Result<RowIter> {
+        RowIter::from_file(projection, self)
+    }
+}
+
+struct PageFilteredRowGroupReader<'a> {
+    row_group_reader: Box<dyn RowGroupReader + 'a>,
+    metadata: &'a RowGroupMetaData,
+    selected_pages: &'a [Option<Vec<usize>>],
+}
+
+impl<'a> RowGroupReader for PageFilteredRowGroupReader<'a> {
+    fn metadata(&self) -> &RowGroupMetaData {
+        self.metadata
+    }
+
+    fn num_columns(&self) -> usize {
+        self.row_group_reader.num_columns()
+    }
+
+    fn get_column_page_reader(&self, i: usize) -> Result<Box<dyn PageReader>> {
+        match self.selected_pages[i] {
+            Some(ref pages) => self
+                .row_group_reader
+                .get_column_page_reader_with_pages(i, pages),
+            None => self.row_group_reader.get_column_page_reader(i),
+        }
+    }
+
+    fn get_column_bloom_filter(&self, i: usize) -> Result<Option<Sbbf>> {
+        self.row_group_reader.get_column_bloom_filter(i)
+    }
+
+    fn get_row_iter(&self, projection: Option<SchemaType>) -> Result<RowIter> {
+        RowIter::from_row_group(projection, self)
+    }
+}
+
+/// A run of consecutive rows that are either all read or all skipped, see
+/// [`RowSelection`].
+#[derive(Debug, Clone, Copy, PartialEq, Eq)]
+pub struct RowSelector {
+    /// The number of rows
+    pub row_count: usize,
+    /// Whether the rows are skipped rather than read
+    pub skip: bool,
+}
+
+impl RowSelector {
+    /// Returns a selector that reads the next `row_count` rows.
+    pub fn select(row_count: usize) -> Self {
+        Self {
+            row_count,
+            skip: false,
+        }
+    }
+
+    /// Returns a selector that skips the next `row_count` rows.
+    pub fn skip(row_count: usize) -> Self {
+        Self {
+            row_count,
+            skip: true,
+        }
+    }
+}
+
+/// The rows to read from a file, given as consecutive [`RowSelector`]s starting from
+/// its first row. Rows after the last selector are not read.
+#[derive(Debug, Clone, Default, PartialEq, Eq)]
+pub struct RowSelection {
+    selectors: VecDeque<RowSelector>,
+}
+
+impl RowSelection {
+    /// Creates a selection of the rows in `ranges`. Ranges may overlap and do not
+    /// need to be sorted.
+    pub fn from_ranges(ranges: Vec<Range<usize>>) -> Self {
+        let mut selectors = VecDeque::new();
+        let mut position = 0;
+        for range in merge_ranges(ranges) {
+            if range.is_empty() {
+                continue;
+            }
+            if range.start > position {
+                selectors.push_back(RowSelector::skip(range.start - position));
+            }
+            selectors.push_back(RowSelector::select(range.len()));
+            position = range.end;
+        }
+        Self { selectors }
+    }
+
+    /// Returns the selectors of this selection.
+    pub fn selectors(&self) -> impl Iterator<Item = &RowSelector> {
+        self.selectors.iter()
+    }
+
+    /// Returns the selection of the rows selected by `other` among the rows selected by
+    /// this selection, i.e. the row positions of `other` are relative to the rows
+    /// selected by this selection rather than to the first row of the file.
+    pub fn and_then(&self, other: &RowSelection) -> RowSelection {
+        let mut selectors = VecDeque::new();
+        let mut other_selectors = other.selectors.iter().copied();
+        let mut current: Option<RowSelector> = None;
+
+        for selector in &self.selectors {
+            if selector.skip {
+                push_selector(&mut selectors, *selector);
+                continue;
+            }
+
+            let mut rows_left = selector.row_count;
+            while rows_left > 0 {
+                let next_selector = current.take().or_else(|| other_selectors.next());
+                let other_selector = match next_selector {
+                    Some(other_selector) => other_selector,
+                    // Rows after the last selector are not read
+                    None => return Self { selectors },
+                };
+
+                let row_count = min(rows_left, other_selector.row_count);
+                push_selector(
+                    &mut selectors,
+                    RowSelector {
+                        row_count,
+                        skip: other_selector.skip,
+                    },
+                );
+                if row_count < other_selector.row_count {
+                    current = Some(RowSelector {
+                        row_count: other_selector.row_count - row_count,
+                        skip: other_selector.skip,
+                    });
+                }
+                rows_left -= row_count;
+            }
+        }
+
+        Self { selectors }
+    }
+
+    /// Returns the number of selected rows.
+    pub fn row_count(&self) -> usize {
+        self.selectors
+            .iter()
+            .filter(|selector| !selector.skip)
+            .map(|selector| selector.row_count)
+            .sum()
+    }
+}
+
+/// Appends `selector` to `selectors`, merging it with the last one if they both read or
+/// both skip rows.
+fn push_selector(selectors: &mut VecDeque<RowSelector>, selector: RowSelector) {
+    if selector.row_count == 0 {
+        return;
+    }
+    match selectors.back_mut() {
+        Some(last) if last.skip == selector.skip => last.row_count += selector.row_count,
+        _ => selectors.push_back(selector),
+    }
+}
+
+impl From<Vec<RowSelector>> for RowSelection {
+    fn from(selectors: Vec<RowSelector>) -> Self {
+        Self {
+            selectors: selectors.into(),
+        }
+    }
 }
 
 pub struct ParquetRecordBatchReader {
     batch_size: usize,
+    // Reader of the projected columns, or of the filter columns if `filter` is set
     array_reader: Box<dyn ArrayReader>,
     schema: SchemaRef,
+    selection: Option<RowSelection>,
+    filter: Option<FilterState>,
+}
+
+/// The row filter of a [`ParquetRecordBatchReader`], with the reader of the projected
+/// columns that are not taken from the filter columns.
+struct FilterState {
+    predicate: Box<dyn FnMut(&RecordBatch) -> ArrowResult<BooleanArray>>,
+    // Schema of the record batches of the filter columns
+    filter_schema: SchemaRef,
+    // Reader of the projected columns that are not taken from the filter columns
+    array_reader: Option<Box<dyn ArrayReader>>,
+    // For each column of the record batches, the column of the filter batches it is
+    // taken from, or `None` for the next column read by `array_reader`
+    columns: Vec<Option<usize>>,
+    // Set once the filter columns are exhausted
+    finished: bool,
 }
 
 impl Iterator for ParquetRecordBatchReader {
     type Item = ArrowResult<RecordBatch>;
 
     fn next(&mut self) -> Option<Self::Item> {
-        match self.array_reader.next_batch(self.batch_size) {
+        if self.filter.is_some() {
+            return match self.next_filtered_batch() {
+                Ok(Some(batch)) => Some(Ok(batch)),
+                Ok(None) => None,
+                Err(err) => Some(Err(err)),
+            };
+        }
+
+        let array = match self.selection {
+            Some(_) => self.next_selected_batch(),
+            None => self.array_reader.next_batch(self.batch_size).map(Some),
+        };
+        match array {
             Err(error) => Some(Err(error.into())),
-            Ok(array) => {
-                let struct_array =
-                    array.as_any().downcast_ref::<StructArray>().ok_or_else(|| {
-                        ArrowError::ParquetError(
-                            "Struct array reader should return struct array".to_string(),
-                        )
-                    });
-                match struct_array {
-                    Err(err) => Some(Err(err)),
-                    Ok(e) => {
-                        match RecordBatch::try_new(self.schema.clone(), e.columns_ref()) {
-                            Err(err) => Some(Err(err)),
-                            Ok(record_batch) => {
-                                if record_batch.num_rows() > 0 {
-                                    Some(Ok(record_batch))
-                                } else {
-                                    None
-                                }
-                            }
-                        }
+            Ok(None) => None,
+            Ok(Some(array)) => match to_record_batch(self.schema.clone(), &array) {
+                Err(err) => Some(Err(err)),
+                Ok(record_batch) => {
+                    if record_batch.num_rows() > 0 {
+                        Some(Ok(record_batch))
+                    } else {
+                        None
                     }
                 }
-            }
+            },
         }
     }
 }
@@ -227,13 +900,248 @@ impl ParquetRecordBatchReader {
             batch_size,
             array_reader,
             schema: Arc::new(schema),
+            selection: None,
+            filter: None,
+        })
+    }
+
+    /// Creates a reader that only reads the rows of `selection`, skipping the other
+    /// rows in the array reader without decoding them.
+    pub fn try_new_with_selection(
+        batch_size: usize,
+        array_reader: Box<dyn ArrayReader>,
+        selection: RowSelection,
+    ) -> Result<Self> {
+        let mut reader = Self::try_new(batch_size, array_reader)?;
+        reader.selection = Some(selection);
+        Ok(reader)
+    }
+
+    /// Reads the next `batch_size` selected rows, skipping the unselected rows before
+    /// and between them. Returns `None` once the selection or the file is exhausted.
+    fn next_selected_batch(&mut self) -> Result<Option<ArrayRef>> {
+        let selectors = &mut self.selection.as_mut().unwrap().selectors;
+        let batch_selectors = take_selected_rows(selectors, self.batch_size);
+        let rows_to_read = selected_row_count(&batch_selectors);
+
+        let array = read_selection(self.array_reader.as_mut(), batch_selectors)?;
+        if array.as_ref().map_or(0, |array| array.len()) < rows_to_read {
+            // Reached the end of the file
+            selectors.clear();
+        }
+        Ok(array)
+    }
+
+    /// Reads the filter columns of the next `batch_size` selected rows and evaluates the
+    /// row filter on them, then reads the other projected columns of the rows that
+    /// pass it. Repeats until some rows pass the filter, returns `None` once the
+    /// selection or the file is exhausted.
+    fn next_filtered_batch(&mut self) -> ArrowResult<Option<RecordBatch>> {
+        let filter = self.filter.as_mut().unwrap();
+        loop {
+            if filter.finished {
+                return Ok(None);
+            }
+
+            let batch_selectors = match self.selection {
+                Some(ref mut selection) => {
+                    take_selected_rows(&mut selection.selectors, self.batch_size)
+                }
+                None => vec![RowSelector::select(self.batch_size)].into(),
+            };
+            let rows_to_read = selected_row_count(&batch_selectors);
+            if rows_to_read == 0 {
+                filter.finished = true;
+                return Ok(None);
+            }
+
+            let filter_array =
+                read_selection(self.array_reader.as_mut(), batch_selectors.clone())?;
+            let filter_batch = match filter_array {
+                Some(array) => to_record_batch(filter.filter_schema.clone(), &array)?,
+                None => {
+                    filter.finished = true;
+                    return Ok(None);
+                }
+            };
+            if filter_batch.num_rows() < rows_to_read {
+                // Reached the end of the file
+                filter.finished = true;
+            }
+
+            let mask = (filter.predicate)(&filter_batch)?;
+            if mask.len() != filter_batch.num_rows() {
+                return Err(ArrowError::ParquetError(format!(
+                    "Row filter returned {} values for a batch of {} rows",
+                    mask.len(),
+                    filter_batch.num_rows()
+                )));
+            }
+            let mask = if mask.null_count() > 0 {
+                prep_null_mask_filter(&mask)
+            } else {
+                mask
+            };
+            let filtered = filter_record_batch(&filter_batch, &mask)?;
+
+            // Read the other columns of the rows that pass the filter and skip the
+            // others, even if none passes, to keep them aligned with the filter columns
+            let other_array = match filter.array_reader {
+                Some(ref mut array_reader) => {
+                    let selection = RowSelection {
+                        selectors: batch_selectors,
+                    }
+                    .and_then(&selection_from_mask(&mask));
+                    read_selection(array_reader.as_mut(), selection.selectors)?
+                }
+                None => None,
+            };
+            if filtered.num_rows() == 0 {
+                continue;
+            }
+            let other_columns = match other_array {
+                Some(ref array) => struct_columns(array)?,
+                None => Vec::new(),
+            };
+
+            let mut other_columns = other_columns.into_iter();
+            let columns = filter
+                .columns
+                .iter()
+                .map(|column| match column {
+                    Some(i) => Ok(filtered.column(*i).clone()),
+                    None => other_columns.next().ok_or_else(|| {
+                        ArrowError::ParquetError(
+                            "Projected columns are missing from the array reader"
+                                .to_string(),
+                        )
+                    }),
+                })
+                .collect::<ArrowResult<Vec<_>>>()?;
+            return RecordBatch::try_new(self.schema.clone(), columns).map(Some);
+        }
+    }
+}
+
+/// Returns the columns of the struct array `array` read by a struct array reader.
+fn struct_columns(array: &ArrayRef) -> ArrowResult<Vec<ArrayRef>> {
+    array
+        .as_any()
+        .downcast_ref::<StructArray>()
+        .map(|struct_array| struct_array.columns_ref())
+        .ok_or_else(|| {
+            ArrowError::ParquetError(
+                "Struct array reader should return struct array".to_string(),
+            )
         })
+}
+
+/// Returns the record batch of `schema` holding the columns of the struct array
+/// `array` read by a struct array reader.
+fn to_record_batch(schema: SchemaRef, array: &ArrayRef) -> ArrowResult<RecordBatch> {
+    RecordBatch::try_new(schema, struct_columns(array)?)
+}
+
+/// Removes the selectors of the next `batch_size` selected rows from the front of
+/// `selectors`, with the selectors of the rows skipped before and between them, and
+/// returns them. The last selector is split if it selects more rows than needed.
+fn take_selected_rows(
+    selectors: &mut VecDeque<RowSelector>,
+    batch_size: usize,
+) -> VecDeque<RowSelector> {
+    let mut taken = VecDeque::new();
+    let mut rows_taken = 0;
+    while rows_taken < batch_size {
+        let selector = match selectors.pop_front() {
+            Some(selector) => selector,
+            None => break,
+        };
+        if selector.skip {
+            taken.push_back(selector);
+            continue;
+        }
+
+        let row_count = min(selector.row_count, batch_size - rows_taken);
+        if row_count < selector.row_count {
+            selectors.push_front(RowSelector::select(selector.row_count - row_count));
+        }
+        taken.push_back(RowSelector::select(row_count));
+        rows_taken += row_count;
+    }
+    taken
+}
+
+/// Returns the number of rows selected by `selectors`.
+fn selected_row_count(selectors: &VecDeque<RowSelector>) -> usize {
+    selectors
+        .iter()
+        .filter(|selector| !selector.skip)
+        .map(|selector| selector.row_count)
+        .sum()
+}
+
+/// Returns the selection of the rows whose value of `mask` is true, covering all the
+/// rows of `mask` so that rows after the last selected one are skipped too.
+fn selection_from_mask(mask: &BooleanArray) -> RowSelection {
+    let mut selectors = VecDeque::new();
+    let mut position = 0;
+    for (start, end) in SlicesIterator::new(mask) {
+        push_selector(&mut selectors, RowSelector::skip(start - position));
+        push_selector(&mut selectors, RowSelector::select(end - start));
+        position = end;
+    }
+    push_selector(&mut selectors, RowSelector::skip(mask.len() - position));
+    RowSelection { selectors }
+}
+
+/// Reads the rows selected by `selectors` from `array_reader`, skipping the other rows
+/// without decoding them. Stops early at the end of the file, returns `None` if no row
+/// is read.
+fn read_selection(
+    array_reader: &mut dyn ArrayReader,
+    selectors: VecDeque<RowSelector>,
+) -> Result<Option<ArrayRef>> {
+    let mut arrays = Vec::new();
+    for selector in selectors {
+        if selector.row_count == 0 {
+            continue;
+        }
+
+        if selector.skip {
+            let rows_skipped = array_reader.skip_records(selector.row_count)?;
+            if rows_skipped < selector.row_count {
+                break;
+            }
+            continue;
+        }
+
+        let array = array_reader.next_batch(selector.row_count)?;
+        let array_rows = array.len();
+        if array_rows > 0 {
+            arrays.push(array);
+        }
+        if array_rows < selector.row_count {
+            break;
+        }
+    }
+
+    match arrays.len() {
+        0 => Ok(None),
+        1 => Ok(arrays.pop()),
+        _ => {
+            let arrays: Vec<&dyn Array> = arrays.iter().map(|a| a.as_ref()).collect();
+            Ok(Some(arrow::compute::concat(&arrays)?))
+        }
     }
 }
 
 #[cfg(test)]
 mod tests {
-    use crate::arrow::arrow_reader::{ArrowReader, ParquetFileArrowReader};
+    use crate::arrow::arrow_reader::{
+        merge_ranges, ArrowReader, ParquetFileArrowReader, RowFilter, RowSelection,
+        RowSelector,
+    };
+    use crate::arrow::arrow_writer::ArrowWriter;
     use crate::arrow::converter::{
         Converter, FixedSizeArrayConverter, FromConverter, IntervalDayTimeArrayConverter,
         Utf8ArrayConverter,
@@ -245,13 +1153,16 @@ mod tests {
     };
     use crate::errors::Result;
     use crate::file::properties::WriterProperties;
-    use crate::file::reader::{FileReader, SerializedFileReader};
+    use crate::file::reader::{ChunkReader, FileReader, Length, SerializedFileReader};
+    use crate::file::serialized_reader::ReadOptions;
+    use crate::file::statistics::Statistics;
     use crate::file::writer::{FileWriter, SerializedFileWriter};
     use crate::schema::parser::parse_message_type;
     use crate::schema::types::TypePtr;
-    use crate::util::test_common::{get_temp_filename, RandGen};
+    use crate::util::test_common::{get_temp_file, get_temp_filename, RandGen};
     use arrow::array::*;
-    use arrow::record_batch::RecordBatchReader;
+    use arrow::datatypes::{DataType as ArrowDataType, Field, Schema};
+    use arrow::record_batch::{RecordBatch, RecordBatchReader};
     use rand::RngCore;
     use serde_json::json;
     use serde_json::Value::{Array as JArray, Null as JNull, Object as JObject};
@@ -259,7 +1170,7 @@ mod tests {
     use std::convert::TryFrom;
     use std::fs::File;
     use std::path::{Path, PathBuf};
-    use std::sync::Arc;
+    use std::sync::{Arc, Mutex};
 
     #[test]
     fn test_arrow_reader_all_columns() {
@@ -668,4 +1579,362 @@ mod tests {
             batch.unwrap();
         }
     }
+
+    #[test]
+    fn test_page_filter() {
+        let schema = Arc::new(Schema::new(vec![
+            Field::new("a", ArrowDataType::Int32, false),
+            Field::new("b", ArrowDataType::Int64, false),
+        ]));
+        let a = Int32Array::from((0..1000).collect::<Vec<i32>>());
+        let b = Int64Array::from((0..1000).map(|v| v * 2).collect::<Vec<i64>>());
+        let batch =
+            RecordBatch::try_new(schema.clone(), vec![Arc::new(a), Arc::new(b)])
+                .unwrap();
+
+        let props = WriterProperties::builder()
+            .set_dictionary_enabled(false)
+            .set_data_pagesize_limit(256)
+            .set_write_batch_size(16)
+            .set_page_index_enabled(true)
+            .build();
+        let file = get_temp_file("test_page_filter.parquet", &[]);
+        let mut writer =
+            ArrowWriter::try_new(file.try_clone().unwrap(), schema, Some(props))
+                .unwrap();
+        writer.write(&batch).unwrap();
+        writer.close().unwrap();
+
+        let options = ReadOptions::builder().set_page_index_enabled(true).build();
+        let file_reader = SerializedFileReader::new_with_options(file, options).unwrap();
+        let mut arrow_reader = ParquetFileArrowReader::new(Arc::new(file_reader));
+        arrow_reader.set_page_filter(0, |stats| match stats {
+            Statistics::Int32(stats) => *stats.max() >= 900,
+            _ => true,
+        });
+
+        let mut values = vec![];
+        for batch in arrow_reader.get_record_reader(100).unwrap() {
+            let batch = batch.unwrap();
+            let a = batch.column(0).as_any().downcast_ref::<Int32Array>().unwrap();
+            let b = batch.column(1).as_any().downcast_ref::<Int64Array>().unwrap();
+            for i in 0..batch.num_rows() {
+                assert_eq!(b.value(i), a.value(i) as i64 * 2);
+                values.push(a.value(i));
+            }
+        }
+
+        // Only the trailing pages that hold values from 900 are read
+        assert!(values.len() >= 100);
+        assert!(values.len() < 1000);
+        let first = 1000 - values.len() as i32;
+        assert_eq!(values, (first..1000).collect::<Vec<_>>());
+    }
+
+    /// File that records the offsets of the chunks read from it.
+    struct RecordingFile {
+        file: File,
+        reads: Arc<Mutex<Vec<u64>>>,
+    }
+
+    impl Length for RecordingFile {
+        fn len(&self) -> u64 {
+            Length::len(&self.file)
+        }
+    }
+
+    impl ChunkReader for RecordingFile {
+        type T = <File as ChunkReader>::T;
+
+        fn get_read(&self, start: u64, length: usize) -> Result<Self::T> {
+            self.reads.lock().unwrap().push(start);
+            self.file.get_read(start, length)
+        }
+    }
+
+    #[test]
+    fn test_page_filter_skips_pages() {
+        let schema = Arc::new(Schema::new(vec![Field::new(
+            "a",
+            ArrowDataType::Int32,
+            false,
+        )]));
+        let a = Int32Array::from((0..1000).collect::<Vec<i32>>());
+        let batch = RecordBatch::try_new(schema.clone(), vec![Arc::new(a)]).unwrap();
+
+        let props = WriterProperties::builder()
+            .set_dictionary_enabled(false)
+            .set_data_pagesize_limit(256)
+            .set_write_batch_size(16)
+            .set_page_index_enabled(true)
+            .build();
+        let file = get_temp_file("test_page_filter_skips_pages.parquet", &[]);
+        let mut writer =
+            ArrowWriter::try_new(file.try_clone().unwrap(), schema, Some(props))
+                .unwrap();
+        writer.write(&batch).unwrap();
+        writer.close().unwrap();
+
+        let reads = Arc::new(Mutex::new(vec![]));
+        let file = RecordingFile {
+            file,
+            reads: reads.clone(),
+        };
+        let options = ReadOptions::builder().set_page_index_enabled(true).build();
+        let file_reader = SerializedFileReader::new_with_options(file, options).unwrap();
+        let column = file_reader.metadata().row_group(0).column(0);
+        let column_index = column.column_index().unwrap().clone();
+        let pages = column.offset_index().unwrap().page_locations().to_vec();
+        assert!(pages.len() > 2);
+
+        let mut arrow_reader = ParquetFileArrowReader::new(Arc::new(file_reader));
+        let predicate = |stats: &Statistics| match stats {
+            Statistics::Int32(stats) => *stats.max() >= 900,
+            _ => true,
+        };
+        arrow_reader.set_page_filter(0, predicate);
+
+        reads.lock().unwrap().clear();
+        let num_rows: usize = arrow_reader
+            .get_record_reader(100)
+            .unwrap()
+            .map(|batch| batch.unwrap().num_rows())
+            .sum();
+
+        // Exactly the pages whose statistics match are read from the file
+        let reads = reads.lock().unwrap();
+        let mut expected_rows = 0;
+        for (i, page) in pages.iter().enumerate() {
+            let selected = predicate(column_index.page_statistics(i));
+            assert_eq!(reads.contains(&(page.offset as u64)), selected);
+            if selected {
+                let end = pages.get(i + 1).map(|next| next.first_row_index);
+                expected_rows += end.unwrap_or(1000) - page.first_row_index;
+            }
+        }
+        assert!(!reads.contains(&(pages[0].offset as u64)));
+        assert_eq!(num_rows, expected_rows as usize);
+    }
+
+    #[test]
+    fn test_row_selection() {
+        let schema = Arc::new(Schema::new(vec![
+            Field::new("a", ArrowDataType::Int32, false),
+            Field::new("b", ArrowDataType::Utf8, true),
+        ]));
+        let a = Int32Array::from((0..1000).collect::<Vec<i32>>());
+        let b = StringArray::from(
+            (0..1000)
+                .map(|v| if v % 3 == 0 { None } else { Some(v.to_string()) })
+                .collect::<Vec<_>>(),
+        );
+        let batch =
+            RecordBatch::try_new(schema.clone(), vec![Arc::new(a), Arc::new(b)])
+                .unwrap();
+
+        let props = WriterProperties::builder()
+            .set_data_pagesize_limit(256)
+            .set_write_batch_size(16)
+            .set_max_row_group_size(300)
+            .build();
+        let file = get_temp_file("test_row_selection.parquet", &[]);
+        let mut writer =
+            ArrowWriter::try_new(file.try_clone().unwrap(), schema, Some(props))
+                .unwrap();
+        writer.write(&batch).unwrap();
+        writer.close().unwrap();
+
+        let file_reader = SerializedFileReader::new(file).unwrap();
+        let mut arrow_reader = ParquetFileArrowReader::new(Arc::new(file_reader));
+        let selection = RowSelection::from_ranges(vec![250..420, 5..10, 990..1200]);
+        assert_eq!(selection.row_count(), 385);
+        arrow_reader.set_row_selection(selection);
+
+        let mut values = vec![];
+        for batch in arrow_reader.get_record_reader(64).unwrap() {
+            let batch = batch.unwrap();
+            assert!(batch.num_rows() <= 64);
+            let a = batch.column(0).as_any().downcast_ref::<Int32Array>().unwrap();
+            let b = batch.column(1).as_any().downcast_ref::<StringArray>().unwrap();
+            for i in 0..batch.num_rows() {
+                assert_eq!(b.is_null(i), a.value(i) % 3 == 0);
+                if b.is_valid(i) {
+                    assert_eq!(b.value(i), a.value(i).to_string());
+                }
+                values.push(a.value(i));
+            }
+        }
+
+        let expected: Vec<i32> = (5..10).chain(250..420).chain(990..1000).collect();
+        assert_eq!(values, expected);
+    }
+
+    #[test]
+    fn test_row_filter() {
+        let schema = Arc::new(Schema::new(vec![
+            Field::new("a", ArrowDataType::Int32, false),
+            Field::new("b", ArrowDataType::Utf8, true),
+            Field::new("c", ArrowDataType::Int64, false),
+        ]));
+        let a = Int32Array::from((0..1000).collect::<Vec<i32>>());
+        let b = StringArray::from(
+            (0..1000)
+                .map(|v| if v % 3 == 0 { None } else { Some(v.to_string()) })
+                .collect::<Vec<_>>(),
+        );
+        let c = Int64Array::from((0..1000).map(|v| v * 2).collect::<Vec<i64>>());
+        let batch = RecordBatch::try_new(
+            schema.clone(),
+            vec![Arc::new(a), Arc::new(b), Arc::new(c)],
+        )
+        .unwrap();
+
+        let props = WriterProperties::builder()
+            .set_data_pagesize_limit(256)
+            .set_write_batch_size(16)
+            .set_max_row_group_size(300)
+            .build();
+        let file = get_temp_file("test_row_filter.parquet", &[]);
+        let mut writer =
+            ArrowWriter::try_new(file.try_clone().unwrap(), schema, Some(props))
+                .unwrap();
+        writer.write(&batch).unwrap();
+        writer.close().unwrap();
+
+        // Select rows where `a % 100 == 7`, only reading columns `b` and `c`
+        let filter = || {
+            RowFilter::new(vec![0], |batch| {
+                let a = batch.column(0).as_any().downcast_ref::<Int32Array>().unwrap();
+                Ok(a.iter().map(|v| v.map(|v| v % 100 == 7)).collect())
+            })
+        };
+        let file_reader = SerializedFileReader::new(file).unwrap();
+        let mut arrow_reader = ParquetFileArrowReader::new(Arc::new(file_reader));
+        arrow_reader.set_row_filter(filter());
+
+        let mut values = vec![];
+        for batch in arrow_reader.get_record_reader_by_columns(vec![1, 2], 4).unwrap() {
+            let batch = batch.unwrap();
+            assert_eq!(batch.num_columns(), 2);
+            let b = batch.column(0).as_any().downcast_ref::<StringArray>().unwrap();
+            let c = batch.column(1).as_any().downcast_ref::<Int64Array>().unwrap();
+            for i in 0..batch.num_rows() {
+                let a = c.value(i) / 2;
+                assert_eq!(b.is_null(i), a % 3 == 0);
+                if b.is_valid(i) {
+                    assert_eq!(b.value(i), a.to_string());
+                }
+                values.push(c.value(i));
+            }
+        }
+        let expected: Vec<i64> = (0..10).map(|v| (v * 100 + 7) * 2).collect();
+        assert_eq!(values, expected);
+
+        // The filter column `a` is projected too, it is taken from the filter batches
+        arrow_reader.set_row_filter(filter());
+        let reader = arrow_reader
+            .get_record_reader_by_columns(vec![2, 0], 64)
+            .unwrap();
+        assert_eq!(reader.schema().field(0).name(), "a");
+        assert_eq!(reader.schema().field(1).name(), "c");
+        let mut values = vec![];
+        for batch in reader {
+            let batch = batch.unwrap();
+            let a = batch.column(0).as_any().downcast_ref::<Int32Array>().unwrap();
+            let c = batch.column(1).as_any().downcast_ref::<Int64Array>().unwrap();
+            for i in 0..batch.num_rows() {
+                assert_eq!(c.value(i), a.value(i) as i64 * 2);
+                values.push(a.value(i));
+            }
+        }
+        let expected: Vec<i32> = (0..10).map(|v| v * 100 + 7).collect();
+        assert_eq!(values, expected);
+
+        // Only the filter columns are projected
+        arrow_reader.set_row_filter(filter());
+        let num_rows = arrow_reader
+            .get_record_reader_by_columns(vec![0], 64)
+            .unwrap()
+            .map(|batch| batch.unwrap().num_rows())
+            .sum::<usize>();
+        assert_eq!(num_rows, 10);
+
+        // Combine the filter with a row selection
+        arrow_reader.set_row_selection(RowSelection::from_ranges(vec![150..450]));
+        arrow_reader.set_row_filter(filter());
+        let mut values = vec![];
+        for batch in arrow_reader.get_record_reader_by_columns(vec![2], 4).unwrap() {
+            let batch = batch.unwrap();
+            let c = batch.column(0).as_any().downcast_ref::<Int64Array>().unwrap();
+            values.extend(c.values().iter().cloned());
+        }
+        assert_eq!(values, vec![207 * 2, 307 * 2, 407 * 2]);
+
+        // The filter was used by the previous record reader
+        let num_rows = arrow_reader
+            .get_record_reader_by_columns(vec![2], 64)
+            .unwrap()
+            .map(|batch| batch.unwrap().num_rows())
+            .sum::<usize>();
+        assert_eq!(num_rows, 300);
+    }
+
+    #[test]
+    fn test_row_selection_and_then() {
+        let selection = RowSelection::from(vec![
+            RowSelector::skip(3),
+            RowSelector::select(4),
+            RowSelector::skip(2),
+            RowSelector::select(4),
+        ]);
+        // Relative to the 8 selected rows 3..7 and 9..13
+        let other = RowSelection::from(vec![
+            RowSelector::skip(1),
+            RowSelector::select(4),
+            RowSelector::skip(2),
+        ]);
+        assert_eq!(
+            selection.and_then(&other),
+            RowSelection::from(vec![
+                RowSelector::skip(4),
+                RowSelector::select(3),
+                RowSelector::skip(2),
+                RowSelector::select(1),
+                RowSelector::skip(2),
+            ])
+        );
+        assert_eq!(selection.and_then(&RowSelection::default()).row_count(), 0);
+    }
+
+    #[test]
+    fn test_row_selection_from_ranges() {
+        let selection = RowSelection::from_ranges(vec![10..20, 0..5, 15..25, 30..30]);
+        assert_eq!(
+            selection.selectors().cloned().collect::<Vec<_>>(),
+            vec![
+                RowSelector::select(5),
+                RowSelector::skip(5),
+                RowSelector::select(15),
+            ]
+        );
+        assert_eq!(selection.row_count(), 20);
+        assert_eq!(
+            selection,
+            RowSelection::from(vec![
+                RowSelector::select(5),
+                RowSelector::skip(5),
+                RowSelector::select(15),
+            ])
+        );
+    }
+
+    #[test]
+    fn test_merge_ranges() {
+        assert_eq!(merge_ranges(vec![]), vec![]);
+        assert_eq!(
+            merge_ranges(vec![10..20, 0..5, 5..8, 15..25, 30..40]),
+            vec![0..8, 10..25, 30..40]
+        );
+        assert_eq!(merge_ranges(vec![0..10, 2..4]), vec![0..10]);
+    }
 }
@@ -17,10 +17,19 @@
 
 //! Contains writer which writes arrow data into parquet data.
 
-use std::sync::Arc;
+use std::panic::{catch_unwind, AssertUnwindSafe};
+use std::sync::mpsc::{channel, Receiver, Sender};
+use std::sync::{Arc, Mutex};
+use std::thread::{self, JoinHandle};
 
 use arrow::array as arrow_array;
-use arrow::datatypes::{DataType as ArrowDataType, IntervalUnit, SchemaRef};
+use arrow::datatypes::{
+    ArrowDictionaryKeyType, ArrowNativeType, DataType as ArrowDataType,
+    Int16Type as ArrowInt16Type, Int32Type as ArrowInt32Type,
+    Int64Type as ArrowInt64Type, Int8Type as ArrowInt8Type, IntervalUnit, SchemaRef,
+    UInt16Type as ArrowUInt16Type, UInt32Type as ArrowUInt32Type,
+    UInt64Type as ArrowUInt64Type, UInt8Type as ArrowUInt8Type,
+};
 use arrow::record_batch::RecordBatch;
 use arrow_array::Array;
 
@@ -31,7 +40,9 @@ use super::schema::{
 
 use crate::column::writer::ColumnWriter;
 use crate::errors::{ParquetError, Result};
-use crate::file::properties::WriterProperties;
+use crate::file::properties::{WriterProperties, WriterPropertiesPtr};
+use crate::file::writer::{encode_column_chunk, EncodedColumnChunk};
+use crate::schema::types::SchemaDescPtr;
 use crate::{
     data_type::*,
     file::writer::{FileWriter, ParquetWriter, RowGroupWriter, SerializedFileWriter},
@@ -49,6 +60,12 @@ pub struct ArrowWriter<W: ParquetWriter> {
     arrow_schema: SchemaRef,
     /// The length of arrays to write to each row group
     max_row_group_size: usize,
+    /// The Parquet schema, whose leaf columns are encoded by worker threads
+    parquet_schema: SchemaDescPtr,
+    /// The writer properties, shared with worker threads
+    props: WriterPropertiesPtr,
+    /// The threads encoding the column chunks of each row group, if more than one
+    encoder_pool: Option<EncoderPool>,
 }
 
 impl<W: 'static + ParquetWriter> ArrowWriter<W> {
@@ -68,20 +85,39 @@ impl<W: 'static + ParquetWriter> ArrowWriter<W> {
         add_encoded_arrow_schema_to_metadata(&arrow_schema, &mut props);
 
         let max_row_group_size = props.max_row_group_size();
+        let props = Arc::new(props);
 
         let file_writer = SerializedFileWriter::new(
             writer.try_clone()?,
             schema.root_schema_ptr(),
-            Arc::new(props),
+            props.clone(),
         )?;
 
         Ok(Self {
             writer: file_writer,
             arrow_schema,
             max_row_group_size,
+            parquet_schema: Arc::new(schema),
+            props,
+            encoder_pool: None,
         })
     }
 
+    /// Sets the number of threads that encode the leaf columns of each row group
+    /// concurrently, 1 by default to encode them on the calling thread.
+    ///
+    /// With more threads, each column chunk is encoded into memory, and the chunks are
+    /// then written to the file in order. The threads are started here and used for
+    /// all the row groups, until the writer is dropped.
+    pub fn set_num_threads(&mut self, num_threads: usize) -> Result<()> {
+        // Stops the threads of the previous pool, if any
+        self.encoder_pool = None;
+        if num_threads > 1 {
+            self.encoder_pool = Some(EncoderPool::try_new(num_threads)?);
+        }
+        Ok(())
+    }
+
     /// Write a RecordBatch to writer
     ///
     /// The writer will slice the `batch` into `max_row_group_size`,
@@ -109,12 +145,25 @@ impl<W: 'static + ParquetWriter> ArrowWriter<W> {
 
             // Compute the definition and repetition levels of the batch
             let batch_level = LevelInfo::new(offset, length);
-            let mut row_group_writer = self.writer.next_row_group()?;
+            let mut leaves = Vec::new();
             for (array, field) in batch.columns().iter().zip(batch.schema().fields()) {
                 let mut levels = batch_level.calculate_array_levels(array, field);
                 // Reverse levels as we pop() them when writing arrays
                 levels.reverse();
-                write_leaves(&mut row_group_writer, array, &mut levels)?;
+                collect_leaves(array, &mut levels, &mut leaves)?;
+            }
+
+            let mut row_group_writer = self.writer.next_row_group()?;
+            if self.encoder_pool.is_some() && leaves.len() > 1 {
+                for column_chunk in self.encode_leaves(leaves)? {
+                    row_group_writer.append_column(column_chunk)?;
+                }
+            } else {
+                for (array, levels) in leaves {
+                    let mut col_writer = get_col_writer(&mut row_group_writer)?;
+                    write_leaf_array(&mut col_writer, &array, levels)?;
+                    row_group_writer.close_column(col_writer)?;
+                }
             }
 
             self.writer.close_row_group(row_group_writer)?;
@@ -123,12 +172,119 @@ impl<W: 'static + ParquetWriter> ArrowWriter<W> {
         Ok(())
     }
 
+    /// Encodes the leaf columns of a row group into memory on the threads of the
+    /// encoder pool, returning their column chunks in order.
+    fn encode_leaves(
+        &self,
+        leaves: Vec<(arrow_array::ArrayRef, LevelInfo)>,
+    ) -> Result<Vec<EncodedColumnChunk>> {
+        let pool = self
+            .encoder_pool
+            .as_ref()
+            .ok_or_else(|| general_err!("No column encoding threads"))?;
+        let num_leaves = leaves.len();
+
+        // Each leaf is a task, so that threads done with small columns take the next
+        // ones
+        let (sender, receiver) = channel();
+        for (i, (array, levels)) in leaves.into_iter().enumerate() {
+            let descr = self.parquet_schema.column(i);
+            let props = self.props.clone();
+            let sender = sender.clone();
+            pool.execute(Box::new(move || {
+                let column_chunk = encode_column_chunk(descr, props, |writer| {
+                    write_leaf_array(writer, &array, levels).map(|_| ())
+                });
+                // The receiver is only gone if another column failed
+                let _ = sender.send((i, column_chunk));
+            }))?;
+        }
+        drop(sender);
+
+        let mut column_chunks: Vec<Option<EncodedColumnChunk>> =
+            (0..num_leaves).map(|_| None).collect();
+        for (i, column_chunk) in receiver {
+            column_chunks[i] = Some(column_chunk?);
+        }
+        // A task that panicked drops its sender without sending anything
+        column_chunks
+            .into_iter()
+            .map(|column_chunk| {
+                column_chunk
+                    .ok_or_else(|| general_err!("Column encoding thread panicked"))
+            })
+            .collect()
+    }
+
     /// Close and finalize the underlying Parquet writer
     pub fn close(&mut self) -> Result<parquet_format::FileMetaData> {
         self.writer.close()
     }
 }
 
+type EncoderTask = Box<dyn FnOnce() + Send>;
+
+/// Threads encoding the column chunks of an [`ArrowWriter`], which are started once
+/// and then run the tasks of all the row groups. Dropping the pool stops the threads
+/// once they finish their current task.
+struct EncoderPool {
+    sender: Option<Sender<EncoderTask>>,
+    workers: Vec<JoinHandle<()>>,
+}
+
+impl EncoderPool {
+    fn try_new(num_threads: usize) -> Result<Self> {
+        let (sender, receiver) = channel::<EncoderTask>();
+        let receiver = Arc::new(Mutex::new(receiver));
+        let workers = (0..num_threads)
+            .map(|worker| {
+                let receiver = receiver.clone();
+                thread::Builder::new()
+                    .name(format!("parquet-writer-{}", worker))
+                    .spawn(move || Self::run(receiver))
+            })
+            .collect::<std::io::Result<Vec<_>>>()?;
+        Ok(Self {
+            sender: Some(sender),
+            workers,
+        })
+    }
+
+    /// Runs the tasks received from `receiver` until the pool is dropped.
+    fn run(receiver: Arc<Mutex<Receiver<EncoderTask>>>) {
+        loop {
+            // The lock is released before running the task
+            let task = match receiver.lock() {
+                Ok(receiver) => match receiver.recv() {
+                    Ok(task) => task,
+                    Err(_) => break,
+                },
+                Err(_) => break,
+            };
+            // A panicking task is reported by the result it doesn't send, the thread
+            // keeps running the next ones
+            let _ = catch_unwind(AssertUnwindSafe(task));
+        }
+    }
+
+    fn execute(&self, task: EncoderTask) -> Result<()> {
+        self.sender
+            .as_ref()
+            .and_then(|sender| sender.send(task).ok())
+            .ok_or_else(|| general_err!("Column encoding threads have stopped"))
+    }
+}
+
+impl Drop for EncoderPool {
+    fn drop(&mut self) {
+        // Closing the channel makes the threads stop
+        self.sender = None;
+        for worker in self.workers.drain(..) {
+            let _ = worker.join();
+        }
+    }
+}
+
 /// Convenience method to get the next ColumnWriter from the RowGroupWriter
 #[inline]
 #[allow(clippy::borrowed_box)]
@@ -141,11 +297,12 @@ fn get_col_writer(
     Ok(col_writer)
 }
 
-#[allow(clippy::borrowed_box)]
-fn write_leaves(
-    mut row_group_writer: &mut Box<dyn RowGroupWriter>,
+/// Collects the leaf arrays of `array` with their levels, in the order of the leaf
+/// columns of the Parquet schema.
+fn collect_leaves(
     array: &arrow_array::ArrayRef,
     mut levels: &mut Vec<LevelInfo>,
+    leaves: &mut Vec<(arrow_array::ArrayRef, LevelInfo)>,
 ) -> Result<()> {
     match array.data_type() {
         ArrowDataType::Null
@@ -172,22 +329,16 @@ fn write_leaves(
         | ArrowDataType::Utf8
         | ArrowDataType::LargeUtf8
         | ArrowDataType::Decimal(_, _)
-        | ArrowDataType::FixedSizeBinary(_) => {
-            let mut col_writer = get_col_writer(&mut row_group_writer)?;
-            write_leaf(
-                &mut col_writer,
-                array,
-                levels.pop().expect("Levels exhausted"),
-            )?;
-            row_group_writer.close_column(col_writer)?;
+        | ArrowDataType::FixedSizeBinary(_)
+        | ArrowDataType::Dictionary(_, _) => {
+            leaves.push((array.clone(), levels.pop().expect("Levels exhausted")));
             Ok(())
         }
         ArrowDataType::List(_) | ArrowDataType::LargeList(_) => {
-            // write the child list
+            // collect the leaves of the child list
             let data = array.data();
             let child_array = arrow_array::make_array(data.child_data()[0].clone());
-            write_leaves(&mut row_group_writer, &child_array, &mut levels)?;
-            Ok(())
+            collect_leaves(&child_array, &mut levels, leaves)
         }
         ArrowDataType::Struct(_) => {
             let struct_array: &arrow_array::StructArray = array
@@ -195,23 +346,10 @@ fn write_leaves(
                 .downcast_ref::<arrow_array::StructArray>()
                 .expect("Unable to get struct array");
             for field in struct_array.columns() {
-                write_leaves(&mut row_group_writer, field, &mut levels)?;
+                collect_leaves(field, &mut levels, leaves)?;
             }
             Ok(())
         }
-        ArrowDataType::Dictionary(_, value_type) => {
-            // cast dictionary to a primitive
-            let array = arrow::compute::cast(array, value_type)?;
-
-            let mut col_writer = get_col_writer(&mut row_group_writer)?;
-            write_leaf(
-                &mut col_writer,
-                &array,
-                levels.pop().expect("Levels exhausted"),
-            )?;
-            row_group_writer.close_column(col_writer)?;
-            Ok(())
-        }
         ArrowDataType::Float16 => Err(ParquetError::ArrowError(
             "Float16 arrays not supported".to_string(),
         )),
@@ -226,6 +364,182 @@ fn write_leaves(
     }
 }
 
+/// Writes the leaf array `array`, writing dictionaries as keys into their values
+/// where the column writer accepts the dictionary values as they are, and casting
+/// them to their values otherwise.
+fn write_leaf_array(
+    writer: &mut ColumnWriter,
+    array: &arrow_array::ArrayRef,
+    levels: LevelInfo,
+) -> Result<i64> {
+    match array.data_type() {
+        ArrowDataType::Dictionary(key_type, value_type) => {
+            let written = match key_type.as_ref() {
+                ArrowDataType::Int8 => {
+                    write_dictionary_leaf::<ArrowInt8Type>(writer, array, &levels)?
+                }
+                ArrowDataType::Int16 => {
+                    write_dictionary_leaf::<ArrowInt16Type>(writer, array, &levels)?
+                }
+                ArrowDataType::Int32 => {
+                    write_dictionary_leaf::<ArrowInt32Type>(writer, array, &levels)?
+                }
+                ArrowDataType::Int64 => {
+                    write_dictionary_leaf::<ArrowInt64Type>(writer, array, &levels)?
+                }
+                ArrowDataType::UInt8 => {
+                    write_dictionary_leaf::<ArrowUInt8Type>(writer, array, &levels)?
+                }
+                ArrowDataType::UInt16 => {
+                    write_dictionary_leaf::<ArrowUInt16Type>(writer, array, &levels)?
+                }
+                ArrowDataType::UInt32 => {
+                    write_dictionary_leaf::<ArrowUInt32Type>(writer, array, &levels)?
+                }
+                ArrowDataType::UInt64 => {
+                    write_dictionary_leaf::<ArrowUInt64Type>(writer, array, &levels)?
+                }
+                _ => None,
+            };
+            match written {
+                Some(written) => Ok(written),
+                None => {
+                    // cast dictionary to a primitive
+                    let array = arrow::compute::cast(array, value_type)?;
+                    write_leaf(writer, &array, levels)
+                }
+            }
+        }
+        _ => write_leaf(writer, array, levels),
+    }
+}
+
+/// Writes the dictionary array `array` as keys into its dictionary values, so that
+/// the column writer only hashes each dictionary value once rather than every value.
+///
+/// Returns `None` without writing anything if the dictionary values have nulls or
+/// are not written as they are by `writer`, in which case the array is to be cast to
+/// its values instead.
+fn write_dictionary_leaf<K: ArrowDictionaryKeyType>(
+    writer: &mut ColumnWriter,
+    array: &arrow_array::ArrayRef,
+    levels: &LevelInfo,
+) -> Result<Option<i64>> {
+    let dictionary = array
+        .as_any()
+        .downcast_ref::<arrow_array::DictionaryArray<K>>()
+        .expect("Unable to get dictionary array");
+    let values = dictionary.values();
+    if values.null_count() > 0 {
+        return Ok(None);
+    }
+
+    let keys = || -> Result<Vec<usize>> {
+        let column = array.slice(levels.offset, levels.length);
+        let column = column
+            .as_any()
+            .downcast_ref::<arrow_array::DictionaryArray<K>>()
+            .expect("Unable to get dictionary array");
+        levels
+            .filter_array_indices()
+            .into_iter()
+            .map(|i| {
+                let key = column.keys().value(i);
+                key.to_usize()
+                    .ok_or_else(|| general_err!("Invalid dictionary key {:?}", key))
+            })
+            .collect()
+    };
+
+    let written = match (writer, values.data_type()) {
+        (ColumnWriter::Int32ColumnWriter(ref mut typed), ArrowDataType::Int32) => {
+            let values = values
+                .as_any()
+                .downcast_ref::<arrow_array::Int32Array>()
+                .expect("Unable to get i32 array");
+            typed.write_batch_with_dictionary(
+                values.values(),
+                &keys()?,
+                Some(levels.definition.as_slice()),
+                levels.repetition.as_deref(),
+            )?
+        }
+        (ColumnWriter::Int64ColumnWriter(ref mut typed), ArrowDataType::Int64) => {
+            let values = values
+                .as_any()
+                .downcast_ref::<arrow_array::Int64Array>()
+                .expect("Unable to get i64 array");
+            typed.write_batch_with_dictionary(
+                values.values(),
+                &keys()?,
+                Some(levels.definition.as_slice()),
+                levels.repetition.as_deref(),
+            )?
+        }
+        (ColumnWriter::FloatColumnWriter(ref mut typed), ArrowDataType::Float32) => {
+            let values = values
+                .as_any()
+                .downcast_ref::<arrow_array::Float32Array>()
+                .expect("Unable to get Float32 array");
+            typed.write_batch_with_dictionary(
+                values.values(),
+                &keys()?,
+                Some(levels.definition.as_slice()),
+                levels.repetition.as_deref(),
+            )?
+        }
+        (ColumnWriter::DoubleColumnWriter(ref mut typed), ArrowDataType::Float64) => {
+            let values = values
+                .as_any()
+                .downcast_ref::<arrow_array::Float64Array>()
+                .expect("Unable to get Float64 array");
+            typed.write_batch_with_dictionary(
+                values.values(),
+                &keys()?,
+                Some(levels.definition.as_slice()),
+                levels.repetition.as_deref(),
+            )?
+        }
+        (ColumnWriter::ByteArrayColumnWriter(ref mut typed), value_type) => {
+            let values = match value_type {
+                ArrowDataType::Binary => get_binary_array(
+                    values
+                        .as_any()
+                        .downcast_ref::<arrow_array::BinaryArray>()
+                        .expect("Unable to get BinaryArray array"),
+                ),
+                ArrowDataType::Utf8 => get_string_array(
+                    values
+                        .as_any()
+                        .downcast_ref::<arrow_array::StringArray>()
+                        .expect("Unable to get StringArray array"),
+                ),
+                ArrowDataType::LargeBinary => get_large_binary_array(
+                    values
+                        .as_any()
+                        .downcast_ref::<arrow_array::LargeBinaryArray>()
+                        .expect("Unable to get LargeBinaryArray array"),
+                ),
+                ArrowDataType::LargeUtf8 => get_large_string_array(
+                    values
+                        .as_any()
+                        .downcast_ref::<arrow_array::LargeStringArray>()
+                        .expect("Unable to get LargeUtf8 array"),
+                ),
+                _ => return Ok(None),
+            };
+            typed.write_batch_with_dictionary(
+                values.as_slice(),
+                &keys()?,
+                Some(levels.definition.as_slice()),
+                levels.repetition.as_deref(),
+            )?
+        }
+        _ => return Ok(None),
+    };
+    Ok(Some(written as i64))
+}
+
 fn write_leaf(
     writer: &mut ColumnWriter,
     column: &arrow_array::ArrayRef,
@@ -888,8 +1202,50 @@ mod tests {
 
         roundtrip(
             "test_arrow_writer_complex_small_batch.parquet",
+            batch.clone(),
+            Some(SMALL_SIZE / 3),
+        );
+
+        // the 6 leaf columns are encoded by 4 threads
+        roundtrip_with_threads(
+            "test_arrow_writer_complex_parallel.parquet",
             batch,
             Some(SMALL_SIZE / 3),
+            4,
+        );
+    }
+
+    #[test]
+    fn arrow_writer_parallel_dictionary() {
+        let schema = Schema::new(vec![
+            Field::new("a", DataType::Int64, true),
+            Field::new_dict(
+                "b",
+                DataType::Dictionary(Box::new(DataType::Int32), Box::new(DataType::Utf8)),
+                true,
+                42,
+                true,
+            ),
+            Field::new("c", DataType::Utf8, false),
+        ]);
+        let a: Int64Array = (0..100)
+            .map(|i| if i % 7 == 0 { None } else { Some(i) })
+            .collect();
+        let b: Int32DictionaryArray = (0..100)
+            .map(|i| if i % 3 == 0 { None } else { Some(["x", "y"][i % 2]) })
+            .collect();
+        let c = StringArray::from_iter_values((0..100).map(|i| format!("value {}", i)));
+        let batch = RecordBatch::try_new(
+            Arc::new(schema),
+            vec![Arc::new(a), Arc::new(b), Arc::new(c)],
+        )
+        .unwrap();
+
+        roundtrip_with_threads(
+            "test_arrow_writer_parallel_dictionary.parquet",
+            batch,
+            Some(SMALL_SIZE * 10),
+            2,
         );
     }
 
@@ -1047,6 +1403,15 @@ mod tests {
         filename: &str,
         expected_batch: RecordBatch,
         max_row_group_size: Option<usize>,
+    ) -> File {
+        roundtrip_with_threads(filename, expected_batch, max_row_group_size, 1)
+    }
+
+    fn roundtrip_with_threads(
+        filename: &str,
+        expected_batch: RecordBatch,
+        max_row_group_size: Option<usize>,
+        num_threads: usize,
     ) -> File {
         let file = get_temp_file(filename, &[]);
 
@@ -1060,6 +1425,7 @@ mod tests {
             }),
         )
         .expect("Unable to write file");
+        writer.set_num_threads(num_threads).unwrap();
         writer.write(&expected_batch).unwrap();
         writer.close().unwrap();
 
@@ -1585,6 +1951,40 @@ mod tests {
         );
     }
 
+    #[test]
+    fn arrow_writer_primitive_dictionary_keys() {
+        // define schema
+        let schema = Arc::new(Schema::new(vec![Field::new_dict(
+            "dictionary",
+            DataType::Dictionary(Box::new(DataType::Int16), Box::new(DataType::Int64)),
+            true,
+            42,
+            true,
+        )]));
+
+        // create some data, written as keys into its dictionary values
+        let key_builder = PrimitiveBuilder::<ArrowInt16Type>::new(100);
+        let value_builder = PrimitiveBuilder::<ArrowInt64Type>::new(7);
+        let mut builder = PrimitiveDictionaryBuilder::new(key_builder, value_builder);
+        for i in 0..100 {
+            if i % 5 == 0 {
+                builder.append_null().unwrap();
+            } else {
+                builder.append(i as i64 % 7 - 3).unwrap();
+            }
+        }
+        let d = builder.finish();
+
+        // build a record batch
+        let expected_batch = RecordBatch::try_new(schema, vec![Arc::new(d)]).unwrap();
+
+        roundtrip(
+            "test_arrow_writer_primitive_dictionary_keys.parquet",
+            expected_batch,
+            Some(30),
+        );
+    }
+
     #[test]
     fn u32_min_max() {
         // check values roundtrip through parquet
@@ -0,0 +1,685 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+//! Contains an asynchronous reader of Parquet files into Arrow record batches.
+//!
+//! The byte ranges of a Parquet file are fetched through [`AsyncChunkReader`], which is
+//! implemented for any [`AsyncRead`] + [`AsyncSeek`] source such as
+//! [`tokio::fs::File`]. [`ParquetRecordBatchStream`] fetches the projected column
+//! chunks of one row group at a time, merging nearby chunks into a single request, and
+//! then decodes them into record batches, without blocking on I/O.
+//!
+//! # Limitations
+//!
+//! Reads are not page granular: the projected column chunks of a row group are fetched
+//! in full before any of its record batches is decoded, so the memory used grows with
+//! the size of the row groups rather than the size of the pages. The column chunks of
+//! the next row group are fetched while the current one is decoded, so up to two row
+//! groups are held in memory.
+//!
+//! The array readers decoding the record batches are not `Send`, so each stream
+//! decodes its row groups on a thread of its own rather than on the task polling it.
+//! The stream itself only holds the fetched bytes and the decoded record batches, so it
+//! is `Send` and can be polled from a task spawned on a multi-threaded runtime. Each
+//! stream does start an OS thread, which is idle while row groups are fetched, and
+//! which stops once the stream is dropped.
+//!
+//! # Example
+//!
+//! ```rust, no_run
+//! # async fn read() -> parquet::errors::Result<()> {
+//! use futures::TryStreamExt;
+//! use parquet::arrow::async_reader::ParquetRecordBatchStreamBuilder;
+//!
+//! let file = tokio::fs::File::open("parquet.file").await?;
+//! let stream = ParquetRecordBatchStreamBuilder::new(file)
+//!     .await?
+//!     .set_projection(vec![0, 2])
+//!     .set_batch_size(1024)
+//!     .build()?;
+//!
+//! let batches = stream.try_collect::<Vec<_>>().await?;
+//! # Ok(())
+//! # }
+//! ```
+
+use std::collections::VecDeque;
+use std::io::SeekFrom;
+use std::ops::Range;
+use std::pin::Pin;
+use std::sync::Arc;
+use std::task::{Context, Poll};
+use std::thread;
+
+use arrow::datatypes::SchemaRef;
+use arrow::record_batch::RecordBatch;
+use futures::channel::mpsc;
+use futures::executor::block_on;
+use futures::future::{BoxFuture, FutureExt};
+use futures::ready;
+use futures::sink::SinkExt;
+use futures::stream::{Stream, StreamExt};
+use tokio::io::{AsyncRead, AsyncReadExt, AsyncSeek, AsyncSeekExt};
+
+use crate::arrow::arrow_reader::{
+    ArrowReader, ParquetFileArrowReader, ParquetRecordBatchReader,
+};
+use crate::arrow::schema::parquet_to_arrow_schema_by_columns;
+use crate::errors::{ParquetError, Result};
+use crate::file::footer::{decode_footer, decode_metadata};
+use crate::file::metadata::ParquetMetaData;
+use crate::file::prefetch::{coalesce_ranges, PrefetchedChunks, DEFAULT_COALESCE_GAP};
+use crate::file::serialized_reader::SerializedFileReader;
+use crate::file::FOOTER_SIZE;
+use crate::util::memory::ByteBufferPtr;
+
+/// The asynchronous counterpart of
+/// [`ChunkReader`](crate::file::reader::ChunkReader): a source of the byte ranges of a
+/// Parquet file, such as a local file or an object store.
+pub trait AsyncChunkReader: Send + Unpin + 'static {
+    /// Fetches the bytes of `range`.
+    fn get_bytes(&mut self, range: Range<u64>) -> BoxFuture<'_, Result<ByteBufferPtr>>;
+
+    /// Fetches and decodes the file metadata, stored at the end of the file.
+    fn get_metadata(&mut self) -> BoxFuture<'_, Result<ParquetMetaData>>;
+}
+
+impl<T: AsyncRead + AsyncSeek + Unpin + Send + 'static> AsyncChunkReader for T {
+    fn get_bytes(&mut self, range: Range<u64>) -> BoxFuture<'_, Result<ByteBufferPtr>> {
+        async move {
+            self.seek(SeekFrom::Start(range.start)).await?;
+            let mut buf = vec![0; (range.end - range.start) as usize];
+            self.read_exact(&mut buf).await?;
+            Ok(ByteBufferPtr::new(buf))
+        }
+        .boxed()
+    }
+
+    fn get_metadata(&mut self) -> BoxFuture<'_, Result<ParquetMetaData>> {
+        async move {
+            let file_size = self.seek(SeekFrom::End(0)).await?;
+            if file_size < FOOTER_SIZE as u64 {
+                return Err(general_err!(
+                    "Invalid Parquet file. Size is smaller than footer"
+                ));
+            }
+
+            self.seek(SeekFrom::End(-(FOOTER_SIZE as i64))).await?;
+            let mut footer = [0; FOOTER_SIZE];
+            self.read_exact(&mut footer).await?;
+
+            let metadata_len = decode_footer(&footer)?;
+            let footer_metadata_len = (FOOTER_SIZE + metadata_len) as u64;
+            if footer_metadata_len > file_size {
+                return Err(general_err!(
+                    "Invalid Parquet file. Metadata start is less than zero ({})",
+                    file_size as i64 - footer_metadata_len as i64
+                ));
+            }
+
+            self.seek(SeekFrom::End(-(footer_metadata_len as i64))).await?;
+            let mut buf = vec![0; metadata_len];
+            self.read_exact(&mut buf).await?;
+            decode_metadata(&buf)
+        }
+        .boxed()
+    }
+}
+
+/// Builder of [`ParquetRecordBatchStream`], created once the file metadata of the input
+/// has been fetched.
+pub struct ParquetRecordBatchStreamBuilder<T> {
+    input: T,
+    metadata: Arc<ParquetMetaData>,
+    batch_size: usize,
+    row_groups: Option<Vec<usize>>,
+    projection: Option<Vec<usize>>,
+    coalesce_gap: u64,
+}
+
+impl<T: AsyncChunkReader> ParquetRecordBatchStreamBuilder<T> {
+    /// Fetches the file metadata of `input` and returns a builder reading all the
+    /// columns of all the row groups of the file.
+    pub async fn new(mut input: T) -> Result<Self> {
+        let metadata = Arc::new(input.get_metadata().await?);
+        Ok(Self {
+            input,
+            metadata,
+            batch_size: 1024,
+            row_groups: None,
+            projection: None,
+            coalesce_gap: DEFAULT_COALESCE_GAP,
+        })
+    }
+
+    /// Returns the file metadata.
+    pub fn metadata(&self) -> &Arc<ParquetMetaData> {
+        &self.metadata
+    }
+
+    /// Sets the maximum number of rows of the record batches.
+    pub fn set_batch_size(mut self, value: usize) -> Self {
+        self.batch_size = value;
+        self
+    }
+
+    /// Sets the row groups to read, in the order they are read.
+    pub fn set_row_groups(mut self, value: Vec<usize>) -> Self {
+        self.row_groups = Some(value);
+        self
+    }
+
+    /// Sets the leaf columns to read, only their column chunks are fetched.
+    pub fn set_projection(mut self, value: Vec<usize>) -> Self {
+        self.projection = Some(value);
+        self
+    }
+
+    /// Sets the maximum gap between two projected column chunks of a row group that are
+    /// fetched with a single request, including the bytes between them.
+    pub fn set_coalesce_gap(mut self, value: u64) -> Self {
+        self.coalesce_gap = value;
+        self
+    }
+
+    /// Finalizes the configuration and returns the record batch stream.
+    pub fn build(self) -> Result<ParquetRecordBatchStream<T>> {
+        let num_row_groups = self.metadata.num_row_groups();
+        let row_groups = match self.row_groups {
+            Some(row_groups) => {
+                if let Some(&row_group) =
+                    row_groups.iter().find(|&&i| i >= num_row_groups)
+                {
+                    return Err(ParquetError::IndexOutOfBound(row_group, num_row_groups));
+                }
+                row_groups
+            }
+            None => (0..num_row_groups).collect(),
+        };
+
+        let file_metadata = self.metadata.file_metadata();
+        let num_columns = file_metadata.schema_descr().num_columns();
+        let columns = match self.projection {
+            Some(projection) => {
+                if let Some(&column) = projection.iter().find(|&&i| i >= num_columns) {
+                    return Err(ParquetError::IndexOutOfBound(column, num_columns));
+                }
+                projection
+            }
+            None => (0..num_columns).collect(),
+        };
+
+        let schema = parquet_to_arrow_schema_by_columns(
+            file_metadata.schema_descr(),
+            columns.iter().cloned(),
+            file_metadata.key_value_metadata(),
+        )?;
+
+        let decoder = RowGroupDecoder::try_new(
+            self.metadata.clone(),
+            columns.clone(),
+            self.batch_size,
+        )?;
+        Ok(ParquetRecordBatchStream {
+            metadata: self.metadata,
+            schema: Arc::new(schema),
+            coalesce_gap: self.coalesce_gap,
+            columns,
+            row_groups: row_groups.into(),
+            input: Some(self.input),
+            fetch: None,
+            decoder,
+            num_decoding: 0,
+            failed: false,
+        })
+    }
+}
+
+/// The future fetching the column chunks of a row group, which returns the input
+/// once it completes.
+type FetchFuture<T> = BoxFuture<'static, (T, Result<PrefetchedChunks>)>;
+
+/// A [`Stream`] of the record batches of a Parquet file, read from an
+/// [`AsyncChunkReader`].
+///
+/// The projected column chunks of each row group are fetched in full before any of
+/// its record batches is decoded, see the [module documentation](self). The column
+/// chunks of the next row group are fetched while the record batches of the current
+/// one are decoded, so at most two row groups are buffered.
+pub struct ParquetRecordBatchStream<T> {
+    metadata: Arc<ParquetMetaData>,
+    schema: SchemaRef,
+    coalesce_gap: u64,
+    columns: Vec<usize>,
+    row_groups: VecDeque<usize>,
+    // The input is moved into the future fetching a row group until it completes
+    input: Option<T>,
+    // Index and future of the row group being fetched
+    fetch: Option<(usize, FetchFuture<T>)>,
+    decoder: RowGroupDecoder,
+    // Number of row groups sent to the decoder whose last record batch has not been
+    // returned yet
+    num_decoding: usize,
+    // Set once an error is returned, no more record batches are returned after it
+    failed: bool,
+}
+
+impl<T: AsyncChunkReader> ParquetRecordBatchStream<T> {
+    /// Returns the schema of the record batches.
+    pub fn schema(&self) -> &SchemaRef {
+        &self.schema
+    }
+
+    /// Starts fetching the projected column chunks of the row group at `row_group`,
+    /// moving the input into the returned future.
+    fn fetch_row_group(&mut self, row_group: usize) -> FetchFuture<T> {
+        let mut input = self
+            .input
+            .take()
+            .expect("input should be set when no row group is fetched");
+        let row_group_metadata = self.metadata.row_group(row_group);
+        let ranges = self
+            .columns
+            .iter()
+            .map(|&i| {
+                let (start, length) = row_group_metadata.column(i).byte_range();
+                start..start + length
+            })
+            .collect::<Vec<_>>();
+        let max_gap = self.coalesce_gap;
+
+        async move {
+            let result = fetch_ranges(&mut input, ranges, max_gap).await;
+            (input, result)
+        }
+        .boxed()
+    }
+
+    /// Returns `error` from [`Stream::poll_next`], ending the stream.
+    fn fail(&mut self, error: ParquetError) -> Poll<Option<Result<RecordBatch>>> {
+        self.failed = true;
+        self.fetch = None;
+        Poll::Ready(Some(Err(error)))
+    }
+}
+
+impl<T: AsyncChunkReader> Stream for ParquetRecordBatchStream<T> {
+    type Item = Result<RecordBatch>;
+
+    fn poll_next(
+        self: Pin<&mut Self>,
+        cx: &mut Context<'_>,
+    ) -> Poll<Option<Self::Item>> {
+        let this = self.get_mut();
+        loop {
+            if this.failed {
+                return Poll::Ready(None);
+            }
+
+            // Fetch the next row group while at most one is being decoded
+            if this.fetch.is_none() && this.num_decoding < 2 {
+                if let Some(row_group) = this.row_groups.pop_front() {
+                    let future = this.fetch_row_group(row_group);
+                    this.fetch = Some((row_group, future));
+                }
+            }
+
+            // Drive the fetch, which registers the waker while it is pending
+            let fetch_result = match &mut this.fetch {
+                Some((row_group, future)) => match future.poll_unpin(cx) {
+                    Poll::Ready(output) => Some((*row_group, output)),
+                    Poll::Pending => None,
+                },
+                None => None,
+            };
+            if let Some((row_group, (input, result))) = fetch_result {
+                this.fetch = None;
+                this.input = Some(input);
+                let sent = result.and_then(|chunks| this.decoder.send(row_group, chunks));
+                match sent {
+                    Ok(()) => this.num_decoding += 1,
+                    Err(e) => return this.fail(e),
+                }
+                continue;
+            }
+
+            if this.num_decoding == 0 {
+                return match this.fetch {
+                    Some(_) => Poll::Pending,
+                    None => Poll::Ready(None),
+                };
+            }
+            match ready!(this.decoder.batches.poll_next_unpin(cx)) {
+                Some(Some(Ok(batch))) => return Poll::Ready(Some(Ok(batch))),
+                Some(Some(Err(e))) => return this.fail(e),
+                // The last record batch of a row group, a new one can be fetched
+                Some(None) => this.num_decoding -= 1,
+                None => {
+                    return this.fail(general_err!("Record batch decoding thread stopped"))
+                }
+            }
+        }
+    }
+}
+
+/// The thread decoding the record batches of the row groups fetched by a
+/// [`ParquetRecordBatchStream`], which keeps the array readers, that are not `Send`,
+/// off the stream.
+struct RowGroupDecoder {
+    // Fetched row groups to decode, the thread stops once it is dropped
+    row_groups: std::sync::mpsc::Sender<(usize, PrefetchedChunks)>,
+    // Decoded record batches of the row groups in order, each row group followed by
+    // `None`. The thread stops when it is dropped, or after panicking, which ends it
+    batches: mpsc::Receiver<Option<Result<RecordBatch>>>,
+}
+
+impl RowGroupDecoder {
+    /// Starts the thread decoding the columns at `columns` of the row groups of the
+    /// file of `metadata` into record batches of `batch_size` rows.
+    fn try_new(
+        metadata: Arc<ParquetMetaData>,
+        columns: Vec<usize>,
+        batch_size: usize,
+    ) -> Result<Self> {
+        let (row_group_sender, row_group_receiver) =
+            std::sync::mpsc::channel::<(usize, PrefetchedChunks)>();
+        // Decode at most one record batch ahead of the stream
+        let (mut batch_sender, batch_receiver) = mpsc::channel(0);
+
+        thread::Builder::new()
+            .name("parquet-async-decoder".to_string())
+            .spawn(move || {
+                for (row_group, chunks) in row_group_receiver {
+                    let reader = decode_row_group(
+                        &metadata,
+                        &columns,
+                        batch_size,
+                        row_group,
+                        chunks,
+                    );
+                    let sent = match reader {
+                        Ok(reader) => reader
+                            .map(|batch| Some(batch.map_err(ParquetError::from)))
+                            .chain(std::iter::once(None))
+                            .try_for_each(|batch| block_on(batch_sender.send(batch))),
+                        Err(e) => block_on(batch_sender.send(Some(Err(e)))),
+                    };
+                    // The stream has been dropped
+                    if sent.is_err() {
+                        return;
+                    }
+                }
+            })
+            .map_err(|e| general_err!("Failed to start decoding thread: {}", e))?;
+
+        Ok(Self {
+            row_groups: row_group_sender,
+            batches: batch_receiver,
+        })
+    }
+
+    /// Sends the fetched column chunks of the row group at `row_group` to be decoded.
+    fn send(&self, row_group: usize, chunks: PrefetchedChunks) -> Result<()> {
+        self.row_groups
+            .send((row_group, chunks))
+            .map_err(|_| general_err!("Record batch decoding thread stopped"))
+    }
+}
+
+/// Creates the reader of the record batches of the columns at `columns` of the row
+/// group at `row_group`, from its fetched column chunks.
+fn decode_row_group(
+    metadata: &ParquetMetaData,
+    columns: &[usize],
+    batch_size: usize,
+    row_group: usize,
+    chunks: PrefetchedChunks,
+) -> Result<ParquetRecordBatchReader> {
+    let metadata = ParquetMetaData::new(
+        metadata.file_metadata().clone(),
+        vec![metadata.row_group(row_group).clone()],
+    );
+    let file_reader = SerializedFileReader::new_with_metadata(chunks, metadata);
+    let mut arrow_reader = ParquetFileArrowReader::new(Arc::new(file_reader));
+    arrow_reader.get_record_reader_by_columns(columns.to_vec(), batch_size)
+}
+
+/// Fetches the bytes of `ranges` from `input`, reading the ranges merged by
+/// [`coalesce_ranges`] with `max_gap` in one request each.
+async fn fetch_ranges<T: AsyncChunkReader>(
+    input: &mut T,
+    ranges: Vec<Range<u64>>,
+    max_gap: u64,
+) -> Result<PrefetchedChunks> {
+    let merged = coalesce_ranges(&ranges, max_gap);
+    let mut chunks = Vec::with_capacity(merged.len());
+    for range in merged {
+        let start = range.start;
+        chunks.push((start, input.get_bytes(range).await?));
+    }
+    Ok(PrefetchedChunks::new(chunks))
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    use arrow::array::{Int32Array, StringArray};
+    use arrow::datatypes::{DataType as ArrowDataType, Field, Schema};
+    use futures::TryStreamExt;
+    use std::sync::Mutex;
+
+    use crate::arrow::ArrowWriter;
+    use crate::file::properties::WriterProperties;
+    use crate::util::test_common::get_temp_file;
+
+    /// Writes 1000 rows of an Int32 column `a` and a nullable Utf8 column `b`, in row
+    /// groups of 300 rows, and returns the file.
+    fn write_test_file(file_name: &str) -> std::fs::File {
+        let schema = Arc::new(Schema::new(vec![
+            Field::new("a", ArrowDataType::Int32, false),
+            Field::new("b", ArrowDataType::Utf8, true),
+        ]));
+        let a = Int32Array::from((0..1000).collect::<Vec<i32>>());
+        let b = StringArray::from(
+            (0..1000)
+                .map(|v| if v % 3 == 0 { None } else { Some(v.to_string()) })
+                .collect::<Vec<_>>(),
+        );
+        let batch =
+            RecordBatch::try_new(schema.clone(), vec![Arc::new(a), Arc::new(b)])
+                .unwrap();
+
+        let props = WriterProperties::builder()
+            .set_max_row_group_size(300)
+            .build();
+        let file = get_temp_file(file_name, &[]);
+        let mut writer =
+            ArrowWriter::try_new(file.try_clone().unwrap(), schema, Some(props))
+                .unwrap();
+        writer.write(&batch).unwrap();
+        writer.close().unwrap();
+        file
+    }
+
+    #[tokio::test]
+    async fn test_async_reader() {
+        let file = write_test_file("test_async_reader.parquet");
+
+        let sync_reader = SerializedFileReader::new(file.try_clone().unwrap()).unwrap();
+        let mut arrow_reader = ParquetFileArrowReader::new(Arc::new(sync_reader));
+        let expected = arrow_reader
+            .get_record_reader(100)
+            .unwrap()
+            .collect::<arrow::error::Result<Vec<_>>>()
+            .unwrap();
+
+        let input = tokio::fs::File::from_std(file);
+        let builder = ParquetRecordBatchStreamBuilder::new(input).await.unwrap();
+        assert_eq!(builder.metadata().num_row_groups(), 4);
+        let stream = builder.set_batch_size(100).build().unwrap();
+        let batches = stream.try_collect::<Vec<_>>().await.unwrap();
+
+        assert_eq!(batches.len(), expected.len());
+        for (batch, expected) in batches.iter().zip(&expected) {
+            assert_eq!(batch.schema(), expected.schema());
+            assert_eq!(batch.columns(), expected.columns());
+        }
+    }
+
+    /// An input recording the byte ranges that are fetched.
+    struct RecordingInput {
+        input: tokio::fs::File,
+        requests: Arc<Mutex<Vec<Range<u64>>>>,
+    }
+
+    impl AsyncChunkReader for RecordingInput {
+        fn get_bytes(
+            &mut self,
+            range: Range<u64>,
+        ) -> BoxFuture<'_, Result<ByteBufferPtr>> {
+            self.requests.lock().unwrap().push(range.clone());
+            self.input.get_bytes(range)
+        }
+
+        fn get_metadata(&mut self) -> BoxFuture<'_, Result<ParquetMetaData>> {
+            self.input.get_metadata()
+        }
+    }
+
+    #[tokio::test]
+    async fn test_async_reader_fetches_next_row_group() {
+        let file = write_test_file("test_async_reader_next_row_group.parquet");
+        let requests = Arc::new(Mutex::new(vec![]));
+        let input = RecordingInput {
+            input: tokio::fs::File::from_std(file),
+            requests: requests.clone(),
+        };
+
+        let builder = ParquetRecordBatchStreamBuilder::new(input).await.unwrap();
+        let ranges = builder
+            .metadata()
+            .row_groups()
+            .iter()
+            .map(|row_group| {
+                let (start, length) = row_group.column(0).byte_range();
+                start..start + length
+            })
+            .collect::<Vec<_>>();
+        let mut stream = builder
+            .set_projection(vec![0])
+            .set_batch_size(100)
+            .build()
+            .unwrap();
+
+        // The second row group is fetched while the first one is decoded
+        let batch = stream.try_next().await.unwrap().unwrap();
+        assert_eq!(batch.num_rows(), 100);
+        assert_eq!(requests.lock().unwrap().as_slice(), &ranges[..2]);
+
+        let mut num_rows = batch.num_rows();
+        while let Some(batch) = stream.try_next().await.unwrap() {
+            num_rows += batch.num_rows();
+        }
+        assert_eq!(num_rows, 1000);
+        assert_eq!(requests.lock().unwrap().as_slice(), ranges.as_slice());
+    }
+
+    fn assert_send<T: Send>() {}
+
+    #[test]
+    fn test_async_reader_is_send() {
+        assert_send::<ParquetRecordBatchStream<tokio::fs::File>>();
+        assert_send::<ParquetRecordBatchStreamBuilder<tokio::fs::File>>();
+    }
+
+    #[tokio::test]
+    async fn test_async_reader_spawn() {
+        let file = write_test_file("test_async_reader_spawn.parquet");
+        let input = tokio::fs::File::from_std(file);
+
+        // The stream is held across awaits of a spawned task
+        let handle = tokio::spawn(async move {
+            let mut stream = ParquetRecordBatchStreamBuilder::new(input)
+                .await?
+                .set_batch_size(100)
+                .build()?;
+            let mut num_rows = 0;
+            while let Some(batch) = stream.try_next().await? {
+                num_rows += batch.num_rows();
+                tokio::task::yield_now().await;
+            }
+            Ok::<_, ParquetError>(num_rows)
+        });
+        assert_eq!(handle.await.unwrap().unwrap(), 1000);
+    }
+
+    #[tokio::test]
+    async fn test_async_reader_projection_row_groups() {
+        let file = write_test_file("test_async_reader_projection.parquet");
+
+        let stream = ParquetRecordBatchStreamBuilder::new(tokio::fs::File::from_std(file))
+            .await
+            .unwrap()
+            .set_projection(vec![1])
+            .set_row_groups(vec![3, 1])
+            .build()
+            .unwrap();
+        assert_eq!(stream.schema().fields().len(), 1);
+        assert_eq!(stream.schema().field(0).name(), "b");
+
+        let batches = stream.try_collect::<Vec<_>>().await.unwrap();
+        let values = batches
+            .iter()
+            .flat_map(|batch| {
+                let b = batch.column(0).as_any().downcast_ref::<StringArray>().unwrap();
+                (0..b.len())
+                    .map(|i| b.is_valid(i).then(|| b.value(i).to_string()))
+                    .collect::<Vec<_>>()
+            })
+            .collect::<Vec<_>>();
+
+        let expected = (900..1000)
+            .chain(300..600)
+            .map(|v| if v % 3 == 0 { None } else { Some(v.to_string()) })
+            .collect::<Vec<_>>();
+        assert_eq!(values, expected);
+    }
+
+    #[tokio::test]
+    async fn test_async_reader_invalid_projection() {
+        let file = write_test_file("test_async_reader_invalid.parquet");
+
+        let result = ParquetRecordBatchStreamBuilder::new(tokio::fs::File::from_std(file))
+            .await
+            .unwrap()
+            .set_projection(vec![2])
+            .build();
+        assert_eq!(result.err().unwrap(), ParquetError::IndexOutOfBound(2, 2));
+    }
+
+    #[tokio::test]
+    async fn test_async_reader_corrupt_footer() {
+        let file = get_temp_file("test_async_corrupt.parquet", &[1, 2, 3, 4, 5, 6, 7, 8]);
+        let result = ParquetRecordBatchStreamBuilder::new(tokio::fs::File::from_std(file))
+            .await;
+        assert_eq!(
+            result.err().unwrap(),
+            general_err!("Invalid Parquet file. Corrupt footer")
+        );
+    }
+}
@@ -0,0 +1,931 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+//! Contains [`DictionaryArrayReader`], which reads byte array columns into arrow
+//! dictionary arrays without decoding the values of dictionary encoded pages.
+
+use std::any::Any;
+use std::cmp::min;
+use std::marker::PhantomData;
+use std::sync::Arc;
+
+use arrow::array::{
+    make_array, new_empty_array, Array, ArrayData, ArrayRef, BooleanBufferBuilder,
+    BufferBuilder, OffsetSizeTrait,
+};
+use arrow::buffer::{Buffer, MutableBuffer};
+use arrow::compute::concat;
+use arrow::datatypes::{
+    ArrowDictionaryKeyType, ArrowNativeType, DataType as ArrowType, Int16Type,
+    Int32Type, Int64Type, Int8Type, UInt16Type, UInt32Type, UInt64Type, UInt8Type,
+};
+
+use crate::arrow::array_reader::ArrayReader;
+use crate::basic::{Encoding, Type as PhysicalType};
+use crate::column::page::{Page, PageIterator, PageReader};
+use crate::encodings::levels::LevelDecoder;
+use crate::encodings::rle::RleDecoder;
+use crate::errors::{ParquetError::ArrowError, Result};
+use crate::memory::ByteBufferPtr;
+use crate::schema::types::ColumnDescPtr;
+
+/// Creates a [`DictionaryArrayReader`] for the dictionary type `data_type`, with the
+/// key type of `data_type`.
+pub fn build_dictionary_array_reader(
+    pages: Box<dyn PageIterator>,
+    column_desc: ColumnDescPtr,
+    data_type: ArrowType,
+) -> Result<Box<dyn ArrayReader>> {
+    let key_type = match data_type {
+        ArrowType::Dictionary(ref key_type, _) => key_type.as_ref().clone(),
+        ref t => {
+            return Err(ArrowError(format!("Expected a dictionary type, got {:?}", t)))
+        }
+    };
+
+    match key_type {
+        ArrowType::Int8 => Ok(Box::new(DictionaryArrayReader::<Int8Type>::try_new(
+            pages,
+            column_desc,
+            data_type,
+        )?)),
+        ArrowType::Int16 => Ok(Box::new(DictionaryArrayReader::<Int16Type>::try_new(
+            pages,
+            column_desc,
+            data_type,
+        )?)),
+        ArrowType::Int32 => Ok(Box::new(DictionaryArrayReader::<Int32Type>::try_new(
+            pages,
+            column_desc,
+            data_type,
+        )?)),
+        ArrowType::Int64 => Ok(Box::new(DictionaryArrayReader::<Int64Type>::try_new(
+            pages,
+            column_desc,
+            data_type,
+        )?)),
+        ArrowType::UInt8 => Ok(Box::new(DictionaryArrayReader::<UInt8Type>::try_new(
+            pages,
+            column_desc,
+            data_type,
+        )?)),
+        ArrowType::UInt16 => Ok(Box::new(
+            DictionaryArrayReader::<UInt16Type>::try_new(pages, column_desc, data_type)?,
+        )),
+        ArrowType::UInt32 => Ok(Box::new(
+            DictionaryArrayReader::<UInt32Type>::try_new(pages, column_desc, data_type)?,
+        )),
+        ArrowType::UInt64 => Ok(Box::new(
+            DictionaryArrayReader::<UInt64Type>::try_new(pages, column_desc, data_type)?,
+        )),
+        t => Err(ArrowError(format!("Unsupported dictionary key type {:?}", t))),
+    }
+}
+
+/// Array reader that reads a byte array column into dictionary arrays with keys of
+/// type `K`.
+///
+/// The dictionary page of each column chunk is decoded once, and the keys of its
+/// dictionary encoded data pages are read as they are, so that all the arrays read
+/// from a column chunk share its dictionary values. Plain encoded data pages, written
+/// once a writer falls back from dictionary encoding, are decoded and their values
+/// are added to the dictionary values of the arrays read from them.
+///
+/// An array that spans several column chunks or plain encoded pages has the
+/// concatenation of their values as dictionary values.
+pub struct DictionaryArrayReader<K: ArrowDictionaryKeyType> {
+    data_type: ArrowType,
+    value_type: ArrowType,
+    pages: Box<dyn PageIterator>,
+    column_desc: ColumnDescPtr,
+    page_reader: Option<Box<dyn PageReader>>,
+    // Values of the dictionary page of the current column chunk
+    dictionary: Option<ArrayRef>,
+    page: Option<DataPageState>,
+    def_levels_buffer: Option<Vec<i16>>,
+    rep_levels_buffer: Option<Vec<i16>>,
+    _key_marker: PhantomData<K>,
+}
+
+/// Decoders of the levels and values of the current data page.
+struct DataPageState {
+    def_level_decoder: Option<LevelDecoder>,
+    rep_level_decoder: Option<LevelDecoder>,
+    values: DataPageValues,
+    num_levels_left: usize,
+    // Repetition level of the next value, decoded ahead to find the end of a record
+    next_rep_level: Option<i16>,
+}
+
+impl DataPageState {
+    /// Decodes the repetition levels of the next values of the page into `rep_levels`,
+    /// up to the start of the record following the next `max_records` records. Values
+    /// before the first record start belong to a record started before.
+    ///
+    /// Returns the number of levels decoded and of records started by them.
+    fn read_rep_levels(
+        &mut self,
+        rep_levels: &mut Vec<i16>,
+        max_records: usize,
+    ) -> Result<(usize, usize)> {
+        let decoder = match self.rep_level_decoder {
+            Some(ref mut decoder) => decoder,
+            None => return Err(general_err!("Data page without repetition levels")),
+        };
+        let mut num_levels = 0;
+        let mut num_records = 0;
+        if let Some(level) = self.next_rep_level {
+            if max_records == 0 {
+                return Ok((0, 0));
+            }
+            self.next_rep_level = None;
+            rep_levels.push(level);
+            num_levels += 1;
+            num_records += 1;
+        }
+
+        while num_levels < self.num_levels_left {
+            if num_records < max_records {
+                // As every record has at least one level, this cannot read past the
+                // start of the record following the `max_records` ones
+                let levels_to_read =
+                    min(max_records - num_records, self.num_levels_left - num_levels);
+                let start = rep_levels.len();
+                if read_levels(decoder, rep_levels, levels_to_read)? != levels_to_read {
+                    return Err(eof_err!("Not enough repetition levels in data page"));
+                }
+                num_records += rep_levels[start..].iter().filter(|l| **l == 0).count();
+                num_levels += levels_to_read;
+            } else {
+                // Levels of the last record are decoded one by one to find its end
+                let mut level = [0];
+                if decoder.get(&mut level)? != 1 {
+                    return Err(eof_err!("Not enough repetition levels in data page"));
+                }
+                if level[0] == 0 {
+                    self.next_rep_level = Some(0);
+                    break;
+                }
+                rep_levels.push(level[0]);
+                num_levels += 1;
+            }
+        }
+        Ok((num_levels, num_records))
+    }
+}
+
+enum DataPageValues {
+    /// Decoder of the keys of a dictionary encoded page.
+    Dictionary(RleDecoder),
+    /// Decoded values of a plain encoded page, and the position of the next value.
+    Plain(ArrayRef, usize),
+}
+
+impl<K: ArrowDictionaryKeyType> DictionaryArrayReader<K> {
+    /// Creates a reader of the column chunks of `pages` into arrays of `data_type`,
+    /// which must be a dictionary type with keys of type `K` and string or binary
+    /// values.
+    pub fn try_new(
+        pages: Box<dyn PageIterator>,
+        column_desc: ColumnDescPtr,
+        data_type: ArrowType,
+    ) -> Result<Self> {
+        let value_type = match data_type {
+            ArrowType::Dictionary(ref key_type, ref value_type)
+                if key_type.as_ref() == &K::DATA_TYPE =>
+            {
+                match value_type.as_ref() {
+                    ArrowType::Utf8
+                    | ArrowType::LargeUtf8
+                    | ArrowType::Binary
+                    | ArrowType::LargeBinary => value_type.as_ref().clone(),
+                    t => {
+                        return Err(ArrowError(format!(
+                            "Unsupported dictionary value type {:?}",
+                            t
+                        )))
+                    }
+                }
+            }
+            ref t => {
+                return Err(ArrowError(format!(
+                    "Expected a dictionary type with {:?} keys, got {:?}",
+                    K::DATA_TYPE,
+                    t
+                )))
+            }
+        };
+
+        if column_desc.physical_type() != PhysicalType::BYTE_ARRAY {
+            return Err(ArrowError(format!(
+                "Cannot read column {} of physical type {} into dictionary arrays",
+                column_desc.path(),
+                column_desc.physical_type()
+            )));
+        }
+
+        Ok(Self {
+            data_type,
+            value_type,
+            pages,
+            column_desc,
+            page_reader: None,
+            dictionary: None,
+            page: None,
+            def_levels_buffer: None,
+            rep_levels_buffer: None,
+            _key_marker: PhantomData,
+        })
+    }
+
+    /// Moves to the next data page, decoding the dictionary pages met on the way.
+    /// Returns `false` once all the column chunks are exhausted.
+    fn next_data_page(&mut self) -> Result<bool> {
+        self.page = None;
+        loop {
+            let page = match self.page_reader {
+                Some(ref mut page_reader) => page_reader.get_next_page()?,
+                None => None,
+            };
+
+            let page = match page {
+                Some(page) => page,
+                None => match self.pages.next() {
+                    Some(page_reader) => {
+                        self.page_reader = Some(page_reader?);
+                        self.dictionary = None;
+                        continue;
+                    }
+                    None => return Ok(false),
+                },
+            };
+
+            match page {
+                Page::DictionaryPage {
+                    buf,
+                    num_values,
+                    encoding,
+                    ..
+                } => {
+                    if encoding != Encoding::PLAIN
+                        && encoding != Encoding::PLAIN_DICTIONARY
+                    {
+                        return Err(nyi_err!(
+                            "Invalid/Unsupported encoding type for dictionary: {}",
+                            encoding
+                        ));
+                    }
+                    self.dictionary = Some(decode_plain(
+                        &self.value_type,
+                        buf.as_ref(),
+                        num_values as usize,
+                    )?);
+                }
+                Page::DataPage {
+                    buf,
+                    num_values,
+                    encoding,
+                    def_level_encoding,
+                    rep_level_encoding,
+                    ..
+                } => {
+                    let num_values = num_values as usize;
+                    let mut buf = buf;
+
+                    let max_rep_level = self.column_desc.max_rep_level();
+                    let rep_level_decoder = if max_rep_level > 0 {
+                        let mut decoder =
+                            LevelDecoder::v1(rep_level_encoding, max_rep_level);
+                        let byte_len = decoder.set_data(num_values, buf.all());
+                        buf = buf.start_from(byte_len);
+                        Some(decoder)
+                    } else {
+                        None
+                    };
+
+                    let max_def_level = self.column_desc.max_def_level();
+                    let def_level_decoder = if max_def_level > 0 {
+                        let mut decoder =
+                            LevelDecoder::v1(def_level_encoding, max_def_level);
+                        let byte_len = decoder.set_data(num_values, buf.all());
+                        buf = buf.start_from(byte_len);
+                        Some(decoder)
+                    } else {
+                        None
+                    };
+
+                    self.page = Some(DataPageState {
+                        def_level_decoder,
+                        rep_level_decoder,
+                        values: self.data_page_values(buf, num_values, encoding)?,
+                        num_levels_left: num_values,
+                        next_rep_level: None,
+                    });
+                    return Ok(true);
+                }
+                Page::DataPageV2 {
+                    buf,
+                    num_values,
+                    encoding,
+                    def_levels_byte_len,
+                    rep_levels_byte_len,
+                    ..
+                } => {
+                    let num_values = num_values as usize;
+                    let mut offset = 0;
+
+                    let max_rep_level = self.column_desc.max_rep_level();
+                    let rep_level_decoder = if max_rep_level > 0 {
+                        let mut decoder = LevelDecoder::v2(max_rep_level);
+                        offset += decoder.set_data_range(
+                            num_values,
+                            &buf,
+                            offset,
+                            rep_levels_byte_len as usize,
+                        );
+                        Some(decoder)
+                    } else {
+                        offset += rep_levels_byte_len as usize;
+                        None
+                    };
+
+                    let max_def_level = self.column_desc.max_def_level();
+                    let def_level_decoder = if max_def_level > 0 {
+                        let mut decoder = LevelDecoder::v2(max_def_level);
+                        offset += decoder.set_data_range(
+                            num_values,
+                            &buf,
+                            offset,
+                            def_levels_byte_len as usize,
+                        );
+                        Some(decoder)
+                    } else {
+                        offset += def_levels_byte_len as usize;
+                        None
+                    };
+
+                    self.page = Some(DataPageState {
+                        def_level_decoder,
+                        rep_level_decoder,
+                        values: self.data_page_values(
+                            buf.start_from(offset),
+                            num_values,
+                            encoding,
+                        )?,
+                        num_levels_left: num_values,
+                        next_rep_level: None,
+                    });
+                    return Ok(true);
+                }
+            }
+        }
+    }
+
+    /// Creates the decoder of the values of a data page with `num_values` levels.
+    fn data_page_values(
+        &self,
+        buf: ByteBufferPtr,
+        num_values: usize,
+        encoding: Encoding,
+    ) -> Result<DataPageValues> {
+        match encoding {
+            Encoding::PLAIN_DICTIONARY | Encoding::RLE_DICTIONARY => {
+                // First byte in `buf` is the bit width of the keys
+                let bit_width = buf.as_ref().first().cloned().unwrap_or(0);
+                let mut decoder = RleDecoder::new(bit_width);
+                decoder.set_data(buf.start_from(min(1, buf.len())));
+                Ok(DataPageValues::Dictionary(decoder))
+            }
+            Encoding::PLAIN => Ok(DataPageValues::Plain(
+                decode_plain(&self.value_type, buf.as_ref(), num_values)?,
+                0,
+            )),
+            e => Err(nyi_err!("Encoding {} is not supported", e)),
+        }
+    }
+
+    /// Reads at most `batch_size` records, and returns the keys of their non null
+    /// values into the concatenation of the dictionary values returned as well, and
+    /// the number of records read.
+    ///
+    /// Records of repeated columns start at the values with a repetition level of 0,
+    /// the values of a record started by a previous call are read as well.
+    fn read_keys(
+        &mut self,
+        batch_size: usize,
+        def_levels: &mut Vec<i16>,
+        rep_levels: &mut Vec<i16>,
+    ) -> Result<(Vec<usize>, Vec<ArrayRef>, usize)> {
+        let max_def_level = self.column_desc.max_def_level();
+        let repeated = self.column_desc.max_rep_level() > 0;
+        let mut keys = Vec::with_capacity(batch_size);
+        let mut dictionaries: Vec<ArrayRef> = Vec::new();
+        let mut dictionaries_len = 0;
+        let mut key_offset = 0;
+        let mut records_read = 0;
+
+        // Repeated columns go on until the start of the next record is found
+        while repeated || records_read < batch_size {
+            if self
+                .page
+                .as_ref()
+                .map_or(true, |page| page.num_levels_left == 0)
+            {
+                if !self.next_data_page()? {
+                    break;
+                }
+                continue;
+            }
+            let page = self.page.as_mut().unwrap();
+
+            let num_levels = if repeated {
+                let (num_levels, num_records) =
+                    page.read_rep_levels(rep_levels, batch_size - records_read)?;
+                if num_levels == 0 {
+                    break;
+                }
+                records_read += num_records;
+                num_levels
+            } else {
+                let num_levels = min(batch_size - records_read, page.num_levels_left);
+                records_read += num_levels;
+                num_levels
+            };
+            let num_values = match page.def_level_decoder {
+                Some(ref mut decoder) => {
+                    let start = def_levels.len();
+                    if read_levels(decoder, def_levels, num_levels)? != num_levels {
+                        return Err(eof_err!("Not enough definition levels in data page"));
+                    }
+                    def_levels[start..]
+                        .iter()
+                        .filter(|level| **level == max_def_level)
+                        .count()
+                }
+                None => num_levels,
+            };
+
+            let values = match page.values {
+                DataPageValues::Dictionary(_) => self.dictionary.clone().ok_or_else(|| {
+                    general_err!("Dictionary encoded data page without dictionary page")
+                })?,
+                DataPageValues::Plain(ref values, _) => values.clone(),
+            };
+            // Pages of the same column chunk share its dictionary
+            if !dictionaries
+                .last()
+                .map_or(false, |last| Arc::ptr_eq(last, &values))
+            {
+                key_offset = dictionaries_len;
+                dictionaries_len += values.len();
+                dictionaries.push(values.clone());
+            }
+
+            match page.values {
+                DataPageValues::Dictionary(ref mut decoder) => {
+                    let mut page_keys = vec![0_i32; num_values];
+                    if decoder.get_batch(&mut page_keys)? != num_values {
+                        return Err(eof_err!("Not enough dictionary keys in data page"));
+                    }
+                    for key in page_keys {
+                        let key = key as usize;
+                        if key >= values.len() {
+                            return Err(general_err!(
+                                "Dictionary key {} is out of bounds of the {} values",
+                                key,
+                                values.len()
+                            ));
+                        }
+                        keys.push(key_offset + key);
+                    }
+                }
+                DataPageValues::Plain(ref plain_values, ref mut position) => {
+                    if *position + num_values > plain_values.len() {
+                        return Err(eof_err!("Not enough values in data page"));
+                    }
+                    keys.extend(
+                        (*position..*position + num_values).map(|i| key_offset + i),
+                    );
+                    *position += num_values;
+                }
+            }
+
+            page.num_levels_left -= num_levels;
+        }
+
+        Ok((keys, dictionaries, records_read))
+    }
+}
+
+impl<K: ArrowDictionaryKeyType> ArrayReader for DictionaryArrayReader<K> {
+    fn as_any(&self) -> &dyn Any {
+        self
+    }
+
+    fn get_data_type(&self) -> &ArrowType {
+        &self.data_type
+    }
+
+    fn next_batch(&mut self, batch_size: usize) -> Result<ArrayRef> {
+        let mut def_levels = Vec::new();
+        let mut rep_levels = Vec::new();
+        let (keys, dictionaries, _) =
+            self.read_keys(batch_size, &mut def_levels, &mut rep_levels)?;
+
+        let values = match dictionaries.len() {
+            0 => new_empty_array(&self.value_type),
+            1 => dictionaries[0].clone(),
+            _ => concat(
+                &dictionaries
+                    .iter()
+                    .map(|values| values.as_ref())
+                    .collect::<Vec<_>>(),
+            )?,
+        };
+
+        let max_def_level = self.column_desc.max_def_level();
+        let len = if max_def_level > 0 {
+            def_levels.len()
+        } else {
+            keys.len()
+        };
+
+        let mut key_buffer = BufferBuilder::<K::Native>::new(len);
+        let mut null_buffer = None;
+        if max_def_level > 0 {
+            let mut validity = BooleanBufferBuilder::new(len);
+            let mut keys = keys.into_iter();
+            for level in &def_levels {
+                if *level == max_def_level {
+                    validity.append(true);
+                    key_buffer.append(to_key::<K>(keys.next().unwrap())?);
+                } else {
+                    validity.append(false);
+                    key_buffer.append(K::Native::default());
+                }
+            }
+            null_buffer = Some(validity.finish());
+        } else {
+            for key in keys {
+                key_buffer.append(to_key::<K>(key)?);
+            }
+        }
+
+        let mut builder = ArrayData::builder(self.data_type.clone())
+            .len(len)
+            .add_buffer(key_buffer.finish())
+            .add_child_data(values.data().clone());
+        if let Some(null_buffer) = null_buffer {
+            builder = builder.null_bit_buffer(null_buffer);
+        }
+
+        self.def_levels_buffer = if max_def_level > 0 {
+            Some(def_levels)
+        } else {
+            None
+        };
+        self.rep_levels_buffer = if self.column_desc.max_rep_level() > 0 {
+            Some(rep_levels)
+        } else {
+            None
+        };
+
+        Ok(make_array(builder.build()))
+    }
+
+    fn skip_records(&mut self, num_records: usize) -> Result<usize> {
+        // Keys of skipped values are decoded, but no value is copied
+        let mut def_levels = Vec::new();
+        let mut rep_levels = Vec::new();
+        let (_, _, records_skipped) =
+            self.read_keys(num_records, &mut def_levels, &mut rep_levels)?;
+        self.def_levels_buffer = None;
+        self.rep_levels_buffer = None;
+        Ok(records_skipped)
+    }
+
+    fn get_def_levels(&self) -> Option<&[i16]> {
+        self.def_levels_buffer.as_deref()
+    }
+
+    fn get_rep_levels(&self) -> Option<&[i16]> {
+        self.rep_levels_buffer.as_deref()
+    }
+}
+
+/// Decodes at most `count` levels into `levels`, and returns the number of levels read.
+fn read_levels(
+    decoder: &mut LevelDecoder,
+    levels: &mut Vec<i16>,
+    count: usize,
+) -> Result<usize> {
+    let start = levels.len();
+    levels.resize(start + count, 0);
+    let levels_read = decoder.get(&mut levels[start..])?;
+    levels.truncate(start + levels_read);
+    Ok(levels_read)
+}
+
+fn to_key<K: ArrowDictionaryKeyType>(key: usize) -> Result<K::Native> {
+    K::Native::from_usize(key).ok_or_else(|| {
+        ArrowError(format!(
+            "Dictionary key {} does not fit in {:?}",
+            key,
+            K::DATA_TYPE
+        ))
+    })
+}
+
+/// Decodes at most `max_values` plain encoded byte arrays of `data` into an array of
+/// `value_type`.
+fn decode_plain(
+    value_type: &ArrowType,
+    data: &[u8],
+    max_values: usize,
+) -> Result<ArrayRef> {
+    match value_type {
+        ArrowType::LargeUtf8 | ArrowType::LargeBinary => {
+            decode_plain_with_offsets::<i64>(value_type, data, max_values)
+        }
+        _ => decode_plain_with_offsets::<i32>(value_type, data, max_values),
+    }
+}
+
+fn decode_plain_with_offsets<O: OffsetSizeTrait>(
+    value_type: &ArrowType,
+    data: &[u8],
+    max_values: usize,
+) -> Result<ArrayRef> {
+    let mut offsets = Vec::with_capacity(max_values + 1);
+    offsets.push(O::zero());
+    let mut values = MutableBuffer::new(data.len());
+
+    let mut position = 0;
+    while position < data.len() && offsets.len() <= max_values {
+        if position + 4 > data.len() {
+            return Err(eof_err!("Not enough bytes to decode byte array length"));
+        }
+        let mut len_bytes = [0; 4];
+        len_bytes.copy_from_slice(&data[position..position + 4]);
+        let start = position + 4;
+        let end = start + u32::from_le_bytes(len_bytes) as usize;
+        if end > data.len() {
+            return Err(eof_err!("Not enough bytes to decode byte array"));
+        }
+        values.extend_from_slice(&data[start..end]);
+        offsets.push(O::from_usize(values.len()).ok_or_else(|| {
+            ArrowError(format!("Byte arrays are too large for {:?}", value_type))
+        })?);
+        position = end;
+    }
+
+    let array_data = ArrayData::builder(value_type.clone())
+        .len(offsets.len() - 1)
+        .add_buffer(Buffer::from_slice_ref(&offsets))
+        .add_buffer(values.into())
+        .build();
+    Ok(make_array(array_data))
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    use std::fs::File;
+
+    use arrow::array::{DictionaryArray, StringArray};
+    use arrow::compute::cast;
+    use arrow::datatypes::{Field, Schema};
+    use arrow::record_batch::RecordBatch;
+
+    use crate::arrow::{ArrowReader, ArrowWriter, ParquetFileArrowReader};
+    use crate::data_type::{ByteArray, ByteArrayType};
+    use crate::file::properties::WriterProperties;
+    use crate::file::reader::SerializedFileReader;
+    use crate::schema::parser::parse_message_type;
+    use crate::schema::types::SchemaDescriptor;
+    use crate::util::test_common::get_temp_file;
+    use crate::util::test_common::page_util::{
+        DataPageBuilder, DataPageBuilderImpl, InMemoryPageIterator,
+    };
+
+    fn write_strings(
+        filename: &str,
+        values: ArrayRef,
+        props: WriterProperties,
+    ) -> File {
+        let schema = Arc::new(Schema::new(vec![Field::new(
+            "col",
+            values.data_type().clone(),
+            true,
+        )]));
+        let batch = RecordBatch::try_new(schema.clone(), vec![values]).unwrap();
+
+        let file = get_temp_file(filename, &[]);
+        let mut writer =
+            ArrowWriter::try_new(file.try_clone().unwrap(), schema, Some(props)).unwrap();
+        writer.write(&batch).unwrap();
+        writer.close().unwrap();
+        file
+    }
+
+    fn read_column(
+        file: File,
+        key_type: Option<ArrowType>,
+        batch_size: usize,
+    ) -> Vec<ArrayRef> {
+        let reader = SerializedFileReader::new(file).unwrap();
+        let mut arrow_reader = ParquetFileArrowReader::new(Arc::new(reader));
+        if let Some(key_type) = key_type {
+            arrow_reader.set_dictionary_key_type(0, key_type);
+        }
+        arrow_reader
+            .get_record_reader(batch_size)
+            .unwrap()
+            .map(|batch| batch.unwrap().column(0).clone())
+            .collect()
+    }
+
+    fn assert_strings(actual: &ArrayRef, expected: &[Option<&str>]) {
+        let actual = cast(actual, &ArrowType::Utf8).unwrap();
+        let expected: ArrayRef = Arc::new(expected.iter().cloned().collect::<StringArray>());
+        assert_eq!(actual.data(), expected.data());
+    }
+
+    fn categories(len: usize) -> Vec<Option<&'static str>> {
+        (0..len)
+            .map(|i| match i % 5 {
+                0 => None,
+                1 => Some("red"),
+                2 => Some("green"),
+                3 => Some("blue"),
+                _ => Some("green"),
+            })
+            .collect()
+    }
+
+    #[test]
+    fn test_dictionary_shared_by_pages() {
+        let values = categories(1000);
+        let array: DictionaryArray<Int32Type> = values.iter().cloned().collect();
+        let props = WriterProperties::builder()
+            .set_write_batch_size(10)
+            .set_data_pagesize_limit(16)
+            .build();
+        let file =
+            write_strings("test_dictionary_shared_by_pages", Arc::new(array), props);
+
+        let arrays = read_column(file, None, 300);
+        assert_eq!(arrays.len(), 4);
+        for (array, expected) in arrays.iter().zip(values.chunks(300)) {
+            let dictionary = array
+                .as_any()
+                .downcast_ref::<DictionaryArray<Int32Type>>()
+                .unwrap();
+            // The three distinct values of the dictionary page, not one per row
+            assert_eq!(dictionary.values().len(), 3);
+            assert_strings(array, expected);
+        }
+    }
+
+    #[test]
+    fn test_dictionary_across_row_groups() {
+        let values = categories(100);
+        let array: DictionaryArray<Int32Type> = values.iter().cloned().collect();
+        let props = WriterProperties::builder()
+            .set_max_row_group_size(30)
+            .build();
+        let file =
+            write_strings("test_dictionary_across_row_groups", Arc::new(array), props);
+
+        let arrays = read_column(file, None, 100);
+        assert_eq!(arrays.len(), 1);
+        let dictionary = arrays[0]
+            .as_any()
+            .downcast_ref::<DictionaryArray<Int32Type>>()
+            .unwrap();
+        // The dictionaries of the four column chunks are concatenated
+        assert_eq!(dictionary.values().len(), 12);
+        assert_strings(&arrays[0], &values);
+    }
+
+    #[test]
+    fn test_requested_key_type() {
+        let values = categories(200);
+        let array: StringArray = values.iter().cloned().collect();
+        let props = WriterProperties::builder().build();
+        let file = write_strings("test_requested_key_type", Arc::new(array), props);
+
+        let arrays = read_column(file, Some(ArrowType::Int8), 200);
+        assert_eq!(
+            arrays[0].data_type(),
+            &ArrowType::Dictionary(Box::new(ArrowType::Int8), Box::new(ArrowType::Utf8))
+        );
+        assert!(arrays[0]
+            .as_any()
+            .downcast_ref::<DictionaryArray<Int8Type>>()
+            .is_some());
+        assert_strings(&arrays[0], &values);
+    }
+
+    #[test]
+    fn test_plain_encoded_pages() {
+        let values = categories(200);
+        let array: StringArray = values.iter().cloned().collect();
+        let props = WriterProperties::builder()
+            .set_dictionary_enabled(false)
+            .set_write_batch_size(10)
+            .set_data_pagesize_limit(16)
+            .build();
+        let file = write_strings("test_plain_encoded_pages", Arc::new(array), props);
+
+        let arrays = read_column(file, Some(ArrowType::UInt16), 150);
+        assert_eq!(arrays.len(), 2);
+        assert_strings(&arrays[0], &values[..150]);
+        assert_strings(&arrays[1], &values[150..]);
+    }
+
+    #[test]
+    fn test_key_overflow() {
+        let values: Vec<String> = (0..200).map(|i| format!("value {}", i)).collect();
+        let array = StringArray::from_iter_values(values.iter());
+        let props = WriterProperties::builder().build();
+        let file = write_strings("test_key_overflow", Arc::new(array), props);
+
+        let reader = SerializedFileReader::new(file).unwrap();
+        let mut arrow_reader = ParquetFileArrowReader::new(Arc::new(reader));
+        arrow_reader.set_dictionary_key_type(0, ArrowType::Int8);
+        let error = arrow_reader
+            .get_record_reader(1024)
+            .unwrap()
+            .next()
+            .unwrap()
+            .unwrap_err();
+        assert_eq!(
+            error.to_string(),
+            "Parquet argument error: Arrow: Dictionary key 128 does not fit in Int8"
+        );
+    }
+
+    #[test]
+    fn test_repeated_column_records() {
+        let schema = parse_message_type(
+            "
+            message test_schema {
+                REPEATED BYTE_ARRAY leaf (UTF8);
+            }
+            ",
+        )
+        .map(|t| Arc::new(SchemaDescriptor::new(Arc::new(t))))
+        .unwrap();
+        let column_desc = schema.column(0);
+
+        // [a, b], [], [c, d, e], [f, g], where the third list spans both pages
+        let page = |rep_levels: &[i16], def_levels: &[i16], values: &[&str]| {
+            let values: Vec<ByteArray> =
+                values.iter().map(|v| ByteArray::from(*v)).collect();
+            let mut pb = DataPageBuilderImpl::new(column_desc.clone(), 0, false);
+            pb.add_rep_levels(1, rep_levels);
+            pb.add_def_levels(1, def_levels);
+            pb.add_values::<ByteArrayType>(Encoding::PLAIN, &values);
+            pb.consume()
+        };
+        let pages = vec![vec![
+            page(&[0, 1, 0, 0, 1], &[1, 1, 0, 1, 1], &["a", "b", "c", "d"]),
+            page(&[1, 0, 1], &[1, 1, 1], &["e", "f", "g"]),
+        ]];
+        let page_iterator = InMemoryPageIterator::new(schema, column_desc.clone(), pages);
+        let data_type =
+            ArrowType::Dictionary(Box::new(ArrowType::Int32), Box::new(ArrowType::Utf8));
+        let mut reader = DictionaryArrayReader::<Int32Type>::try_new(
+            Box::new(page_iterator),
+            column_desc,
+            data_type,
+        )
+        .unwrap();
+
+        assert_eq!(reader.skip_records(2).unwrap(), 2);
+        let array = reader.next_batch(1).unwrap();
+        assert_strings(&array, &[Some("c"), Some("d"), Some("e")]);
+        assert_eq!(reader.get_rep_levels(), Some(&[0, 1, 1][..]));
+        assert_eq!(reader.get_def_levels(), Some(&[1, 1, 1][..]));
+
+        // Only one record is left
+        assert_eq!(reader.skip_records(5).unwrap(), 1);
+        assert_eq!(reader.next_batch(5).unwrap().len(), 0);
+    }
+}
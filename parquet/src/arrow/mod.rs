@@ -53,7 +53,11 @@ pub mod array_reader;
 pub mod arrow_array_reader;
 pub mod arrow_reader;
 pub mod arrow_writer;
+#[cfg(feature = "async")]
+pub mod async_reader;
 pub mod converter;
+pub mod dictionary_array_reader;
+pub mod parallel_reader;
 pub(in crate::arrow) mod levels;
 pub(in crate::arrow) mod record_reader;
 pub mod schema;
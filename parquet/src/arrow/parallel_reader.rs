@@ -0,0 +1,441 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+//! Contains a reader of Parquet files into Arrow record batches that decodes several
+//! row groups in parallel.
+//!
+//! [`ParallelRecordBatchReader`] spreads the row groups of a file over a number of
+//! worker threads. Each worker opens its own [`ChunkReader`] on the file, decodes its
+//! row groups one after another with a [`ParquetRecordBatchReader`], and hands the
+//! record batches of each row group back to the calling thread.
+//!
+//! # Example
+//!
+//! ```rust, no_run
+//! # fn read() -> parquet::errors::Result<()> {
+//! use std::fs::File;
+//! use parquet::arrow::parallel_reader::ParallelRecordBatchReaderBuilder;
+//!
+//! let reader = ParallelRecordBatchReaderBuilder::try_new(|| {
+//!     Ok(File::open("parquet.file")?)
+//! })?
+//! .set_num_threads(8)
+//! .set_batch_size(1024)
+//! .build()?;
+//!
+//! for batch in reader {
+//!     println!("Read {} rows", batch?.num_rows());
+//! }
+//! # Ok(())
+//! # }
+//! ```
+
+use std::sync::mpsc::{sync_channel, Receiver, SyncSender};
+use std::sync::Arc;
+use std::thread;
+
+use arrow::datatypes::SchemaRef;
+use arrow::error::Result as ArrowResult;
+use arrow::record_batch::{RecordBatch, RecordBatchReader};
+
+use crate::arrow::arrow_reader::{
+    ArrowReader, ParquetFileArrowReader, ParquetRecordBatchReader,
+};
+use crate::arrow::schema::parquet_to_arrow_schema_by_columns;
+use crate::errors::{ParquetError, Result};
+use crate::file::metadata::ParquetMetaData;
+use crate::file::reader::{ChunkReader, FileReader};
+use crate::file::serialized_reader::SerializedFileReader;
+
+/// The default number of worker threads of a [`ParallelRecordBatchReader`].
+pub const DEFAULT_NUM_THREADS: usize = 4;
+
+/// The record batches of a row group, or the error that occurred while decoding it.
+type RowGroupBatches = Result<Vec<RecordBatch>>;
+
+/// Builder of [`ParallelRecordBatchReader`].
+pub struct ParallelRecordBatchReaderBuilder<F> {
+    open: Arc<F>,
+    metadata: Arc<ParquetMetaData>,
+    batch_size: usize,
+    row_groups: Option<Vec<usize>>,
+    projection: Option<Vec<usize>>,
+    num_threads: usize,
+    ordered: bool,
+}
+
+impl<F, R> ParallelRecordBatchReaderBuilder<F>
+where
+    F: Fn() -> Result<R> + Send + Sync + 'static,
+    R: ChunkReader + 'static,
+{
+    /// Reads the file metadata of the file opened by `open`, and returns a builder
+    /// reading all the columns of all the row groups of the file.
+    ///
+    /// `open` is called by the worker threads to open the file once per row group,
+    /// so that every row group is read through its own [`ChunkReader`].
+    pub fn try_new(open: F) -> Result<Self> {
+        let file_reader = SerializedFileReader::new(open()?)?;
+        Ok(Self {
+            open: Arc::new(open),
+            metadata: Arc::new(file_reader.metadata().clone()),
+            batch_size: 1024,
+            row_groups: None,
+            projection: None,
+            num_threads: DEFAULT_NUM_THREADS,
+            ordered: true,
+        })
+    }
+
+    /// Returns the file metadata.
+    pub fn metadata(&self) -> &Arc<ParquetMetaData> {
+        &self.metadata
+    }
+
+    /// Sets the maximum number of rows of the record batches.
+    pub fn set_batch_size(mut self, value: usize) -> Self {
+        self.batch_size = value;
+        self
+    }
+
+    /// Sets the row groups to read, in the order their record batches are returned.
+    pub fn set_row_groups(mut self, value: Vec<usize>) -> Self {
+        self.row_groups = Some(value);
+        self
+    }
+
+    /// Sets the leaf columns to read.
+    pub fn set_projection(mut self, value: Vec<usize>) -> Self {
+        self.projection = Some(value);
+        self
+    }
+
+    /// Sets the number of worker threads, which decode one row group each at a time.
+    pub fn set_num_threads(mut self, value: usize) -> Self {
+        self.num_threads = value;
+        self
+    }
+
+    /// Sets whether the record batches are returned in the order of the row groups,
+    /// which is the default.
+    ///
+    /// When unordered, the record batches of each row group are returned as soon as
+    /// it is decoded, so a slow row group does not hold back the others.
+    pub fn set_ordered(mut self, value: bool) -> Self {
+        self.ordered = value;
+        self
+    }
+
+    /// Finalizes the configuration, starts the worker threads and returns the reader.
+    pub fn build(self) -> Result<ParallelRecordBatchReader> {
+        if self.num_threads == 0 {
+            return Err(general_err!("The number of threads must be positive"));
+        }
+
+        let num_row_groups = self.metadata.num_row_groups();
+        let row_groups = match self.row_groups {
+            Some(row_groups) => {
+                if let Some(&row_group) =
+                    row_groups.iter().find(|&&i| i >= num_row_groups)
+                {
+                    return Err(ParquetError::IndexOutOfBound(row_group, num_row_groups));
+                }
+                row_groups
+            }
+            None => (0..num_row_groups).collect(),
+        };
+
+        let file_metadata = self.metadata.file_metadata();
+        let num_columns = file_metadata.schema_descr().num_columns();
+        let columns = match self.projection {
+            Some(projection) => {
+                if let Some(&column) = projection.iter().find(|&&i| i >= num_columns) {
+                    return Err(ParquetError::IndexOutOfBound(column, num_columns));
+                }
+                projection
+            }
+            None => (0..num_columns).collect(),
+        };
+
+        let schema = parquet_to_arrow_schema_by_columns(
+            file_metadata.schema_descr(),
+            columns.iter().cloned(),
+            file_metadata.key_value_metadata(),
+        )?;
+
+        // Worker i decodes the row groups at positions i, i + n, i + 2n, ... so that in
+        // order, the row groups are received from the workers in turn. Each worker can
+        // only decode one row group ahead of the one it has not handed back yet.
+        let num_threads = self.num_threads.min(row_groups.len()).max(1);
+        let (senders, receivers): (Vec<_>, Vec<_>) = if self.ordered {
+            (0..num_threads).map(|_| sync_channel(1)).unzip()
+        } else {
+            let (sender, receiver) = sync_channel(num_threads);
+            (vec![sender; num_threads], vec![receiver])
+        };
+
+        for (worker, sender) in senders.into_iter().enumerate() {
+            let task = RowGroupTask {
+                open: self.open.clone(),
+                metadata: self.metadata.clone(),
+                columns: columns.clone(),
+                batch_size: self.batch_size,
+            };
+            let row_groups = row_groups
+                .iter()
+                .cloned()
+                .skip(worker)
+                .step_by(num_threads)
+                .collect::<Vec<_>>();
+            thread::Builder::new()
+                .name(format!("parquet-reader-{}", worker))
+                .spawn(move || task.run(row_groups, sender))?;
+        }
+
+        Ok(ParallelRecordBatchReader {
+            schema: Arc::new(schema),
+            receivers,
+            num_row_groups: row_groups.len(),
+            received_row_groups: 0,
+            batches: Vec::new().into_iter(),
+            finished: false,
+        })
+    }
+}
+
+/// Decodes row groups on a worker thread of a [`ParallelRecordBatchReader`].
+struct RowGroupTask<F> {
+    open: Arc<F>,
+    metadata: Arc<ParquetMetaData>,
+    columns: Vec<usize>,
+    batch_size: usize,
+}
+
+impl<F, R> RowGroupTask<F>
+where
+    F: Fn() -> Result<R>,
+    R: ChunkReader + 'static,
+{
+    /// Decodes `row_groups` in order, sending their record batches to `sender`, until
+    /// the reader is dropped.
+    fn run(self, row_groups: Vec<usize>, sender: SyncSender<RowGroupBatches>) {
+        for row_group in row_groups {
+            if sender.send(self.decode(row_group)).is_err() {
+                break;
+            }
+        }
+    }
+
+    fn decode(&self, row_group: usize) -> RowGroupBatches {
+        let metadata = ParquetMetaData::new(
+            self.metadata.file_metadata().clone(),
+            vec![self.metadata.row_group(row_group).clone()],
+        );
+        let chunk_reader = (self.open)()?;
+        let file_reader = SerializedFileReader::new_with_metadata(chunk_reader, metadata);
+        let mut arrow_reader = ParquetFileArrowReader::new(Arc::new(file_reader));
+        let record_reader: ParquetRecordBatchReader = arrow_reader
+            .get_record_reader_by_columns(self.columns.clone(), self.batch_size)?;
+        Ok(record_reader.collect::<ArrowResult<Vec<_>>>()?)
+    }
+}
+
+/// A reader of the record batches of a Parquet file, whose row groups are decoded in
+/// parallel by worker threads, see [`ParallelRecordBatchReaderBuilder`].
+///
+/// Dropping the reader stops the workers once they finish their current row group.
+pub struct ParallelRecordBatchReader {
+    schema: SchemaRef,
+    // One receiver per worker when the row groups are returned in order, otherwise a
+    // single receiver shared by all workers
+    receivers: Vec<Receiver<RowGroupBatches>>,
+    num_row_groups: usize,
+    received_row_groups: usize,
+    batches: std::vec::IntoIter<RecordBatch>,
+    finished: bool,
+}
+
+impl ParallelRecordBatchReader {
+    /// Receives the record batches of the next row group, `None` once all row groups
+    /// have been received.
+    fn next_row_group(&mut self) -> Option<RowGroupBatches> {
+        if self.received_row_groups == self.num_row_groups {
+            return None;
+        }
+        let receiver = &self.receivers[self.received_row_groups % self.receivers.len()];
+        self.received_row_groups += 1;
+        Some(receiver.recv().unwrap_or_else(|_| {
+            Err(general_err!("A worker thread of the reader has stopped"))
+        }))
+    }
+}
+
+impl Iterator for ParallelRecordBatchReader {
+    type Item = ArrowResult<RecordBatch>;
+
+    fn next(&mut self) -> Option<Self::Item> {
+        while !self.finished {
+            if let Some(batch) = self.batches.next() {
+                return Some(Ok(batch));
+            }
+            match self.next_row_group() {
+                Some(Ok(batches)) => self.batches = batches.into_iter(),
+                Some(Err(error)) => {
+                    self.finished = true;
+                    return Some(Err(error.into()));
+                }
+                None => self.finished = true,
+            }
+        }
+        None
+    }
+}
+
+impl RecordBatchReader for ParallelRecordBatchReader {
+    fn schema(&self) -> SchemaRef {
+        self.schema.clone()
+    }
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    use std::fs::File;
+    use std::sync::atomic::{AtomicBool, Ordering};
+
+    use crate::util::test_common::get_test_file;
+
+    fn open_test_file() -> Result<File> {
+        Ok(get_test_file("alltypes_plain.parquet"))
+    }
+
+    fn read_serially(columns: Vec<usize>, batch_size: usize) -> Vec<RecordBatch> {
+        let file_reader = SerializedFileReader::new(open_test_file().unwrap()).unwrap();
+        let mut arrow_reader = ParquetFileArrowReader::new(Arc::new(file_reader));
+        arrow_reader
+            .get_record_reader_by_columns(columns, batch_size)
+            .unwrap()
+            .collect::<ArrowResult<Vec<_>>>()
+            .unwrap()
+    }
+
+    fn assert_batches_eq(actual: &[RecordBatch], expected: &[RecordBatch]) {
+        assert_eq!(actual.len(), expected.len());
+        for (actual, expected) in actual.iter().zip(expected) {
+            assert_eq!(actual.schema(), expected.schema());
+            assert_eq!(actual.columns(), expected.columns());
+        }
+    }
+
+    #[test]
+    fn test_parallel_reader() {
+        let expected = read_serially(vec![0, 1, 2], 3);
+        for num_threads in vec![1, 2, 8] {
+            let reader = ParallelRecordBatchReaderBuilder::try_new(open_test_file)
+                .unwrap()
+                .set_projection(vec![0, 1, 2])
+                .set_batch_size(3)
+                .set_num_threads(num_threads)
+                .build()
+                .unwrap();
+            let batches = reader.collect::<ArrowResult<Vec<_>>>().unwrap();
+            assert_batches_eq(&batches, &expected);
+        }
+    }
+
+    #[test]
+    fn test_parallel_reader_row_groups_in_order() {
+        let expected = read_serially(vec![0], 8);
+        // the file has a single row group, read it three times
+        let reader = ParallelRecordBatchReaderBuilder::try_new(open_test_file)
+            .unwrap()
+            .set_projection(vec![0])
+            .set_row_groups(vec![0, 0, 0])
+            .set_num_threads(2)
+            .set_batch_size(8)
+            .build()
+            .unwrap();
+        let batches = reader.collect::<ArrowResult<Vec<_>>>().unwrap();
+        let expected = vec![expected.clone(), expected.clone(), expected].concat();
+        assert_batches_eq(&batches, &expected);
+    }
+
+    #[test]
+    fn test_parallel_reader_unordered() {
+        let reader = ParallelRecordBatchReaderBuilder::try_new(open_test_file)
+            .unwrap()
+            .set_row_groups(vec![0, 0, 0, 0])
+            .set_num_threads(3)
+            .set_ordered(false)
+            .build()
+            .unwrap();
+        let num_rows: usize = reader.map(|batch| batch.unwrap().num_rows()).sum();
+        assert_eq!(num_rows, 32);
+    }
+
+    #[test]
+    fn test_parallel_reader_no_row_groups() {
+        let reader = ParallelRecordBatchReaderBuilder::try_new(open_test_file)
+            .unwrap()
+            .set_row_groups(vec![])
+            .build()
+            .unwrap();
+        assert_eq!(reader.count(), 0);
+    }
+
+    #[test]
+    fn test_parallel_reader_error() {
+        // the file can only be opened to read the metadata
+        let opened = AtomicBool::new(false);
+        let reader = ParallelRecordBatchReaderBuilder::try_new(move || {
+            if opened.swap(true, Ordering::SeqCst) {
+                Err(general_err!("Cannot open file"))
+            } else {
+                open_test_file()
+            }
+        })
+        .unwrap()
+        .set_row_groups(vec![0, 0])
+        .build()
+        .unwrap();
+        let results = reader.collect::<Vec<_>>();
+        assert_eq!(results.len(), 1);
+        assert_eq!(
+            results[0].as_ref().unwrap_err().to_string(),
+            "Parquet argument error: Parquet error: Cannot open file"
+        );
+    }
+
+    #[test]
+    fn test_parallel_reader_invalid_options() {
+        let builder =
+            || ParallelRecordBatchReaderBuilder::try_new(open_test_file).unwrap();
+        assert_eq!(
+            builder().set_row_groups(vec![1]).build().err().unwrap(),
+            ParquetError::IndexOutOfBound(1, 1)
+        );
+        assert_eq!(
+            builder().set_projection(vec![11]).build().err().unwrap(),
+            ParquetError::IndexOutOfBound(11, 11)
+        );
+        assert_eq!(
+            builder().set_num_threads(0).build().err().unwrap(),
+            general_err!("The number of threads must be positive")
+        );
+    }
+}
@@ -137,6 +137,56 @@ impl<T: DataType> RecordReader<T> {
         Ok(records_read)
     }
 
+    /// Try to skip `num_records` of column data without reading them into the
+    /// internal buffer.
+    ///
+    /// Records that have already been read ahead into memory are dropped from the
+    /// buffer, the rest are skipped in the column reader without being decoded.
+    /// Must not be called while the buffer holds records returned by `read_records`
+    /// that have not been consumed yet.
+    ///
+    /// # Returns
+    ///
+    /// Number of actual records skipped.
+    pub fn skip_records(&mut self, num_records: usize) -> Result<usize> {
+        if self.column_reader.is_none() {
+            return Ok(0);
+        }
+        if self.num_records > 0 {
+            return Err(general_err!(
+                "Cannot skip records while {} records are not consumed",
+                self.num_records
+            ));
+        }
+
+        let mut records_skipped = self.split_records(num_records)?;
+        if records_skipped == num_records {
+            self.discard_records()?;
+            return Ok(records_skipped);
+        }
+
+        // All the buffered values belong to skipped records, including the ones of a
+        // trailing record whose remaining values are still in the column reader
+        let in_middle_of_record = self.in_middle_of_record;
+        self.num_values = self.values_written;
+        self.discard_records()?;
+
+        let mut records_to_skip = num_records - records_skipped;
+        if in_middle_of_record {
+            records_skipped += 1;
+            records_to_skip -= 1;
+        }
+
+        // This also skips the rest of a trailing record when `records_to_skip` is 0
+        records_skipped += self
+            .column_reader
+            .as_mut()
+            .unwrap()
+            .skip_records(records_to_skip)?;
+
+        Ok(records_skipped)
+    }
+
     /// Returns number of records stored in buffer.
     pub fn num_records(&self) -> usize {
         self.num_records
@@ -269,6 +319,16 @@ impl<T: DataType> RecordReader<T> {
         self.in_middle_of_record = false;
     }
 
+    /// Drops the records stored in buffer, keeping the values read ahead of them.
+    fn discard_records(&mut self) -> Result<()> {
+        self.consume_def_levels()?;
+        self.consume_rep_levels()?;
+        self.consume_record_data()?;
+        self.consume_bitmap_buffer()?;
+        self.reset();
+        Ok(())
+    }
+
     /// Returns bitmap data.
     pub fn consume_bitmap(&mut self) -> Result<Option<Bitmap>> {
         self.consume_bitmap_buffer()
@@ -760,6 +820,77 @@ mod tests {
         );
     }
 
+    #[test]
+    fn test_skip_repeated_records() {
+        // Construct column schema
+        let message_type = "
+        message test_schema {
+          REPEATED Group test_struct {
+            REPEATED  INT32 leaf;
+          }
+        }
+        ";
+
+        let desc = parse_message_type(message_type)
+            .map(|t| SchemaDescriptor::new(Arc::new(t)))
+            .map(|s| s.column(0))
+            .unwrap();
+
+        // Same records as in `test_read_repeated_records`, followed by a record with
+        // a single leaf
+        let values = [4, 7, 6, 3, 2, 5];
+        let def_levels = [2i16, 0i16, 1i16, 2i16, 2i16, 2i16, 2i16, 2i16];
+        let rep_levels = [0i16, 0i16, 0i16, 1i16, 2i16, 2i16, 1i16, 0i16];
+        let make_page = || {
+            let mut pb = DataPageBuilderImpl::new(desc.clone(), 8, true);
+            pb.add_rep_levels(2, &rep_levels);
+            pb.add_def_levels(2, &def_levels);
+            pb.add_values::<Int32Type>(Encoding::PLAIN, &values);
+            pb.consume()
+        };
+
+        // Skip records that have been read ahead into the buffer
+        let mut record_reader = RecordReader::<Int32Type>::new(desc.clone());
+        let page_reader = Box::new(TestPageReader::new(vec![make_page()]));
+        record_reader.set_page_reader(page_reader).unwrap();
+
+        assert_eq!(1, record_reader.read_records(1).unwrap());
+        record_reader.consume_record_data().unwrap();
+        record_reader.consume_def_levels().unwrap();
+        record_reader.consume_rep_levels().unwrap();
+        record_reader.consume_bitmap().unwrap();
+        record_reader.reset();
+
+        assert_eq!(1, record_reader.skip_records(1).unwrap());
+        assert_eq!(1, record_reader.read_records(1).unwrap());
+        assert_eq!(5, record_reader.num_values());
+
+        let mut bb = Int32BufferBuilder::new(5);
+        bb.append_slice(&[0, 7, 6, 3, 2]);
+        assert_eq!(bb.finish(), record_reader.consume_record_data().unwrap());
+
+        // Skip records in the column reader
+        let mut record_reader = RecordReader::<Int32Type>::new(desc.clone());
+        let page_reader = Box::new(TestPageReader::new(vec![make_page()]));
+        record_reader.set_page_reader(page_reader).unwrap();
+
+        assert_eq!(3, record_reader.skip_records(3).unwrap());
+        assert_eq!(1, record_reader.read_records(10).unwrap());
+        assert_eq!(1, record_reader.num_values());
+
+        let mut bb = Int32BufferBuilder::new(1);
+        bb.append_slice(&[5]);
+        assert_eq!(bb.finish(), record_reader.consume_record_data().unwrap());
+
+        // Skip more records than available
+        let mut record_reader = RecordReader::<Int32Type>::new(desc.clone());
+        let page_reader = Box::new(TestPageReader::new(vec![make_page()]));
+        record_reader.set_page_reader(page_reader).unwrap();
+
+        assert_eq!(4, record_reader.skip_records(10).unwrap());
+        assert_eq!(0, record_reader.read_records(10).unwrap());
+    }
+
     #[test]
     fn test_read_more_than_one_batch() {
         // Construct column schema
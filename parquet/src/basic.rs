@@ -280,6 +280,20 @@ pub enum PageType {
     DATA_PAGE_V2,
 }
 
+// ----------------------------------------------------------------------
+// Mirrors `parquet::BoundaryOrder`
+
+/// Ordering of the min/max values of the pages recorded in a column index.
+///
+/// When min and max values are sorted across pages, readers can use binary search to
+/// find the pages that contain a value.
+#[derive(Debug, Clone, Copy, PartialEq)]
+pub enum BoundaryOrder {
+    UNORDERED,
+    ASCENDING,
+    DESCENDING,
+}
+
 // ----------------------------------------------------------------------
 // Mirrors `parquet::ColumnOrder`
 
@@ -453,6 +467,12 @@ impl fmt::Display for PageType {
     }
 }
 
+impl fmt::Display for BoundaryOrder {
+    fn fmt(&self, f: &mut fmt::Formatter) -> fmt::Result {
+        write!(f, "{:?}", self)
+    }
+}
+
 impl fmt::Display for SortOrder {
     fn fmt(&self, f: &mut fmt::Formatter) -> fmt::Result {
         write!(f, "{:?}", self)
@@ -776,6 +796,29 @@ impl convert::From<PageType> for parquet::PageType {
     }
 }
 
+// ----------------------------------------------------------------------
+// parquet::BoundaryOrder <=> BoundaryOrder conversion
+
+impl convert::From<parquet::BoundaryOrder> for BoundaryOrder {
+    fn from(value: parquet::BoundaryOrder) -> Self {
+        match value {
+            parquet::BoundaryOrder::Unordered => BoundaryOrder::UNORDERED,
+            parquet::BoundaryOrder::Ascending => BoundaryOrder::ASCENDING,
+            parquet::BoundaryOrder::Descending => BoundaryOrder::DESCENDING,
+        }
+    }
+}
+
+impl convert::From<BoundaryOrder> for parquet::BoundaryOrder {
+    fn from(value: BoundaryOrder) -> Self {
+        match value {
+            BoundaryOrder::UNORDERED => parquet::BoundaryOrder::Unordered,
+            BoundaryOrder::ASCENDING => parquet::BoundaryOrder::Ascending,
+            BoundaryOrder::DESCENDING => parquet::BoundaryOrder::Descending,
+        }
+    }
+}
+
 // ----------------------------------------------------------------------
 // String conversions for schema parsing.
 
@@ -1733,6 +1776,45 @@ mod tests {
         assert_eq!(parquet::PageType::DataPageV2, PageType::DATA_PAGE_V2.into());
     }
 
+    #[test]
+    fn test_display_boundary_order() {
+        assert_eq!(BoundaryOrder::UNORDERED.to_string(), "UNORDERED");
+        assert_eq!(BoundaryOrder::ASCENDING.to_string(), "ASCENDING");
+        assert_eq!(BoundaryOrder::DESCENDING.to_string(), "DESCENDING");
+    }
+
+    #[test]
+    fn test_from_boundary_order() {
+        assert_eq!(
+            BoundaryOrder::from(parquet::BoundaryOrder::Unordered),
+            BoundaryOrder::UNORDERED
+        );
+        assert_eq!(
+            BoundaryOrder::from(parquet::BoundaryOrder::Ascending),
+            BoundaryOrder::ASCENDING
+        );
+        assert_eq!(
+            BoundaryOrder::from(parquet::BoundaryOrder::Descending),
+            BoundaryOrder::DESCENDING
+        );
+    }
+
+    #[test]
+    fn test_into_boundary_order() {
+        assert_eq!(
+            parquet::BoundaryOrder::Unordered,
+            BoundaryOrder::UNORDERED.into()
+        );
+        assert_eq!(
+            parquet::BoundaryOrder::Ascending,
+            BoundaryOrder::ASCENDING.into()
+        );
+        assert_eq!(
+            parquet::BoundaryOrder::Descending,
+            BoundaryOrder::DESCENDING.into()
+        );
+    }
+
     #[test]
     fn test_display_sort_order() {
         assert_eq!(SortOrder::SIGNED.to_string(), "SIGNED");
@@ -19,7 +19,7 @@
 
 use std::{
     cmp::{max, min},
-    collections::HashMap,
+    collections::{HashMap, VecDeque},
 };
 
 use super::page::{Page, PageReader};
@@ -33,6 +33,9 @@ use crate::errors::{ParquetError, Result};
 use crate::schema::types::ColumnDescPtr;
 use crate::util::memory::ByteBufferPtr;
 
+/// Maximum number of levels decoded at a time when skipping records.
+const SKIP_BATCH_SIZE: usize = 1024;
+
 /// Column reader for a Parquet type.
 pub enum ColumnReader {
     BoolColumnReader(ColumnReaderImpl<BoolType>),
@@ -118,6 +121,10 @@ pub struct ColumnReaderImpl<T: DataType> {
 
     // Cache of decoders for existing encodings
     decoders: HashMap<Encoding, Box<dyn Decoder<T>>>,
+
+    // Repetition levels of the current data page that have been decoded while looking
+    // for a record boundary in `skip_records`, but not consumed yet
+    pending_rep_levels: VecDeque<i16>,
 }
 
 impl<T: DataType> ColumnReaderImpl<T> {
@@ -132,6 +139,7 @@ impl<T: DataType> ColumnReaderImpl<T> {
             num_buffered_values: 0,
             num_decoded_values: 0,
             decoders: HashMap::new(),
+            pending_rep_levels: VecDeque::new(),
         }
     }
 
@@ -264,6 +272,125 @@ impl<T: DataType> ColumnReaderImpl<T> {
         Ok((values_read, levels_read))
     }
 
+    /// Skips at most `num_records` records without decoding their values.
+    ///
+    /// A record starts at a value with repetition level 0, so for non-repeated columns
+    /// every value is a record. If the reader is positioned in the middle of a record,
+    /// the remaining values of that record are skipped as well, without counting
+    /// towards `num_records`.
+    ///
+    /// Returns the actual number of records skipped, which is less than `num_records`
+    /// only if the column chunk has been exhausted.
+    pub fn skip_records(&mut self, num_records: usize) -> Result<usize> {
+        let max_rep_level = self.descr.max_rep_level();
+        let mut rep_levels = Vec::new();
+        let mut records_skipped = 0;
+        let mut in_record = false;
+
+        loop {
+            if max_rep_level == 0 && records_skipped == num_records {
+                break;
+            }
+            if !self.has_next()? {
+                // The last record of a column chunk is always complete
+                if in_record {
+                    records_skipped += 1;
+                }
+                break;
+            }
+
+            let levels_left =
+                (self.num_buffered_values - self.num_decoded_values) as usize;
+
+            if max_rep_level == 0 {
+                let levels_to_skip = min(num_records - records_skipped, levels_left);
+                self.skip_levels(levels_to_skip)?;
+                records_skipped += levels_to_skip;
+                continue;
+            }
+
+            rep_levels.resize(min(levels_left, SKIP_BATCH_SIZE), 0);
+            let levels_read = self.read_rep_levels(&mut rep_levels)?;
+            if levels_read == 0 {
+                return Err(eof_err!("Not enough repetition levels to skip"));
+            }
+
+            let mut levels_to_skip = levels_read;
+            let mut reached_end = false;
+            for (i, level) in rep_levels[..levels_read].iter().enumerate() {
+                if *level == 0 {
+                    if in_record {
+                        records_skipped += 1;
+                    }
+                    if records_skipped == num_records {
+                        levels_to_skip = i;
+                        reached_end = true;
+                        break;
+                    }
+                    in_record = true;
+                }
+            }
+
+            // Keep the levels of the next record for the following read
+            self.pending_rep_levels
+                .extend(&rep_levels[levels_to_skip..levels_read]);
+            self.skip_levels(levels_to_skip)?;
+
+            if reached_end {
+                break;
+            }
+        }
+
+        Ok(records_skipped)
+    }
+
+    /// Skips `num_levels` definition levels and the non-null values they refer to in
+    /// the current data page. Repetition levels have to be consumed by the caller.
+    fn skip_levels(&mut self, num_levels: usize) -> Result<()> {
+        let levels_left = (self.num_buffered_values - self.num_decoded_values) as usize;
+        if num_levels == levels_left {
+            // Nothing else will be read from this page, so there is no need to decode
+            // anything. The decoders are reset when the next page is loaded.
+            self.pending_rep_levels.clear();
+            self.num_decoded_values = self.num_buffered_values;
+            return Ok(());
+        }
+
+        let max_def_level = self.descr.max_def_level();
+        let values_to_skip = if max_def_level > 0 {
+            let mut def_levels = vec![0; min(num_levels, SKIP_BATCH_SIZE)];
+            let mut levels_skipped = 0;
+            let mut values_to_skip = 0;
+            while levels_skipped < num_levels {
+                let batch_size = min(num_levels - levels_skipped, def_levels.len());
+                let levels_read = self.read_def_levels(&mut def_levels[..batch_size])?;
+                if levels_read == 0 {
+                    return Err(eof_err!("Not enough definition levels to skip"));
+                }
+                values_to_skip += def_levels[..levels_read]
+                    .iter()
+                    .filter(|level| **level == max_def_level)
+                    .count();
+                levels_skipped += levels_read;
+            }
+            values_to_skip
+        } else {
+            num_levels
+        };
+
+        let values_skipped = self.skip_values(values_to_skip)?;
+        if values_skipped != values_to_skip {
+            return Err(eof_err!(
+                "Expected to skip {} values, but only skipped {}",
+                values_to_skip,
+                values_skipped
+            ));
+        }
+
+        self.num_decoded_values += num_levels as u32;
+        Ok(())
+    }
+
     /// Reads a new page and set up the decoders for levels, values or dictionary.
     /// Returns false if there's no page left.
     fn read_new_page(&mut self) -> Result<bool> {
@@ -443,11 +570,19 @@ impl<T: DataType> ColumnReaderImpl<T> {
 
     #[inline]
     fn read_rep_levels(&mut self, buffer: &mut [i16]) -> Result<usize> {
+        let num_pending = min(buffer.len(), self.pending_rep_levels.len());
+        for (i, level) in self.pending_rep_levels.drain(..num_pending).enumerate() {
+            buffer[i] = level;
+        }
+        if num_pending == buffer.len() {
+            return Ok(num_pending);
+        }
+
         let level_decoder = self
             .rep_level_decoder
             .as_mut()
             .expect("rep_level_decoder be set");
-        level_decoder.get(buffer)
+        Ok(num_pending + level_decoder.get(&mut buffer[num_pending..])?)
     }
 
     #[inline]
@@ -471,6 +606,18 @@ impl<T: DataType> ColumnReaderImpl<T> {
         current_decoder.get(buffer)
     }
 
+    #[inline]
+    fn skip_values(&mut self, num_values: usize) -> Result<usize> {
+        let encoding = self
+            .current_encoding
+            .expect("current_encoding should be set");
+        let current_decoder = self
+            .decoders
+            .get_mut(&encoding)
+            .unwrap_or_else(|| panic!("decoder for encoding {} should be set", encoding));
+        current_decoder.skip(num_values)
+    }
+
     #[inline]
     fn configure_dictionary(&mut self, page: Page) -> Result<bool> {
         let mut encoding = page.encoding();
@@ -937,6 +1084,34 @@ mod tests {
         );
     }
 
+    #[test]
+    fn test_skip_records() {
+        let levels = [(0, 0), (MAX_DEF_LEVEL, 0), (MAX_DEF_LEVEL, MAX_REP_LEVEL)];
+        for (max_def_level, max_rep_level) in levels.iter() {
+            for encoding in [Encoding::PLAIN, Encoding::RLE_DICTIONARY].iter() {
+                for use_v2 in [false, true].iter() {
+                    for num_records in [0, 10, 130, 1000].iter() {
+                        let desc = Arc::new(ColumnDescriptor::new(
+                            Arc::new(get_test_int32_type()),
+                            *max_def_level,
+                            *max_rep_level,
+                            ColumnPath::new(Vec::new()),
+                        ));
+                        let mut tester = ColumnReaderTester::<Int32Type>::new();
+                        tester.test_skip_records(
+                            desc,
+                            *encoding,
+                            NUM_PAGES,
+                            NUM_LEVELS,
+                            *num_records,
+                            *use_v2,
+                        );
+                    }
+                }
+            }
+        }
+    }
+
     #[test]
     fn test_read_batch_adjust_after_buffering_page() {
         // This test covers scenario when buffering new page results in setting number
@@ -1336,6 +1511,102 @@ mod tests {
         }
     }
 
+    impl ColumnReaderTester<Int32Type> {
+        // Skips `num_records` records and checks that the remaining levels and values
+        // are read back as expected
+        fn test_skip_records(
+            &mut self,
+            desc: ColumnDescPtr,
+            encoding: Encoding,
+            num_pages: usize,
+            num_levels: usize,
+            num_records: usize,
+            use_v2: bool,
+        ) {
+            let mut pages = VecDeque::new();
+            make_pages::<Int32Type>(
+                desc.clone(),
+                encoding,
+                num_pages,
+                num_levels,
+                0,
+                100,
+                &mut self.def_levels,
+                &mut self.rep_levels,
+                &mut self.values,
+                &mut pages,
+                use_v2,
+            );
+            let max_def_level = desc.max_def_level();
+            let total_levels = num_pages * num_levels;
+
+            // A record ends right before the next level with repetition level 0
+            let (expected_records, skipped_levels) = if desc.max_rep_level() > 0 {
+                let record_starts: Vec<usize> = (0..total_levels)
+                    .filter(|i| self.rep_levels[*i] == 0)
+                    .collect();
+                match record_starts.get(num_records) {
+                    Some(start) => (num_records, *start),
+                    None => (record_starts.len(), total_levels),
+                }
+            } else {
+                let skipped = min(num_records, total_levels);
+                (skipped, skipped)
+            };
+            let skipped_values = if max_def_level > 0 {
+                self.def_levels[..skipped_levels]
+                    .iter()
+                    .filter(|level| **level == max_def_level)
+                    .count()
+            } else {
+                skipped_levels
+            };
+
+            let page_reader = TestPageReader::new(Vec::from(pages));
+            let mut column_reader =
+                ColumnReaderImpl::<Int32Type>::new(desc.clone(), Box::new(page_reader));
+            assert_eq!(
+                column_reader.skip_records(num_records).unwrap(),
+                expected_records
+            );
+
+            let mut def_levels = vec![0; total_levels];
+            let mut rep_levels = vec![0; total_levels];
+            let mut values = vec![0; total_levels];
+            let mut values_read = 0;
+            let mut levels_read = 0;
+            loop {
+                let (v, l) = column_reader
+                    .read_batch(
+                        16,
+                        Some(&mut def_levels[levels_read..]),
+                        Some(&mut rep_levels[levels_read..]),
+                        &mut values[values_read..],
+                    )
+                    .unwrap();
+                if v == 0 && l == 0 {
+                    break;
+                }
+                values_read += v;
+                levels_read += l;
+            }
+
+            assert_eq!(&values[..values_read], &self.values[skipped_values..]);
+            if max_def_level > 0 {
+                assert_eq!(
+                    &def_levels[..levels_read],
+                    &self.def_levels[skipped_levels..]
+                );
+            }
+            if desc.max_rep_level() > 0 {
+                assert_eq!(
+                    &rep_levels[..levels_read],
+                    &self.rep_levels[skipped_levels..]
+                );
+            }
+        }
+    }
+
     struct TestPageReader {
         pages: IntoIter<Page>,
     }
@@ -18,7 +18,7 @@
 //! Contains column writer API.
 use std::{cmp, collections::VecDeque, convert::TryFrom, marker::PhantomData, sync::Arc};
 
-use crate::basic::{Compression, Encoding, LogicalType, PageType, Type};
+use crate::basic::{BoundaryOrder, Compression, Encoding, LogicalType, PageType, Type};
 use crate::column::page::{CompressedPage, Page, PageWriteSpec, PageWriter};
 use crate::compression::{create_codec, Codec};
 use crate::data_type::private::ParquetValueType;
@@ -31,7 +31,9 @@ use crate::encodings::{
 use crate::errors::{ParquetError, Result};
 use crate::file::statistics::Statistics;
 use crate::file::{
+    bloom_filter::Sbbf,
     metadata::ColumnChunkMetaData,
+    page_index::{ColumnIndex, OffsetIndex, PageLocation},
     properties::{WriterProperties, WriterPropertiesPtr, WriterVersion},
 };
 use crate::schema::types::ColumnDescPtr;
@@ -162,6 +164,38 @@ pub fn get_typed_column_writer_mut<T: DataType>(
     })
 }
 
+/// Values of a batch, either as they are or as keys into a dictionary of values.
+enum BatchValues<'a, T: DataType> {
+    Plain(&'a [T::T]),
+    Dictionary(&'a [T::T], &'a [usize]),
+}
+
+impl<'a, T: DataType> Clone for BatchValues<'a, T> {
+    fn clone(&self) -> Self {
+        *self
+    }
+}
+
+impl<'a, T: DataType> Copy for BatchValues<'a, T> {}
+
+impl<'a, T: DataType> BatchValues<'a, T> {
+    fn len(&self) -> usize {
+        match self {
+            BatchValues::Plain(values) => values.len(),
+            BatchValues::Dictionary(_, keys) => keys.len(),
+        }
+    }
+
+    fn slice(&self, start: usize, end: usize) -> Self {
+        match *self {
+            BatchValues::Plain(values) => BatchValues::Plain(&values[start..end]),
+            BatchValues::Dictionary(dictionary, keys) => {
+                BatchValues::Dictionary(dictionary, &keys[start..end])
+            }
+        }
+    }
+}
+
 /// Typed column writer for a primitive column.
 pub struct ColumnWriterImpl<T: DataType> {
     // Column writer properties
@@ -193,10 +227,18 @@ pub struct ColumnWriterImpl<T: DataType> {
     max_column_value: Option<T::T>,
     num_column_nulls: u64,
     column_distinct_count: Option<u64>,
+    // Page index, only collected when enabled in writer properties
+    page_index: Option<PageIndexBuilder>,
+    last_page_min_max: Option<(T::T, T::T)>,
+    // Bloom filter, only built when enabled for the column in writer properties
+    bloom_filter: Option<Sbbf>,
     // Reused buffers
     def_levels_sink: Vec<i16>,
     rep_levels_sink: Vec<i16>,
     data_pages: VecDeque<CompressedPage>,
+    // Indices in the dictionary encoder of the dictionary values of the current
+    // `write_batch_with_dictionary` call
+    dictionary_indices: Vec<i32>,
     _phantom: PhantomData<T>,
 }
 
@@ -222,6 +264,21 @@ impl<T: DataType> ColumnWriterImpl<T> {
         let has_dictionary = dict_encoder.is_some();
 
         // Set either main encoder or fallback encoder.
+        let page_index = if props.page_index_enabled() {
+            Some(PageIndexBuilder::new())
+        } else {
+            None
+        };
+
+        let bloom_filter = if props.bloom_filter_enabled(descr.path()) {
+            Some(Sbbf::new_with_ndv_fpp(
+                props.bloom_filter_ndv(descr.path()),
+                props.bloom_filter_fpp(descr.path()),
+            ))
+        } else {
+            None
+        };
+
         let fallback_encoder = get_encoder(
             descr.clone(),
             props
@@ -253,6 +310,7 @@ impl<T: DataType> ColumnWriterImpl<T> {
             def_levels_sink: vec![],
             rep_levels_sink: vec![],
             data_pages: VecDeque::new(),
+            dictionary_indices: vec![],
             min_page_value: None,
             max_page_value: None,
             num_page_nulls: 0,
@@ -261,13 +319,16 @@ impl<T: DataType> ColumnWriterImpl<T> {
             max_column_value: None,
             num_column_nulls: 0,
             column_distinct_count: None,
+            page_index,
+            last_page_min_max: None,
+            bloom_filter,
             _phantom: PhantomData,
         }
     }
 
     fn write_batch_internal(
         &mut self,
-        values: &[T::T],
+        values: BatchValues<T>,
         def_levels: Option<&[i16]>,
         rep_levels: Option<&[i16]>,
         min: &Option<T::T>,
@@ -339,7 +400,7 @@ impl<T: DataType> ColumnWriterImpl<T> {
         let mut levels_offset = 0;
         for _ in 0..num_batches {
             values_offset += self.write_mini_batch(
-                &values[values_offset..values_offset + write_batch_size],
+                values.slice(values_offset, values_offset + write_batch_size),
                 def_levels.map(|lv| &lv[levels_offset..levels_offset + write_batch_size]),
                 rep_levels.map(|lv| &lv[levels_offset..levels_offset + write_batch_size]),
                 calculate_page_stats,
@@ -348,7 +409,7 @@ impl<T: DataType> ColumnWriterImpl<T> {
         }
 
         values_offset += self.write_mini_batch(
-            &values[values_offset..],
+            values.slice(values_offset, values.len()),
             def_levels.map(|lv| &lv[levels_offset..]),
             rep_levels.map(|lv| &lv[levels_offset..]),
             calculate_page_stats,
@@ -377,7 +438,49 @@ impl<T: DataType> ColumnWriterImpl<T> {
         rep_levels: Option<&[i16]>,
     ) -> Result<usize> {
         self.write_batch_internal(
-            values, def_levels, rep_levels, &None, &None, None, None,
+            BatchValues::Plain(values),
+            def_levels,
+            rep_levels,
+            &None,
+            &None,
+            None,
+            None,
+        )
+    }
+
+    /// Writes batch of values given as `keys` into `dictionary`, definition levels and
+    /// repetition levels. Returns number of values processed (written), like
+    /// [`Self::write_batch`].
+    ///
+    /// While the column is dictionary encoded, each value of `dictionary` is inserted
+    /// into the column dictionary once, when first referred to, and the keys are then
+    /// remapped to the column dictionary without hashing their values again. Values
+    /// are only looked up from their keys once the writer has fallen back to another
+    /// encoding.
+    pub fn write_batch_with_dictionary(
+        &mut self,
+        dictionary: &[T::T],
+        keys: &[usize],
+        def_levels: Option<&[i16]>,
+        rep_levels: Option<&[i16]>,
+    ) -> Result<usize> {
+        if let Some(key) = keys.iter().find(|key| **key >= dictionary.len()) {
+            return Err(general_err!(
+                "Dictionary key {} is out of bounds of the {} dictionary values",
+                key,
+                dictionary.len()
+            ));
+        }
+
+        self.dictionary_indices.clear();
+        self.write_batch_internal(
+            BatchValues::Dictionary(dictionary, keys),
+            def_levels,
+            rep_levels,
+            &None,
+            &None,
+            None,
+            None,
         )
     }
 
@@ -395,7 +498,7 @@ impl<T: DataType> ColumnWriterImpl<T> {
         distinct_count: Option<u64>,
     ) -> Result<usize> {
         self.write_batch_internal(
-            values,
+            BatchValues::Plain(values),
             def_levels,
             rep_levels,
             min,
@@ -436,7 +539,7 @@ impl<T: DataType> ColumnWriterImpl<T> {
     /// page size.
     fn write_mini_batch(
         &mut self,
-        values: &[T::T],
+        values: BatchValues<T>,
         def_levels: Option<&[i16]>,
         rep_levels: Option<&[i16]>,
         calculate_page_stats: bool,
@@ -502,17 +605,42 @@ impl<T: DataType> ColumnWriterImpl<T> {
         }
 
         // Check that we have enough values to write.
-        let values_to_write = values.get(0..values_to_write).ok_or_else(|| {
-            general_err!(
+        if values_to_write > values.len() {
+            return Err(general_err!(
                 "Expected to write {} values, but have only {}",
                 values_to_write,
                 values.len()
-            )
-        })?;
+            ));
+        }
+        let values_to_write = values.slice(0, values_to_write);
 
         if calculate_page_stats {
-            for val in values_to_write {
-                self.update_page_min_max(val);
+            match values_to_write {
+                BatchValues::Plain(values) => {
+                    for val in values {
+                        self.update_page_min_max(val);
+                    }
+                }
+                BatchValues::Dictionary(dictionary, keys) => {
+                    for key in keys {
+                        self.update_page_min_max(&dictionary[*key]);
+                    }
+                }
+            }
+        }
+
+        if let Some(ref mut bloom_filter) = self.bloom_filter {
+            match values_to_write {
+                BatchValues::Plain(values) => {
+                    for val in values {
+                        bloom_filter.insert(val);
+                    }
+                }
+                BatchValues::Dictionary(dictionary, keys) => {
+                    for key in keys {
+                        bloom_filter.insert(&dictionary[*key]);
+                    }
+                }
             }
         }
 
@@ -543,10 +671,18 @@ impl<T: DataType> ColumnWriterImpl<T> {
     }
 
     #[inline]
-    fn write_values(&mut self, values: &[T::T]) -> Result<()> {
-        match self.dict_encoder {
-            Some(ref mut encoder) => encoder.put(values),
-            None => self.encoder.put(values),
+    fn write_values(&mut self, values: BatchValues<T>) -> Result<()> {
+        match (values, self.dict_encoder.as_mut()) {
+            (BatchValues::Plain(values), Some(encoder)) => encoder.put(values),
+            (BatchValues::Plain(values), None) => self.encoder.put(values),
+            (BatchValues::Dictionary(dictionary, keys), Some(encoder)) => {
+                encoder.put_keys(dictionary, keys, &mut self.dictionary_indices)
+            }
+            (BatchValues::Dictionary(dictionary, keys), None) => {
+                let values: Vec<T::T> =
+                    keys.iter().map(|key| dictionary[*key].clone()).collect();
+                self.encoder.put(&values)
+            }
         }
     }
 
@@ -617,6 +753,10 @@ impl<T: DataType> ColumnWriterImpl<T> {
             None
         };
 
+        if self.page_index.is_some() {
+            self.update_page_index(&page_statistics);
+        }
+
         let compressed_page = match self.props.writer_version() {
             WriterVersion::PARQUET_1_0 => {
                 let mut buffer = vec![];
@@ -780,7 +920,7 @@ impl<T: DataType> ColumnWriterImpl<T> {
         encodings.push(Encoding::RLE);
 
         let statistics = self.make_column_statistics();
-        let metadata = ColumnChunkMetaData::builder(self.descr.clone())
+        let mut builder = ColumnChunkMetaData::builder(self.descr.clone())
             .set_compression(self.codec)
             .set_encodings(encodings)
             .set_file_offset(file_offset)
@@ -790,7 +930,13 @@ impl<T: DataType> ColumnWriterImpl<T> {
             .set_data_page_offset(data_page_offset)
             .set_dictionary_page_offset(dict_page_offset)
             .set_statistics(statistics)
-            .build()?;
+            .set_bloom_filter(self.bloom_filter.take());
+        if let Some(ref page_index) = self.page_index {
+            builder = builder
+                .set_column_index(page_index.build_column_index())
+                .set_offset_index(Some(page_index.build_offset_index()));
+        }
+        let metadata = builder.build()?;
 
         self.page_writer.write_metadata(&metadata)?;
 
@@ -825,10 +971,47 @@ impl<T: DataType> ColumnWriterImpl<T> {
     #[inline]
     fn write_data_page(&mut self, page: CompressedPage) -> Result<()> {
         let page_spec = self.page_writer.write_page(page)?;
+        if let Some(ref mut page_index) = self.page_index {
+            page_index.add_page_location(page_spec.offset, page_spec.bytes_written);
+        }
         self.update_metrics_for_page(page_spec);
         Ok(())
     }
 
+    /// Adds the statistics and number of rows of the data page being assembled to the
+    /// page index. Must be called before the page state is reset.
+    fn update_page_index(&mut self, page_statistics: &Option<Statistics>) {
+        let null_page = self.num_buffered_encoded_values == 0;
+        let statistics = if null_page {
+            Some(self.make_page_statistics())
+        } else {
+            page_statistics.clone()
+        };
+
+        // Compare with the bounds of the previous page that has any
+        let (ascending, descending) = match (
+            self.last_page_min_max.as_ref(),
+            self.min_page_value.as_ref(),
+            self.max_page_value.as_ref(),
+        ) {
+            (Some((last_min, last_max)), Some(min), Some(max)) => (
+                !self.compare_greater(last_min, min)
+                    && !self.compare_greater(last_max, max),
+                !self.compare_greater(min, last_min)
+                    && !self.compare_greater(max, last_max),
+            ),
+            _ => (true, true),
+        };
+        if let (Some(min), Some(max)) = (&self.min_page_value, &self.max_page_value) {
+            self.last_page_min_max = Some((min.clone(), max.clone()));
+        }
+
+        let num_rows = self.num_buffered_rows as u64;
+        if let Some(ref mut page_index) = self.page_index {
+            page_index.add_page(null_page, statistics, num_rows, ascending, descending);
+        }
+    }
+
     /// Writes dictionary page into underlying sink.
     #[inline]
     fn write_dictionary_page(&mut self) -> Result<()> {
@@ -983,6 +1166,98 @@ impl<T: DataType> ColumnWriterImpl<T> {
     }
 }
 
+/// Collects the column index and offset index of the data pages of a column chunk.
+///
+/// Data pages are added when they are assembled and located when they are written,
+/// which happens in the same order even if pages are buffered in between.
+struct PageIndexBuilder {
+    null_pages: Vec<bool>,
+    page_statistics: Vec<Statistics>,
+    // Unset when a page without statistics is added, so no column index can be built
+    has_statistics: bool,
+    ascending: bool,
+    descending: bool,
+    // Number of rows of each page that has been added but not written yet
+    pending_num_rows: VecDeque<u64>,
+    page_locations: Vec<PageLocation>,
+    num_rows_written: u64,
+}
+
+impl PageIndexBuilder {
+    fn new() -> Self {
+        Self {
+            null_pages: Vec::new(),
+            page_statistics: Vec::new(),
+            has_statistics: true,
+            ascending: true,
+            descending: true,
+            pending_num_rows: VecDeque::new(),
+            page_locations: Vec::new(),
+            num_rows_written: 0,
+        }
+    }
+
+    /// Adds a data page. `ascending` and `descending` tell whether the min/max values
+    /// of the page are ordered with respect to the previous page.
+    fn add_page(
+        &mut self,
+        null_page: bool,
+        statistics: Option<Statistics>,
+        num_rows: u64,
+        ascending: bool,
+        descending: bool,
+    ) {
+        match statistics {
+            Some(statistics) if self.has_statistics => {
+                self.null_pages.push(null_page);
+                self.page_statistics.push(statistics);
+            }
+            _ => {
+                self.has_statistics = false;
+                self.null_pages.clear();
+                self.page_statistics.clear();
+            }
+        }
+        self.ascending &= ascending;
+        self.descending &= descending;
+        self.pending_num_rows.push_back(num_rows);
+    }
+
+    /// Records the location of the next added data page once it has been written.
+    fn add_page_location(&mut self, offset: u64, size: u64) {
+        let num_rows = self.pending_num_rows.pop_front().unwrap_or(0);
+        self.page_locations.push(PageLocation::new(
+            offset as i64,
+            size as i32,
+            self.num_rows_written as i64,
+        ));
+        self.num_rows_written += num_rows;
+    }
+
+    /// Returns the column index, or `None` if any page lacks statistics.
+    fn build_column_index(&self) -> Option<ColumnIndex> {
+        if !self.has_statistics || self.page_statistics.is_empty() {
+            return None;
+        }
+        let boundary_order = if self.ascending {
+            BoundaryOrder::ASCENDING
+        } else if self.descending {
+            BoundaryOrder::DESCENDING
+        } else {
+            BoundaryOrder::UNORDERED
+        };
+        Some(ColumnIndex::new(
+            self.null_pages.clone(),
+            self.page_statistics.clone(),
+            boundary_order,
+        ))
+    }
+
+    fn build_offset_index(&self) -> OffsetIndex {
+        OffsetIndex::new(self.page_locations.clone())
+    }
+}
+
 // ----------------------------------------------------------------------
 // Encoding support for column writer.
 // This mirrors parquet-mr default encodings for writes. See:
@@ -1557,6 +1832,67 @@ mod tests {
         );
     }
 
+    #[test]
+    fn test_column_writer_dictionary_keys_roundtrip() {
+        let dictionary = vec![10, 20, 30, 40];
+        let keys: Vec<usize> = (0..1000).map(|i| (i * 7 % 11) % 3).collect();
+        let def_levels: Vec<i16> = (0..1200).map(|i| (i % 6 != 0) as i16).collect();
+        let values: Vec<i32> = keys.iter().map(|key| dictionary[*key]).collect();
+
+        let props = WriterProperties::builder().set_write_batch_size(64).build();
+        column_roundtrip_with::<Int32Type, _>(
+            "test_col_writer_dictionary_keys",
+            props,
+            &values,
+            Some(&def_levels),
+            None,
+            |writer| {
+                writer.write_batch_with_dictionary(
+                    &dictionary,
+                    &keys,
+                    Some(&def_levels),
+                    None,
+                )
+            },
+        );
+    }
+
+    #[test]
+    fn test_column_writer_dictionary_keys_fallback() {
+        let dictionary: Vec<i32> = (0..100).collect();
+        let keys: Vec<usize> = (0..1000).map(|i| i * 31 % 100).collect();
+        let values: Vec<i32> = keys.iter().map(|key| dictionary[*key]).collect();
+
+        let props = WriterProperties::builder()
+            .set_dictionary_pagesize_limit(32)
+            .set_data_pagesize_limit(32)
+            .set_write_batch_size(10)
+            .build();
+        column_roundtrip_with::<Int32Type, _>(
+            "test_col_writer_dictionary_keys_fallback",
+            props,
+            &values,
+            None,
+            None,
+            |writer| writer.write_batch_with_dictionary(&dictionary, &keys, None, None),
+        );
+    }
+
+    #[test]
+    fn test_column_writer_dictionary_keys_out_of_bounds() {
+        let page_writer = get_test_page_writer();
+        let props = Arc::new(WriterProperties::builder().build());
+        let mut writer = get_test_column_writer::<Int32Type>(page_writer, 0, 0, props);
+        let res = writer.write_batch_with_dictionary(&[1, 2], &[0, 2], None, None);
+        assert!(res.is_err());
+        if let Err(err) = res {
+            assert_eq!(
+                format!("{}", err),
+                "Parquet error: Dictionary key 2 is out of bounds of the 2 dictionary values"
+            );
+        }
+    }
+
     #[test]
     fn test_column_writer_small_write_batch_size() {
         for i in &[1usize, 2, 5, 10, 11, 1023] {
@@ -1801,6 +2137,22 @@ mod tests {
         def_levels: Option<&[i16]>,
         rep_levels: Option<&[i16]>,
     ) {
+        column_roundtrip_with(file_name, props, values, def_levels, rep_levels, |w| {
+            w.write_batch(values, def_levels, rep_levels)
+        })
+    }
+
+    /// Performs write-read roundtrip of `values`, written with `write`.
+    fn column_roundtrip_with<'a, T: DataType, F>(
+        file_name: &'a str,
+        props: WriterProperties,
+        values: &[T::T],
+        def_levels: Option<&[i16]>,
+        rep_levels: Option<&[i16]>,
+        write: F,
+    ) where
+        F: FnOnce(&mut ColumnWriterImpl<T>) -> Result<usize>,
+    {
         let file = get_temp_file(file_name, &[]);
         let sink = FileSink::new(&file);
         let page_writer = Box::new(SerializedPageWriter::new(sink));
@@ -1830,7 +2182,7 @@ mod tests {
             Arc::new(props),
         );
 
-        let values_written = writer.write_batch(values, def_levels, rep_levels).unwrap();
+        let values_written = write(&mut writer).unwrap();
         assert_eq!(values_written, values.len());
         let (bytes_written, rows_written, column_metadata) = writer.close().unwrap();
 
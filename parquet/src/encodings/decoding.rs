@@ -94,6 +94,28 @@ pub trait Decoder<T: DataType> {
         Ok(num_values)
     }
 
+    /// Consumes at most `num_values` values from this decoder without writing them
+    /// anywhere.
+    ///
+    /// Returns the actual number of values skipped, which should be equal to
+    /// `num_values` unless the remaining number of values is less than `num_values`.
+    ///
+    /// The default implementation decodes the values into a scratch buffer and drops
+    /// them, decoders that can move past values more cheaply should override it.
+    fn skip(&mut self, num_values: usize) -> Result<usize> {
+        let mut buffer = vec![T::T::default(); cmp::min(num_values, SKIP_BATCH_SIZE)];
+        let mut values_skipped = 0;
+        while values_skipped < num_values {
+            let batch_size = cmp::min(num_values - values_skipped, buffer.len());
+            let values_read = self.get(&mut buffer[..batch_size])?;
+            if values_read == 0 {
+                break;
+            }
+            values_skipped += values_read;
+        }
+        Ok(values_skipped)
+    }
+
     /// Returns the number of values left in this decoder stream.
     fn values_left(&self) -> usize;
 
@@ -101,6 +123,9 @@ pub trait Decoder<T: DataType> {
     fn encoding(&self) -> Encoding;
 }
 
+/// Maximum number of values decoded at a time by the default [`Decoder::skip`].
+const SKIP_BATCH_SIZE: usize = 1024;
+
 /// Gets a decoder for the column descriptor `descr` and encoding type `encoding`.
 ///
 /// NOTE: the primitive type in `descr` MUST match the data type `T`, otherwise
@@ -196,6 +221,11 @@ impl<T: DataType> Decoder<T> for PlainDecoder<T> {
     fn get(&mut self, buffer: &mut [T::T]) -> Result<usize> {
         T::T::decode(buffer, &mut self.inner)
     }
+
+    #[inline]
+    fn skip(&mut self, num_values: usize) -> Result<usize> {
+        T::T::skip(&mut self.inner, num_values)
+    }
 }
 
 // ----------------------------------------------------------------------
@@ -260,6 +290,13 @@ impl<T: DataType> Decoder<T> for DictDecoder<T> {
         rle.get_batch_with_dict(&self.dictionary[..], buffer, num_values)
     }
 
+    fn skip(&mut self, num_values: usize) -> Result<usize> {
+        assert!(self.rle_decoder.is_some());
+
+        let rle = self.rle_decoder.as_mut().unwrap();
+        rle.skip(cmp::min(num_values, self.num_values))
+    }
+
     /// Number of values left in this decoder stream
     fn values_left(&self) -> usize {
         self.num_values
@@ -324,6 +361,14 @@ impl<T: DataType> Decoder<T> for RleValueDecoder<T> {
         self.values_left -= values_read;
         Ok(values_read)
     }
+
+    #[inline]
+    fn skip(&mut self, num_values: usize) -> Result<usize> {
+        let num_values = cmp::min(num_values, self.values_left);
+        let values_skipped = self.decoder.skip(num_values)?;
+        self.values_left -= values_skipped;
+        Ok(values_skipped)
+    }
 }
 
 // ----------------------------------------------------------------------
@@ -984,6 +1029,72 @@ mod tests {
         );
     }
 
+    #[test]
+    fn test_plain_skip_int32() {
+        let data = vec![42, 18, 52, 7];
+        let data_bytes = Int32Type::to_byte_array(&data[..]);
+        test_plain_skip::<Int32Type>(ByteBufferPtr::new(data_bytes), 4, 2, -1, &data);
+    }
+
+    #[test]
+    fn test_plain_skip_bool() {
+        let data = vec![
+            false, true, false, false, true, false, true, true, false, true,
+        ];
+        let data_bytes = BoolType::to_byte_array(&data[..]);
+        test_plain_skip::<BoolType>(ByteBufferPtr::new(data_bytes), 10, 7, -1, &data);
+    }
+
+    #[test]
+    fn test_plain_skip_byte_array() {
+        let mut data = vec![ByteArray::new(); 3];
+        data[0].set_data(ByteBufferPtr::new(String::from("hello").into_bytes()));
+        data[1].set_data(ByteBufferPtr::new(String::from("parquet").into_bytes()));
+        data[2].set_data(ByteBufferPtr::new(String::from("arrow").into_bytes()));
+        let data_bytes = ByteArrayType::to_byte_array(&data[..]);
+        test_plain_skip::<ByteArrayType>(
+            ByteBufferPtr::new(data_bytes),
+            3,
+            2,
+            -1,
+            &data,
+        );
+    }
+
+    #[test]
+    fn test_plain_skip_fixed_len_byte_array() {
+        let mut data = vec![FixedLenByteArray::default(); 3];
+        data[0].set_data(ByteBufferPtr::new(String::from("bird").into_bytes()));
+        data[1].set_data(ByteBufferPtr::new(String::from("come").into_bytes()));
+        data[2].set_data(ByteBufferPtr::new(String::from("flow").into_bytes()));
+        let data_bytes = FixedLenByteArrayType::to_byte_array(&data[..]);
+        test_plain_skip::<FixedLenByteArrayType>(
+            ByteBufferPtr::new(data_bytes),
+            3,
+            1,
+            4,
+            &data,
+        );
+    }
+
+    fn test_plain_skip<T: DataType>(
+        data: ByteBufferPtr,
+        num_values: usize,
+        skip: usize,
+        type_length: i32,
+        expected: &[T::T],
+    ) {
+        let mut decoder: PlainDecoder<T> = PlainDecoder::new(type_length);
+        decoder.set_data(data, num_values).unwrap();
+        assert_eq!(decoder.skip(skip).unwrap(), skip);
+        assert_eq!(decoder.values_left(), num_values - skip);
+
+        let mut buffer = vec![T::T::default(); num_values - skip];
+        assert_eq!(decoder.get(&mut buffer).unwrap(), num_values - skip);
+        assert_eq!(&buffer[..], &expected[skip..]);
+        assert_eq!(decoder.skip(1).unwrap(), 0);
+    }
+
     fn test_plain_decode<T: DataType>(
         data: ByteBufferPtr,
         num_values: usize,
@@ -1239,6 +1350,31 @@ mod tests {
         test_encode_decode::<ByteArrayType>(data, Encoding::DELTA_BYTE_ARRAY);
     }
 
+    #[test]
+    fn test_delta_bit_packed_int32_skip() {
+        let data = Int32Type::gen_vec(-1, 300);
+        let col_descr = create_test_col_desc_ptr(-1, Type::INT32);
+        let mut encoder = get_encoder::<Int32Type>(
+            col_descr.clone(),
+            Encoding::DELTA_BINARY_PACKED,
+            Arc::new(MemTracker::new()),
+        )
+        .expect("get encoder");
+        encoder.put(&data[..]).expect("ok to encode");
+        let bytes = encoder.flush_buffer().expect("ok to flush buffer");
+
+        let mut decoder =
+            get_decoder::<Int32Type>(col_descr, Encoding::DELTA_BINARY_PACKED)
+                .expect("get decoder");
+        decoder.set_data(bytes, data.len()).expect("ok to set data");
+
+        let mut buffer = vec![0; 100];
+        assert_eq!(decoder.skip(150).unwrap(), 150);
+        assert_eq!(decoder.get(&mut buffer).unwrap(), 100);
+        assert_eq!(&buffer[..], &data[150..250]);
+        assert_eq!(decoder.skip(100).unwrap(), 50);
+    }
+
     // Input data represents vector of data slices to write (test multiple `put()` calls)
     // For example,
     //   vec![vec![1, 2, 3]] invokes `put()` once and writes {1, 2, 3}
@@ -269,9 +269,43 @@ impl<T: DataType> DictEncoder<T> {
         Ok(ByteBufferPtr::new(encoder.consume()?))
     }
 
+    /// Encodes the values `dictionary[key]` of `keys`.
+    ///
+    /// `indices` caches the index in this encoder of the values of `dictionary` met so
+    /// far, so that each value of `dictionary` is only hashed once, however many keys
+    /// refer to it. It must be empty or have been filled by previous calls with the
+    /// same `dictionary`.
+    pub fn put_keys(
+        &mut self,
+        dictionary: &[T::T],
+        keys: &[usize],
+        indices: &mut Vec<i32>,
+    ) -> Result<()> {
+        if indices.len() < dictionary.len() {
+            indices.resize(dictionary.len(), HASH_SLOT_EMPTY);
+        }
+        for &key in keys {
+            let mut index = indices[key];
+            if index == HASH_SLOT_EMPTY {
+                index = self.index_of(&dictionary[key]);
+                indices[key] = index;
+            }
+            self.buffered_indices.push(index);
+        }
+        Ok(())
+    }
+
     #[inline]
     #[allow(clippy::unnecessary_wraps)]
     fn put_one(&mut self, value: &T::T) -> Result<()> {
+        let index = self.index_of(value);
+        self.buffered_indices.push(index);
+        Ok(())
+    }
+
+    /// Returns the index of `value` in the dictionary, inserting it if needed.
+    #[inline]
+    fn index_of(&mut self, value: &T::T) -> i32 {
         let mut j = (hash_util::hash(value, 0) & self.mod_bitmask) as usize;
         let mut index = self.hash_slots[j];
 
@@ -286,9 +320,7 @@ impl<T: DataType> DictEncoder<T> {
         if index == HASH_SLOT_EMPTY {
             index = self.insert_fresh_slot(j, value.clone());
         }
-
-        self.buffered_indices.push(index);
-        Ok(())
+        index
     }
 
     #[inline(never)]
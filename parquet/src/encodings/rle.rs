@@ -480,6 +480,39 @@ impl RleDecoder {
         Ok(values_read)
     }
 
+    /// Skips at most `num_values` values without decoding them.
+    ///
+    /// Returns the number of values skipped, which is less than `num_values` if the
+    /// end of the data is reached.
+    pub fn skip(&mut self, num_values: usize) -> Result<usize> {
+        let mut values_skipped = 0;
+        while values_skipped < num_values {
+            if self.rle_left > 0 {
+                let n = cmp::min(num_values - values_skipped, self.rle_left as usize);
+                self.rle_left -= n as u32;
+                values_skipped += n;
+            } else if self.bit_packed_left > 0 {
+                let n =
+                    cmp::min(num_values - values_skipped, self.bit_packed_left as usize);
+                let bit_reader =
+                    self.bit_reader.as_mut().expect("bit_reader should be set");
+
+                let n = bit_reader.skip(n, self.bit_width as usize);
+                if n == 0 {
+                    // The last bit-packed run may be padded beyond the end of the data
+                    self.bit_packed_left = 0;
+                    break;
+                }
+                self.bit_packed_left -= n as u32;
+                values_skipped += n;
+            } else if !self.reload() {
+                break;
+            }
+        }
+
+        Ok(values_skipped)
+    }
+
     #[inline]
     fn reload(&mut self) -> bool {
         let bit_reader = self.bit_reader.as_mut().expect("bit_reader should be set");
@@ -524,6 +557,39 @@ mod tests {
         assert_eq!(buffer, expected);
     }
 
+    #[test]
+    fn test_rle_skip() {
+        // 64 values: 0-7, 48 3s and 0-7 again, which are encoded as a mix of RLE and
+        // bit-packed runs with bit width 3
+        let mut encoder = RleEncoder::new(3, 256);
+        let mut values: Vec<i32> = (0..8).collect();
+        values.extend(vec![3; 48]);
+        values.extend(0..8);
+        for value in &values {
+            encoder.put(*value as u64).unwrap();
+        }
+        let data = ByteBufferPtr::new(encoder.consume().unwrap());
+
+        let mut decoder: RleDecoder = RleDecoder::new(3);
+        decoder.set_data(data);
+        let mut buffer = vec![0; 4];
+
+        assert_eq!(decoder.skip(3).unwrap(), 3);
+        assert_eq!(decoder.get_batch::<i32>(&mut buffer[..2]).unwrap(), 2);
+        assert_eq!(&buffer[..2], &values[3..5]);
+
+        assert_eq!(decoder.skip(48).unwrap(), 48);
+        assert_eq!(decoder.get_batch::<i32>(&mut buffer).unwrap(), 4);
+        assert_eq!(&buffer[..], &values[53..57]);
+
+        assert_eq!(decoder.skip(3).unwrap(), 3);
+        assert_eq!(decoder.get_batch::<i32>(&mut buffer[..2]).unwrap(), 2);
+        assert_eq!(&buffer[..2], &values[60..62]);
+
+        assert_eq!(decoder.skip(100).unwrap(), 2);
+        assert_eq!(decoder.skip(1).unwrap(), 0);
+    }
+
     #[test]
     fn test_rle_consume_flush_buffer() {
         let data = vec![1, 1, 1, 2, 2, 3, 3, 3];
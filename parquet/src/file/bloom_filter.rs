@@ -0,0 +1,345 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+//! Contains the split block bloom filter (SBBF) of a column chunk, as described in the
+//! [Parquet specification](https://github.com/apache/parquet-format/blob/master/BloomFilter.md).
+//!
+//! A bloom filter tells whether a column chunk definitely does not contain a value,
+//! which lets equality lookups skip row groups that statistics cannot rule out, e.g.
+//! on columns of random identifiers.
+//!
+//! A bloom filter is written as a Thrift `BloomFilterHeader` followed by its bitset,
+//! right after the column chunks of its row group.
+//!
+//! # Limitations
+//!
+//! The `bloom_filter_offset` field of the column metadata is not part of the Thrift
+//! definitions of the `parquet-format` version this crate is built with. The offset is
+//! recorded in the key-value metadata of the column chunk under
+//! [`BLOOM_FILTER_OFFSET_KEY`] instead. Other Parquet implementations ignore this key,
+//! so they do not find the bloom filters written by this crate. This crate does not
+//! find the bloom filters written by them either.
+
+use std::io::{Cursor, Read, Write};
+
+use byteorder::{ByteOrder, LittleEndian};
+use thrift::protocol::{
+    TCompactInputProtocol, TCompactOutputProtocol, TFieldIdentifier, TInputProtocol,
+    TOutputProtocol, TStructIdentifier, TType,
+};
+
+use crate::data_type::AsBytes;
+use crate::errors::{ParquetError, Result};
+use crate::file::reader::ChunkReader;
+use crate::util::hash_util::xxhash64;
+
+/// The key of the column chunk key-value metadata holding the offset of the bloom
+/// filter of the column chunk.
+pub const BLOOM_FILTER_OFFSET_KEY: &str = "bloom_filter_offset";
+
+/// The salt of the hash functions setting the bits of a block.
+const SALT: [u32; 8] = [
+    0x47b6137b, 0x44974d91, 0x8824ad5b, 0xa2b7289d, 0x705495c7, 0x2df1424b,
+    0x9efc4947, 0x5c6bfb31,
+];
+
+/// The size of a block, which holds 8 words of 32 bits.
+const BLOCK_SIZE: usize = 32;
+
+/// The bounds of the size of a bitset, in bytes.
+const MIN_NUM_BYTES: usize = BLOCK_SIZE;
+const MAX_NUM_BYTES: usize = 128 * 1024 * 1024;
+
+/// An upper bound of the size of a serialized bloom filter header, which is read
+/// before knowing the size of the bitset.
+const HEADER_SIZE_ESTIMATE: usize = 20;
+
+type Block = [u32; 8];
+
+/// Returns the bit of each word of a block that `hash` sets.
+#[inline]
+fn block_mask(hash: u32) -> Block {
+    let mut mask = [0; 8];
+    for (bit, salt) in mask.iter_mut().zip(SALT.iter()) {
+        *bit = 1 << (hash.wrapping_mul(*salt) >> 27);
+    }
+    mask
+}
+
+/// A split block bloom filter.
+#[derive(Debug, Clone, PartialEq)]
+pub struct Sbbf {
+    blocks: Vec<Block>,
+}
+
+impl Sbbf {
+    /// Creates an empty bloom filter sized for `ndv` distinct values to be inserted
+    /// with a false positive probability of `fpp`.
+    pub fn new_with_ndv_fpp(ndv: u64, fpp: f64) -> Self {
+        assert!(
+            fpp > 0.0 && fpp < 1.0,
+            "False positive probability must be between 0 and 1 exclusive"
+        );
+        let num_bits = -8.0 * ndv as f64 / (1.0 - fpp.powf(1.0 / 8.0)).ln();
+        Self::new_with_num_bytes((num_bits / 8.0).ceil() as usize)
+    }
+
+    /// Creates an empty bloom filter of `num_bytes` bytes, rounded up to a power of two
+    /// between 32 bytes and 128 MiB.
+    pub fn new_with_num_bytes(num_bytes: usize) -> Self {
+        let num_bytes = num_bytes
+            .max(MIN_NUM_BYTES)
+            .min(MAX_NUM_BYTES)
+            .next_power_of_two();
+        Self {
+            blocks: vec![[0; 8]; num_bytes / BLOCK_SIZE],
+        }
+    }
+
+    /// Returns the size of the bitset of this bloom filter, in bytes.
+    pub fn num_bytes(&self) -> usize {
+        self.blocks.len() * BLOCK_SIZE
+    }
+
+    /// Returns the index of the block that `hash` is inserted into.
+    #[inline]
+    fn block_index(&self, hash: u64) -> usize {
+        (((hash >> 32) * self.blocks.len() as u64) >> 32) as usize
+    }
+
+    /// Inserts a value, given as the plain encoding of its physical type.
+    pub fn insert<T: AsBytes + ?Sized>(&mut self, value: &T) {
+        self.insert_hash(xxhash64(value.as_bytes(), 0))
+    }
+
+    /// Inserts the xxHash of a value.
+    pub fn insert_hash(&mut self, hash: u64) {
+        let index = self.block_index(hash);
+        let block = &mut self.blocks[index];
+        for (word, bit) in block.iter_mut().zip(block_mask(hash as u32).iter()) {
+            *word |= *bit;
+        }
+    }
+
+    /// Returns `false` if the value, given as the plain encoding of its physical type,
+    /// has definitely not been inserted, and `true` if it may have been.
+    pub fn check<T: AsBytes + ?Sized>(&self, value: &T) -> bool {
+        self.check_hash(xxhash64(value.as_bytes(), 0))
+    }
+
+    /// Returns `false` if the value of xxHash `hash` has definitely not been
+    /// inserted, and `true` if it may have been.
+    pub fn check_hash(&self, hash: u64) -> bool {
+        let block = &self.blocks[self.block_index(hash)];
+        block
+            .iter()
+            .zip(block_mask(hash as u32).iter())
+            .all(|(word, bit)| word & bit != 0)
+    }
+
+    /// Writes the header of this bloom filter followed by its bitset.
+    pub(crate) fn write<W: Write>(&self, mut writer: W) -> Result<()> {
+        {
+            let mut protocol = TCompactOutputProtocol::new(&mut writer);
+            protocol.write_struct_begin(&TStructIdentifier::new("BloomFilterHeader"))?;
+            protocol.write_field_begin(&TFieldIdentifier::new(
+                "numBytes",
+                TType::I32,
+                1,
+            ))?;
+            protocol.write_i32(self.num_bytes() as i32)?;
+            protocol.write_field_end()?;
+            // The algorithm, hash and compression are unions, with the block
+            // algorithm, xxHash and no compression as their first, empty, variant
+            write_empty_union_variant(&mut protocol, "algorithm", 2)?;
+            write_empty_union_variant(&mut protocol, "hash", 3)?;
+            write_empty_union_variant(&mut protocol, "compression", 4)?;
+            protocol.write_field_stop()?;
+            protocol.write_struct_end()?;
+            protocol.flush()?;
+        }
+
+        let mut bitset = vec![0; self.num_bytes()];
+        for (block, bytes) in self.blocks.iter().zip(bitset.chunks_mut(BLOCK_SIZE)) {
+            LittleEndian::write_u32_into(block, bytes);
+        }
+        writer.write_all(&bitset)?;
+        Ok(())
+    }
+
+    /// Reads the bloom filter written at `offset` of `reader`.
+    pub fn read_from_chunk<R: ChunkReader>(reader: &R, offset: u64) -> Result<Self> {
+        let header_len = reader
+            .len()
+            .saturating_sub(offset)
+            .min(HEADER_SIZE_ESTIMATE as u64);
+        let mut header = vec![0; header_len as usize];
+        reader
+            .get_read(offset, header.len())?
+            .read_exact(&mut header)?;
+
+        let mut cursor = Cursor::new(header);
+        let num_bytes = {
+            let mut protocol = TCompactInputProtocol::new(&mut cursor);
+            read_header(&mut protocol)?
+        };
+        if num_bytes < MIN_NUM_BYTES
+            || num_bytes > MAX_NUM_BYTES
+            || !num_bytes.is_power_of_two()
+        {
+            return Err(general_err!("Invalid bloom filter size {}", num_bytes));
+        }
+
+        let mut bitset = vec![0; num_bytes];
+        reader
+            .get_read(offset + cursor.position(), num_bytes)?
+            .read_exact(&mut bitset)?;
+        let blocks = bitset
+            .chunks(BLOCK_SIZE)
+            .map(|bytes| {
+                let mut block = [0; 8];
+                LittleEndian::read_u32_into(bytes, &mut block);
+                block
+            })
+            .collect();
+        Ok(Self { blocks })
+    }
+}
+
+/// Writes the field `id` of a union, set to its first variant, an empty struct.
+fn write_empty_union_variant(
+    protocol: &mut dyn TOutputProtocol,
+    name: &str,
+    id: i16,
+) -> Result<()> {
+    protocol.write_field_begin(&TFieldIdentifier::new(name, TType::Struct, id))?;
+    protocol.write_struct_begin(&TStructIdentifier::new(name))?;
+    protocol.write_field_begin(&TFieldIdentifier::new(name, TType::Struct, 1))?;
+    protocol.write_struct_begin(&TStructIdentifier::new(name))?;
+    protocol.write_field_stop()?;
+    protocol.write_struct_end()?;
+    protocol.write_field_end()?;
+    protocol.write_field_stop()?;
+    protocol.write_struct_end()?;
+    protocol.write_field_end()?;
+    Ok(())
+}
+
+/// Reads a bloom filter header, returning the size of its bitset.
+///
+/// Returns an error if the bloom filter uses another algorithm, hash or compression
+/// than the ones of the specification.
+fn read_header(protocol: &mut dyn TInputProtocol) -> Result<usize> {
+    let mut num_bytes = None;
+    protocol.read_struct_begin()?;
+    loop {
+        let field = protocol.read_field_begin()?;
+        if field.field_type == TType::Stop {
+            break;
+        }
+        match field.id {
+            Some(1) => num_bytes = Some(protocol.read_i32()?),
+            Some(2) => read_empty_union_variant(protocol, "algorithm")?,
+            Some(3) => read_empty_union_variant(protocol, "hash")?,
+            Some(4) => read_empty_union_variant(protocol, "compression")?,
+            _ => protocol.skip(field.field_type)?,
+        }
+        protocol.read_field_end()?;
+    }
+    protocol.read_struct_end()?;
+
+    let num_bytes =
+        num_bytes.ok_or_else(|| general_err!("Bloom filter header has no size"))?;
+    Ok(num_bytes.max(0) as usize)
+}
+
+/// Reads a union, checking that it is set to its first variant.
+fn read_empty_union_variant(protocol: &mut dyn TInputProtocol, name: &str) -> Result<()> {
+    protocol.read_struct_begin()?;
+    let field = protocol.read_field_begin()?;
+    if field.id != Some(1) {
+        return Err(nyi_err!(
+            "Bloom filter {} {:?} is not supported",
+            name,
+            field.id
+        ));
+    }
+    protocol.skip(field.field_type)?;
+    protocol.read_field_end()?;
+    if protocol.read_field_begin()?.field_type != TType::Stop {
+        return Err(general_err!("Bloom filter {} has several variants", name));
+    }
+    protocol.read_struct_end()?;
+    Ok(())
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    use crate::data_type::ByteArray;
+    use crate::util::test_common::get_temp_file;
+
+    #[test]
+    fn test_sbbf_size() {
+        assert_eq!(Sbbf::new_with_num_bytes(0).num_bytes(), 32);
+        assert_eq!(Sbbf::new_with_num_bytes(33).num_bytes(), 64);
+        assert_eq!(Sbbf::new_with_num_bytes(usize::MAX / 2).num_bytes(), MAX_NUM_BYTES);
+        assert_eq!(Sbbf::new_with_ndv_fpp(1000, 0.01).num_bytes(), 2048);
+    }
+
+    #[test]
+    fn test_sbbf_insert_check() {
+        let mut sbbf = Sbbf::new_with_ndv_fpp(1000, 0.01);
+        for i in 0..1000i64 {
+            sbbf.insert(&i);
+        }
+        for i in 0..1000i64 {
+            assert!(sbbf.check(&i));
+        }
+
+        let false_positives = (1000..11000i64).filter(|i| sbbf.check(i)).count();
+        assert!(false_positives < 200, "{} false positives", false_positives);
+    }
+
+    #[test]
+    fn test_sbbf_byte_array() {
+        let mut sbbf = Sbbf::new_with_num_bytes(1024);
+        sbbf.insert(&ByteArray::from("parquet"));
+        assert!(sbbf.check(&ByteArray::from("parquet")));
+        assert!(sbbf.check("parquet".as_bytes()));
+        assert!(!sbbf.check("arrow".as_bytes()));
+    }
+
+    #[test]
+    fn test_sbbf_write_read() {
+        let mut sbbf = Sbbf::new_with_num_bytes(256);
+        for i in 0..100i32 {
+            sbbf.insert(&i);
+        }
+
+        let mut bytes = vec![1, 2, 3];
+        sbbf.write(&mut bytes).unwrap();
+        assert!(bytes.len() > 3 + sbbf.num_bytes());
+        // The bitset is followed by a footer in a file
+        bytes.extend_from_slice(&[0; 8]);
+
+        let file = get_temp_file("test_sbbf_write_read", &bytes);
+        let read = Sbbf::read_from_chunk(&file, 3).unwrap();
+        assert_eq!(read, sbbf);
+    }
+}
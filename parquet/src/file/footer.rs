@@ -15,11 +15,7 @@
 // specific language governing permissions and limitations
 // under the License.
 
-use std::{
-    cmp::min,
-    io::{Cursor, Read, Seek, SeekFrom},
-    sync::Arc,
-};
+use std::{cmp::min, io::Read, sync::Arc};
 
 use byteorder::{ByteOrder, LittleEndian};
 use parquet_format::{ColumnOrder as TColumnOrder, FileMetaData as TFileMetaData};
@@ -29,8 +25,8 @@ use crate::basic::ColumnOrder;
 
 use crate::errors::{ParquetError, Result};
 use crate::file::{
-    metadata::*, reader::ChunkReader, DEFAULT_FOOTER_READ_SIZE, FOOTER_SIZE,
-    PARQUET_MAGIC,
+    lazy_metadata::LazyParquetMetaData, metadata::*, reader::ChunkReader,
+    DEFAULT_FOOTER_READ_SIZE, FOOTER_SIZE, PARQUET_MAGIC,
 };
 
 use crate::schema::types::{self, SchemaDescriptor};
@@ -44,6 +40,20 @@ use crate::schema::types::{self, SchemaDescriptor};
 /// The reader first reads DEFAULT_FOOTER_SIZE bytes from the end of the file.
 /// If it is not enough according to the length indicated in the footer, it reads more bytes.
 pub fn parse_metadata<R: ChunkReader>(chunk_reader: &R) -> Result<ParquetMetaData> {
+    let metadata_buf = read_metadata_bytes(chunk_reader)?;
+    read_metadata(metadata_buf.as_slice())
+}
+
+/// Reads the file metadata like [`parse_metadata`], but only locates the row groups
+/// and column chunks, which are decoded when accessed, see [`LazyParquetMetaData`].
+pub fn parse_metadata_lazy<R: ChunkReader>(
+    chunk_reader: &R,
+) -> Result<LazyParquetMetaData> {
+    LazyParquetMetaData::decode(read_metadata_bytes(chunk_reader)?)
+}
+
+/// Reads the bytes of the Thrift encoded file metadata, see [`parse_metadata`].
+fn read_metadata_bytes<R: ChunkReader>(chunk_reader: &R) -> Result<Vec<u8>> {
     // check file is large enough to hold footer
     let file_size = chunk_reader.len();
     if file_size < (FOOTER_SIZE as u64) {
@@ -59,44 +69,63 @@ pub fn parse_metadata<R: ChunkReader>(chunk_reader: &R) -> Result<ParquetMetaDat
     let mut default_len_end_buf = vec![0; default_end_len];
     default_end_reader.read_exact(&mut default_len_end_buf)?;
 
+    let mut footer = [0; FOOTER_SIZE];
+    footer.copy_from_slice(&default_len_end_buf[default_end_len - FOOTER_SIZE..]);
+    let metadata_len = decode_footer(&footer)?;
+    let footer_metadata_len = FOOTER_SIZE + metadata_len;
+
+    if footer_metadata_len > file_size as usize {
+        return Err(general_err!(
+            "Invalid Parquet file. Metadata start is less than zero ({})",
+            file_size as i64 - footer_metadata_len as i64
+        ));
+    }
+    let default_end_metadata = &default_len_end_buf[..default_end_len - FOOTER_SIZE];
+    if footer_metadata_len <= default_end_len {
+        // the whole metadata is in the bytes we already read
+        Ok(default_end_metadata[default_end_len - footer_metadata_len..].to_vec())
+    } else {
+        // the end of file read by default is not long enough, read missing bytes
+        let missing_len = footer_metadata_len - default_end_len;
+        let mut metadata_buf = vec![0; missing_len];
+        chunk_reader
+            .get_read(file_size - footer_metadata_len as u64, missing_len)?
+            .read_exact(&mut metadata_buf)?;
+        metadata_buf.extend_from_slice(default_end_metadata);
+        Ok(metadata_buf)
+    }
+}
+
+/// Decodes the Parquet footer, i.e. the last [`FOOTER_SIZE`] bytes of a Parquet file,
+/// and returns the length of the file metadata stored right before it.
+///
+/// This allows readers that fetch byte ranges themselves, e.g. asynchronously, to
+/// find out which bytes hold the file metadata.
+pub fn decode_footer(slice: &[u8; FOOTER_SIZE]) -> Result<usize> {
     // check this is indeed a parquet file
-    if default_len_end_buf[default_end_len - 4..] != PARQUET_MAGIC {
+    if slice[4..] != PARQUET_MAGIC {
         return Err(general_err!("Invalid Parquet file. Corrupt footer"));
     }
 
     // get the metadata length from the footer
-    let metadata_len = LittleEndian::read_i32(
-        &default_len_end_buf[default_end_len - 8..default_end_len - 4],
-    ) as i64;
+    let metadata_len = LittleEndian::read_i32(&slice[..4]);
     if metadata_len < 0 {
         return Err(general_err!(
             "Invalid Parquet file. Metadata length is less than zero ({})",
             metadata_len
         ));
     }
-    let footer_metadata_len = FOOTER_SIZE + metadata_len as usize;
+    Ok(metadata_len as usize)
+}
 
-    // build up the reader covering the entire metadata
-    let mut default_end_cursor = Cursor::new(default_len_end_buf);
-    let metadata_read: Box<dyn Read>;
-    if footer_metadata_len > file_size as usize {
-        return Err(general_err!(
-            "Invalid Parquet file. Metadata start is less than zero ({})",
-            file_size as i64 - footer_metadata_len as i64
-        ));
-    } else if footer_metadata_len < DEFAULT_FOOTER_READ_SIZE {
-        // the whole metadata is in the bytes we already read
-        default_end_cursor.seek(SeekFrom::End(-(footer_metadata_len as i64)))?;
-        metadata_read = Box::new(default_end_cursor);
-    } else {
-        // the end of file read by default is not long enough, read missing bytes
-        let complementary_end_read = chunk_reader.get_read(
-            file_size - footer_metadata_len as u64,
-            FOOTER_SIZE + metadata_len as usize - default_end_len,
-        )?;
-        metadata_read = Box::new(complementary_end_read.chain(default_end_cursor));
-    }
+/// Decodes the file metadata from `metadata_read`, which holds exactly the bytes
+/// whose length is returned by [`decode_footer`].
+pub fn decode_metadata(metadata_read: &[u8]) -> Result<ParquetMetaData> {
+    read_metadata(metadata_read)
+}
 
+/// Reads the Thrift encoded file metadata from `metadata_read`.
+fn read_metadata<T: Read>(metadata_read: T) -> Result<ParquetMetaData> {
     // TODO: row group filtering
     let mut prot = TCompactInputProtocol::new(metadata_read);
     let t_file_metadata: TFileMetaData = TFileMetaData::read_from_in_protocol(&mut prot)
@@ -122,7 +151,7 @@ pub fn parse_metadata<R: ChunkReader>(chunk_reader: &R) -> Result<ParquetMetaDat
 
 /// Parses column orders from Thrift definition.
 /// If no column orders are defined, returns `None`.
-fn parse_column_orders(
+pub(crate) fn parse_column_orders(
     t_column_orders: Option<Vec<TColumnOrder>>,
     schema_descr: &SchemaDescriptor,
 ) -> Option<Vec<ColumnOrder>> {
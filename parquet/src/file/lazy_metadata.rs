@@ -0,0 +1,605 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+//! Contains [`LazyParquetMetaData`], file metadata whose row groups and column chunks
+//! are only decoded from the Thrift encoded footer when they are accessed.
+//!
+//! Decoding the metadata of all column chunks of a wide file dominates opening it,
+//! while a query often reads a few columns of a few row groups. The lazy metadata
+//! decodes the schema and the other file level fields, and only walks the encoded
+//! row groups to record where each column chunk is, without decoding them.
+//!
+//! # Example
+//!
+//! ```rust,no_run
+//! use std::fs::File;
+//!
+//! use parquet::file::footer::parse_metadata_lazy;
+//! use parquet::file::reader::FileReader;
+//! use parquet::file::serialized_reader::SerializedFileReader;
+//!
+//! let file = File::open("data.parquet").unwrap();
+//! let metadata = parse_metadata_lazy(&file).unwrap();
+//!
+//! // Statistics of the first column of the first row group
+//! let column = metadata.column_chunk(0, 0).unwrap();
+//! println!("{:?}", column.statistics());
+//!
+//! // Read the first row group only
+//! let row_groups = metadata.decode_row_groups(&[0]).unwrap();
+//! let reader = SerializedFileReader::new_with_metadata(file, row_groups);
+//! println!("{} rows", reader.get_row_iter(None).unwrap().count());
+//! ```
+
+use std::ops::Range;
+use std::sync::Arc;
+
+use parquet_format::{ColumnChunk, ColumnOrder as TColumnOrder, KeyValue, SchemaElement};
+use thrift::protocol::{TCompactInputProtocol, TInputProtocol};
+
+use crate::errors::{ParquetError, Result};
+use crate::file::footer::parse_column_orders;
+use crate::file::metadata::{
+    ColumnChunkMetaData, FileMetaData, ParquetMetaData, RowGroupMetaData,
+};
+use crate::schema::types::{self, SchemaDescriptor};
+
+/// File metadata whose row groups and column chunks are decoded on access.
+///
+/// The file level fields, including the schema, are decoded up front. The encoded
+/// footer is kept in memory to decode row groups and column chunks from.
+#[derive(Debug, Clone)]
+pub struct LazyParquetMetaData {
+    file_metadata: FileMetaData,
+    buffer: Vec<u8>,
+    row_groups: Vec<RowGroupLocation>,
+}
+
+/// Location of the column chunks of a row group in the encoded footer.
+#[derive(Debug, Clone)]
+struct RowGroupLocation {
+    columns: Vec<Range<usize>>,
+    num_rows: i64,
+    total_byte_size: i64,
+}
+
+impl LazyParquetMetaData {
+    /// Decodes the file level fields of the Thrift encoded file metadata `buffer`,
+    /// which holds exactly the bytes whose length is returned by
+    /// [`decode_footer`](crate::file::footer::decode_footer), and locates its row
+    /// groups and column chunks.
+    pub fn decode(buffer: Vec<u8>) -> Result<Self> {
+        let mut cursor = CompactCursor::new(&buffer);
+        let mut version = None;
+        let mut schema = None;
+        let mut num_rows = None;
+        let mut row_groups = None;
+        let mut key_value_metadata = None;
+        let mut created_by = None;
+        let mut column_orders = None;
+
+        let mut last_id = 0;
+        while let Some((id, field_type)) = cursor.read_field_header(last_id)? {
+            match (id, field_type) {
+                (1, COMPACT_I32) => version = Some(cursor.read_zigzag()? as i32),
+                (2, COMPACT_LIST) => {
+                    schema =
+                        Some(cursor.decode_list(SchemaElement::read_from_in_protocol)?)
+                }
+                (3, COMPACT_I64) => num_rows = Some(cursor.read_zigzag()?),
+                (4, COMPACT_LIST) => {
+                    let (size, _) = cursor.read_list_header()?;
+                    let mut locations = Vec::new();
+                    for _ in 0..size {
+                        locations.push(RowGroupLocation::locate(&mut cursor)?);
+                    }
+                    row_groups = Some(locations);
+                }
+                (5, COMPACT_LIST) => {
+                    key_value_metadata =
+                        Some(cursor.decode_list(KeyValue::read_from_in_protocol)?)
+                }
+                (6, COMPACT_BINARY) => {
+                    let bytes = cursor.read_binary()?;
+                    created_by = Some(std::str::from_utf8(bytes)?.to_owned())
+                }
+                (7, COMPACT_LIST) => {
+                    column_orders =
+                        Some(cursor.decode_list(TColumnOrder::read_from_in_protocol)?)
+                }
+                _ => cursor.skip(field_type, true, MAX_NESTING_DEPTH)?,
+            }
+            last_id = id;
+        }
+
+        let missing = |field: &str| {
+            general_err!(
+                "Could not parse metadata: required field {} is missing",
+                field
+            )
+        };
+        let schema = types::from_thrift(&schema.ok_or_else(|| missing("schema"))?)?;
+        let schema_descr = Arc::new(SchemaDescriptor::new(schema));
+        let row_groups = row_groups.ok_or_else(|| missing("row_groups"))?;
+        if let Some(row_group) = row_groups
+            .iter()
+            .find(|row_group| row_group.columns.len() != schema_descr.num_columns())
+        {
+            return Err(general_err!(
+                "Could not parse metadata: row group has {} columns, schema has {}",
+                row_group.columns.len(),
+                schema_descr.num_columns()
+            ));
+        }
+        let column_orders = parse_column_orders(column_orders, &schema_descr);
+
+        let file_metadata = FileMetaData::new(
+            version.ok_or_else(|| missing("version"))?,
+            num_rows.ok_or_else(|| missing("num_rows"))?,
+            created_by,
+            key_value_metadata,
+            schema_descr,
+            column_orders,
+        );
+        Ok(Self {
+            file_metadata,
+            buffer,
+            row_groups,
+        })
+    }
+
+    /// Returns file metadata as reference.
+    pub fn file_metadata(&self) -> &FileMetaData {
+        &self.file_metadata
+    }
+
+    /// Returns number of row groups in this file.
+    pub fn num_row_groups(&self) -> usize {
+        self.row_groups.len()
+    }
+
+    /// Returns the number of rows of the `i`th row group, without decoding it.
+    pub fn row_group_num_rows(&self, i: usize) -> i64 {
+        self.row_groups[i].num_rows
+    }
+
+    /// Decodes the metadata of the `column`th column chunk of the `row_group`th row
+    /// group.
+    pub fn column_chunk(
+        &self,
+        row_group: usize,
+        column: usize,
+    ) -> Result<ColumnChunkMetaData> {
+        let range = self.row_groups[row_group].columns[column].clone();
+        let mut prot = TCompactInputProtocol::new(&self.buffer[range]);
+        let column_chunk = ColumnChunk::read_from_in_protocol(&mut prot).map_err(|e| {
+            general_err!("Could not parse metadata of column chunk: {}", e)
+        })?;
+        let descr = self.file_metadata.schema_descr().column(column);
+        ColumnChunkMetaData::from_thrift(descr, column_chunk)
+    }
+
+    /// Decodes the metadata of the `i`th row group, with all its column chunks.
+    pub fn row_group(&self, i: usize) -> Result<RowGroupMetaData> {
+        let location = &self.row_groups[i];
+        let columns = (0..location.columns.len())
+            .map(|column| self.column_chunk(i, column))
+            .collect::<Result<Vec<_>>>()?;
+        RowGroupMetaData::builder(self.file_metadata.schema_descr_ptr())
+            .set_column_metadata(columns)
+            .set_num_rows(location.num_rows)
+            .set_total_byte_size(location.total_byte_size)
+            .build()
+    }
+
+    /// Decodes the row groups at positions `row_groups`, and returns the metadata of
+    /// the file restricted to them, e.g. to create a
+    /// [`SerializedFileReader`](crate::file::serialized_reader::SerializedFileReader)
+    /// that reads only these row groups.
+    pub fn decode_row_groups(&self, row_groups: &[usize]) -> Result<ParquetMetaData> {
+        let row_groups = row_groups
+            .iter()
+            .map(|i| self.row_group(*i))
+            .collect::<Result<Vec<_>>>()?;
+        Ok(ParquetMetaData::new(self.file_metadata.clone(), row_groups))
+    }
+
+    /// Decodes all row groups, and returns the same metadata as
+    /// [`parse_metadata`](crate::file::footer::parse_metadata).
+    pub fn decode_all(&self) -> Result<ParquetMetaData> {
+        let row_groups = (0..self.num_row_groups()).collect::<Vec<_>>();
+        self.decode_row_groups(&row_groups)
+    }
+}
+
+impl RowGroupLocation {
+    /// Walks the encoded row group at the position of `cursor`, recording the range
+    /// of each of its column chunks.
+    fn locate(cursor: &mut CompactCursor) -> Result<Self> {
+        let mut location = RowGroupLocation {
+            columns: Vec::new(),
+            num_rows: 0,
+            total_byte_size: 0,
+        };
+        let mut last_id = 0;
+        while let Some((id, field_type)) = cursor.read_field_header(last_id)? {
+            match (id, field_type) {
+                (1, COMPACT_LIST) => {
+                    let (size, _) = cursor.read_list_header()?;
+                    for _ in 0..size {
+                        let start = cursor.position;
+                        cursor.skip(COMPACT_STRUCT, false, MAX_NESTING_DEPTH)?;
+                        location.columns.push(start..cursor.position);
+                    }
+                }
+                (2, COMPACT_I64) => location.total_byte_size = cursor.read_zigzag()?,
+                (3, COMPACT_I64) => location.num_rows = cursor.read_zigzag()?,
+                _ => cursor.skip(field_type, true, MAX_NESTING_DEPTH)?,
+            }
+            last_id = id;
+        }
+        Ok(location)
+    }
+}
+
+// Types of the Thrift compact protocol
+const COMPACT_STOP: u8 = 0;
+const COMPACT_BOOLEAN_TRUE: u8 = 1;
+const COMPACT_BOOLEAN_FALSE: u8 = 2;
+const COMPACT_BYTE: u8 = 3;
+const COMPACT_I16: u8 = 4;
+const COMPACT_I32: u8 = 5;
+const COMPACT_I64: u8 = 6;
+const COMPACT_DOUBLE: u8 = 7;
+const COMPACT_BINARY: u8 = 8;
+const COMPACT_LIST: u8 = 9;
+const COMPACT_SET: u8 = 10;
+const COMPACT_MAP: u8 = 11;
+const COMPACT_STRUCT: u8 = 12;
+
+/// Maximum nesting of the values that are skipped, as in the Thrift library.
+const MAX_NESTING_DEPTH: usize = 64;
+
+/// A cursor over Thrift compact protocol encoded bytes, which reads the headers of
+/// struct fields and skips values without decoding them.
+struct CompactCursor<'a> {
+    buffer: &'a [u8],
+    position: usize,
+}
+
+impl<'a> CompactCursor<'a> {
+    fn new(buffer: &'a [u8]) -> Self {
+        Self {
+            buffer,
+            position: 0,
+        }
+    }
+
+    fn advance(&mut self, len: usize) -> Result<&'a [u8]> {
+        let end = self
+            .position
+            .checked_add(len)
+            .filter(|end| *end <= self.buffer.len())
+            .ok_or_else(|| eof_err!("Unexpected end of file metadata"))?;
+        let bytes = &self.buffer[self.position..end];
+        self.position = end;
+        Ok(bytes)
+    }
+
+    fn read_byte(&mut self) -> Result<u8> {
+        Ok(self.advance(1)?[0])
+    }
+
+    fn read_varint(&mut self) -> Result<u64> {
+        let mut value = 0;
+        for shift in (0..64).step_by(7) {
+            let byte = self.read_byte()?;
+            value |= ((byte & 0x7F) as u64) << shift;
+            if byte & 0x80 == 0 {
+                return Ok(value);
+            }
+        }
+        Err(general_err!("Could not parse metadata: invalid varint"))
+    }
+
+    fn read_zigzag(&mut self) -> Result<i64> {
+        let value = self.read_varint()?;
+        Ok((value >> 1) as i64 ^ -((value & 1) as i64))
+    }
+
+    fn read_binary(&mut self) -> Result<&'a [u8]> {
+        let len = self.read_varint()? as usize;
+        self.advance(len)
+    }
+
+    /// Reads the header of the next field of a struct, whose previous field has id
+    /// `last_id`. Returns `None` at the end of the struct.
+    fn read_field_header(&mut self, last_id: i16) -> Result<Option<(i16, u8)>> {
+        let byte = self.read_byte()?;
+        let field_type = byte & 0x0F;
+        if field_type == COMPACT_STOP {
+            return Ok(None);
+        }
+        let id = match byte >> 4 {
+            0 => self.read_zigzag()? as i16,
+            delta => last_id.wrapping_add(delta as i16),
+        };
+        Ok(Some((id, field_type)))
+    }
+
+    /// Reads the header of a list or set, returning its size and element type.
+    fn read_list_header(&mut self) -> Result<(usize, u8)> {
+        let byte = self.read_byte()?;
+        let size = match byte >> 4 {
+            15 => self.read_varint()? as usize,
+            size => size as usize,
+        };
+        Ok((size, byte & 0x0F))
+    }
+
+    /// Skips a value of type `value_type`, which is a struct field if `in_field` is
+    /// set: booleans are encoded in the type of struct fields, and take a byte in
+    /// lists, sets and maps.
+    fn skip(&mut self, value_type: u8, in_field: bool, depth: usize) -> Result<()> {
+        if depth == 0 {
+            return Err(general_err!(
+                "Could not parse metadata: maximum nesting depth exceeded"
+            ));
+        }
+        match value_type {
+            COMPACT_BOOLEAN_TRUE | COMPACT_BOOLEAN_FALSE if in_field => {}
+            COMPACT_BOOLEAN_TRUE | COMPACT_BOOLEAN_FALSE | COMPACT_BYTE => {
+                self.advance(1)?;
+            }
+            COMPACT_I16 | COMPACT_I32 | COMPACT_I64 => {
+                self.read_varint()?;
+            }
+            COMPACT_DOUBLE => {
+                self.advance(8)?;
+            }
+            COMPACT_BINARY => {
+                self.read_binary()?;
+            }
+            COMPACT_LIST | COMPACT_SET => {
+                let (size, element_type) = self.read_list_header()?;
+                for _ in 0..size {
+                    self.skip(element_type, false, depth - 1)?;
+                }
+            }
+            COMPACT_MAP => {
+                let size = self.read_varint()?;
+                if size > 0 {
+                    let types = self.read_byte()?;
+                    for _ in 0..size {
+                        self.skip(types >> 4, false, depth - 1)?;
+                        self.skip(types & 0x0F, false, depth - 1)?;
+                    }
+                }
+            }
+            COMPACT_STRUCT => {
+                let mut last_id = 0;
+                while let Some((id, field_type)) = self.read_field_header(last_id)? {
+                    self.skip(field_type, true, depth - 1)?;
+                    last_id = id;
+                }
+            }
+            _ => {
+                return Err(general_err!(
+                    "Could not parse metadata: invalid type {}",
+                    value_type
+                ))
+            }
+        }
+        Ok(())
+    }
+
+    /// Decodes the list at the position of the cursor with the Thrift library,
+    /// reading its elements with `read`.
+    fn decode_list<T, F>(&mut self, read: F) -> Result<Vec<T>>
+    where
+        F: Fn(&mut dyn TInputProtocol) -> thrift::Result<T>,
+    {
+        let start = self.position;
+        self.skip(COMPACT_LIST, true, MAX_NESTING_DEPTH)?;
+        let mut prot = TCompactInputProtocol::new(&self.buffer[start..self.position]);
+        let list = prot.read_list_begin().map_err(parse_err)?;
+        (0..list.size)
+            .map(|_| read(&mut prot).map_err(parse_err))
+            .collect()
+    }
+}
+
+fn parse_err(e: thrift::Error) -> ParquetError {
+    general_err!("Could not parse metadata: {}", e)
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    use parquet_format::{FileMetaData as TFileMetaData, TypeDefinedOrder};
+    use thrift::protocol::{TCompactOutputProtocol, TOutputProtocol};
+
+    use crate::basic::{ColumnOrder, SortOrder, Type};
+    use crate::column::writer::ColumnWriter;
+    use crate::data_type::ByteArray;
+    use crate::file::footer::{decode_metadata, parse_metadata, parse_metadata_lazy};
+    use crate::file::properties::WriterProperties;
+    use crate::file::writer::{FileWriter, RowGroupWriter, SerializedFileWriter};
+    use crate::schema::parser::parse_message_type;
+    use crate::util::test_common::get_temp_file;
+
+    fn encode(metadata: &TFileMetaData) -> Vec<u8> {
+        let mut buffer = Vec::new();
+        let mut prot = TCompactOutputProtocol::new(&mut buffer);
+        metadata.write_to_out_protocol(&mut prot).unwrap();
+        prot.flush().unwrap();
+        buffer
+    }
+
+    #[test]
+    fn test_lazy_metadata_file() {
+        let schema = Arc::new(
+            parse_message_type(
+                "
+                message schema {
+                    REQUIRED INT32 a;
+                    OPTIONAL BYTE_ARRAY b (UTF8);
+                    REQUIRED INT64 c;
+                }
+                ",
+            )
+            .unwrap(),
+        );
+        let props = Arc::new(WriterProperties::builder().build());
+        let file = get_temp_file("test_lazy_metadata_file", &[]);
+        let mut writer =
+            SerializedFileWriter::new(file.try_clone().unwrap(), schema, props).unwrap();
+        for i in 0..3 {
+            let mut row_group_writer = writer.next_row_group().unwrap();
+            while let Some(mut column_writer) = row_group_writer.next_column().unwrap() {
+                match column_writer {
+                    ColumnWriter::Int32ColumnWriter(ref mut typed) => {
+                        typed.write_batch(&[i, i + 1], None, None).unwrap();
+                    }
+                    ColumnWriter::ByteArrayColumnWriter(ref mut typed) => {
+                        let values = [ByteArray::from("x")];
+                        typed.write_batch(&values, Some(&[1, 0]), None).unwrap();
+                    }
+                    ColumnWriter::Int64ColumnWriter(ref mut typed) => {
+                        typed.write_batch(&[10, 20], None, None).unwrap();
+                    }
+                    _ => unreachable!(),
+                }
+                row_group_writer.close_column(column_writer).unwrap();
+            }
+            writer.close_row_group(row_group_writer).unwrap();
+        }
+        writer.close().unwrap();
+
+        let expected = parse_metadata(&file).unwrap();
+        let lazy = parse_metadata_lazy(&file).unwrap();
+        assert_eq!(lazy.num_row_groups(), 3);
+        assert_eq!(lazy.file_metadata().num_rows(), 6);
+        assert_eq!(
+            lazy.file_metadata().schema_descr().root_schema(),
+            expected.file_metadata().schema_descr().root_schema()
+        );
+        assert_eq!(lazy.row_group_num_rows(2), 2);
+
+        let column = lazy.column_chunk(1, 0).unwrap();
+        assert!(column.statistics().unwrap().has_min_max_set());
+        assert_eq!(column.to_thrift(), expected.row_group(1).column(0).to_thrift());
+
+        let decoded = lazy.decode_all().unwrap();
+        assert_eq!(decoded.num_row_groups(), 3);
+        for (row_group, expected) in
+            decoded.row_groups().iter().zip(expected.row_groups())
+        {
+            assert_eq!(row_group.to_thrift(), expected.to_thrift());
+        }
+
+        let decoded = lazy.decode_row_groups(&[2]).unwrap();
+        assert_eq!(decoded.num_row_groups(), 1);
+        assert_eq!(
+            decoded.row_group(0).to_thrift(),
+            expected.row_group(2).to_thrift()
+        );
+    }
+
+    #[test]
+    fn test_lazy_metadata_file_fields() {
+        let schema = parse_message_type("message schema { REQUIRED INT32 a; }").unwrap();
+        let metadata = TFileMetaData {
+            version: 2,
+            schema: types::to_thrift(&schema).unwrap(),
+            num_rows: 0,
+            row_groups: vec![],
+            key_value_metadata: Some(vec![KeyValue {
+                key: "key".to_owned(),
+                value: Some("value".to_owned()),
+            }]),
+            created_by: Some("lazy".to_owned()),
+            column_orders: Some(vec![TColumnOrder::TYPEORDER(TypeDefinedOrder::new())]),
+        };
+        let buffer = encode(&metadata);
+
+        let expected = decode_metadata(&buffer).unwrap();
+        let lazy = LazyParquetMetaData::decode(buffer).unwrap();
+        let file_metadata = lazy.file_metadata();
+        assert_eq!(file_metadata.version(), 2);
+        assert_eq!(file_metadata.created_by(), &Some("lazy".to_owned()));
+        assert_eq!(
+            file_metadata.key_value_metadata(),
+            expected.file_metadata().key_value_metadata()
+        );
+        assert_eq!(
+            file_metadata.column_order(0),
+            ColumnOrder::TYPE_DEFINED_ORDER(SortOrder::SIGNED)
+        );
+        assert_eq!(file_metadata.schema_descr().column(0).physical_type(), Type::INT32);
+        assert_eq!(lazy.num_row_groups(), 0);
+    }
+
+    #[test]
+    fn test_lazy_metadata_errors() {
+        let schema = parse_message_type("message schema { REQUIRED INT32 a; }").unwrap();
+        let metadata = TFileMetaData {
+            version: 1,
+            schema: types::to_thrift(&schema).unwrap(),
+            num_rows: 0,
+            row_groups: vec![],
+            key_value_metadata: None,
+            created_by: Some("truncated".to_owned()),
+            column_orders: None,
+        };
+        let buffer = encode(&metadata);
+
+        let truncated = buffer[..buffer.len() - 3].to_vec();
+        assert_eq!(
+            LazyParquetMetaData::decode(truncated).unwrap_err(),
+            eof_err!("Unexpected end of file metadata")
+        );
+
+        // A struct with only the version field
+        assert_eq!(
+            LazyParquetMetaData::decode(vec![0x15, 0x02, 0x00]).unwrap_err(),
+            general_err!("Could not parse metadata: required field schema is missing")
+        );
+    }
+
+    #[test]
+    fn test_compact_cursor_skip() {
+        // i16 field 1, long form field id 20 of type double, bool field 21, map field
+        // 22 of 1 entry with binary keys and lists of 2 booleans, stop
+        let buffer = [
+            0x14, 0x04, // field 1: i16 2
+            0x07, 0x28, 0, 0, 0, 0, 0, 0, 0, 0, // field 20: double
+            0x11, // field 21: true
+            0x1B, 0x01, 0x89, 0x01, b'k', 0x21, 0x01, 0x00, // field 22: map
+            0x00,
+        ];
+        let mut cursor = CompactCursor::new(&buffer);
+        cursor
+            .skip(COMPACT_STRUCT, false, MAX_NESTING_DEPTH)
+            .unwrap();
+        assert_eq!(cursor.position, buffer.len());
+
+        let mut cursor = CompactCursor::new(&[0x1C, 0x1C, 0x1C, 0x00, 0x00, 0x00]);
+        assert!(cursor.skip(COMPACT_STRUCT, false, 2).is_err());
+    }
+}
@@ -32,6 +32,9 @@
 //!
 //! [`ColumnChunkMetaData`](struct.ColumnChunkMetaData.html) has information about column
 //! chunk (primitive leaf column), including encoding/compression, number of values, etc.
+//! When the page index of a file has been read, it also holds the
+//! [`ColumnIndex`](crate::file::page_index::ColumnIndex) and
+//! [`OffsetIndex`](crate::file::page_index::OffsetIndex) of the column chunk.
 
 use std::sync::Arc;
 
@@ -39,6 +42,8 @@ use parquet_format::{ColumnChunk, ColumnMetaData, RowGroup};
 
 use crate::basic::{ColumnOrder, Compression, Encoding, Type};
 use crate::errors::{ParquetError, Result};
+use crate::file::bloom_filter::{Sbbf, BLOOM_FILTER_OFFSET_KEY};
+use crate::file::page_index::{ColumnIndex, OffsetIndex, PageLocation};
 use crate::file::statistics::{self, Statistics};
 use crate::schema::types::{
     ColumnDescPtr, ColumnDescriptor, ColumnPath, SchemaDescPtr, SchemaDescriptor,
@@ -82,6 +87,11 @@ impl ParquetMetaData {
     pub fn row_groups(&self) -> &[RowGroupMetaData] {
         &self.row_groups
     }
+
+    /// Returns mutable slice of row groups in this file.
+    pub(crate) fn row_groups_mut(&mut self) -> &mut [RowGroupMetaData] {
+        &mut self.row_groups
+    }
 }
 
 pub type KeyValue = parquet_format::KeyValue;
@@ -216,6 +226,11 @@ impl RowGroupMetaData {
         &self.columns
     }
 
+    /// Returns mutable slice of column chunk metadata.
+    pub(crate) fn columns_mut(&mut self) -> &mut [ColumnChunkMetaData] {
+        &mut self.columns
+    }
+
     /// Number of rows in this row group.
     pub fn num_rows(&self) -> i64 {
         self.num_rows
@@ -346,6 +361,14 @@ pub struct ColumnChunkMetaData {
     index_page_offset: Option<i64>,
     dictionary_page_offset: Option<i64>,
     statistics: Option<Statistics>,
+    offset_index_offset: Option<i64>,
+    offset_index_length: Option<i32>,
+    column_index_offset: Option<i64>,
+    column_index_length: Option<i32>,
+    column_index: Option<ColumnIndex>,
+    offset_index: Option<OffsetIndex>,
+    bloom_filter_offset: Option<i64>,
+    bloom_filter: Option<Sbbf>,
 }
 
 /// Represents common operations for a column chunk.
@@ -355,6 +378,27 @@ impl ColumnChunkMetaData {
         ColumnChunkMetaDataBuilder::new(column_descr)
     }
 
+    /// Returns this metadata with all its page offsets moved by `offset` bytes, for a
+    /// column chunk that was encoded at another position than it is written at.
+    pub(crate) fn with_offset(mut self, offset: i64) -> Self {
+        self.file_offset += offset;
+        self.data_page_offset += offset;
+        self.index_page_offset = self.index_page_offset.map(|v| v + offset);
+        self.dictionary_page_offset = self.dictionary_page_offset.map(|v| v + offset);
+        self.offset_index = self.offset_index.map(|index| {
+            let page_locations = index
+                .page_locations()
+                .iter()
+                .map(|location| PageLocation {
+                    offset: location.offset + offset,
+                    ..location.clone()
+                })
+                .collect();
+            OffsetIndex::new(page_locations)
+        });
+        self
+    }
+
     /// File where the column chunk is stored.
     ///
     /// If not set, assumed to belong to the same file as the metadata.
@@ -459,6 +503,64 @@ impl ColumnChunkMetaData {
         self.statistics.as_ref()
     }
 
+    /// Returns the offset of the offset index of this column chunk, if any.
+    pub fn offset_index_offset(&self) -> Option<i64> {
+        self.offset_index_offset
+    }
+
+    /// Returns the length in bytes of the offset index of this column chunk, if any.
+    pub fn offset_index_length(&self) -> Option<i32> {
+        self.offset_index_length
+    }
+
+    /// Returns the offset of the column index of this column chunk, if any.
+    pub fn column_index_offset(&self) -> Option<i64> {
+        self.column_index_offset
+    }
+
+    /// Returns the length in bytes of the column index of this column chunk, if any.
+    pub fn column_index_length(&self) -> Option<i32> {
+        self.column_index_length
+    }
+
+    /// Returns the page level statistics of this column chunk,
+    /// or `None` if the page index has not been read or the column chunk has none.
+    pub fn column_index(&self) -> Option<&ColumnIndex> {
+        self.column_index.as_ref()
+    }
+
+    /// Returns the locations of the data pages of this column chunk,
+    /// or `None` if the page index has not been read or the column chunk has none.
+    pub fn offset_index(&self) -> Option<&OffsetIndex> {
+        self.offset_index.as_ref()
+    }
+
+    /// Returns the offset of the bloom filter of this column chunk, if any.
+    pub fn bloom_filter_offset(&self) -> Option<i64> {
+        self.bloom_filter_offset
+    }
+
+    /// Takes the bloom filter built for this column chunk by the writer, which the row
+    /// group writer writes to the file when the row group is closed.
+    pub(crate) fn take_bloom_filter(&mut self) -> Option<Sbbf> {
+        self.bloom_filter.take()
+    }
+
+    /// Sets the offset the bloom filter of this column chunk has been written at.
+    pub(crate) fn set_bloom_filter_offset(&mut self, offset: i64) {
+        self.bloom_filter_offset = Some(offset);
+    }
+
+    /// Sets the page index read for this column chunk.
+    pub(crate) fn set_page_index(
+        &mut self,
+        column_index: Option<ColumnIndex>,
+        offset_index: Option<OffsetIndex>,
+    ) {
+        self.column_index = column_index;
+        self.offset_index = offset_index;
+    }
+
     /// Method to convert from Thrift.
     pub fn from_thrift(column_descr: ColumnDescPtr, cc: ColumnChunk) -> Result<Self> {
         if cc.meta_data.is_none() {
@@ -482,6 +584,21 @@ impl ColumnChunkMetaData {
         let index_page_offset = col_metadata.index_page_offset;
         let dictionary_page_offset = col_metadata.dictionary_page_offset;
         let statistics = statistics::from_thrift(column_type, col_metadata.statistics);
+        let offset_index_offset = cc.offset_index_offset;
+        let offset_index_length = cc.offset_index_length;
+        let column_index_offset = cc.column_index_offset;
+        let column_index_length = cc.column_index_length;
+        let bloom_filter_offset = col_metadata
+            .key_value_metadata
+            .as_ref()
+            .and_then(|kvs| kvs.iter().find(|kv| kv.key == BLOOM_FILTER_OFFSET_KEY))
+            .and_then(|kv| kv.value.as_ref())
+            .map(|value| {
+                value.parse::<i64>().map_err(|_| {
+                    general_err!("Invalid bloom filter offset {}", value)
+                })
+            })
+            .transpose()?;
         let result = ColumnChunkMetaData {
             column_type,
             column_path,
@@ -497,6 +614,14 @@ impl ColumnChunkMetaData {
             index_page_offset,
             dictionary_page_offset,
             statistics,
+            offset_index_offset,
+            offset_index_length,
+            column_index_offset,
+            column_index_length,
+            column_index: None,
+            offset_index: None,
+            bloom_filter_offset,
+            bloom_filter: None,
         };
         Ok(result)
     }
@@ -511,7 +636,12 @@ impl ColumnChunkMetaData {
             num_values: self.num_values,
             total_uncompressed_size: self.total_uncompressed_size,
             total_compressed_size: self.total_compressed_size,
-            key_value_metadata: None,
+            key_value_metadata: self.bloom_filter_offset.map(|offset| {
+                vec![KeyValue::new(
+                    BLOOM_FILTER_OFFSET_KEY.to_owned(),
+                    offset.to_string(),
+                )]
+            }),
             data_page_offset: self.data_page_offset,
             index_page_offset: self.index_page_offset,
             dictionary_page_offset: self.dictionary_page_offset,
@@ -523,10 +653,10 @@ impl ColumnChunkMetaData {
             file_path: self.file_path().cloned(),
             file_offset: self.file_offset,
             meta_data: Some(column_metadata),
-            offset_index_offset: None,
-            offset_index_length: None,
-            column_index_offset: None,
-            column_index_length: None,
+            offset_index_offset: self.offset_index_offset,
+            offset_index_length: self.offset_index_length,
+            column_index_offset: self.column_index_offset,
+            column_index_length: self.column_index_length,
         }
     }
 }
@@ -545,6 +675,14 @@ pub struct ColumnChunkMetaDataBuilder {
     index_page_offset: Option<i64>,
     dictionary_page_offset: Option<i64>,
     statistics: Option<Statistics>,
+    offset_index_offset: Option<i64>,
+    offset_index_length: Option<i32>,
+    column_index_offset: Option<i64>,
+    column_index_length: Option<i32>,
+    column_index: Option<ColumnIndex>,
+    offset_index: Option<OffsetIndex>,
+    bloom_filter_offset: Option<i64>,
+    bloom_filter: Option<Sbbf>,
 }
 
 impl ColumnChunkMetaDataBuilder {
@@ -563,6 +701,14 @@ impl ColumnChunkMetaDataBuilder {
             index_page_offset: None,
             dictionary_page_offset: None,
             statistics: None,
+            offset_index_offset: None,
+            offset_index_length: None,
+            column_index_offset: None,
+            column_index_length: None,
+            column_index: None,
+            offset_index: None,
+            bloom_filter_offset: None,
+            bloom_filter: None,
         }
     }
 
@@ -632,6 +778,54 @@ impl ColumnChunkMetaDataBuilder {
         self
     }
 
+    /// Sets optional offset index offset in bytes.
+    pub fn set_offset_index_offset(mut self, value: Option<i64>) -> Self {
+        self.offset_index_offset = value;
+        self
+    }
+
+    /// Sets optional offset index length in bytes.
+    pub fn set_offset_index_length(mut self, value: Option<i32>) -> Self {
+        self.offset_index_length = value;
+        self
+    }
+
+    /// Sets optional column index offset in bytes.
+    pub fn set_column_index_offset(mut self, value: Option<i64>) -> Self {
+        self.column_index_offset = value;
+        self
+    }
+
+    /// Sets optional column index length in bytes.
+    pub fn set_column_index_length(mut self, value: Option<i32>) -> Self {
+        self.column_index_length = value;
+        self
+    }
+
+    /// Sets page level statistics for this column chunk.
+    pub fn set_column_index(mut self, value: Option<ColumnIndex>) -> Self {
+        self.column_index = value;
+        self
+    }
+
+    /// Sets data page locations for this column chunk.
+    pub fn set_offset_index(mut self, value: Option<OffsetIndex>) -> Self {
+        self.offset_index = value;
+        self
+    }
+
+    /// Sets file offset of the bloom filter of this column chunk.
+    pub fn set_bloom_filter_offset(mut self, value: Option<i64>) -> Self {
+        self.bloom_filter_offset = value;
+        self
+    }
+
+    /// Sets the bloom filter of this column chunk, to be written by the row group writer.
+    pub fn set_bloom_filter(mut self, value: Option<Sbbf>) -> Self {
+        self.bloom_filter = value;
+        self
+    }
+
     /// Builds column chunk metadata.
     pub fn build(self) -> Result<ColumnChunkMetaData> {
         Ok(ColumnChunkMetaData {
@@ -649,6 +843,14 @@ impl ColumnChunkMetaDataBuilder {
             index_page_offset: self.index_page_offset,
             dictionary_page_offset: self.dictionary_page_offset,
             statistics: self.statistics,
+            offset_index_offset: self.offset_index_offset,
+            offset_index_length: self.offset_index_length,
+            column_index_offset: self.column_index_offset,
+            column_index_length: self.column_index_length,
+            column_index: self.column_index,
+            offset_index: self.offset_index,
+            bloom_filter_offset: self.bloom_filter_offset,
+            bloom_filter: self.bloom_filter,
         })
     }
 }
@@ -711,6 +913,11 @@ mod tests {
             .set_total_uncompressed_size(3000)
             .set_data_page_offset(4000)
             .set_dictionary_page_offset(Some(5000))
+            .set_offset_index_offset(Some(6000))
+            .set_offset_index_length(Some(25))
+            .set_column_index_offset(Some(7000))
+            .set_column_index_length(Some(25))
+            .set_bloom_filter_offset(Some(8000))
             .build()
             .unwrap();
 
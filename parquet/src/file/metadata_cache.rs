@@ -0,0 +1,300 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+//! Contains [`MetadataCache`], a cache of the file metadata of Parquet files that are
+//! opened repeatedly, so that their footer is only read and decoded once.
+//!
+//! # Example
+//!
+//! ```rust,no_run
+//! use std::path::Path;
+//! use std::sync::Arc;
+//!
+//! use parquet::file::metadata_cache::MetadataCache;
+//! use parquet::file::reader::FileReader;
+//! use parquet::file::serialized_reader::{ReadOptions, SerializedFileReader};
+//!
+//! // Shared by all readers, e.g. of the requests of a service
+//! let cache = Arc::new(MetadataCache::new(1024));
+//!
+//! let path = Path::new("data.parquet");
+//! let reader =
+//!     SerializedFileReader::open_cached(path, &cache, ReadOptions::default()).unwrap();
+//! println!("{} row groups", reader.num_row_groups());
+//! ```
+
+use std::{
+    collections::HashMap,
+    fs::File,
+    path::{Path, PathBuf},
+    sync::{Arc, Mutex},
+    time::SystemTime,
+};
+
+use crate::errors::Result;
+use crate::file::{footer, metadata::ParquetMetaData, page_index::index_reader};
+
+/// Identity of a version of a file: a file that is rewritten in place gets another
+/// key, as long as its length or modification time change.
+#[derive(Debug, Clone, PartialEq, Eq, Hash)]
+struct FileKey {
+    path: PathBuf,
+    len: u64,
+    modified: Option<SystemTime>,
+    page_index: bool,
+}
+
+#[derive(Debug)]
+struct CacheEntry {
+    metadata: Arc<ParquetMetaData>,
+    last_used: u64,
+}
+
+#[derive(Debug, Default)]
+struct CacheState {
+    entries: HashMap<FileKey, CacheEntry>,
+    tick: u64,
+    hits: u64,
+    misses: u64,
+}
+
+/// A size-bounded, least recently used cache of the file metadata of Parquet files,
+/// keyed by the path, length and modification time of the files.
+///
+/// The cache can be shared between threads, e.g. in an `Arc`, and hands out the
+/// cached metadata as `Arc<ParquetMetaData>`, which readers are created from with
+/// [`SerializedFileReader::new_with_cached_metadata`] or opened directly with
+/// [`SerializedFileReader::open_cached`].
+///
+/// Metadata read together with the page index is cached separately from metadata
+/// read without it.
+///
+/// [`SerializedFileReader::new_with_cached_metadata`]: crate::file::serialized_reader::SerializedFileReader::new_with_cached_metadata
+/// [`SerializedFileReader::open_cached`]: crate::file::serialized_reader::SerializedFileReader::open_cached
+#[derive(Debug)]
+pub struct MetadataCache {
+    capacity: usize,
+    state: Mutex<CacheState>,
+}
+
+impl MetadataCache {
+    /// Creates a cache that holds the metadata of at most `capacity` files.
+    pub fn new(capacity: usize) -> Self {
+        Self {
+            capacity,
+            state: Mutex::new(CacheState::default()),
+        }
+    }
+
+    /// Returns the maximum number of files whose metadata is cached.
+    pub fn capacity(&self) -> usize {
+        self.capacity
+    }
+
+    /// Returns the number of files whose metadata is cached.
+    pub fn len(&self) -> usize {
+        self.lock().entries.len()
+    }
+
+    /// Returns `true` if no metadata is cached.
+    pub fn is_empty(&self) -> bool {
+        self.len() == 0
+    }
+
+    /// Returns the number of lookups that found cached metadata.
+    pub fn hits(&self) -> u64 {
+        self.lock().hits
+    }
+
+    /// Returns the number of lookups that had to read the metadata from the file.
+    pub fn misses(&self) -> u64 {
+        self.lock().misses
+    }
+
+    /// Removes all cached metadata.
+    pub fn clear(&self) {
+        self.lock().entries.clear();
+    }
+
+    /// Returns the metadata of `file`, opened from `path`, reading the footer of the
+    /// file, and the page index if `page_index` is set, only if the current version of
+    /// the file is not cached.
+    ///
+    /// The lock of the cache is not held while the metadata is read, so concurrent
+    /// first lookups of the same file may each read it.
+    pub fn get_or_load(
+        &self,
+        path: &Path,
+        file: &File,
+        page_index: bool,
+    ) -> Result<Arc<ParquetMetaData>> {
+        let file_metadata = file.metadata()?;
+        let key = FileKey {
+            path: path.to_path_buf(),
+            len: file_metadata.len(),
+            modified: file_metadata.modified().ok(),
+            page_index,
+        };
+        if let Some(metadata) = self.get(&key) {
+            return Ok(metadata);
+        }
+
+        let mut metadata = footer::parse_metadata(file)?;
+        if page_index {
+            index_reader::read_page_indexes(file, &mut metadata)?;
+        }
+        let metadata = Arc::new(metadata);
+        self.insert(key, metadata.clone());
+        Ok(metadata)
+    }
+
+    fn lock(&self) -> std::sync::MutexGuard<CacheState> {
+        // The state is consistent after every operation, so a poisoned lock is safe
+        self.state
+            .lock()
+            .unwrap_or_else(|poisoned| poisoned.into_inner())
+    }
+
+    fn get(&self, key: &FileKey) -> Option<Arc<ParquetMetaData>> {
+        let mut guard = self.lock();
+        let state = &mut *guard;
+        state.tick += 1;
+        match state.entries.get_mut(key) {
+            Some(entry) => {
+                entry.last_used = state.tick;
+                state.hits += 1;
+                Some(entry.metadata.clone())
+            }
+            None => {
+                state.misses += 1;
+                None
+            }
+        }
+    }
+
+    fn insert(&self, key: FileKey, metadata: Arc<ParquetMetaData>) {
+        if self.capacity == 0 {
+            return;
+        }
+        let mut state = self.lock();
+        // Other versions of the file are never looked up again
+        state.entries.retain(|cached, _| {
+            cached.path != key.path || cached.page_index != key.page_index
+        });
+        while state.entries.len() >= self.capacity {
+            let least_recently_used = state
+                .entries
+                .iter()
+                .min_by_key(|(_, entry)| entry.last_used)
+                .map(|(key, _)| key.clone());
+            match least_recently_used {
+                Some(evicted) => state.entries.remove(&evicted),
+                None => break,
+            };
+        }
+        state.tick += 1;
+        let last_used = state.tick;
+        state.entries.insert(
+            key,
+            CacheEntry {
+                metadata,
+                last_used,
+            },
+        );
+    }
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    use std::fs;
+
+    use crate::util::test_common::{get_temp_filename, get_test_path};
+
+    #[test]
+    fn test_metadata_cache_hit() {
+        let path = get_test_path("alltypes_plain.parquet");
+        let cache = MetadataCache::new(2);
+
+        let first = cache
+            .get_or_load(&path, &File::open(&path).unwrap(), false)
+            .unwrap();
+        let second = cache
+            .get_or_load(&path, &File::open(&path).unwrap(), false)
+            .unwrap();
+        assert!(Arc::ptr_eq(&first, &second));
+        assert_eq!(first.num_row_groups(), 1);
+        assert_eq!(cache.len(), 1);
+        assert_eq!((cache.hits(), cache.misses()), (1, 1));
+
+        // The page index is cached separately
+        let with_page_index = cache
+            .get_or_load(&path, &File::open(&path).unwrap(), true)
+            .unwrap();
+        assert!(!Arc::ptr_eq(&first, &with_page_index));
+        assert_eq!(cache.len(), 2);
+
+        cache.clear();
+        assert!(cache.is_empty());
+    }
+
+    #[test]
+    fn test_metadata_cache_eviction() {
+        let paths: Vec<_> = ["alltypes_plain.parquet", "nulls.snappy.parquet"]
+            .iter()
+            .map(|name| get_test_path(name))
+            .collect();
+        let cache = MetadataCache::new(1);
+
+        for path in paths.iter().chain(paths.iter()) {
+            cache
+                .get_or_load(path, &File::open(path).unwrap(), false)
+                .unwrap();
+            assert_eq!(cache.len(), 1);
+        }
+        assert_eq!((cache.hits(), cache.misses()), (0, 4));
+
+        let cache = MetadataCache::new(0);
+        cache
+            .get_or_load(&paths[0], &File::open(&paths[0]).unwrap(), false)
+            .unwrap();
+        assert!(cache.is_empty());
+    }
+
+    #[test]
+    fn test_metadata_cache_modified_file() {
+        let source = get_test_path("alltypes_plain.parquet");
+        let path = get_temp_filename();
+        fs::copy(&source, &path).unwrap();
+        let cache = MetadataCache::new(4);
+
+        let first = cache
+            .get_or_load(&path, &File::open(&path).unwrap(), false)
+            .unwrap();
+
+        // Rewriting the file with other contents changes its length
+        fs::copy(get_test_path("nulls.snappy.parquet"), &path).unwrap();
+        let second = cache
+            .get_or_load(&path, &File::open(&path).unwrap(), false)
+            .unwrap();
+        assert!(!Arc::ptr_eq(&first, &second));
+        assert_eq!(cache.len(), 1);
+
+        fs::remove_file(&path).unwrap();
+    }
+}
@@ -0,0 +1,142 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+//! Contains a [`ChunkReader`] that reads a Parquet file through a memory mapping.
+//!
+//! Unlike [`File`], which reads every column chunk through its own buffered file handle,
+//! [`MmapChunkReader`] serves all reads from the mapping: the pages are copied once from
+//! the mapped region, without any read system call or intermediate buffer. This is
+//! well suited to files that are in the page cache.
+
+use std::fs::File;
+use std::io::Cursor;
+use std::ops::Range;
+use std::sync::Arc;
+
+use memmap2::Mmap;
+
+use crate::errors::Result;
+use crate::file::reader::{ChunkReader, Length};
+
+/// A [`ChunkReader`] over a read-only memory mapping of a Parquet file.
+///
+/// The file must not be modified while the reader, or any reader returned by
+/// [`get_read`](ChunkReader::get_read), is alive.
+#[derive(Debug, Clone)]
+pub struct MmapChunkReader {
+    mmap: Arc<Mmap>,
+}
+
+impl MmapChunkReader {
+    /// Maps `file` into memory.
+    pub fn try_new(file: &File) -> Result<Self> {
+        // SAFETY: the mapping is read-only, and callers must not modify the file while
+        // it is mapped, as documented on this type
+        let mmap = unsafe { Mmap::map(file)? };
+        Ok(Self {
+            mmap: Arc::new(mmap),
+        })
+    }
+}
+
+impl Length for MmapChunkReader {
+    fn len(&self) -> u64 {
+        self.mmap.len() as u64
+    }
+}
+
+impl ChunkReader for MmapChunkReader {
+    type T = Cursor<MmapSlice>;
+
+    fn get_read(&self, start: u64, length: usize) -> Result<Self::T> {
+        let end = start.checked_add(length as u64);
+        match end {
+            Some(end) if end <= self.mmap.len() as u64 => Ok(Cursor::new(MmapSlice {
+                mmap: self.mmap.clone(),
+                range: start as usize..end as usize,
+            })),
+            _ => Err(eof_err!(
+                "Range {}..{} exceeds the file length {}",
+                start,
+                start.saturating_add(length as u64),
+                self.mmap.len()
+            )),
+        }
+    }
+}
+
+/// A range of a memory mapped file, which keeps the mapping alive.
+#[derive(Debug, Clone)]
+pub struct MmapSlice {
+    mmap: Arc<Mmap>,
+    range: Range<usize>,
+}
+
+impl AsRef<[u8]> for MmapSlice {
+    fn as_ref(&self) -> &[u8] {
+        &self.mmap[self.range.clone()]
+    }
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    use std::io::Read;
+
+    use crate::file::reader::{FileReader, SerializedFileReader};
+    use crate::record::RowAccessor;
+    use crate::util::test_common::{get_temp_file, get_test_file};
+
+    #[test]
+    fn test_mmap_get_read() {
+        let file = get_temp_file("test_mmap_get_read", &[1, 2, 3, 4, 5, 6, 7, 8]);
+        let reader = MmapChunkReader::try_new(&file).unwrap();
+        assert_eq!(reader.len(), 8);
+
+        let mut buf = vec![];
+        reader.get_read(2, 4).unwrap().read_to_end(&mut buf).unwrap();
+        assert_eq!(buf, vec![3, 4, 5, 6]);
+
+        assert!(reader.get_read(6, 2).is_ok());
+        assert_eq!(
+            reader.get_read(6, 3).unwrap_err(),
+            eof_err!("Range 6..9 exceeds the file length 8")
+        );
+    }
+
+    #[test]
+    fn test_mmap_file_reader() {
+        let file = get_test_file("alltypes_plain.parquet");
+        let expected = SerializedFileReader::new(file.try_clone().unwrap())
+            .unwrap()
+            .get_row_iter(None)
+            .unwrap()
+            .map(|row| row.get_int(0).unwrap())
+            .collect::<Vec<_>>();
+
+        let reader =
+            SerializedFileReader::new(MmapChunkReader::try_new(&file).unwrap()).unwrap();
+        assert_eq!(reader.metadata().file_metadata().num_rows(), 8);
+        let values = reader
+            .get_row_iter(None)
+            .unwrap()
+            .map(|row| row.get_int(0).unwrap())
+            .collect::<Vec<_>>();
+        assert_eq!(values, expected);
+    }
+}
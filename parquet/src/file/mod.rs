@@ -95,15 +95,25 @@
 //!     println!("{}", row);
 //! }
 //! ```
+pub mod bloom_filter;
 pub mod footer;
+pub mod lazy_metadata;
 pub mod metadata;
+pub mod metadata_cache;
+#[cfg(feature = "mmap")]
+pub mod mmap;
+pub mod page_index;
+pub mod prefetch;
 pub mod properties;
+pub mod pruning;
 pub mod reader;
 pub mod serialized_reader;
 pub mod statistics;
 pub mod writer;
 
-const FOOTER_SIZE: usize = 8;
+/// The size of the Parquet footer: the length of the file metadata followed by the magic
+/// number.
+pub const FOOTER_SIZE: usize = 8;
 const PARQUET_MAGIC: [u8; 4] = [b'P', b'A', b'R', b'1'];
 
 /// The number of bytes read at the end of the parquet file on first read
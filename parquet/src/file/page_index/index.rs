@@ -0,0 +1,418 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+//! Contains the typed [`ColumnIndex`] and [`OffsetIndex`] of a column chunk.
+
+use std::ops::Range;
+
+use parquet_format::{
+    ColumnIndex as TColumnIndex, OffsetIndex as TOffsetIndex,
+    Statistics as TStatistics,
+};
+
+use crate::basic::{BoundaryOrder, Type};
+use crate::errors::{ParquetError, Result};
+use crate::file::statistics::{self, Statistics};
+
+/// Location of a data page in a file, as recorded in the [`OffsetIndex`].
+///
+/// `compressed_page_size` includes the size of the page header.
+pub type PageLocation = parquet_format::PageLocation;
+
+/// Page level statistics of a column chunk.
+///
+/// Contains one [`Statistics`] per data page, in the order the pages appear in the
+/// column chunk, which is also the order of the pages in the matching [`OffsetIndex`].
+#[derive(Debug, Clone, PartialEq)]
+pub struct ColumnIndex {
+    null_pages: Vec<bool>,
+    page_statistics: Vec<Statistics>,
+    boundary_order: BoundaryOrder,
+}
+
+impl ColumnIndex {
+    /// Creates new column index from page statistics.
+    pub fn new(
+        null_pages: Vec<bool>,
+        page_statistics: Vec<Statistics>,
+        boundary_order: BoundaryOrder,
+    ) -> Self {
+        assert_eq!(
+            null_pages.len(),
+            page_statistics.len(),
+            "Number of null pages and page statistics mismatch"
+        );
+        Self {
+            null_pages,
+            page_statistics,
+            boundary_order,
+        }
+    }
+
+    /// Returns number of data pages in the column chunk.
+    pub fn num_pages(&self) -> usize {
+        self.page_statistics.len()
+    }
+
+    /// Returns `true` if the `i`th page only contains null values.
+    pub fn is_null_page(&self, i: usize) -> bool {
+        self.null_pages[i]
+    }
+
+    /// Returns statistics of the `i`th page.
+    /// Min and max values are not set for pages that only contain null values.
+    pub fn page_statistics(&self, i: usize) -> &Statistics {
+        &self.page_statistics[i]
+    }
+
+    /// Returns slice of statistics of all pages.
+    pub fn statistics(&self) -> &[Statistics] {
+        &self.page_statistics
+    }
+
+    /// Returns the ordering of min/max values across pages.
+    pub fn boundary_order(&self) -> BoundaryOrder {
+        self.boundary_order
+    }
+
+    /// Method to convert from Thrift.
+    pub fn from_thrift(physical_type: Type, index: TColumnIndex) -> Result<Self> {
+        let TColumnIndex {
+            null_pages,
+            min_values,
+            max_values,
+            boundary_order,
+            null_counts,
+        } = index;
+
+        let num_pages = null_pages.len();
+        if min_values.len() != num_pages || max_values.len() != num_pages {
+            return Err(general_err!(
+                "Invalid column index: {} null pages, {} min values, {} max values",
+                num_pages,
+                min_values.len(),
+                max_values.len()
+            ));
+        }
+        if let Some(ref null_counts) = null_counts {
+            if null_counts.len() != num_pages {
+                return Err(general_err!(
+                    "Invalid column index: {} null pages, {} null counts",
+                    num_pages,
+                    null_counts.len()
+                ));
+            }
+        }
+
+        // Min/max values are stored the same way as in column chunk statistics, except
+        // that they are meaningless for pages that only contain nulls.
+        let page_statistics = min_values
+            .into_iter()
+            .zip(max_values.into_iter())
+            .enumerate()
+            .map(|(i, (min, max))| {
+                let (min, max) = if null_pages[i] {
+                    (None, None)
+                } else {
+                    (Some(min), Some(max))
+                };
+                // Malformed values would make the statistics conversion panic
+                if let Some(size) = plain_value_size(physical_type) {
+                    let malformed = min.iter().chain(&max).find(|v| v.len() != size);
+                    if let Some(value) = malformed {
+                        return Err(general_err!(
+                            "Invalid column index: {} byte min/max value of {} page {}",
+                            value.len(),
+                            physical_type,
+                            i
+                        ));
+                    }
+                }
+                let null_count = null_counts.as_ref().map(|counts| counts[i]);
+                if let Some(null_count) = null_count.filter(|count| *count < 0) {
+                    return Err(general_err!(
+                        "Invalid column index: negative null count {} of page {}",
+                        null_count,
+                        i
+                    ));
+                }
+
+                let thrift_stats = TStatistics {
+                    max: None,
+                    min: None,
+                    null_count,
+                    distinct_count: None,
+                    max_value: max,
+                    min_value: min,
+                };
+                statistics::from_thrift(physical_type, Some(thrift_stats)).ok_or_else(
+                    || general_err!("Invalid column index: no statistics of page {}", i),
+                )
+            })
+            .collect::<Result<_>>()?;
+
+        Ok(Self {
+            null_pages,
+            page_statistics,
+            boundary_order: BoundaryOrder::from(boundary_order),
+        })
+    }
+
+    /// Method to convert to Thrift.
+    pub fn to_thrift(&self) -> TColumnIndex {
+        let (min_values, max_values) = self
+            .page_statistics
+            .iter()
+            .zip(self.null_pages.iter())
+            .map(|(stats, &null_page)| {
+                if null_page || !stats.has_min_max_set() {
+                    (vec![], vec![])
+                } else {
+                    (stats.min_bytes().to_vec(), stats.max_bytes().to_vec())
+                }
+            })
+            .unzip();
+        let null_counts = self
+            .page_statistics
+            .iter()
+            .map(|stats| stats.null_count() as i64)
+            .collect();
+
+        TColumnIndex {
+            null_pages: self.null_pages.clone(),
+            min_values,
+            max_values,
+            boundary_order: self.boundary_order.into(),
+            null_counts: Some(null_counts),
+        }
+    }
+}
+
+/// Returns the size of the plain encoded values of `physical_type`, if it is fixed.
+fn plain_value_size(physical_type: Type) -> Option<usize> {
+    match physical_type {
+        Type::BOOLEAN => Some(1),
+        Type::INT32 | Type::FLOAT => Some(4),
+        Type::INT64 | Type::DOUBLE => Some(8),
+        Type::INT96 => Some(12),
+        Type::BYTE_ARRAY | Type::FIXED_LEN_BYTE_ARRAY => None,
+    }
+}
+
+/// Locations of the data pages of a column chunk.
+///
+/// Pages are listed in the order they appear in the column chunk, the dictionary page
+/// is not included.
+#[derive(Debug, Clone, PartialEq)]
+pub struct OffsetIndex {
+    page_locations: Vec<PageLocation>,
+}
+
+impl OffsetIndex {
+    /// Creates new offset index from page locations.
+    pub fn new(page_locations: Vec<PageLocation>) -> Self {
+        Self { page_locations }
+    }
+
+    /// Returns number of data pages in the column chunk.
+    pub fn num_pages(&self) -> usize {
+        self.page_locations.len()
+    }
+
+    /// Returns slice of page locations.
+    pub fn page_locations(&self) -> &[PageLocation] {
+        &self.page_locations
+    }
+
+    /// Returns the rows covered by each page, relative to the first row of the row
+    /// group. `num_rows` is the number of rows in the row group.
+    pub fn page_row_ranges(&self, num_rows: usize) -> Vec<Range<usize>> {
+        let locations = &self.page_locations;
+        locations
+            .iter()
+            .enumerate()
+            .map(|(i, location)| {
+                let end = locations
+                    .get(i + 1)
+                    .map(|next| next.first_row_index as usize)
+                    .unwrap_or(num_rows);
+                location.first_row_index as usize..end
+            })
+            .collect()
+    }
+
+    /// Returns positions of the pages that contain any row of `row_ranges`, in
+    /// ascending order. `num_rows` is the number of rows in the row group.
+    pub fn pages_for_rows(
+        &self,
+        num_rows: usize,
+        row_ranges: &[Range<usize>],
+    ) -> Vec<usize> {
+        self.page_row_ranges(num_rows)
+            .iter()
+            .enumerate()
+            .filter(|(_, page)| {
+                row_ranges
+                    .iter()
+                    .any(|range| range.start < page.end && page.start < range.end)
+            })
+            .map(|(i, _)| i)
+            .collect()
+    }
+
+    /// Method to convert from Thrift.
+    pub fn from_thrift(index: TOffsetIndex) -> Self {
+        Self::new(index.page_locations)
+    }
+
+    /// Method to convert to Thrift.
+    pub fn to_thrift(&self) -> TOffsetIndex {
+        TOffsetIndex {
+            page_locations: self.page_locations.clone(),
+        }
+    }
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    #[test]
+    fn test_column_index_from_thrift() {
+        let thrift_index = TColumnIndex {
+            null_pages: vec![false, true, false],
+            min_values: vec![
+                1i32.to_le_bytes().to_vec(),
+                vec![],
+                10i32.to_le_bytes().to_vec(),
+            ],
+            max_values: vec![
+                5i32.to_le_bytes().to_vec(),
+                vec![],
+                20i32.to_le_bytes().to_vec(),
+            ],
+            boundary_order: parquet_format::BoundaryOrder::Ascending,
+            null_counts: Some(vec![0, 7, 2]),
+        };
+
+        let index = ColumnIndex::from_thrift(Type::INT32, thrift_index).unwrap();
+
+        assert_eq!(index.num_pages(), 3);
+        assert_eq!(index.boundary_order(), BoundaryOrder::ASCENDING);
+        assert!(!index.is_null_page(0));
+        assert!(index.is_null_page(1));
+        assert_eq!(
+            index.page_statistics(0),
+            &Statistics::int32(Some(1), Some(5), None, 0, false)
+        );
+        assert!(!index.page_statistics(1).has_min_max_set());
+        assert_eq!(index.page_statistics(1).null_count(), 7);
+        assert_eq!(
+            index.page_statistics(2),
+            &Statistics::int32(Some(10), Some(20), None, 2, false)
+        );
+    }
+
+    #[test]
+    fn test_column_index_thrift_roundtrip() {
+        let index = ColumnIndex::new(
+            vec![false, true],
+            vec![
+                Statistics::int64(Some(-3), Some(8), None, 1, false),
+                Statistics::int64(None, None, None, 4, false),
+            ],
+            BoundaryOrder::UNORDERED,
+        );
+
+        let thrift_index = index.to_thrift();
+        assert_eq!(thrift_index.min_values[0], (-3i64).to_le_bytes().to_vec());
+        assert_eq!(thrift_index.min_values[1], Vec::<u8>::new());
+        assert_eq!(thrift_index.null_counts, Some(vec![1, 4]));
+
+        let decoded =
+            ColumnIndex::from_thrift(Type::INT64, thrift_index.clone()).unwrap();
+        assert_eq!(decoded.page_statistics(0), index.page_statistics(0));
+        assert_eq!(decoded.to_thrift(), thrift_index);
+    }
+
+    #[test]
+    fn test_column_index_from_thrift_invalid() {
+        let thrift_index = TColumnIndex {
+            null_pages: vec![false, false],
+            min_values: vec![1i32.to_le_bytes().to_vec()],
+            max_values: vec![5i32.to_le_bytes().to_vec()],
+            boundary_order: parquet_format::BoundaryOrder::Unordered,
+            null_counts: None,
+        };
+
+        let res = ColumnIndex::from_thrift(Type::INT32, thrift_index);
+        assert_eq!(
+            res.unwrap_err(),
+            general_err!(
+                "Invalid column index: 2 null pages, 1 min values, 1 max values"
+            )
+        );
+    }
+
+    #[test]
+    fn test_column_index_from_thrift_malformed_values() {
+        let thrift_index = TColumnIndex {
+            null_pages: vec![false, false],
+            min_values: vec![1i32.to_le_bytes().to_vec(), vec![1, 2]],
+            max_values: vec![5i32.to_le_bytes().to_vec(), 9i32.to_le_bytes().to_vec()],
+            boundary_order: parquet_format::BoundaryOrder::Unordered,
+            null_counts: None,
+        };
+        let res = ColumnIndex::from_thrift(Type::INT32, thrift_index);
+        assert_eq!(
+            res.unwrap_err(),
+            general_err!("Invalid column index: 2 byte min/max value of INT32 page 1")
+        );
+
+        let thrift_index = TColumnIndex {
+            null_pages: vec![true],
+            min_values: vec![vec![]],
+            max_values: vec![vec![]],
+            boundary_order: parquet_format::BoundaryOrder::Unordered,
+            null_counts: Some(vec![-1]),
+        };
+        let res = ColumnIndex::from_thrift(Type::INT32, thrift_index);
+        assert_eq!(
+            res.unwrap_err(),
+            general_err!("Invalid column index: negative null count -1 of page 0")
+        );
+    }
+
+    #[test]
+    fn test_offset_index_page_ranges() {
+        let index = OffsetIndex::from_thrift(TOffsetIndex {
+            page_locations: vec![
+                PageLocation::new(4, 100, 0),
+                PageLocation::new(104, 100, 10),
+                PageLocation::new(204, 100, 25),
+            ],
+        });
+
+        assert_eq!(index.num_pages(), 3);
+        assert_eq!(index.page_row_ranges(40), vec![0..10, 10..25, 25..40]);
+
+        assert_eq!(index.pages_for_rows(40, &[]), Vec::<usize>::new());
+        assert_eq!(index.pages_for_rows(40, &[0..1]), vec![0]);
+        assert_eq!(index.pages_for_rows(40, &[9..11]), vec![0, 1]);
+        assert_eq!(index.pages_for_rows(40, &[10..25, 39..40]), vec![1, 2]);
+    }
+}
@@ -0,0 +1,151 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+//! Contains functions to read the page index of column chunks from a file.
+//!
+//! The column indexes and offset indexes of all column chunks of a row group are
+//! normally written next to each other, so each of them is fetched with a single read
+//! covering the indexes of all column chunks of the row group.
+
+use std::io::Read;
+use std::ops::Range;
+
+use parquet_format::{ColumnIndex as TColumnIndex, OffsetIndex as TOffsetIndex};
+use thrift::protocol::TCompactInputProtocol;
+
+use crate::errors::Result;
+use crate::file::metadata::{ColumnChunkMetaData, ParquetMetaData};
+use crate::file::page_index::index::{ColumnIndex, OffsetIndex};
+use crate::file::reader::ChunkReader;
+
+/// Reads the column index and offset index of every column chunk in `metadata` and
+/// attaches them to the corresponding [`ColumnChunkMetaData`].
+///
+/// Column chunks that were written without a page index are left untouched.
+pub fn read_page_indexes<R: ChunkReader>(
+    reader: &R,
+    metadata: &mut ParquetMetaData,
+) -> Result<()> {
+    for row_group in metadata.row_groups_mut() {
+        let column_indexes = read_column_indexes(reader, row_group.columns())?;
+        let offset_indexes = read_offset_indexes(reader, row_group.columns())?;
+
+        row_group
+            .columns_mut()
+            .iter_mut()
+            .zip(column_indexes.into_iter().zip(offset_indexes.into_iter()))
+            .for_each(|(column, (column_index, offset_index))| {
+                column.set_page_index(column_index, offset_index)
+            });
+    }
+    Ok(())
+}
+
+/// Reads the [`ColumnIndex`] of every column chunk in `chunks`.
+/// Returns `None` for column chunks without a column index.
+pub fn read_column_indexes<R: ChunkReader>(
+    reader: &R,
+    chunks: &[ColumnChunkMetaData],
+) -> Result<Vec<Option<ColumnIndex>>> {
+    let ranges = chunks
+        .iter()
+        .map(|c| index_range(c.column_index_offset(), c.column_index_length()))
+        .collect::<Vec<_>>();
+
+    read_indexes(reader, &ranges, |i, data| {
+        let mut prot = TCompactInputProtocol::new(data);
+        let index = TColumnIndex::read_from_in_protocol(&mut prot)?;
+        ColumnIndex::from_thrift(chunks[i].column_type(), index)
+    })
+}
+
+/// Reads the [`OffsetIndex`] of every column chunk in `chunks`.
+/// Returns `None` for column chunks without an offset index.
+pub fn read_offset_indexes<R: ChunkReader>(
+    reader: &R,
+    chunks: &[ColumnChunkMetaData],
+) -> Result<Vec<Option<OffsetIndex>>> {
+    let ranges = chunks
+        .iter()
+        .map(|c| index_range(c.offset_index_offset(), c.offset_index_length()))
+        .collect::<Vec<_>>();
+
+    read_indexes(reader, &ranges, |_, data| {
+        let mut prot = TCompactInputProtocol::new(data);
+        let index = TOffsetIndex::read_from_in_protocol(&mut prot)?;
+        Ok(OffsetIndex::from_thrift(index))
+    })
+}
+
+/// Returns the byte range of an index from its offset and length, if both are valid.
+fn index_range(offset: Option<i64>, length: Option<i32>) -> Option<Range<u64>> {
+    match (offset, length) {
+        (Some(offset), Some(length)) if offset >= 0 && length > 0 => {
+            Some(offset as u64..offset as u64 + length as u64)
+        }
+        _ => None,
+    }
+}
+
+/// Reads the bytes spanning all `ranges` at once and decodes each range with `decode`,
+/// which is called with the position of the range and its bytes.
+fn read_indexes<R, T, F>(
+    reader: &R,
+    ranges: &[Option<Range<u64>>],
+    decode: F,
+) -> Result<Vec<Option<T>>>
+where
+    R: ChunkReader,
+    F: Fn(usize, &[u8]) -> Result<T>,
+{
+    let start = ranges.iter().flatten().map(|r| r.start).min();
+    let end = ranges.iter().flatten().map(|r| r.end).max();
+    let (start, end) = match (start, end) {
+        (Some(start), Some(end)) => (start, end),
+        _ => return Ok(ranges.iter().map(|_| None).collect()),
+    };
+
+    let mut data = vec![0; (end - start) as usize];
+    reader.get_read(start, data.len())?.read_exact(&mut data)?;
+
+    ranges
+        .iter()
+        .enumerate()
+        .map(|(i, range)| {
+            range
+                .as_ref()
+                .map(|r| {
+                    decode(i, &data[(r.start - start) as usize..(r.end - start) as usize])
+                })
+                .transpose()
+        })
+        .collect()
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    #[test]
+    fn test_index_range() {
+        assert_eq!(index_range(Some(10), Some(5)), Some(10..15));
+        assert_eq!(index_range(Some(10), None), None);
+        assert_eq!(index_range(None, Some(5)), None);
+        assert_eq!(index_range(Some(-1), Some(5)), None);
+        assert_eq!(index_range(Some(10), Some(0)), None);
+    }
+}
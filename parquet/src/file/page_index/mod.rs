@@ -0,0 +1,33 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+//! Contains definitions for the page index of a column chunk.
+//!
+//! The page index is stored between the row groups and the footer of a file and consists
+//! of two structures per column chunk:
+//!
+//! * [`ColumnIndex`] with the min/max values and null counts of every data page, that
+//!   can be used to prune pages when evaluating a predicate;
+//! * [`OffsetIndex`] with the location and first row index of every data page, that can
+//!   be used to seek directly to the pages that need to be read.
+//!
+//! See [`index_reader`] for reading them from a file.
+
+pub mod index;
+pub mod index_reader;
+
+pub use self::index::{ColumnIndex, OffsetIndex, PageLocation};
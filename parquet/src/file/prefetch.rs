@@ -0,0 +1,174 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+//! Contains utilities to fetch the column chunks of a row group up front, with few large
+//! reads instead of one small read per column chunk.
+//!
+//! The byte ranges to fetch are first merged by [`coalesce_ranges`] when the gap
+//! between them is small enough, so that reading the bytes in the gap is cheaper than
+//! issuing another read. [`PrefetchedChunks`] then holds the fetched bytes and serves
+//! reads of any range they contain without copying.
+
+use std::io::{Cursor, Read};
+use std::ops::Range;
+
+use crate::errors::Result;
+use crate::file::reader::{ChunkReader, Length};
+use crate::util::memory::ByteBufferPtr;
+
+/// Default maximum gap, in bytes, between two byte ranges that are fetched with a
+/// single read.
+pub const DEFAULT_COALESCE_GAP: u64 = 1024 * 1024;
+
+/// Sorts `ranges` and merges the ranges that overlap or are at most `max_gap` bytes
+/// apart. Empty ranges are dropped.
+pub fn coalesce_ranges(ranges: &[Range<u64>], max_gap: u64) -> Vec<Range<u64>> {
+    let mut ranges = ranges
+        .iter()
+        .filter(|range| range.start < range.end)
+        .cloned()
+        .collect::<Vec<_>>();
+    ranges.sort_unstable_by_key(|range| range.start);
+
+    let mut merged: Vec<Range<u64>> = Vec::with_capacity(ranges.len());
+    for range in ranges {
+        match merged.last_mut() {
+            Some(last) if range.start <= last.end.saturating_add(max_gap) => {
+                last.end = last.end.max(range.end);
+            }
+            _ => merged.push(range),
+        }
+    }
+    merged
+}
+
+/// Bytes of some ranges of a file, fetched in memory.
+///
+/// Reads of a range that is contained in one of the fetched ranges share its buffer,
+/// any other read fails.
+#[derive(Debug, Clone, Default)]
+pub struct PrefetchedChunks {
+    // Start offset and bytes of each fetched range, sorted by start offset
+    chunks: Vec<(u64, ByteBufferPtr)>,
+}
+
+impl PrefetchedChunks {
+    /// Creates chunks from the bytes of some ranges, given with their start offset.
+    /// The ranges must not overlap.
+    pub fn new(mut chunks: Vec<(u64, ByteBufferPtr)>) -> Self {
+        chunks.sort_unstable_by_key(|(start, _)| *start);
+        Self { chunks }
+    }
+
+    /// Fetches `ranges` from `reader`, reading the ranges merged by [`coalesce_ranges`]
+    /// with `max_gap` in one read each.
+    pub fn fetch<R: ChunkReader>(
+        reader: &R,
+        ranges: &[Range<u64>],
+        max_gap: u64,
+    ) -> Result<Self> {
+        let chunks = coalesce_ranges(ranges, max_gap)
+            .into_iter()
+            .map(|range| {
+                let length = (range.end - range.start) as usize;
+                let mut buf = vec![0; length];
+                reader.get_read(range.start, length)?.read_exact(&mut buf)?;
+                Ok((range.start, ByteBufferPtr::new(buf)))
+            })
+            .collect::<Result<Vec<_>>>()?;
+        Ok(Self { chunks })
+    }
+
+    /// Returns the bytes of the `length` bytes long range at `start`, without copying.
+    pub fn get(&self, start: u64, length: usize) -> Result<ByteBufferPtr> {
+        // The last chunk starting at or before `start` is the only one that may hold it
+        let index = self.chunks.partition_point(|(offset, _)| *offset <= start);
+        match index.checked_sub(1).map(|i| &self.chunks[i]) {
+            Some((offset, data))
+                if start + length as u64 <= offset + data.len() as u64 =>
+            {
+                Ok(data.range((start - offset) as usize, length))
+            }
+            _ => Err(general_err!(
+                "Bytes {}..{} have not been fetched",
+                start,
+                start + length as u64
+            )),
+        }
+    }
+}
+
+impl Length for PrefetchedChunks {
+    fn len(&self) -> u64 {
+        self.chunks
+            .last()
+            .map(|(start, data)| start + data.len() as u64)
+            .unwrap_or(0)
+    }
+}
+
+impl ChunkReader for PrefetchedChunks {
+    type T = Cursor<ByteBufferPtr>;
+
+    fn get_read(&self, start: u64, length: usize) -> Result<Self::T> {
+        self.get(start, length).map(Cursor::new)
+    }
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    use crate::util::cursor::SliceableCursor;
+
+    #[test]
+    fn test_coalesce_ranges() {
+        let ranges = vec![40..50, 0..10, 12..20, 5..8, 100..120, 30..30];
+        assert_eq!(
+            coalesce_ranges(&ranges, 0),
+            vec![0..10, 12..20, 40..50, 100..120]
+        );
+        assert_eq!(coalesce_ranges(&ranges, 2), vec![0..20, 40..50, 100..120]);
+        assert_eq!(coalesce_ranges(&ranges, 20), vec![0..50, 100..120]);
+        assert_eq!(coalesce_ranges(&ranges, 50), vec![0..120]);
+        assert_eq!(coalesce_ranges(&[], 50), vec![]);
+    }
+
+    #[test]
+    fn test_prefetched_chunks() {
+        let data = (0..=255).collect::<Vec<u8>>();
+        let reader = SliceableCursor::new(data);
+        let chunks = PrefetchedChunks::fetch(&reader, &[10..20, 25..30, 100..110], 5)
+            .unwrap();
+        assert_eq!(chunks.len(), 110);
+
+        assert_eq!(chunks.get(12, 4).unwrap().as_ref(), &[12, 13, 14, 15]);
+        assert_eq!(chunks.get(20, 10).unwrap().data(), &(20..30).collect::<Vec<u8>>());
+        assert_eq!(chunks.get(100, 10).unwrap().data(), &(100..110).collect::<Vec<u8>>());
+
+        let mut buf = vec![];
+        chunks.get_read(105, 5).unwrap().read_to_end(&mut buf).unwrap();
+        assert_eq!(buf, vec![105, 106, 107, 108, 109]);
+
+        assert!(chunks.get(0, 5).is_err());
+        assert!(chunks.get(28, 5).is_err());
+        assert_eq!(
+            chunks.get(110, 1).unwrap_err(),
+            general_err!("Bytes 110..111 have not been fetched")
+        );
+    }
+}
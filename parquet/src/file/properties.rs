@@ -63,6 +63,10 @@ const DEFAULT_DICTIONARY_PAGE_SIZE_LIMIT: usize = DEFAULT_PAGE_SIZE;
 const DEFAULT_STATISTICS_ENABLED: bool = true;
 const DEFAULT_MAX_STATISTICS_SIZE: usize = 4096;
 const DEFAULT_MAX_ROW_GROUP_SIZE: usize = 128 * 1024 * 1024;
+const DEFAULT_PAGE_INDEX_ENABLED: bool = false;
+const DEFAULT_BLOOM_FILTER_ENABLED: bool = false;
+const DEFAULT_BLOOM_FILTER_FPP: f64 = 0.05;
+const DEFAULT_BLOOM_FILTER_NDV: u64 = 1_000_000;
 const DEFAULT_CREATED_BY: &str = env!("PARQUET_CREATED_BY");
 
 /// Parquet writer version.
@@ -98,6 +102,7 @@ pub struct WriterProperties {
     write_batch_size: usize,
     max_row_group_size: usize,
     writer_version: WriterVersion,
+    page_index_enabled: bool,
     created_by: String,
     pub(crate) key_value_metadata: Option<Vec<KeyValue>>,
     default_column_properties: ColumnProperties,
@@ -139,6 +144,12 @@ impl WriterProperties {
         self.writer_version
     }
 
+    /// Returns `true` if the column index and offset index of every column chunk are
+    /// written before the file footer.
+    pub fn page_index_enabled(&self) -> bool {
+        self.page_index_enabled
+    }
+
     /// Returns `created_by` string.
     pub fn created_by(&self) -> &str {
         &self.created_by
@@ -215,6 +226,37 @@ impl WriterProperties {
             .or_else(|| self.default_column_properties.max_statistics_size())
             .unwrap_or(DEFAULT_MAX_STATISTICS_SIZE)
     }
+
+    /// Returns `true` if a bloom filter is written for the column chunks of a column.
+    pub fn bloom_filter_enabled(&self, col: &ColumnPath) -> bool {
+        self.column_properties
+            .get(col)
+            .and_then(|c| c.bloom_filter_enabled())
+            .or_else(|| self.default_column_properties.bloom_filter_enabled())
+            .unwrap_or(DEFAULT_BLOOM_FILTER_ENABLED)
+    }
+
+    /// Returns the false positive probability that the bloom filters of a column are
+    /// sized for.
+    /// Only applicable if bloom filters are enabled.
+    pub fn bloom_filter_fpp(&self, col: &ColumnPath) -> f64 {
+        self.column_properties
+            .get(col)
+            .and_then(|c| c.bloom_filter_fpp())
+            .or_else(|| self.default_column_properties.bloom_filter_fpp())
+            .unwrap_or(DEFAULT_BLOOM_FILTER_FPP)
+    }
+
+    /// Returns the number of distinct values per column chunk that the bloom filters
+    /// of a column are sized for.
+    /// Only applicable if bloom filters are enabled.
+    pub fn bloom_filter_ndv(&self, col: &ColumnPath) -> u64 {
+        self.column_properties
+            .get(col)
+            .and_then(|c| c.bloom_filter_ndv())
+            .or_else(|| self.default_column_properties.bloom_filter_ndv())
+            .unwrap_or(DEFAULT_BLOOM_FILTER_NDV)
+    }
 }
 
 /// Writer properties builder.
@@ -224,6 +266,7 @@ pub struct WriterPropertiesBuilder {
     write_batch_size: usize,
     max_row_group_size: usize,
     writer_version: WriterVersion,
+    page_index_enabled: bool,
     created_by: String,
     key_value_metadata: Option<Vec<KeyValue>>,
     default_column_properties: ColumnProperties,
@@ -239,6 +282,7 @@ impl WriterPropertiesBuilder {
             write_batch_size: DEFAULT_WRITE_BATCH_SIZE,
             max_row_group_size: DEFAULT_MAX_ROW_GROUP_SIZE,
             writer_version: DEFAULT_WRITER_VERSION,
+            page_index_enabled: DEFAULT_PAGE_INDEX_ENABLED,
             created_by: DEFAULT_CREATED_BY.to_string(),
             key_value_metadata: None,
             default_column_properties: ColumnProperties::new(),
@@ -254,6 +298,7 @@ impl WriterPropertiesBuilder {
             write_batch_size: self.write_batch_size,
             max_row_group_size: self.max_row_group_size,
             writer_version: self.writer_version,
+            page_index_enabled: self.page_index_enabled,
             created_by: self.created_by,
             key_value_metadata: self.key_value_metadata,
             default_column_properties: self.default_column_properties,
@@ -295,6 +340,13 @@ impl WriterPropertiesBuilder {
         self
     }
 
+    /// Sets flag to write the page index, i.e. the column index and offset index of
+    /// every column chunk, which lets readers skip pages using per-page statistics.
+    pub fn set_page_index_enabled(mut self, value: bool) -> Self {
+        self.page_index_enabled = value;
+        self
+    }
+
     /// Sets "created by" property.
     pub fn set_created_by(mut self, value: String) -> Self {
         self.created_by = value;
@@ -352,6 +404,35 @@ impl WriterPropertiesBuilder {
         self
     }
 
+    /// Sets flag to enable/disable bloom filters for any column.
+    ///
+    /// The bloom filter of a column chunk is written after the column chunks of its row
+    /// group. Its offset is stored in the column chunk key-value metadata under
+    /// [`BLOOM_FILTER_OFFSET_KEY`](crate::file::bloom_filter::BLOOM_FILTER_OFFSET_KEY),
+    /// since the Parquet format version this crate is built with has no
+    /// `bloom_filter_offset` field. Other Parquet implementations do not find these
+    /// bloom filters.
+    pub fn set_bloom_filter_enabled(mut self, value: bool) -> Self {
+        self.default_column_properties
+            .set_bloom_filter_enabled(value);
+        self
+    }
+
+    /// Sets the false positive probability of bloom filters for any column.
+    /// Applicable only if bloom filters are enabled.
+    pub fn set_bloom_filter_fpp(mut self, value: f64) -> Self {
+        self.default_column_properties.set_bloom_filter_fpp(value);
+        self
+    }
+
+    /// Sets the number of distinct values per column chunk of bloom filters for any
+    /// column.
+    /// Applicable only if bloom filters are enabled.
+    pub fn set_bloom_filter_ndv(mut self, value: u64) -> Self {
+        self.default_column_properties.set_bloom_filter_ndv(value);
+        self
+    }
+
     // ----------------------------------------------------------------------
     // Setters for a specific column
 
@@ -409,6 +490,33 @@ impl WriterPropertiesBuilder {
         self.get_mut_props(col).set_max_statistics_size(value);
         self
     }
+
+    /// Sets flag to enable/disable bloom filters for a column.
+    /// Takes precedence over globally defined settings.
+    /// See [`Self::set_bloom_filter_enabled`] for how bloom filters are written.
+    pub fn set_column_bloom_filter_enabled(
+        mut self,
+        col: ColumnPath,
+        value: bool,
+    ) -> Self {
+        self.get_mut_props(col).set_bloom_filter_enabled(value);
+        self
+    }
+
+    /// Sets the false positive probability of bloom filters for a column.
+    /// Takes precedence over globally defined settings.
+    pub fn set_column_bloom_filter_fpp(mut self, col: ColumnPath, value: f64) -> Self {
+        self.get_mut_props(col).set_bloom_filter_fpp(value);
+        self
+    }
+
+    /// Sets the number of distinct values per column chunk of bloom filters for a
+    /// column.
+    /// Takes precedence over globally defined settings.
+    pub fn set_column_bloom_filter_ndv(mut self, col: ColumnPath, value: u64) -> Self {
+        self.get_mut_props(col).set_bloom_filter_ndv(value);
+        self
+    }
 }
 
 /// Container for column properties that can be changed as part of writer.
@@ -422,6 +530,9 @@ struct ColumnProperties {
     dictionary_enabled: Option<bool>,
     statistics_enabled: Option<bool>,
     max_statistics_size: Option<usize>,
+    bloom_filter_enabled: Option<bool>,
+    bloom_filter_fpp: Option<f64>,
+    bloom_filter_ndv: Option<u64>,
 }
 
 impl ColumnProperties {
@@ -433,6 +544,9 @@ impl ColumnProperties {
             dictionary_enabled: None,
             statistics_enabled: None,
             max_statistics_size: None,
+            bloom_filter_enabled: None,
+            bloom_filter_fpp: None,
+            bloom_filter_ndv: None,
         }
     }
 
@@ -472,6 +586,26 @@ impl ColumnProperties {
         self.max_statistics_size = Some(value);
     }
 
+    /// Sets whether or not bloom filters are enabled for this column.
+    fn set_bloom_filter_enabled(&mut self, enabled: bool) {
+        self.bloom_filter_enabled = Some(enabled);
+    }
+
+    /// Sets the false positive probability of bloom filters for this column.
+    ///
+    /// Panics if the probability is not between 0 and 1 exclusive.
+    fn set_bloom_filter_fpp(&mut self, value: f64) {
+        if !(value > 0.0 && value < 1.0) {
+            panic!("Bloom filter false positive probability must be between 0 and 1");
+        }
+        self.bloom_filter_fpp = Some(value);
+    }
+
+    /// Sets the number of distinct values of bloom filters for this column.
+    fn set_bloom_filter_ndv(&mut self, value: u64) {
+        self.bloom_filter_ndv = Some(value);
+    }
+
     /// Returns optional encoding for this column.
     fn encoding(&self) -> Option<Encoding> {
         self.encoding
@@ -499,6 +633,23 @@ impl ColumnProperties {
     fn max_statistics_size(&self) -> Option<usize> {
         self.max_statistics_size
     }
+
+    /// Returns `Some(true)` if bloom filters are enabled for this column, if disabled
+    /// then returns `Some(false)`. If result is `None`, then no setting has been
+    /// provided.
+    fn bloom_filter_enabled(&self) -> Option<bool> {
+        self.bloom_filter_enabled
+    }
+
+    /// Returns optional false positive probability of bloom filters.
+    fn bloom_filter_fpp(&self) -> Option<f64> {
+        self.bloom_filter_fpp
+    }
+
+    /// Returns optional number of distinct values of bloom filters.
+    fn bloom_filter_ndv(&self) -> Option<u64> {
+        self.bloom_filter_ndv
+    }
 }
 
 #[cfg(test)]
@@ -522,6 +673,7 @@ mod tests {
         assert_eq!(props.write_batch_size(), DEFAULT_WRITE_BATCH_SIZE);
         assert_eq!(props.max_row_group_size(), DEFAULT_MAX_ROW_GROUP_SIZE);
         assert_eq!(props.writer_version(), DEFAULT_WRITER_VERSION);
+        assert_eq!(props.page_index_enabled(), DEFAULT_PAGE_INDEX_ENABLED);
         assert_eq!(props.created_by(), DEFAULT_CREATED_BY);
         assert_eq!(props.key_value_metadata(), &None);
         assert_eq!(props.encoding(&ColumnPath::from("col")), None);
@@ -541,6 +693,10 @@ mod tests {
             props.max_statistics_size(&ColumnPath::from("col")),
             DEFAULT_MAX_STATISTICS_SIZE
         );
+        assert_eq!(
+            props.bloom_filter_enabled(&ColumnPath::from("col")),
+            DEFAULT_BLOOM_FILTER_ENABLED
+        );
     }
 
     #[test]
@@ -604,6 +760,7 @@ mod tests {
             .set_dictionary_pagesize_limit(20)
             .set_write_batch_size(30)
             .set_max_row_group_size(40)
+            .set_page_index_enabled(true)
             .set_created_by("default".to_owned())
             .set_key_value_metadata(Some(vec![KeyValue::new(
                 "key".to_string(),
@@ -615,12 +772,15 @@ mod tests {
             .set_dictionary_enabled(false)
             .set_statistics_enabled(false)
             .set_max_statistics_size(50)
+            .set_bloom_filter_fpp(0.1)
             // specific column settings
             .set_column_encoding(ColumnPath::from("col"), Encoding::RLE)
             .set_column_compression(ColumnPath::from("col"), Compression::SNAPPY)
             .set_column_dictionary_enabled(ColumnPath::from("col"), true)
             .set_column_statistics_enabled(ColumnPath::from("col"), true)
             .set_column_max_statistics_size(ColumnPath::from("col"), 123)
+            .set_column_bloom_filter_enabled(ColumnPath::from("col"), true)
+            .set_column_bloom_filter_ndv(ColumnPath::from("col"), 1000)
             .build();
 
         assert_eq!(props.writer_version(), WriterVersion::PARQUET_2_0);
@@ -628,6 +788,7 @@ mod tests {
         assert_eq!(props.dictionary_pagesize_limit(), 20);
         assert_eq!(props.write_batch_size(), 30);
         assert_eq!(props.max_row_group_size(), 40);
+        assert!(props.page_index_enabled());
         assert_eq!(props.created_by(), "default");
         assert_eq!(
             props.key_value_metadata(),
@@ -642,6 +803,12 @@ mod tests {
         assert!(!props.dictionary_enabled(&ColumnPath::from("a")));
         assert!(!props.statistics_enabled(&ColumnPath::from("a")));
         assert_eq!(props.max_statistics_size(&ColumnPath::from("a")), 50);
+        assert!(!props.bloom_filter_enabled(&ColumnPath::from("a")));
+        assert_eq!(props.bloom_filter_fpp(&ColumnPath::from("a")), 0.1);
+        assert_eq!(
+            props.bloom_filter_ndv(&ColumnPath::from("a")),
+            DEFAULT_BLOOM_FILTER_NDV
+        );
 
         assert_eq!(
             props.encoding(&ColumnPath::from("col")),
@@ -654,6 +821,9 @@ mod tests {
         assert!(props.dictionary_enabled(&ColumnPath::from("col")));
         assert!(props.statistics_enabled(&ColumnPath::from("col")));
         assert_eq!(props.max_statistics_size(&ColumnPath::from("col")), 123);
+        assert!(props.bloom_filter_enabled(&ColumnPath::from("col")));
+        assert_eq!(props.bloom_filter_fpp(&ColumnPath::from("col")), 0.1);
+        assert_eq!(props.bloom_filter_ndv(&ColumnPath::from("col")), 1000);
     }
 
     #[test]
@@ -0,0 +1,632 @@
+// Licensed to the Apache Software Foundation (ASF) under one
+// or more contributor license agreements.  See the NOTICE file
+// distributed with this work for additional information
+// regarding copyright ownership.  The ASF licenses this file
+// to you under the Apache License, Version 2.0 (the
+// "License"); you may not use this file except in compliance
+// with the License.  You may obtain a copy of the License at
+//
+//   http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+//! Contains [`RowGroupPruner`], which finds the row groups of a file that may contain
+//! rows matching simple predicates on leaf columns, using the statistics of their
+//! column chunks.
+//!
+//! # Example
+//!
+//! ```rust,no_run
+//! use std::fs::File;
+//!
+//! use parquet::file::pruning::{ColumnPredicate, RowGroupPruner};
+//! use parquet::file::reader::{FileReader, SerializedFileReader};
+//! use parquet::schema::types::ColumnPath;
+//!
+//! let file = File::open("data.parquet").unwrap();
+//! let mut reader = SerializedFileReader::new(file).unwrap();
+//!
+//! // Rows where `id` = 42 and `name` is not null
+//! let pruner = RowGroupPruner::new()
+//!     .with_predicate(ColumnPath::from("id"), ColumnPredicate::Eq(42i64.into()))
+//!     .with_predicate(ColumnPath::from("name"), ColumnPredicate::IsNotNull);
+//! reader.prune_row_groups(&pruner).unwrap();
+//!
+//! for row in reader.get_row_iter(None).unwrap() {
+//!     println!("{}", row);
+//! }
+//! ```
+
+use std::cmp::Ordering;
+use std::iter;
+
+use crate::basic::{ColumnOrder, SortOrder, Type};
+use crate::data_type::{ByteArray, FixedLenByteArray};
+use crate::errors::{ParquetError, Result};
+use crate::file::metadata::{ColumnChunkMetaData, ParquetMetaData};
+use crate::file::statistics::Statistics;
+use crate::schema::types::ColumnPath;
+
+/// A value compared with the values of a leaf column, in the physical type of the
+/// column.
+///
+/// Values of unsigned integer columns are given as the signed integers of the same
+/// bits, as they are stored, and values of decimal columns as their unscaled value
+/// in the physical type of the column.
+#[derive(Debug, Clone, PartialEq)]
+pub enum ColumnValue {
+    Boolean(bool),
+    Int32(i32),
+    Int64(i64),
+    Float(f32),
+    Double(f64),
+    /// A value of a `BYTE_ARRAY` or `FIXED_LEN_BYTE_ARRAY` column.
+    Bytes(Vec<u8>),
+}
+
+impl ColumnValue {
+    /// Returns `true` if this value can be compared with the values of a column of
+    /// physical type `physical_type`.
+    fn is_of_type(&self, physical_type: Type) -> bool {
+        matches!(
+            (self, physical_type),
+            (ColumnValue::Boolean(_), Type::BOOLEAN)
+                | (ColumnValue::Int32(_), Type::INT32)
+                | (ColumnValue::Int64(_), Type::INT64)
+                | (ColumnValue::Float(_), Type::FLOAT)
+                | (ColumnValue::Double(_), Type::DOUBLE)
+                | (ColumnValue::Bytes(_), Type::BYTE_ARRAY)
+                | (ColumnValue::Bytes(_), Type::FIXED_LEN_BYTE_ARRAY)
+        )
+    }
+
+    fn as_scalar(&self) -> Scalar {
+        match self {
+            ColumnValue::Boolean(v) => Scalar::Boolean(*v),
+            ColumnValue::Int32(v) => Scalar::Int32(*v),
+            ColumnValue::Int64(v) => Scalar::Int64(*v),
+            ColumnValue::Float(v) => Scalar::Float(*v),
+            ColumnValue::Double(v) => Scalar::Double(*v),
+            ColumnValue::Bytes(v) => Scalar::Bytes(v.as_slice()),
+        }
+    }
+}
+
+macro_rules! column_value_from {
+    ($ty:ty, $variant:ident) => {
+        impl From<$ty> for ColumnValue {
+            fn from(value: $ty) -> Self {
+                ColumnValue::$variant(value.into())
+            }
+        }
+    };
+}
+
+column_value_from!(bool, Boolean);
+column_value_from!(i32, Int32);
+column_value_from!(i64, Int64);
+column_value_from!(f32, Float);
+column_value_from!(f64, Double);
+column_value_from!(Vec<u8>, Bytes);
+column_value_from!(&[u8], Bytes);
+column_value_from!(String, Bytes);
+column_value_from!(&str, Bytes);
+
+impl From<ByteArray> for ColumnValue {
+    fn from(value: ByteArray) -> Self {
+        ColumnValue::Bytes(value.data().to_vec())
+    }
+}
+
+impl From<FixedLenByteArray> for ColumnValue {
+    fn from(value: FixedLenByteArray) -> Self {
+        ColumnValue::Bytes(value.data().to_vec())
+    }
+}
+
+/// A predicate on the values of a leaf column.
+///
+/// Comparisons never match null values.
+#[derive(Debug, Clone, PartialEq)]
+pub enum ColumnPredicate {
+    /// Value equal to the given value
+    Eq(ColumnValue),
+    /// Value less than the given value
+    Lt(ColumnValue),
+    /// Value less than or equal to the given value
+    LtEq(ColumnValue),
+    /// Value greater than the given value
+    Gt(ColumnValue),
+    /// Value greater than or equal to the given value
+    GtEq(ColumnValue),
+    /// Value equal to any of the given values
+    In(Vec<ColumnValue>),
+    /// Null value
+    IsNull,
+    /// Non-null value
+    IsNotNull,
+}
+
+impl ColumnPredicate {
+    fn values(&self) -> &[ColumnValue] {
+        match self {
+            ColumnPredicate::Eq(v)
+            | ColumnPredicate::Lt(v)
+            | ColumnPredicate::LtEq(v)
+            | ColumnPredicate::Gt(v)
+            | ColumnPredicate::GtEq(v) => std::slice::from_ref(v),
+            ColumnPredicate::In(values) => values,
+            ColumnPredicate::IsNull | ColumnPredicate::IsNotNull => &[],
+        }
+    }
+}
+
+/// Finds the row groups that may contain rows matching all of a set of predicates on
+/// leaf columns, from the statistics of their column chunks.
+///
+/// A row group is pruned only when the statistics of one of its column chunks prove
+/// that no value of the chunk matches the predicate on the column:
+/// * min/max values are only used when the sort order of the column is defined.
+/// * min/max values written in the deprecated `min` and `max` fields, with the
+/// legacy signed comparison, are only used for columns sorted in signed order, and
+/// never for byte array columns.
+/// * min/max values that are NaN are not used.
+/// * `IsNull` prunes a row group when its column is required, or when the column
+/// chunk statistics have min/max values and no nulls.
+#[derive(Debug, Clone, Default)]
+pub struct RowGroupPruner {
+    predicates: Vec<(ColumnPath, ColumnPredicate)>,
+}
+
+/// A predicate resolved against the schema of a file.
+struct ResolvedPredicate<'a> {
+    column: usize,
+    required: bool,
+    sort_order: SortOrder,
+    predicate: &'a ColumnPredicate,
+}
+
+impl RowGroupPruner {
+    /// Creates a pruner without predicates, which keeps all row groups.
+    pub fn new() -> Self {
+        Self::default()
+    }
+
+    /// Adds the predicate `predicate` on the leaf column at `column`, which must hold
+    /// together with the other predicates.
+    pub fn with_predicate(
+        mut self,
+        column: ColumnPath,
+        predicate: ColumnPredicate,
+    ) -> Self {
+        self.predicates.push((column, predicate));
+        self
+    }
+
+    /// Returns the positions of the row groups of `metadata` that may contain rows
+    /// matching all predicates, in order.
+    ///
+    /// Returns an error if a predicate refers to a column that is not a leaf column
+    /// of the file, or compares it with values of another physical type.
+    pub fn prune(&self, metadata: &ParquetMetaData) -> Result<Vec<usize>> {
+        let predicates = self.resolve(metadata)?;
+        Ok(metadata
+            .row_groups()
+            .iter()
+            .enumerate()
+            .filter(|(_, row_group)| {
+                predicates.iter().all(|predicate| {
+                    column_chunk_may_match(row_group.column(predicate.column), predicate)
+                })
+            })
+            .map(|(i, _)| i)
+            .collect())
+    }
+
+    /// Resolves the columns of the predicates in the schema of `metadata`.
+    fn resolve(&self, metadata: &ParquetMetaData) -> Result<Vec<ResolvedPredicate>> {
+        let file_metadata = metadata.file_metadata();
+        let schema = file_metadata.schema_descr();
+        self.predicates
+            .iter()
+            .map(|(path, predicate)| {
+                let column = schema
+                    .columns()
+                    .iter()
+                    .position(|descr| descr.path() == path)
+                    .ok_or_else(|| general_err!("Leaf column {} not found", path))?;
+                let descr = schema.column(column);
+                let physical_type = descr.physical_type();
+                if let Some(value) = predicate
+                    .values()
+                    .iter()
+                    .find(|value| !value.is_of_type(physical_type))
+                {
+                    return Err(general_err!(
+                        "Cannot compare {} column {} with {:?}",
+                        physical_type,
+                        path,
+                        value
+                    ));
+                }
+
+                let sort_order = match file_metadata.column_order(column) {
+                    ColumnOrder::TYPE_DEFINED_ORDER(sort_order) => sort_order,
+                    ColumnOrder::UNDEFINED => ColumnOrder::get_sort_order(
+                        descr.logical_type(),
+                        descr.converted_type(),
+                        physical_type,
+                    ),
+                };
+                Ok(ResolvedPredicate {
+                    column,
+                    required: descr.max_def_level() == 0,
+                    sort_order,
+                    predicate,
+                })
+            })
+            .collect()
+    }
+}
+
+/// Returns `false` if the statistics of `column` prove that none of its values match
+/// `predicate`.
+fn column_chunk_may_match(
+    column: &ColumnChunkMetaData,
+    predicate: &ResolvedPredicate,
+) -> bool {
+    let stats = column.statistics();
+    match predicate.predicate {
+        ColumnPredicate::IsNull => {
+            // A missing null count is read as 0, so it is only trusted together with
+            // min/max values
+            !predicate.required
+                && stats.map_or(true, |stats| {
+                    stats.null_count() > 0 || !stats.has_min_max_set()
+                })
+        }
+        ColumnPredicate::IsNotNull => !all_null(column, stats),
+        _ => {
+            if all_null(column, stats) {
+                return false;
+            }
+            let (min, max) = match stats.and_then(|s| min_max(s, predicate.sort_order)) {
+                Some(min_max) => min_max,
+                None => return true,
+            };
+            let order = predicate.sort_order;
+            let may_equal = |value: &ColumnValue| {
+                let value = value.as_scalar();
+                compare(order, min, value).map_or(true, |o| o != Ordering::Greater)
+                    && compare(order, max, value).map_or(true, |o| o != Ordering::Less)
+            };
+            match predicate.predicate {
+                ColumnPredicate::Eq(value) => may_equal(value),
+                ColumnPredicate::In(values) => values.iter().any(may_equal),
+                ColumnPredicate::Lt(value) => compare(order, min, value.as_scalar())
+                    .map_or(true, |o| o == Ordering::Less),
+                ColumnPredicate::LtEq(value) => compare(order, min, value.as_scalar())
+                    .map_or(true, |o| o != Ordering::Greater),
+                ColumnPredicate::Gt(value) => compare(order, max, value.as_scalar())
+                    .map_or(true, |o| o == Ordering::Greater),
+                ColumnPredicate::GtEq(value) => compare(order, max, value.as_scalar())
+                    .map_or(true, |o| o != Ordering::Less),
+                ColumnPredicate::IsNull | ColumnPredicate::IsNotNull => unreachable!(),
+            }
+        }
+    }
+}
+
+/// Returns `true` if the column chunk has no non-null values.
+fn all_null(column: &ColumnChunkMetaData, stats: Option<&Statistics>) -> bool {
+    let null_count = stats.map_or(0, |stats| stats.null_count());
+    null_count >= column.num_values() as u64
+}
+
+/// A value of a column chunk or of a predicate, borrowed.
+#[derive(Debug, Clone, Copy)]
+enum Scalar<'a> {
+    Boolean(bool),
+    Int32(i32),
+    Int64(i64),
+    Float(f32),
+    Double(f64),
+    Bytes(&'a [u8]),
+}
+
+/// Returns the min and max values of `stats`, if they can be compared in the sort
+/// order `sort_order`.
+fn min_max(stats: &Statistics, sort_order: SortOrder) -> Option<(Scalar, Scalar)> {
+    if !stats.has_min_max_set() || sort_order == SortOrder::UNDEFINED {
+        return None;
+    }
+    if stats.is_min_max_deprecated() {
+        // Legacy writers compared all values as signed, byte arrays byte-wise
+        let is_byte_array = matches!(
+            stats.physical_type(),
+            Type::BYTE_ARRAY | Type::FIXED_LEN_BYTE_ARRAY
+        );
+        if sort_order != SortOrder::SIGNED || is_byte_array {
+            return None;
+        }
+    }
+
+    match stats {
+        Statistics::Boolean(typed) => {
+            Some((Scalar::Boolean(*typed.min()), Scalar::Boolean(*typed.max())))
+        }
+        Statistics::Int32(typed) => {
+            Some((Scalar::Int32(*typed.min()), Scalar::Int32(*typed.max())))
+        }
+        Statistics::Int64(typed) => {
+            Some((Scalar::Int64(*typed.min()), Scalar::Int64(*typed.max())))
+        }
+        Statistics::Float(typed) if !typed.min().is_nan() && !typed.max().is_nan() => {
+            Some((Scalar::Float(*typed.min()), Scalar::Float(*typed.max())))
+        }
+        Statistics::Double(typed) if !typed.min().is_nan() && !typed.max().is_nan() => {
+            Some((Scalar::Double(*typed.min()), Scalar::Double(*typed.max())))
+        }
+        Statistics::ByteArray(_) | Statistics::FixedLenByteArray(_) => {
+            Some((Scalar::Bytes(stats.min_bytes()), Scalar::Bytes(stats.max_bytes())))
+        }
+        _ => None,
+    }
+}
+
+/// Compares `left` with `right` in the sort order `sort_order`, returning `None` if
+/// they cannot be compared.
+fn compare(sort_order: SortOrder, left: Scalar, right: Scalar) -> Option<Ordering> {
+    let signed = sort_order == SortOrder::SIGNED;
+    match (left, right) {
+        (Scalar::Boolean(l), Scalar::Boolean(r)) => Some(l.cmp(&r)),
+        (Scalar::Int32(l), Scalar::Int32(r)) if signed => Some(l.cmp(&r)),
+        (Scalar::Int32(l), Scalar::Int32(r)) => Some((l as u32).cmp(&(r as u32))),
+        (Scalar::Int64(l), Scalar::Int64(r)) if signed => Some(l.cmp(&r)),
+        (Scalar::Int64(l), Scalar::Int64(r)) => Some((l as u64).cmp(&(r as u64))),
+        (Scalar::Float(l), Scalar::Float(r)) => l.partial_cmp(&r),
+        (Scalar::Double(l), Scalar::Double(r)) => l.partial_cmp(&r),
+        (Scalar::Bytes(l), Scalar::Bytes(r)) if signed => Some(compare_signed(l, r)),
+        (Scalar::Bytes(l), Scalar::Bytes(r)) => Some(l.cmp(r)),
+        _ => None,
+    }
+}
+
+/// Compares two big-endian two's complement integers of any length, the
+/// representation of decimals in byte arrays.
+fn compare_signed(left: &[u8], right: &[u8]) -> Ordering {
+    let is_negative = |bytes: &[u8]| bytes.first().map_or(false, |b| b & 0x80 != 0);
+    match (is_negative(left), is_negative(right)) {
+        (true, false) => Ordering::Less,
+        (false, true) => Ordering::Greater,
+        (negative, _) => {
+            // Sign extend the shorter value, values of the same sign then compare as
+            // unsigned
+            let len = left.len().max(right.len());
+            let extension = if negative { 0xFF } else { 0 };
+            let extended = |bytes: &[u8]| {
+                iter::repeat(extension)
+                    .take(len - bytes.len())
+                    .chain(bytes.iter().copied())
+                    .collect::<Vec<u8>>()
+            };
+            extended(left).cmp(&extended(right))
+        }
+    }
+}
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+
+    use std::sync::Arc;
+
+    use crate::file::metadata::{FileMetaData, RowGroupMetaData};
+    use crate::schema::parser::parse_message_type;
+    use crate::schema::types::SchemaDescriptor;
+
+    /// Returns metadata of row groups with column chunks of statistics `stats`, for
+    /// the columns `id`, `name` and `opt` of 100 values.
+    fn metadata(stats: Vec<Vec<Option<Statistics>>>) -> ParquetMetaData {
+        let schema = parse_message_type(
+            "
+            message schema {
+                REQUIRED INT32 id;
+                OPTIONAL BYTE_ARRAY name (UTF8);
+                OPTIONAL INT32 opt (UINT_32);
+            }
+            ",
+        )
+        .unwrap();
+        let schema_descr = Arc::new(SchemaDescriptor::new(Arc::new(schema)));
+
+        let row_groups = stats
+            .into_iter()
+            .map(|row_group_stats| {
+                let columns = schema_descr
+                    .columns()
+                    .iter()
+                    .zip(row_group_stats)
+                    .map(|(descr, stats)| {
+                        let builder = ColumnChunkMetaData::builder(descr.clone())
+                            .set_num_values(100);
+                        let builder = match stats {
+                            Some(stats) => builder.set_statistics(stats),
+                            None => builder,
+                        };
+                        builder.build().unwrap()
+                    })
+                    .collect();
+                RowGroupMetaData::builder(schema_descr.clone())
+                    .set_num_rows(100)
+                    .set_column_metadata(columns)
+                    .build()
+                    .unwrap()
+            })
+            .collect::<Vec<_>>();
+
+        let num_rows = 100 * row_groups.len() as i64;
+        let file_metadata =
+            FileMetaData::new(1, num_rows, None, None, schema_descr, None);
+        ParquetMetaData::new(file_metadata, row_groups)
+    }
+
+    fn int32(min: i32, max: i32, nulls: u64) -> Option<Statistics> {
+        Some(Statistics::int32(Some(min), Some(max), None, nulls, false))
+    }
+
+    fn byte_array(min: &str, max: &str, nulls: u64) -> Option<Statistics> {
+        Some(Statistics::byte_array(
+            Some(min.into()),
+            Some(max.into()),
+            None,
+            nulls,
+            false,
+        ))
+    }
+
+    fn prune(
+        metadata: &ParquetMetaData,
+        column: &str,
+        predicate: ColumnPredicate,
+    ) -> Vec<usize> {
+        RowGroupPruner::new()
+            .with_predicate(ColumnPath::from(column), predicate)
+            .prune(metadata)
+            .unwrap()
+    }
+
+    #[test]
+    fn test_prune_comparisons() {
+        let metadata = metadata(vec![
+            vec![int32(0, 99, 0), None, None],
+            vec![int32(100, 199, 0), None, None],
+            vec![None, None, None],
+        ]);
+
+        assert_eq!(prune(&metadata, "id", ColumnPredicate::Eq(150.into())), vec![1, 2]);
+        assert_eq!(prune(&metadata, "id", ColumnPredicate::Eq(500.into())), vec![2]);
+        assert_eq!(prune(&metadata, "id", ColumnPredicate::Lt(100.into())), vec![0, 2]);
+        assert_eq!(
+            prune(&metadata, "id", ColumnPredicate::LtEq(100.into())),
+            vec![0, 1, 2]
+        );
+        assert_eq!(prune(&metadata, "id", ColumnPredicate::Gt(99.into())), vec![1, 2]);
+        assert_eq!(
+            prune(&metadata, "id", ColumnPredicate::GtEq(99.into())),
+            vec![0, 1, 2]
+        );
+        assert_eq!(
+            prune(
+                &metadata,
+                "id",
+                ColumnPredicate::In(vec![(-5).into(), 250.into(), 42.into()])
+            ),
+            vec![0, 2]
+        );
+    }
+
+    #[test]
+    fn test_prune_nulls() {
+        let metadata = metadata(vec![
+            vec![int32(0, 99, 0), byte_array("a", "b", 0), int32(1, 2, 0)],
+            vec![int32(0, 99, 0), byte_array("a", "b", 3), int32(1, 2, 100)],
+            vec![int32(0, 99, 0), None, None],
+        ]);
+
+        assert_eq!(prune(&metadata, "id", ColumnPredicate::IsNull), Vec::<usize>::new());
+        assert_eq!(prune(&metadata, "name", ColumnPredicate::IsNull), vec![1, 2]);
+        assert_eq!(prune(&metadata, "opt", ColumnPredicate::IsNotNull), vec![0, 2]);
+        assert_eq!(prune(&metadata, "opt", ColumnPredicate::Eq(1.into())), vec![0, 2]);
+    }
+
+    #[test]
+    fn test_prune_sort_order() {
+        let metadata = metadata(vec![
+            vec![None, byte_array("apple", "banana", 0), int32(1, -1, 0)],
+            vec![None, byte_array("cherry", "\u{e9}clair", 0), int32(1, 2, 0)],
+        ]);
+
+        // Byte arrays compare unsigned
+        assert_eq!(prune(&metadata, "name", ColumnPredicate::Eq("date".into())), vec![1]);
+        assert_eq!(prune(&metadata, "name", ColumnPredicate::Lt("b".into())), vec![0]);
+        // UINT_32 compares unsigned: -1 is u32::MAX
+        assert_eq!(prune(&metadata, "opt", ColumnPredicate::Eq(3.into())), vec![0]);
+        assert_eq!(prune(&metadata, "opt", ColumnPredicate::Gt(2.into())), vec![0]);
+    }
+
+    #[test]
+    fn test_prune_deprecated_statistics() {
+        let deprecated_int32 = Some(Statistics::int32(Some(0), Some(99), None, 0, true));
+        let deprecated_byte_array = Some(Statistics::byte_array(
+            Some("a".into()),
+            Some("b".into()),
+            None,
+            0,
+            true,
+        ));
+        let metadata = metadata(vec![vec![
+            deprecated_int32.clone(),
+            deprecated_byte_array,
+            deprecated_int32,
+        ]]);
+
+        // Legacy signed order is the order of signed integers only
+        assert_eq!(
+            prune(&metadata, "id", ColumnPredicate::Eq(500.into())),
+            Vec::<usize>::new()
+        );
+        assert_eq!(prune(&metadata, "name", ColumnPredicate::Eq("z".into())), vec![0]);
+        assert_eq!(prune(&metadata, "opt", ColumnPredicate::Eq(500.into())), vec![0]);
+    }
+
+    #[test]
+    fn test_prune_conjunction() {
+        let metadata = metadata(vec![
+            vec![int32(0, 99, 0), byte_array("a", "m", 0), None],
+            vec![int32(0, 99, 0), byte_array("n", "z", 0), None],
+            vec![int32(100, 199, 0), byte_array("a", "z", 0), None],
+        ]);
+
+        let pruner = RowGroupPruner::new()
+            .with_predicate(ColumnPath::from("id"), ColumnPredicate::Lt(100.into()))
+            .with_predicate(ColumnPath::from("name"), ColumnPredicate::Eq("q".into()));
+        assert_eq!(pruner.prune(&metadata).unwrap(), vec![1]);
+        assert_eq!(RowGroupPruner::new().prune(&metadata).unwrap(), vec![0, 1, 2]);
+    }
+
+    #[test]
+    fn test_prune_errors() {
+        let metadata = metadata(vec![vec![None, None, None]]);
+
+        let res = RowGroupPruner::new()
+            .with_predicate(ColumnPath::from("missing"), ColumnPredicate::IsNull)
+            .prune(&metadata);
+        assert_eq!(
+            res.unwrap_err().to_string(),
+            "Parquet error: Leaf column \"missing\" not found"
+        );
+
+        let res = RowGroupPruner::new()
+            .with_predicate(ColumnPath::from("id"), ColumnPredicate::Eq(1i64.into()))
+            .prune(&metadata);
+        assert_eq!(
+            res.unwrap_err().to_string(),
+            "Parquet error: Cannot compare INT32 column \"id\" with Int64(1)"
+        );
+    }
+
+    #[test]
+    fn test_compare_signed() {
+        assert_eq!(compare_signed(&[0x01], &[0x00, 0x02]), Ordering::Less);
+        assert_eq!(compare_signed(&[0xFF], &[0x00]), Ordering::Less);
+        assert_eq!(compare_signed(&[0xFF], &[0xFF, 0xFE]), Ordering::Greater);
+        assert_eq!(compare_signed(&[0x80, 0x00], &[0xFF]), Ordering::Less);
+        assert_eq!(compare_signed(&[0x00, 0x05], &[0x05]), Ordering::Equal);
+    }
+}
@@ -18,11 +18,14 @@
 //! Contains file reader API and provides methods to access file metadata, row group
 //! readers to read individual column chunks, or access record iterator.
 
-use std::{boxed::Box, io::Read, sync::Arc};
+use std::{
+    boxed::Box, cell::RefCell, collections::HashMap, io::Read, rc::Rc, sync::Arc,
+};
 
 use crate::column::page::PageIterator;
 use crate::column::{page::PageReader, reader::ColumnReader};
 use crate::errors::{ParquetError, Result};
+use crate::file::bloom_filter::Sbbf;
 use crate::file::metadata::*;
 pub use crate::file::serialized_reader::{SerializedFileReader, SerializedPageReader};
 use crate::record::reader::RowIter;
@@ -86,6 +89,46 @@ pub trait RowGroupReader {
     /// Get page reader for the `i`th column chunk.
     fn get_column_page_reader(&self, i: usize) -> Result<Box<dyn PageReader>>;
 
+    /// Get page readers for the column chunks at `columns`, in the same order.
+    ///
+    /// Implementations may fetch these column chunks together, see
+    /// [`ReadOptionsBuilder::set_prefetch_coalesce_gap`](crate::file::serialized_reader::ReadOptionsBuilder::set_prefetch_coalesce_gap).
+    fn get_column_page_readers(
+        &self,
+        columns: &[usize],
+    ) -> Result<Vec<Box<dyn PageReader>>> {
+        columns
+            .iter()
+            .map(|&i| self.get_column_page_reader(i))
+            .collect()
+    }
+
+    /// Get page reader for the `i`th column chunk that only returns the dictionary
+    /// page, if any, and the data pages at the given positions of the offset index.
+    ///
+    /// Requires the offset index of the column chunk to have been read, see
+    /// [`ColumnChunkMetaData::offset_index`](crate::file::metadata::ColumnChunkMetaData::offset_index).
+    fn get_column_page_reader_with_pages(
+        &self,
+        _i: usize,
+        _pages: &[usize],
+    ) -> Result<Box<dyn PageReader>> {
+        Err(nyi_err!("Reading a subset of pages is not supported"))
+    }
+
+    /// Get the bloom filter of the `i`th column chunk, or `None` if it was written
+    /// without one.
+    ///
+    /// A value that the bloom filter does not contain is not in the column chunk,
+    /// which lets equality lookups skip the row group.
+    ///
+    /// Only the bloom filters whose offset is stored in the column chunk key-value
+    /// metadata by this crate's writer are found, see
+    /// [`BLOOM_FILTER_OFFSET_KEY`](crate::file::bloom_filter::BLOOM_FILTER_OFFSET_KEY).
+    fn get_column_bloom_filter(&self, _i: usize) -> Result<Option<Sbbf>> {
+        Err(nyi_err!("Reading bloom filters is not supported"))
+    }
+
     /// Get value reader for the `i`th column chunk.
     fn get_column_reader(&self, i: usize) -> Result<ColumnReader> {
         let schema_descr = self.metadata().schema_descr();
@@ -136,11 +179,80 @@ pub trait RowGroupReader {
 // ----------------------------------------------------------------------
 // Iterator
 
+/// Page readers of the column chunks of some columns, created together for each row
+/// group with [`RowGroupReader::get_column_page_readers`] and handed out to the page
+/// iterators of these columns, see [`FilePageIterator::with_prefetch`].
+pub struct ColumnChunkPrefetch {
+    file_reader: Arc<dyn FileReader>,
+    columns: Vec<usize>,
+    // Page readers of the row groups that some of the columns have not reached yet,
+    // by row group index, in the order of `columns`
+    page_readers: RefCell<HashMap<usize, Vec<Option<Box<dyn PageReader>>>>>,
+}
+
+impl ColumnChunkPrefetch {
+    /// Creates the prefetch of the column chunks of the leaf columns at `columns`.
+    pub fn new(file_reader: Arc<dyn FileReader>, mut columns: Vec<usize>) -> Self {
+        // The page readers of a row group are dropped once every column has taken its
+        // own, which a duplicate column would never do
+        columns.sort_unstable();
+        columns.dedup();
+        Self {
+            file_reader,
+            columns,
+            page_readers: RefCell::new(HashMap::new()),
+        }
+    }
+
+    /// Returns the page reader of the column chunk of `column_index` in the row group
+    /// `row_group_index`, creating the page readers of all the columns of that row
+    /// group if none of them has been created yet. The page readers of the row group
+    /// are forgotten once the last of its columns has taken its own.
+    fn take(
+        &self,
+        row_group_index: usize,
+        column_index: usize,
+    ) -> Result<Box<dyn PageReader>> {
+        let position = self
+            .columns
+            .iter()
+            .position(|&c| c == column_index)
+            .ok_or_else(|| general_err!("Column {} is not prefetched", column_index))?;
+
+        let mut page_readers = self.page_readers.borrow_mut();
+        if !page_readers.contains_key(&row_group_index) {
+            let mut readers = self
+                .file_reader
+                .get_row_group(row_group_index)?
+                .get_column_page_readers(&self.columns)?;
+            // Nothing is left to keep for a single column
+            if readers.len() == 1 {
+                return Ok(readers.remove(0));
+            }
+            page_readers.insert(row_group_index, readers.into_iter().map(Some).collect());
+        }
+
+        let readers = page_readers.get_mut(&row_group_index).unwrap();
+        let reader = readers[position].take().ok_or_else(|| {
+            general_err!(
+                "Column {} of row group {} has already been read",
+                column_index,
+                row_group_index
+            )
+        })?;
+        if readers.iter().all(|reader| reader.is_none()) {
+            page_readers.remove(&row_group_index);
+        }
+        Ok(reader)
+    }
+}
+
 /// Implementation of page iterator for parquet file.
 pub struct FilePageIterator {
     column_index: usize,
     row_group_indices: Box<dyn Iterator<Item = usize>>,
     file_reader: Arc<dyn FileReader>,
+    prefetch: Option<Rc<ColumnChunkPrefetch>>,
 }
 
 impl FilePageIterator {
@@ -175,8 +287,21 @@ impl FilePageIterator {
             column_index,
             row_group_indices,
             file_reader,
+            prefetch: None,
         })
     }
+
+    /// Creates page iterator for all row groups in file, which takes its page readers
+    /// from `prefetch`.
+    pub fn with_prefetch(
+        column_index: usize,
+        prefetch: Rc<ColumnChunkPrefetch>,
+    ) -> Result<Self> {
+        let file_reader = prefetch.file_reader.clone();
+        let mut iterator = Self::new(column_index, file_reader)?;
+        iterator.prefetch = Some(prefetch);
+        Ok(iterator)
+    }
 }
 
 impl Iterator for FilePageIterator {
@@ -184,9 +309,13 @@ impl Iterator for FilePageIterator {
 
     fn next(&mut self) -> Option<Result<Box<dyn PageReader>>> {
         self.row_group_indices.next().map(|row_group_index| {
-            self.file_reader
-                .get_row_group(row_group_index)
-                .and_then(|r| r.get_column_page_reader(self.column_index))
+            match self.prefetch {
+                Some(ref prefetch) => prefetch.take(row_group_index, self.column_index),
+                None => self
+                    .file_reader
+                    .get_row_group(row_group_index)
+                    .and_then(|r| r.get_column_page_reader(self.column_index)),
+            }
         })
     }
 }
@@ -204,3 +333,36 @@ impl PageIterator for FilePageIterator {
         self.schema().map(|s| s.column(self.column_index))
     }
 }
+
+#[cfg(test)]
+mod tests {
+    use super::*;
+    use crate::util::test_common::get_test_file;
+
+    #[test]
+    fn test_column_chunk_prefetch_drains() {
+        let file = get_test_file("alltypes_plain.parquet");
+        let file_reader = Arc::new(SerializedFileReader::new(file).unwrap());
+        // A duplicate column doesn't keep the page readers alive
+        let prefetch = Rc::new(ColumnChunkPrefetch::new(file_reader, vec![2, 0, 2]));
+
+        let mut first = FilePageIterator::with_prefetch(0, prefetch.clone()).unwrap();
+        let mut second = FilePageIterator::with_prefetch(2, prefetch.clone()).unwrap();
+        first.next().unwrap().unwrap();
+        assert_eq!(prefetch.page_readers.borrow().len(), 1);
+        second.next().unwrap().unwrap();
+        assert!(prefetch.page_readers.borrow().is_empty());
+        assert!(first.next().is_none());
+        assert!(second.next().is_none());
+
+        // Nor is anything kept for a single column
+        let file = get_test_file("alltypes_plain.parquet");
+        let file_reader = Arc::new(SerializedFileReader::new(file).unwrap());
+        let prefetch = Rc::new(ColumnChunkPrefetch::new(file_reader, vec![1]));
+        let mut page_iterator =
+            FilePageIterator::with_prefetch(1, prefetch.clone()).unwrap();
+        let mut page_reader = page_iterator.next().unwrap().unwrap();
+        assert!(page_reader.get_next_page().unwrap().is_some());
+        assert!(prefetch.page_readers.borrow().is_empty());
+    }
+}
@@ -18,7 +18,15 @@
 //! Contains implementations of the reader traits FileReader, RowGroupReader and PageReader
 //! Also contains implementations of the ChunkReader for files (with buffering) and byte arrays (RAM)
 
-use std::{convert::TryFrom, fs::File, io::Read, path::Path, sync::Arc};
+use std::{
+    collections::VecDeque,
+    convert::TryFrom,
+    fs::File,
+    io::{Cursor, Read},
+    mem,
+    path::Path,
+    sync::Arc,
+};
 
 use parquet_format::{PageHeader, PageType};
 use thrift::protocol::TCompactInputProtocol;
@@ -27,11 +35,24 @@ use crate::basic::{Compression, Encoding, Type};
 use crate::column::page::{Page, PageReader};
 use crate::compression::{create_codec, Codec};
 use crate::errors::{ParquetError, Result};
-use crate::file::{footer, metadata::*, reader::*, statistics};
+use crate::file::{
+    bloom_filter::Sbbf,
+    footer,
+    metadata::*,
+    metadata_cache::MetadataCache,
+    page_index::{index_reader, PageLocation},
+    prefetch::PrefetchedChunks,
+    pruning::RowGroupPruner,
+    reader::*,
+    statistics,
+};
 use crate::record::reader::RowIter;
 use crate::record::Row;
 use crate::schema::types::Type as SchemaType;
-use crate::util::{io::TryClone, memory::ByteBufferPtr};
+use crate::util::{
+    io::TryClone,
+    memory::{BufferPoolPtr, ByteBufferPtr},
+};
 
 // export `SliceableCursor` and `FileSource` publically so clients can
 // re-use the logic in their own ParquetFileWriter wrappers
@@ -82,6 +103,21 @@ impl TryFrom<File> for SerializedFileReader<File> {
     }
 }
 
+impl SerializedFileReader<File> {
+    /// Opens the Parquet file at `path`, reading its metadata, and its page index if
+    /// enabled in `options`, only if they are not cached in `cache` for the current
+    /// version of the file.
+    pub fn open_cached(
+        path: &Path,
+        cache: &MetadataCache,
+        options: ReadOptions,
+    ) -> Result<Self> {
+        let file = File::open(path)?;
+        let metadata = cache.get_or_load(path, &file, options.page_index_enabled())?;
+        Ok(Self::new_with_cached_metadata(file, metadata, options))
+    }
+}
+
 impl<'a> TryFrom<&'a Path> for SerializedFileReader<File> {
     type Error = ParquetError;
 
@@ -121,23 +157,153 @@ impl IntoIterator for SerializedFileReader<File> {
 // ----------------------------------------------------------------------
 // Implementations of file & row group readers
 
+/// Options that control how [`SerializedFileReader`] reads a Parquet file.
+///
+/// Use [`ReadOptionsBuilder`] to assemble these options.
+#[derive(Debug, Clone, Default)]
+pub struct ReadOptions {
+    page_index_enabled: bool,
+    prefetch_coalesce_gap: Option<u64>,
+    buffer_pool: Option<BufferPoolPtr<u8>>,
+}
+
+impl ReadOptions {
+    /// Returns builder for read options with default values.
+    pub fn builder() -> ReadOptionsBuilder {
+        ReadOptionsBuilder::with_defaults()
+    }
+
+    /// Returns `true` if the page index is read together with the file metadata.
+    pub fn page_index_enabled(&self) -> bool {
+        self.page_index_enabled
+    }
+
+    /// Returns the maximum gap between two column chunks that are fetched with a single
+    /// read, or `None` if column chunks are not fetched up front.
+    pub fn prefetch_coalesce_gap(&self) -> Option<u64> {
+        self.prefetch_coalesce_gap
+    }
+
+    /// Returns the pool that page buffers are drawn from and returned to, if any.
+    pub fn buffer_pool(&self) -> Option<&BufferPoolPtr<u8>> {
+        self.buffer_pool.as_ref()
+    }
+}
+
+/// Read options builder.
+pub struct ReadOptionsBuilder {
+    page_index_enabled: bool,
+    prefetch_coalesce_gap: Option<u64>,
+    buffer_pool: Option<BufferPoolPtr<u8>>,
+}
+
+impl ReadOptionsBuilder {
+    /// Returns default state of the builder.
+    fn with_defaults() -> Self {
+        Self {
+            page_index_enabled: false,
+            prefetch_coalesce_gap: None,
+            buffer_pool: None,
+        }
+    }
+
+    /// Sets flag to read the column index and offset index of every column chunk
+    /// when the file is opened, see [`ColumnChunkMetaData::column_index`] and
+    /// [`ColumnChunkMetaData::offset_index`].
+    pub fn set_page_index_enabled(mut self, value: bool) -> Self {
+        self.page_index_enabled = value;
+        self
+    }
+
+    /// Sets the column chunks that are read together, e.g. the projected columns of
+    /// the Arrow reader, to be fetched up front when their row group is first read.
+    ///
+    /// Column chunks that are at most `value` bytes apart are fetched with a single
+    /// read, including the bytes between them, and their pages are then decoded from
+    /// memory. See [`DEFAULT_COALESCE_GAP`](crate::file::prefetch::DEFAULT_COALESCE_GAP)
+    /// for a sensible value.
+    ///
+    /// By default, each column chunk is read lazily with small buffered reads.
+    pub fn set_prefetch_coalesce_gap(mut self, value: u64) -> Self {
+        self.prefetch_coalesce_gap = Some(value);
+        self
+    }
+
+    /// Sets the pool that the buffers of compressed and decompressed pages are drawn
+    /// from, and returned to once the pages and the values decoded from them are
+    /// dropped, instead of allocating new buffers for every page.
+    ///
+    /// The pool can be shared by readers of several files, see
+    /// [`ByteBufferPool`](crate::util::memory::ByteBufferPool).
+    pub fn set_buffer_pool(mut self, value: BufferPoolPtr<u8>) -> Self {
+        self.buffer_pool = Some(value);
+        self
+    }
+
+    /// Finalizes the configuration and returns read options.
+    pub fn build(self) -> ReadOptions {
+        ReadOptions {
+            page_index_enabled: self.page_index_enabled,
+            prefetch_coalesce_gap: self.prefetch_coalesce_gap,
+            buffer_pool: self.buffer_pool,
+        }
+    }
+}
+
 /// A serialized implementation for Parquet [`FileReader`].
 pub struct SerializedFileReader<R: ChunkReader> {
     chunk_reader: Arc<R>,
-    metadata: ParquetMetaData,
+    metadata: Arc<ParquetMetaData>,
+    options: ReadOptions,
 }
 
 impl<R: 'static + ChunkReader> SerializedFileReader<R> {
     /// Creates file reader from a Parquet file.
     /// Returns error if Parquet file does not exist or is corrupt.
     pub fn new(chunk_reader: R) -> Result<Self> {
-        let metadata = footer::parse_metadata(&chunk_reader)?;
+        Self::new_with_options(chunk_reader, ReadOptions::default())
+    }
+
+    /// Creates file reader from a Parquet file, using the given read options.
+    /// Returns error if Parquet file does not exist or is corrupt.
+    pub fn new_with_options(chunk_reader: R, options: ReadOptions) -> Result<Self> {
+        let mut metadata = footer::parse_metadata(&chunk_reader)?;
+        if options.page_index_enabled() {
+            index_reader::read_page_indexes(&chunk_reader, &mut metadata)?;
+        }
         Ok(Self {
             chunk_reader: Arc::new(chunk_reader),
-            metadata,
+            metadata: Arc::new(metadata),
+            options,
         })
     }
 
+    /// Creates file reader from a Parquet file whose metadata has already been read,
+    /// e.g. by [`decode_metadata`](crate::file::footer::decode_metadata).
+    pub fn new_with_metadata(chunk_reader: R, metadata: ParquetMetaData) -> Self {
+        Self::new_with_cached_metadata(
+            chunk_reader,
+            Arc::new(metadata),
+            ReadOptions::default(),
+        )
+    }
+
+    /// Creates file reader from a Parquet file whose metadata is shared with other
+    /// readers, e.g. an entry of a [`MetadataCache`], using the given read options.
+    ///
+    /// The page index is not read, `metadata` holds it if it has been read with it.
+    pub fn new_with_cached_metadata(
+        chunk_reader: R,
+        metadata: Arc<ParquetMetaData>,
+        options: ReadOptions,
+    ) -> Self {
+        Self {
+            chunk_reader: Arc::new(chunk_reader),
+            metadata,
+            options,
+        }
+    }
+
     /// Filters row group metadata to only those row groups,
     /// for which the predicate function returns true
     pub fn filter_row_groups(
@@ -150,10 +316,18 @@ impl<R: 'static + ChunkReader> SerializedFileReader<R> {
                 filtered_row_groups.push(row_group_metadata.clone());
             }
         }
-        self.metadata = ParquetMetaData::new(
+        self.metadata = Arc::new(ParquetMetaData::new(
             self.metadata.file_metadata().clone(),
             filtered_row_groups,
-        );
+        ));
+    }
+
+    /// Filters row group metadata to only those row groups that may contain rows
+    /// matching the predicates of `pruner`, see [`RowGroupPruner`].
+    pub fn prune_row_groups(&mut self, pruner: &RowGroupPruner) -> Result<()> {
+        let row_groups = pruner.prune(&self.metadata)?;
+        self.filter_row_groups(&|_, i| row_groups.binary_search(&i).is_ok());
+        Ok(())
     }
 }
 
@@ -170,10 +344,7 @@ impl<R: 'static + ChunkReader> FileReader for SerializedFileReader<R> {
         let row_group_metadata = self.metadata.row_group(i);
         // Row groups should be processed sequentially.
         let f = Arc::clone(&self.chunk_reader);
-        Ok(Box::new(SerializedRowGroupReader::new(
-            f,
-            row_group_metadata,
-        )))
+        Ok(Box::new(SerializedRowGroupReader::new(f, row_group_metadata, &self.options)))
     }
 
     fn get_row_iter(&self, projection: Option<SchemaType>) -> Result<RowIter> {
@@ -185,14 +356,20 @@ impl<R: 'static + ChunkReader> FileReader for SerializedFileReader<R> {
 pub struct SerializedRowGroupReader<'a, R: ChunkReader> {
     chunk_reader: Arc<R>,
     metadata: &'a RowGroupMetaData,
+    options: &'a ReadOptions,
 }
 
 impl<'a, R: ChunkReader> SerializedRowGroupReader<'a, R> {
     /// Creates new row group reader from a file and row group metadata.
-    fn new(chunk_reader: Arc<R>, metadata: &'a RowGroupMetaData) -> Self {
+    fn new(
+        chunk_reader: Arc<R>,
+        metadata: &'a RowGroupMetaData,
+        options: &'a ReadOptions,
+    ) -> Self {
         Self {
             chunk_reader,
             metadata,
+            options,
         }
     }
 }
@@ -211,20 +388,245 @@ impl<'a, R: 'static + ChunkReader> RowGroupReader for SerializedRowGroupReader<'
         let col = self.metadata.column(i);
         let (col_start, col_length) = col.byte_range();
         let file_chunk = self.chunk_reader.get_read(col_start, col_length as usize)?;
-        let page_reader = SerializedPageReader::new(
+        let mut page_reader = SerializedPageReader::new(
             file_chunk,
             col.num_values(),
             col.compression(),
             col.column_descr().physical_type(),
         )?;
+        if let Some(pool) = self.options.buffer_pool() {
+            page_reader = page_reader.with_buffer_pool(pool.clone());
+        }
+        Ok(Box::new(page_reader))
+    }
+
+    fn get_column_page_readers(
+        &self,
+        columns: &[usize],
+    ) -> Result<Vec<Box<dyn PageReader>>> {
+        let max_gap = match self.options.prefetch_coalesce_gap() {
+            Some(max_gap) => max_gap,
+            None => {
+                return columns
+                    .iter()
+                    .map(|&i| self.get_column_page_reader(i))
+                    .collect()
+            }
+        };
+
+        let ranges = columns
+            .iter()
+            .map(|&i| {
+                let (col_start, col_length) = self.metadata.column(i).byte_range();
+                col_start..col_start + col_length
+            })
+            .collect::<Vec<_>>();
+        let chunks =
+            PrefetchedChunks::fetch(self.chunk_reader.as_ref(), &ranges, max_gap)?;
+
+        columns
+            .iter()
+            .zip(ranges)
+            .map(|(&i, range)| {
+                let col = self.metadata.column(i);
+                let data = chunks.get(range.start, (range.end - range.start) as usize)?;
+                let mut page_reader = SerializedPageReader::new(
+                    Cursor::new(data),
+                    col.num_values(),
+                    col.compression(),
+                    col.column_descr().physical_type(),
+                )?;
+                if let Some(pool) = self.options.buffer_pool() {
+                    page_reader = page_reader.with_buffer_pool(pool.clone());
+                }
+                Ok(Box::new(page_reader) as Box<dyn PageReader>)
+            })
+            .collect()
+    }
+
+    fn get_column_page_reader_with_pages(
+        &self,
+        i: usize,
+        pages: &[usize],
+    ) -> Result<Box<dyn PageReader>> {
+        let col = self.metadata.column(i);
+        let offset_index = col.offset_index().ok_or_else(|| {
+            general_err!("Offset index of column {} has not been read", i)
+        })?;
+        let locations = offset_index.page_locations();
+        let page_locations = pages
+            .iter()
+            .map(|&page| {
+                locations
+                    .get(page)
+                    .cloned()
+                    .ok_or(ParquetError::IndexOutOfBound(page, locations.len()))
+            })
+            .collect::<Result<Vec<_>>>()?;
+
+        // The dictionary page, if any, is stored before the first data page
+        let (col_start, _) = col.byte_range();
+        let dictionary_page = locations
+            .first()
+            .map(|first| first.offset as u64)
+            .filter(|first_offset| *first_offset > col_start)
+            .map(|first_offset| (col_start, (first_offset - col_start) as usize));
+
+        let mut page_reader = SerializedPageLocationReader::new(
+            Arc::clone(&self.chunk_reader),
+            dictionary_page,
+            page_locations,
+            col.compression(),
+            col.column_descr().physical_type(),
+        )?;
+        if let Some(pool) = self.options.buffer_pool() {
+            page_reader = page_reader.with_buffer_pool(pool.clone());
+        }
         Ok(Box::new(page_reader))
     }
 
+    fn get_column_bloom_filter(&self, i: usize) -> Result<Option<Sbbf>> {
+        self.metadata
+            .column(i)
+            .bloom_filter_offset()
+            .map(|offset| {
+                Sbbf::read_from_chunk(self.chunk_reader.as_ref(), offset as u64)
+            })
+            .transpose()
+    }
+
     fn get_row_iter(&self, projection: Option<SchemaType>) -> Result<RowIter> {
         RowIter::from_row_group(projection, self)
     }
 }
 
+/// Reads a Thrift page header from `input`.
+fn read_page_header<T: Read>(input: &mut T) -> Result<PageHeader> {
+    let mut prot = TCompactInputProtocol::new(input);
+    let page_header = PageHeader::read_from_in_protocol(&mut prot)?;
+    Ok(page_header)
+}
+
+/// Reads the body of the page described by `page_header` from `input`, decompresses it
+/// if needed and returns the decoded page.
+///
+/// Returns `None` for unsupported page types (e.g. INDEX_PAGE), whose body is skipped.
+fn read_page<T: Read>(
+    input: &mut T,
+    page_header: PageHeader,
+    decompressor: Option<&mut Box<dyn Codec>>,
+    physical_type: Type,
+    buffer_pool: Option<&BufferPoolPtr<u8>>,
+) -> Result<Option<Page>> {
+    // When processing data page v2, depending on enabled compression for the
+    // page, we should account for uncompressed data ('offset') of
+    // repetition and definition levels.
+    //
+    // We always use 0 offset for other pages other than v2, `true` flag means
+    // that compression will be applied if decompressor is defined
+    let mut offset: usize = 0;
+    let mut can_decompress = true;
+
+    if let Some(ref header_v2) = page_header.data_page_header_v2 {
+        offset = (header_v2.definition_levels_byte_length
+            + header_v2.repetition_levels_byte_length) as usize;
+        // When is_compressed flag is missing the page is considered compressed
+        can_decompress = header_v2.is_compressed.unwrap_or(true);
+    }
+
+    let compressed_len = page_header.compressed_page_size as usize - offset;
+    let uncompressed_len = page_header.uncompressed_page_size as usize - offset;
+    // Draws a buffer of `capacity` bytes from the pool, if any
+    let new_buffer = |capacity: usize| match buffer_pool {
+        Some(pool) => pool.get(capacity),
+        None => Vec::with_capacity(capacity),
+    };
+    // Returns a buffer that is no longer used to the pool, if any
+    let recycle = |buffer: Vec<u8>| {
+        if let Some(pool) = buffer_pool {
+            pool.put(buffer);
+        }
+    };
+
+    // We still need to read all bytes from buffered stream
+    let mut buffer = new_buffer(offset + compressed_len);
+    buffer.resize(offset + compressed_len, 0);
+    input.read_exact(&mut buffer)?;
+
+    // TODO: page header could be huge because of statistics. We should set a
+    // maximum page header size and abort if that is exceeded.
+    if let Some(decompressor) = decompressor {
+        if can_decompress {
+            let mut decompressed_buffer = new_buffer(uncompressed_len);
+            let decompressed_size =
+                decompressor.decompress(&buffer[offset..], &mut decompressed_buffer)?;
+            if decompressed_size != uncompressed_len {
+                return Err(general_err!(
+                    "Actual decompressed size doesn't match the expected one ({} vs {})",
+                    decompressed_size,
+                    uncompressed_len
+                ));
+            }
+            if offset == 0 {
+                recycle(mem::replace(&mut buffer, decompressed_buffer));
+            } else {
+                // Prepend saved offsets to the buffer
+                buffer.truncate(offset);
+                buffer.append(&mut decompressed_buffer);
+                recycle(decompressed_buffer);
+            }
+        }
+    }
+    let mut buffer = ByteBufferPtr::new(buffer);
+    if let Some(pool) = buffer_pool {
+        buffer = buffer.with_pool(pool.clone());
+    }
+
+    let result = match page_header.type_ {
+        PageType::DictionaryPage => {
+            assert!(page_header.dictionary_page_header.is_some());
+            let dict_header = page_header.dictionary_page_header.as_ref().unwrap();
+            let is_sorted = dict_header.is_sorted.unwrap_or(false);
+            Page::DictionaryPage {
+                buf: buffer,
+                num_values: dict_header.num_values as u32,
+                encoding: Encoding::from(dict_header.encoding),
+                is_sorted,
+            }
+        }
+        PageType::DataPage => {
+            assert!(page_header.data_page_header.is_some());
+            let header = page_header.data_page_header.unwrap();
+            Page::DataPage {
+                buf: buffer,
+                num_values: header.num_values as u32,
+                encoding: Encoding::from(header.encoding),
+                def_level_encoding: Encoding::from(header.definition_level_encoding),
+                rep_level_encoding: Encoding::from(header.repetition_level_encoding),
+                statistics: statistics::from_thrift(physical_type, header.statistics),
+            }
+        }
+        PageType::DataPageV2 => {
+            assert!(page_header.data_page_header_v2.is_some());
+            let header = page_header.data_page_header_v2.unwrap();
+            let is_compressed = header.is_compressed.unwrap_or(true);
+            Page::DataPageV2 {
+                buf: buffer,
+                num_values: header.num_values as u32,
+                encoding: Encoding::from(header.encoding),
+                num_nulls: header.num_nulls as u32,
+                num_rows: header.num_rows as u32,
+                def_levels_byte_len: header.definition_levels_byte_length as u32,
+                rep_levels_byte_len: header.repetition_levels_byte_length as u32,
+                is_compressed,
+                statistics: statistics::from_thrift(physical_type, header.statistics),
+            }
+        }
+        _ => return Ok(None),
+    };
+    Ok(Some(result))
+}
+
 /// A serialized implementation for Parquet [`PageReader`].
 pub struct SerializedPageReader<T: Read> {
     // The file source buffer which references exactly the bytes for the column trunk
@@ -242,6 +644,9 @@ pub struct SerializedPageReader<T: Read> {
 
     // Column chunk type.
     physical_type: Type,
+
+    // The pool that page buffers are drawn from, if any.
+    buffer_pool: Option<BufferPoolPtr<u8>>,
 }
 
 impl<T: Read> SerializedPageReader<T> {
@@ -259,15 +664,16 @@ impl<T: Read> SerializedPageReader<T> {
             seen_num_values: 0,
             decompressor,
             physical_type,
+            buffer_pool: None,
         };
         Ok(result)
     }
 
-    /// Reads Page header from Thrift.
-    fn read_page_header(&mut self) -> Result<PageHeader> {
-        let mut prot = TCompactInputProtocol::new(&mut self.buf);
-        let page_header = PageHeader::read_from_in_protocol(&mut prot)?;
-        Ok(page_header)
+    /// Sets the pool that the buffers of the pages are drawn from and returned to,
+    /// see [`ReadOptionsBuilder::set_buffer_pool`].
+    pub fn with_buffer_pool(mut self, pool: BufferPoolPtr<u8>) -> Self {
+        self.buffer_pool = Some(pool);
+        self
     }
 }
 
@@ -282,114 +688,23 @@ impl<T: Read> Iterator for SerializedPageReader<T> {
 impl<T: Read> PageReader for SerializedPageReader<T> {
     fn get_next_page(&mut self) -> Result<Option<Page>> {
         while self.seen_num_values < self.total_num_values {
-            let page_header = self.read_page_header()?;
-
-            // When processing data page v2, depending on enabled compression for the
-            // page, we should account for uncompressed data ('offset') of
-            // repetition and definition levels.
-            //
-            // We always use 0 offset for other pages other than v2, `true` flag means
-            // that compression will be applied if decompressor is defined
-            let mut offset: usize = 0;
-            let mut can_decompress = true;
-
-            if let Some(ref header_v2) = page_header.data_page_header_v2 {
-                offset = (header_v2.definition_levels_byte_length
-                    + header_v2.repetition_levels_byte_length)
-                    as usize;
-                // When is_compressed flag is missing the page is considered compressed
-                can_decompress = header_v2.is_compressed.unwrap_or(true);
-            }
-
-            let compressed_len = page_header.compressed_page_size as usize - offset;
-            let uncompressed_len = page_header.uncompressed_page_size as usize - offset;
-            // We still need to read all bytes from buffered stream
-            let mut buffer = vec![0; offset + compressed_len];
-            self.buf.read_exact(&mut buffer)?;
-
-            // TODO: page header could be huge because of statistics. We should set a
-            // maximum page header size and abort if that is exceeded.
-            if let Some(decompressor) = self.decompressor.as_mut() {
-                if can_decompress {
-                    let mut decompressed_buffer = Vec::with_capacity(uncompressed_len);
-                    let decompressed_size = decompressor
-                        .decompress(&buffer[offset..], &mut decompressed_buffer)?;
-                    if decompressed_size != uncompressed_len {
-                        return Err(general_err!(
-              "Actual decompressed size doesn't match the expected one ({} vs {})",
-              decompressed_size,
-              uncompressed_len
-            ));
-                    }
-                    if offset == 0 {
-                        buffer = decompressed_buffer;
-                    } else {
-                        // Prepend saved offsets to the buffer
-                        buffer.truncate(offset);
-                        buffer.append(&mut decompressed_buffer);
-                    }
-                }
-            }
-
-            let result = match page_header.type_ {
-                PageType::DictionaryPage => {
-                    assert!(page_header.dictionary_page_header.is_some());
-                    let dict_header =
-                        page_header.dictionary_page_header.as_ref().unwrap();
-                    let is_sorted = dict_header.is_sorted.unwrap_or(false);
-                    Page::DictionaryPage {
-                        buf: ByteBufferPtr::new(buffer),
-                        num_values: dict_header.num_values as u32,
-                        encoding: Encoding::from(dict_header.encoding),
-                        is_sorted,
-                    }
-                }
-                PageType::DataPage => {
-                    assert!(page_header.data_page_header.is_some());
-                    let header = page_header.data_page_header.unwrap();
-                    self.seen_num_values += header.num_values as i64;
-                    Page::DataPage {
-                        buf: ByteBufferPtr::new(buffer),
-                        num_values: header.num_values as u32,
-                        encoding: Encoding::from(header.encoding),
-                        def_level_encoding: Encoding::from(
-                            header.definition_level_encoding,
-                        ),
-                        rep_level_encoding: Encoding::from(
-                            header.repetition_level_encoding,
-                        ),
-                        statistics: statistics::from_thrift(
-                            self.physical_type,
-                            header.statistics,
-                        ),
-                    }
-                }
-                PageType::DataPageV2 => {
-                    assert!(page_header.data_page_header_v2.is_some());
-                    let header = page_header.data_page_header_v2.unwrap();
-                    let is_compressed = header.is_compressed.unwrap_or(true);
-                    self.seen_num_values += header.num_values as i64;
-                    Page::DataPageV2 {
-                        buf: ByteBufferPtr::new(buffer),
-                        num_values: header.num_values as u32,
-                        encoding: Encoding::from(header.encoding),
-                        num_nulls: header.num_nulls as u32,
-                        num_rows: header.num_rows as u32,
-                        def_levels_byte_len: header.definition_levels_byte_length as u32,
-                        rep_levels_byte_len: header.repetition_levels_byte_length as u32,
-                        is_compressed,
-                        statistics: statistics::from_thrift(
-                            self.physical_type,
-                            header.statistics,
-                        ),
-                    }
-                }
-                _ => {
-                    // For unknown page type (e.g., INDEX_PAGE), skip and read next.
-                    continue;
-                }
+            let page_header = read_page_header(&mut self.buf)?;
+            let page = match read_page(
+                &mut self.buf,
+                page_header,
+                self.decompressor.as_mut(),
+                self.physical_type,
+                self.buffer_pool.as_ref(),
+            )? {
+                Some(page) => page,
+                // For unknown page type (e.g., INDEX_PAGE), skip and read next.
+                None => continue,
             };
-            return Ok(Some(result));
+            match page {
+                Page::DictionaryPage { .. } => {}
+                _ => self.seen_num_values += page.num_values() as i64,
+            }
+            return Ok(Some(page));
         }
 
         // We are at the end of this column chunk and no more page left. Return None.
@@ -397,13 +712,109 @@ impl<T: Read> PageReader for SerializedPageReader<T> {
     }
 }
 
+/// A [`PageReader`] that only reads some of the data pages of a column chunk, seeking
+/// to each of them using their locations from the offset index of the column chunk.
+///
+/// The dictionary page of the column chunk, if any, is always read first.
+pub struct SerializedPageLocationReader<R: ChunkReader> {
+    chunk_reader: Arc<R>,
+
+    // Start and length of the dictionary page, until it has been read.
+    dictionary_page: Option<(u64, usize)>,
+
+    // Locations of the data pages that are left to read.
+    page_locations: VecDeque<PageLocation>,
+
+    // The compression codec for this column chunk. Only set for non-PLAIN codec.
+    decompressor: Option<Box<dyn Codec>>,
+
+    // Column chunk type.
+    physical_type: Type,
+
+    // The pool that page buffers are drawn from, if any.
+    buffer_pool: Option<BufferPoolPtr<u8>>,
+}
+
+impl<R: ChunkReader> SerializedPageLocationReader<R> {
+    /// Creates a new page reader for the dictionary page at `dictionary_page`, given
+    /// as start and length in bytes, followed by the data pages at `page_locations`.
+    pub fn new(
+        chunk_reader: Arc<R>,
+        dictionary_page: Option<(u64, usize)>,
+        page_locations: Vec<PageLocation>,
+        compression: Compression,
+        physical_type: Type,
+    ) -> Result<Self> {
+        let decompressor = create_codec(compression)?;
+        let result = Self {
+            chunk_reader,
+            dictionary_page,
+            page_locations: page_locations.into(),
+            decompressor,
+            physical_type,
+            buffer_pool: None,
+        };
+        Ok(result)
+    }
+
+    /// Sets the pool that the buffers of the pages are drawn from and returned to,
+    /// see [`ReadOptionsBuilder::set_buffer_pool`].
+    pub fn with_buffer_pool(mut self, pool: BufferPoolPtr<u8>) -> Self {
+        self.buffer_pool = Some(pool);
+        self
+    }
+
+    /// Reads the page stored in `length` bytes at `start`, header included.
+    fn read_page_at(&mut self, start: u64, length: usize) -> Result<Option<Page>> {
+        let mut input = self.chunk_reader.get_read(start, length)?;
+        let page_header = read_page_header(&mut input)?;
+        read_page(
+            &mut input,
+            page_header,
+            self.decompressor.as_mut(),
+            self.physical_type,
+            self.buffer_pool.as_ref(),
+        )
+    }
+}
+
+impl<R: ChunkReader> Iterator for SerializedPageLocationReader<R> {
+    type Item = Result<Page>;
+
+    fn next(&mut self) -> Option<Self::Item> {
+        self.get_next_page().transpose()
+    }
+}
+
+impl<R: ChunkReader> PageReader for SerializedPageLocationReader<R> {
+    fn get_next_page(&mut self) -> Result<Option<Page>> {
+        if let Some((start, length)) = self.dictionary_page.take() {
+            if let Some(page) = self.read_page_at(start, length)? {
+                return Ok(Some(page));
+            }
+        }
+        while let Some(location) = self.page_locations.pop_front() {
+            let page = self.read_page_at(
+                location.offset as u64,
+                location.compressed_page_size as usize,
+            )?;
+            if page.is_some() {
+                return Ok(page);
+            }
+        }
+        Ok(None)
+    }
+}
+
 #[cfg(test)]
 mod tests {
     use super::*;
     use crate::basic::ColumnOrder;
     use crate::record::RowAccessor;
     use crate::schema::parser::parse_message_type;
+    use crate::util::memory::ByteBufferPool;
     use crate::util::test_common::{get_test_file, get_test_path};
+    use std::rc::Rc;
     use std::sync::Arc;
 
     #[test]
@@ -458,6 +869,24 @@ mod tests {
         assert!(reader.is_err());
     }
 
+    #[test]
+    fn test_file_reader_with_options() {
+        let test_file = get_test_file("alltypes_plain.parquet");
+        let options = ReadOptions::builder().set_page_index_enabled(true).build();
+        let reader = SerializedFileReader::new_with_options(test_file, options).unwrap();
+
+        // The test file has no page index, so all indexes are left unset
+        let row_group = reader.metadata().row_group(0);
+        for column in row_group.columns() {
+            assert!(column.column_index().is_none());
+            assert!(column.offset_index().is_none());
+        }
+        let row_group_reader = reader.get_row_group(0).unwrap();
+        assert!(row_group_reader
+            .get_column_page_reader_with_pages(0, &[0])
+            .is_err());
+    }
+
     #[test]
     fn test_file_reader_into_iter() {
         let path = get_test_path("alltypes_plain.parquet");
@@ -734,6 +1163,87 @@ mod tests {
         assert!(page.is_none());
     }
 
+    #[test]
+    fn test_prefetch_column_page_readers() {
+        let columns = [0, 3, 5, 9];
+        let read_pages = |options: ReadOptions| {
+            let file = get_test_file("alltypes_plain.parquet");
+            let reader = SerializedFileReader::new_with_options(file, options).unwrap();
+            let row_group = reader.get_row_group(0).unwrap();
+            row_group
+                .get_column_page_readers(&columns)
+                .unwrap()
+                .into_iter()
+                .map(|page_reader| {
+                    page_reader
+                        .map(|page| {
+                            let page = page.unwrap();
+                            (page.page_type(), page.buffer().data().to_vec())
+                        })
+                        .collect::<Vec<_>>()
+                })
+                .collect::<Vec<_>>()
+        };
+
+        let expected = read_pages(ReadOptions::default());
+        assert_eq!(expected.len(), columns.len());
+        for max_gap in vec![0, 16, 1024 * 1024] {
+            let options = ReadOptions::builder()
+                .set_prefetch_coalesce_gap(max_gap)
+                .build();
+            assert_eq!(options.prefetch_coalesce_gap(), Some(max_gap));
+            assert_eq!(read_pages(options), expected);
+        }
+    }
+
+    #[test]
+    fn test_file_reader_buffer_pool() {
+        let pool = Arc::new(ByteBufferPool::new(1024 * 1024));
+        let read_rows = |options: ReadOptions| {
+            let file = get_test_file("alltypes_plain.snappy.parquet");
+            let reader = SerializedFileReader::new_with_options(file, options).unwrap();
+            reader.get_row_iter(None).unwrap().collect::<Vec<_>>()
+        };
+
+        let expected = read_rows(ReadOptions::default());
+        let options = ReadOptions::builder()
+            .set_buffer_pool(pool.clone())
+            .build();
+        assert_eq!(read_rows(options.clone()), expected);
+
+        // The buffers of the pages are recycled once the reader is dropped
+        let pooled_bytes = pool.pooled_bytes();
+        assert!(pooled_bytes > 0);
+        assert_eq!(read_rows(options), expected);
+        assert!(pool.pooled_bytes() >= pooled_bytes);
+    }
+
+    #[test]
+    fn test_page_iterator_with_prefetch() {
+        let file = get_test_file("alltypes_plain.parquet");
+        let options = ReadOptions::builder()
+            .set_prefetch_coalesce_gap(1024)
+            .build();
+        let file_reader =
+            Arc::new(SerializedFileReader::new_with_options(file, options).unwrap());
+        let prefetch = Rc::new(ColumnChunkPrefetch::new(file_reader, vec![0, 2]));
+
+        for column in vec![2, 0] {
+            let mut page_iterator =
+                FilePageIterator::with_prefetch(column, prefetch.clone()).unwrap();
+            let mut page_reader = page_iterator.next().unwrap().unwrap();
+            assert!(page_reader.get_next_page().unwrap().is_some());
+            assert!(page_iterator.next().is_none());
+        }
+
+        // Columns that are not prefetched cannot be read
+        let mut page_iterator = FilePageIterator::with_prefetch(1, prefetch).unwrap();
+        assert_eq!(
+            page_iterator.next().unwrap().err().unwrap(),
+            general_err!("Column 1 is not prefetched")
+        );
+    }
+
     #[test]
     fn test_file_reader_key_value_metadata() {
         let file = get_test_file("binary.parquet");
@@ -776,4 +1286,24 @@ mod tests {
 
         Ok(())
     }
+
+    #[test]
+    fn test_file_reader_open_cached() -> Result<()> {
+        let path = get_test_path("alltypes_plain.parquet");
+        let cache = MetadataCache::new(1);
+
+        let first = SerializedFileReader::open_cached(&path, &cache, Default::default())?;
+        let mut second =
+            SerializedFileReader::open_cached(&path, &cache, Default::default())?;
+        assert!(std::ptr::eq(first.metadata(), second.metadata()));
+        assert_eq!(second.get_row_iter(None)?.count(), 8);
+
+        // filtering row groups does not change the cached metadata
+        second.filter_row_groups(&|_, _| false);
+        assert_eq!(second.metadata().num_row_groups(), 0);
+        assert_eq!(first.metadata().num_row_groups(), 1);
+        assert_eq!(cache.hits(), 1);
+
+        Ok(())
+    }
 }
@@ -37,7 +37,9 @@ use crate::file::{
     metadata::*, properties::WriterPropertiesPtr,
     statistics::to_thrift as statistics_to_thrift, FOOTER_SIZE, PARQUET_MAGIC,
 };
-use crate::schema::types::{self, SchemaDescPtr, SchemaDescriptor, TypePtr};
+use crate::schema::types::{
+    self, ColumnDescPtr, SchemaDescPtr, SchemaDescriptor, TypePtr,
+};
 use crate::util::io::{FileSink, Position};
 
 // Exposed publically so client code can implement [`ParquetWriter`]
@@ -109,6 +111,13 @@ pub trait RowGroupWriter {
     /// This should be called before requesting the next column writer.
     fn close_column(&mut self, column_writer: ColumnWriter) -> Result<()>;
 
+    /// Writes the next column chunk, which has been encoded into memory with
+    /// [`encode_column_chunk`], in place of requesting a column writer with
+    /// `next_column`.
+    fn append_column(&mut self, _column_chunk: EncodedColumnChunk) -> Result<()> {
+        Err(nyi_err!("Appending encoded column chunks is not supported"))
+    }
+
     /// Closes this row group writer and returns row group metadata.
     /// After calling this method row group writer must not be used.
     ///
@@ -176,18 +185,65 @@ impl<W: ParquetWriter> SerializedFileWriter<W> {
         Ok(())
     }
 
+    /// Writes the column indexes, followed by the offset indexes, of all column chunks
+    /// that have them, and points the row group metadata `row_groups` to them.
+    fn write_page_indexes(
+        &mut self,
+        row_groups: &mut [parquet::RowGroup],
+    ) -> Result<()> {
+        for (row_group, metadata) in row_groups.iter_mut().zip(self.row_groups.iter()) {
+            for (column, column_metadata) in
+                row_group.columns.iter_mut().zip(metadata.columns())
+            {
+                if let Some(column_index) = column_metadata.column_index() {
+                    let start_pos = self.buf.seek(SeekFrom::Current(0))?;
+                    {
+                        let mut protocol = TCompactOutputProtocol::new(&mut self.buf);
+                        column_index.to_thrift().write_to_out_protocol(&mut protocol)?;
+                        protocol.flush()?;
+                    }
+                    let end_pos = self.buf.seek(SeekFrom::Current(0))?;
+                    column.column_index_offset = Some(start_pos as i64);
+                    column.column_index_length = Some((end_pos - start_pos) as i32);
+                }
+            }
+        }
+
+        for (row_group, metadata) in row_groups.iter_mut().zip(self.row_groups.iter()) {
+            for (column, column_metadata) in
+                row_group.columns.iter_mut().zip(metadata.columns())
+            {
+                if let Some(offset_index) = column_metadata.offset_index() {
+                    let start_pos = self.buf.seek(SeekFrom::Current(0))?;
+                    {
+                        let mut protocol = TCompactOutputProtocol::new(&mut self.buf);
+                        offset_index.to_thrift().write_to_out_protocol(&mut protocol)?;
+                        protocol.flush()?;
+                    }
+                    let end_pos = self.buf.seek(SeekFrom::Current(0))?;
+                    column.offset_index_offset = Some(start_pos as i64);
+                    column.offset_index_length = Some((end_pos - start_pos) as i32);
+                }
+            }
+        }
+
+        Ok(())
+    }
+
     /// Assembles and writes metadata at the end of the file.
     fn write_metadata(&mut self) -> Result<parquet::FileMetaData> {
+        let mut row_groups = self
+            .row_groups
+            .as_slice()
+            .iter()
+            .map(|v| v.to_thrift())
+            .collect::<Vec<_>>();
+        self.write_page_indexes(&mut row_groups)?;
         let file_metadata = parquet::FileMetaData {
             version: self.props.writer_version().as_num(),
             schema: types::to_thrift(self.schema.as_ref())?,
             num_rows: self.total_num_rows as i64,
-            row_groups: self
-                .row_groups
-                .as_slice()
-                .iter()
-                .map(|v| v.to_thrift())
-                .collect(),
+            row_groups,
             key_value_metadata: self.props.key_value_metadata().to_owned(),
             created_by: Some(self.props.created_by().to_owned()),
             column_orders: None,
@@ -302,17 +358,17 @@ impl<W: 'static + ParquetWriter> SerializedRowGroupWriter<W> {
 
     /// Checks and finalises current column writer.
     fn finalise_column_writer(&mut self, writer: ColumnWriter) -> Result<()> {
-        let (bytes_written, rows_written, metadata) = match writer {
-            ColumnWriter::BoolColumnWriter(typed) => typed.close()?,
-            ColumnWriter::Int32ColumnWriter(typed) => typed.close()?,
-            ColumnWriter::Int64ColumnWriter(typed) => typed.close()?,
-            ColumnWriter::Int96ColumnWriter(typed) => typed.close()?,
-            ColumnWriter::FloatColumnWriter(typed) => typed.close()?,
-            ColumnWriter::DoubleColumnWriter(typed) => typed.close()?,
-            ColumnWriter::ByteArrayColumnWriter(typed) => typed.close()?,
-            ColumnWriter::FixedLenByteArrayColumnWriter(typed) => typed.close()?,
-        };
+        let (bytes_written, rows_written, metadata) = close_column_writer(writer)?;
+        self.finalise_column_chunk(bytes_written, rows_written, metadata)
+    }
 
+    /// Checks and adds the metadata of a column chunk that has been written.
+    fn finalise_column_chunk(
+        &mut self,
+        bytes_written: u64,
+        rows_written: u64,
+        metadata: ColumnChunkMetaData,
+    ) -> Result<()> {
         // Update row group writer metrics
         self.total_bytes_written += bytes_written;
         self.column_chunks.push(metadata);
@@ -379,12 +435,48 @@ impl<W: 'static + ParquetWriter> RowGroupWriter for SerializedRowGroupWriter<W>
         res
     }
 
+    fn append_column(&mut self, column_chunk: EncodedColumnChunk) -> Result<()> {
+        self.assert_closed()?;
+        self.assert_previous_writer_closed()?;
+
+        if self.column_index >= self.descr.num_columns() {
+            return Err(general_err!("All columns of the row group have been written"));
+        }
+        let descr = self.descr.column(self.column_index);
+        if column_chunk.metadata.column_path() != descr.path() {
+            return Err(general_err!(
+                "Column chunk of {} cannot be written as column {}",
+                column_chunk.metadata.column_path(),
+                descr.path()
+            ));
+        }
+
+        let offset = self.buf.seek(SeekFrom::Current(0))?;
+        self.buf.write_all(&column_chunk.data)?;
+        self.column_index += 1;
+        self.finalise_column_chunk(
+            column_chunk.bytes_written,
+            column_chunk.rows_written,
+            column_chunk.metadata.with_offset(offset as i64),
+        )
+    }
+
     #[inline]
     fn close(&mut self) -> Result<RowGroupMetaDataPtr> {
         if self.row_group_metadata.is_none() {
             self.assert_previous_writer_closed()?;
 
-            let column_chunks = std::mem::take(&mut self.column_chunks);
+            // Write the bloom filters after the column chunks of the row group, so
+            // that only their offsets are kept until the file is closed
+            let mut column_chunks = std::mem::take(&mut self.column_chunks);
+            for column_chunk in &mut column_chunks {
+                if let Some(bloom_filter) = column_chunk.take_bloom_filter() {
+                    let offset = self.buf.seek(SeekFrom::Current(0))?;
+                    bloom_filter.write(&mut self.buf)?;
+                    column_chunk.set_bloom_filter_offset(offset as i64);
+                }
+            }
+
             let row_group_metadata = RowGroupMetaData::builder(self.descr.clone())
                 .set_column_metadata(column_chunks)
                 .set_total_byte_size(self.total_bytes_written as i64)
@@ -399,6 +491,77 @@ impl<W: 'static + ParquetWriter> RowGroupWriter for SerializedRowGroupWriter<W>
     }
 }
 
+/// Closes `writer`, returning the total bytes written, the total rows written and the
+/// column chunk metadata.
+fn close_column_writer(
+    writer: ColumnWriter,
+) -> Result<(u64, u64, ColumnChunkMetaData)> {
+    match writer {
+        ColumnWriter::BoolColumnWriter(typed) => typed.close(),
+        ColumnWriter::Int32ColumnWriter(typed) => typed.close(),
+        ColumnWriter::Int64ColumnWriter(typed) => typed.close(),
+        ColumnWriter::Int96ColumnWriter(typed) => typed.close(),
+        ColumnWriter::FloatColumnWriter(typed) => typed.close(),
+        ColumnWriter::DoubleColumnWriter(typed) => typed.close(),
+        ColumnWriter::ByteArrayColumnWriter(typed) => typed.close(),
+        ColumnWriter::FixedLenByteArrayColumnWriter(typed) => typed.close(),
+    }
+}
+
+/// A column chunk that has been encoded into memory with [`encode_column_chunk`],
+/// before knowing where it is written in the file.
+pub struct EncodedColumnChunk {
+    data: Vec<u8>,
+    bytes_written: u64,
+    rows_written: u64,
+    // The page offsets are relative to the start of `data`
+    metadata: ColumnChunkMetaData,
+}
+
+impl EncodedColumnChunk {
+    /// Returns the size of the encoded column chunk in bytes.
+    pub fn len(&self) -> usize {
+        self.data.len()
+    }
+
+    /// Returns true if the column chunk has no pages.
+    pub fn is_empty(&self) -> bool {
+        self.data.is_empty()
+    }
+}
+
+/// Encodes a column chunk of the column `descr` into memory, with the values written
+/// to the column writer by `write`.
+///
+/// Column chunks do not depend on each other, so the column chunks of a row group can
+/// be encoded concurrently and then written in order with
+/// [`RowGroupWriter::append_column`], which moves their page offsets to their
+/// position in the file.
+pub fn encode_column_chunk<F>(
+    descr: ColumnDescPtr,
+    props: WriterPropertiesPtr,
+    write: F,
+) -> Result<EncodedColumnChunk>
+where
+    F: FnOnce(&mut ColumnWriter) -> Result<()>,
+{
+    let cursor = InMemoryWriteableCursor::default();
+    let page_writer = Box::new(SerializedPageWriter::new(FileSink::new(&cursor)));
+    let mut column_writer = get_column_writer(descr, props, page_writer);
+    write(&mut column_writer)?;
+    // Closing the column writer flushes and drops its sink
+    let (bytes_written, rows_written, metadata) = close_column_writer(column_writer)?;
+    let data = cursor
+        .into_inner()
+        .ok_or_else(|| general_err!("Column chunk buffer is still in use"))?;
+    Ok(EncodedColumnChunk {
+        data,
+        bytes_written,
+        rows_written,
+        metadata,
+    })
+}
+
 /// A serialized implementation for Parquet [`PageWriter`].
 /// Writes and serializes pages and metadata into output stream.
 ///
@@ -539,15 +702,19 @@ mod tests {
 
     use std::{fs::File, io::Cursor};
 
-    use crate::basic::{Compression, Encoding, IntType, LogicalType, Repetition, Type};
+    use crate::basic::{
+        BoundaryOrder, Compression, Encoding, IntType, LogicalType, Repetition, Type,
+    };
     use crate::column::page::PageReader;
     use crate::compression::{create_codec, Codec};
     use crate::file::{
         properties::{WriterProperties, WriterVersion},
         reader::{FileReader, SerializedFileReader, SerializedPageReader},
+        serialized_reader::ReadOptions,
         statistics::{from_thrift, to_thrift, Statistics},
     };
     use crate::record::RowAccessor;
+    use crate::schema::types::ColumnPath;
     use crate::util::{memory::ByteBufferPtr, test_common::get_temp_file};
 
     #[test]
@@ -816,6 +983,168 @@ mod tests {
         );
     }
 
+    #[test]
+    fn test_file_writer_page_index() {
+        let file = get_temp_file("test_file_writer_page_index", &[]);
+        let schema = Arc::new(
+            types::Type::group_type_builder("schema")
+                .with_fields(&mut vec![Arc::new(
+                    types::Type::primitive_type_builder("col1", Type::INT32)
+                        .with_repetition(Repetition::REQUIRED)
+                        .build()
+                        .unwrap(),
+                )])
+                .build()
+                .unwrap(),
+        );
+        let props = Arc::new(
+            WriterProperties::builder()
+                .set_dictionary_enabled(false)
+                .set_data_pagesize_limit(100)
+                .set_write_batch_size(10)
+                .set_page_index_enabled(true)
+                .build(),
+        );
+        let data = (0..1000).collect::<Vec<i32>>();
+
+        let mut file_writer =
+            SerializedFileWriter::new(file.try_clone().unwrap(), schema, props).unwrap();
+        let mut row_group_writer = file_writer.next_row_group().unwrap();
+        let mut writer = row_group_writer.next_column().unwrap().unwrap();
+        match writer {
+            ColumnWriter::Int32ColumnWriter(ref mut typed) => {
+                typed.write_batch(&data[..], None, None).unwrap();
+            }
+            _ => unimplemented!(),
+        }
+        row_group_writer.close_column(writer).unwrap();
+        file_writer.close_row_group(row_group_writer).unwrap();
+        let file_metadata = file_writer.close().unwrap();
+        let column = &file_metadata.row_groups[0].columns[0];
+        assert!(column.column_index_offset.is_some());
+        assert!(column.offset_index_offset.is_some());
+
+        let options = ReadOptions::builder().set_page_index_enabled(true).build();
+        let reader = SerializedFileReader::new_with_options(file, options).unwrap();
+        let column = reader.metadata().row_group(0).column(0);
+        let column_index = column.column_index().unwrap();
+        let offset_index = column.offset_index().unwrap();
+
+        assert!(column_index.num_pages() > 1);
+        assert_eq!(column_index.num_pages(), offset_index.num_pages());
+        assert_eq!(column_index.boundary_order(), BoundaryOrder::ASCENDING);
+
+        let page_ranges = offset_index.page_row_ranges(data.len());
+        assert_eq!(page_ranges[0].start, 0);
+        assert_eq!(page_ranges.last().unwrap().end, data.len());
+        for (i, range) in page_ranges.iter().enumerate() {
+            assert!(!column_index.is_null_page(i));
+            assert_eq!(
+                column_index.page_statistics(i),
+                &Statistics::int32(
+                    Some(range.start as i32),
+                    Some(range.end as i32 - 1),
+                    None,
+                    0,
+                    false
+                )
+            );
+        }
+
+        // Read the second page only
+        let row_group_reader = reader.get_row_group(0).unwrap();
+        let mut page_reader = row_group_reader
+            .get_column_page_reader_with_pages(0, &[1])
+            .unwrap();
+        let page = page_reader.get_next_page().unwrap().unwrap();
+        assert_eq!(page.num_values() as usize, page_ranges[1].len());
+        assert_eq!(page.statistics(), Some(column_index.page_statistics(1)));
+        assert!(page_reader.get_next_page().unwrap().is_none());
+    }
+
+    #[test]
+    fn test_file_writer_bloom_filter() {
+        let file = get_temp_file("test_file_writer_bloom_filter", &[]);
+        let schema = Arc::new(
+            types::Type::group_type_builder("schema")
+                .with_fields(&mut vec![
+                    Arc::new(
+                        types::Type::primitive_type_builder("col1", Type::INT64)
+                            .with_repetition(Repetition::REQUIRED)
+                            .build()
+                            .unwrap(),
+                    ),
+                    Arc::new(
+                        types::Type::primitive_type_builder("col2", Type::INT64)
+                            .with_repetition(Repetition::REQUIRED)
+                            .build()
+                            .unwrap(),
+                    ),
+                ])
+                .build()
+                .unwrap(),
+        );
+        let props = Arc::new(
+            WriterProperties::builder()
+                .set_column_bloom_filter_enabled(ColumnPath::from("col1"), true)
+                .set_column_bloom_filter_ndv(ColumnPath::from("col1"), 100)
+                .set_column_bloom_filter_fpp(ColumnPath::from("col1"), 0.01)
+                .build(),
+        );
+
+        let mut file_writer =
+            SerializedFileWriter::new(file.try_clone().unwrap(), schema, props).unwrap();
+        for row_group in 0..2i64 {
+            let data = (0..100).map(|i| row_group * 1000 + i).collect::<Vec<_>>();
+            let mut row_group_writer = file_writer.next_row_group().unwrap();
+            while let Some(mut writer) = row_group_writer.next_column().unwrap() {
+                match writer {
+                    ColumnWriter::Int64ColumnWriter(ref mut typed) => {
+                        typed.write_batch(&data[..], None, None).unwrap();
+                    }
+                    _ => unimplemented!(),
+                }
+                row_group_writer.close_column(writer).unwrap();
+            }
+
+            // The bloom filter is written after the column chunks of its row group
+            let metadata = row_group_writer.close().unwrap();
+            let (start, length) = metadata.column(1).byte_range();
+            let bloom_filter_offset = metadata.column(0).bloom_filter_offset().unwrap();
+            assert_eq!(bloom_filter_offset as u64, start + length);
+            assert!(metadata.column(1).bloom_filter_offset().is_none());
+            file_writer.close_row_group(row_group_writer).unwrap();
+        }
+        file_writer.close().unwrap();
+
+        let reader = SerializedFileReader::new(file).unwrap();
+        let metadata = reader.metadata();
+        let bloom_filter_offset = metadata.row_group(0).column(0).bloom_filter_offset();
+        let (next_row_group_start, _) = metadata.row_group(1).column(0).byte_range();
+        assert!((bloom_filter_offset.unwrap() as u64) < next_row_group_start);
+        for row_group in 0..2i64 {
+            let row_group_reader = reader.get_row_group(row_group as usize).unwrap();
+            let bloom_filter = row_group_reader
+                .get_column_bloom_filter(0)
+                .unwrap()
+                .expect("Column chunk without bloom filter");
+            for i in 0..100 {
+                assert!(bloom_filter.check(&(row_group * 1000 + i)));
+            }
+            // The values of the other row group are unlikely false positives
+            let other = (1 - row_group) * 1000;
+            let false_positives = (other..other + 100)
+                .filter(|value| bloom_filter.check(value))
+                .count();
+            assert!(false_positives < 10, "{} false positives", false_positives);
+
+            assert!(row_group_reader
+                .get_column_bloom_filter(1)
+                .unwrap()
+                .is_none());
+        }
+    }
+
     #[test]
     fn test_page_writer_data_pages() {
         let pages = vec![
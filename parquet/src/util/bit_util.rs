@@ -602,6 +602,28 @@ impl BitReader {
         values_to_read
     }
 
+    /// Skips at most `num_values` values of size `num_bits` without decoding them.
+    ///
+    /// Returns the number of values skipped, which is less than `num_values` if there
+    /// is not enough data left in the buffer.
+    pub fn skip(&mut self, num_values: usize, num_bits: usize) -> usize {
+        assert!(num_bits <= 64);
+
+        let remaining_bits = (self.total_bytes - self.byte_offset) * 8 - self.bit_offset;
+        let values_to_skip = if num_bits == 0 {
+            num_values
+        } else {
+            cmp::min(num_values, remaining_bits / num_bits)
+        };
+
+        let end_bit_offset = self.bit_offset + values_to_skip * num_bits;
+        self.byte_offset += (end_bit_offset / 64) * 8;
+        self.bit_offset = end_bit_offset % 64;
+        self.reload_buffer_values();
+
+        values_to_skip
+    }
+
     /// Reads a `num_bytes`-sized value from this buffer and return it.
     /// `T` needs to be a little-endian native type. The value is assumed to be byte
     /// aligned so the bit reader will be advanced to the start of the next byte before
@@ -737,6 +759,25 @@ mod tests {
         assert_eq!(bit_reader.get_value::<i64>(16), Some(40));
     }
 
+    #[test]
+    fn test_bit_reader_skip() {
+        let buffer = vec![10, 0, 0, 0, 20, 0, 30, 0, 0, 0, 40, 0];
+        let mut bit_reader = BitReader::from(buffer);
+        assert_eq!(bit_reader.skip(1, 32), 1);
+        assert_eq!(bit_reader.get_value::<i64>(16), Some(20));
+        assert_eq!(bit_reader.skip(2, 16), 2);
+        assert_eq!(bit_reader.get_value::<i64>(16), Some(40));
+        assert_eq!(bit_reader.skip(1, 1), 0);
+
+        let buffer = vec![0b1010_1010; 20];
+        let mut bit_reader = BitReader::from(buffer);
+        assert_eq!(bit_reader.skip(67, 1), 67);
+        assert_eq!(bit_reader.get_value::<i32>(1), Some(1));
+        assert_eq!(bit_reader.get_value::<i32>(1), Some(0));
+        assert_eq!(bit_reader.skip(200, 1), 91);
+        assert_eq!(bit_reader.get_value::<i32>(1), None);
+    }
+
     #[test]
     fn test_bit_reader_get_aligned() {
         // 01110101 11001011
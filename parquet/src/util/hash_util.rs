@@ -135,6 +135,102 @@ unsafe fn crc32_hash(bytes: &[u8], seed: u32) -> u32 {
     hash
 }
 
+const XXH_PRIME64_1: u64 = 0x9E3779B185EBCA87;
+const XXH_PRIME64_2: u64 = 0xC2B2AE3D27D4EB4F;
+const XXH_PRIME64_3: u64 = 0x165667B19E3779F9;
+const XXH_PRIME64_4: u64 = 0x85EBCA77C2B2AE63;
+const XXH_PRIME64_5: u64 = 0x27D4EB2F165667C5;
+
+/// Computes the 64-bit xxHash (XXH64) of `data`, with a seed value `seed`.
+///
+/// This is the hash function of Parquet bloom filters.
+pub fn xxhash64(data: &[u8], seed: u64) -> u64 {
+    #[inline]
+    fn read_u64(bytes: &[u8]) -> u64 {
+        u64::from_le_bytes([
+            bytes[0], bytes[1], bytes[2], bytes[3], bytes[4], bytes[5], bytes[6],
+            bytes[7],
+        ])
+    }
+
+    #[inline]
+    fn round(acc: u64, input: u64) -> u64 {
+        acc.wrapping_add(input.wrapping_mul(XXH_PRIME64_2))
+            .rotate_left(31)
+            .wrapping_mul(XXH_PRIME64_1)
+    }
+
+    #[inline]
+    fn merge_round(acc: u64, val: u64) -> u64 {
+        (acc ^ round(0, val))
+            .wrapping_mul(XXH_PRIME64_1)
+            .wrapping_add(XXH_PRIME64_4)
+    }
+
+    let len = data.len();
+    let mut remaining = data;
+
+    let mut hash = if len >= 32 {
+        let mut v1 = seed.wrapping_add(XXH_PRIME64_1).wrapping_add(XXH_PRIME64_2);
+        let mut v2 = seed.wrapping_add(XXH_PRIME64_2);
+        let mut v3 = seed;
+        let mut v4 = seed.wrapping_sub(XXH_PRIME64_1);
+        while remaining.len() >= 32 {
+            v1 = round(v1, read_u64(&remaining[0..8]));
+            v2 = round(v2, read_u64(&remaining[8..16]));
+            v3 = round(v3, read_u64(&remaining[16..24]));
+            v4 = round(v4, read_u64(&remaining[24..32]));
+            remaining = &remaining[32..];
+        }
+        let mut hash = v1
+            .rotate_left(1)
+            .wrapping_add(v2.rotate_left(7))
+            .wrapping_add(v3.rotate_left(12))
+            .wrapping_add(v4.rotate_left(18));
+        hash = merge_round(hash, v1);
+        hash = merge_round(hash, v2);
+        hash = merge_round(hash, v3);
+        merge_round(hash, v4)
+    } else {
+        seed.wrapping_add(XXH_PRIME64_5)
+    };
+
+    hash = hash.wrapping_add(len as u64);
+
+    while remaining.len() >= 8 {
+        hash ^= round(0, read_u64(&remaining[0..8]));
+        hash = hash
+            .rotate_left(27)
+            .wrapping_mul(XXH_PRIME64_1)
+            .wrapping_add(XXH_PRIME64_4);
+        remaining = &remaining[8..];
+    }
+
+    if remaining.len() >= 4 {
+        let word =
+            u32::from_le_bytes([remaining[0], remaining[1], remaining[2], remaining[3]]);
+        hash ^= (word as u64).wrapping_mul(XXH_PRIME64_1);
+        hash = hash
+            .rotate_left(23)
+            .wrapping_mul(XXH_PRIME64_2)
+            .wrapping_add(XXH_PRIME64_3);
+        remaining = &remaining[4..];
+    }
+
+    for byte in remaining {
+        hash ^= (*byte as u64).wrapping_mul(XXH_PRIME64_5);
+        hash = hash.rotate_left(11).wrapping_mul(XXH_PRIME64_1);
+    }
+
+    // Final avalanche
+    hash ^= hash >> 33;
+    hash = hash.wrapping_mul(XXH_PRIME64_2);
+    hash ^= hash >> 29;
+    hash = hash.wrapping_mul(XXH_PRIME64_3);
+    hash ^= hash >> 32;
+    hash
+}
+
 #[cfg(test)]
 mod tests {
     use super::*;
@@ -169,4 +265,15 @@ mod tests {
             }
         }
     }
+
+    #[test]
+    fn test_xxhash64() {
+        assert_eq!(xxhash64(b"", 0), 0xEF46DB3751D8E999);
+        assert_eq!(xxhash64(b"a", 0), 0xD24EC4F1A98C6E5B);
+        assert_eq!(xxhash64(b"abc", 0), 0x44BC2CF5AD770999);
+        assert_eq!(
+            xxhash64(b"The quick brown fox jumps over the lazy dog", 0),
+            0x0B242D361FDA71BC
+        );
+    }
 }
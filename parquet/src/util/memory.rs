@@ -24,7 +24,7 @@ use std::{
     ops::{Index, IndexMut},
     sync::{
         atomic::{AtomicI64, Ordering},
-        Arc, Weak,
+        Arc, Mutex, Weak,
     },
 };
 
@@ -77,6 +77,105 @@ impl MemTracker {
     }
 }
 
+// ----------------------------------------------------------------------
+// Buffer pool classes
+
+/// Type alias for [`BufferPool`].
+pub type ByteBufferPool = BufferPool<u8>;
+/// Reference counted pointer for [`BufferPool`].
+pub type BufferPoolPtr<T> = Arc<BufferPool<T>>;
+
+/// A bounded pool of vectors that are recycled, instead of freed and allocated again,
+/// e.g. for the pages read by page readers.
+///
+/// A [`BufferPtr`] created with [`BufferPtr::with_pool`] returns its vector to the
+/// pool when the last of its copies is dropped. The pool keeps at most
+/// `max_pooled_bytes` bytes of vectors, further vectors returned to it are freed.
+///
+/// The memory of the vectors that are kept in the pool is tracked by the optional
+/// [`MemTracker`] of the pool.
+#[derive(Debug)]
+pub struct BufferPool<T> {
+    buffers: Mutex<Vec<Vec<T>>>,
+    pooled_bytes: AtomicI64,
+    max_pooled_bytes: usize,
+    mem_tracker: Option<MemTrackerPtr>,
+}
+
+impl<T> BufferPool<T> {
+    /// Creates new empty pool, which keeps at most `max_pooled_bytes` bytes of vectors.
+    pub fn new(max_pooled_bytes: usize) -> Self {
+        Self {
+            buffers: Mutex::new(Vec::new()),
+            pooled_bytes: Default::default(),
+            max_pooled_bytes,
+            mem_tracker: None,
+        }
+    }
+
+    /// Adds [`MemTracker`] for the vectors kept in this pool.
+    pub fn with_mem_tracker(mut self, mc: MemTrackerPtr) -> Self {
+        mc.alloc(self.pooled_bytes());
+        self.mem_tracker = Some(mc);
+        self
+    }
+
+    /// Returns the number of bytes of the vectors kept in this pool.
+    pub fn pooled_bytes(&self) -> i64 {
+        self.pooled_bytes.load(Ordering::Acquire)
+    }
+
+    /// Returns an empty vector with a capacity of at least `capacity` elements.
+    ///
+    /// The smallest vector of the pool that is large enough is reused, if any,
+    /// otherwise a new vector is allocated.
+    pub fn get(&self, capacity: usize) -> Vec<T> {
+        let mut buffers = self.buffers.lock().unwrap();
+        let best_fit = buffers
+            .iter()
+            .enumerate()
+            .filter(|(_, buffer)| buffer.capacity() >= capacity)
+            .min_by_key(|(_, buffer)| buffer.capacity())
+            .map(|(i, _)| i);
+        match best_fit {
+            Some(i) => {
+                let buffer = buffers.swap_remove(i);
+                self.track(-((buffer.capacity() * mem::size_of::<T>()) as i64));
+                buffer
+            }
+            None => Vec::with_capacity(capacity),
+        }
+    }
+
+    /// Returns `buffer` to this pool, unless it would exceed its maximum size.
+    pub fn put(&self, mut buffer: Vec<T>) {
+        let size = (buffer.capacity() * mem::size_of::<T>()) as i64;
+        let mut buffers = self.buffers.lock().unwrap();
+        if size == 0 || self.pooled_bytes() + size > self.max_pooled_bytes as i64 {
+            return;
+        }
+        buffer.clear();
+        buffers.push(buffer);
+        self.track(size);
+    }
+
+    #[inline]
+    fn track(&self, num_bytes: i64) {
+        self.pooled_bytes.fetch_add(num_bytes, Ordering::AcqRel);
+        if let Some(ref mc) = self.mem_tracker {
+            mc.alloc(num_bytes);
+        }
+    }
+}
+
+impl<T> Drop for BufferPool<T> {
+    fn drop(&mut self) {
+        if let Some(ref mc) = self.mem_tracker {
+            mc.alloc(-self.pooled_bytes());
+        }
+    }
+}
+
 // ----------------------------------------------------------------------
 // Buffer classes
 
@@ -277,6 +376,7 @@ pub struct BufferPtr<T> {
     len: usize,
     // TODO: will this create too many references? rethink about this.
     mem_tracker: Option<MemTrackerPtr>,
+    pool: Option<BufferPoolPtr<T>>,
 }
 
 impl<T> BufferPtr<T> {
@@ -288,6 +388,7 @@ impl<T> BufferPtr<T> {
             start: 0,
             len,
             mem_tracker: None,
+            pool: None,
         }
     }
 
@@ -322,6 +423,13 @@ impl<T> BufferPtr<T> {
         self
     }
 
+    /// Adds pool to this buffer, which the data is returned to when all slices are
+    /// dropped.
+    pub fn with_pool(mut self, pool: BufferPoolPtr<T>) -> Self {
+        self.pool = Some(pool);
+        self
+    }
+
     /// Returns start position of this buffer.
     #[inline]
     pub fn start(&self) -> usize {
@@ -345,6 +453,11 @@ impl<T> BufferPtr<T> {
         self.mem_tracker.is_some()
     }
 
+    /// Returns `true` if this buffer has pool, `false` otherwise.
+    pub fn is_pooled(&self) -> bool {
+        self.pool.is_some()
+    }
+
     /// Returns a shallow copy of the buffer.
     /// Reference counted pointer to the data is copied.
     pub fn all(&self) -> BufferPtr<T> {
@@ -353,6 +466,7 @@ impl<T> BufferPtr<T> {
             start: self.start,
             len: self.len,
             mem_tracker: self.mem_tracker.as_ref().cloned(),
+            pool: self.pool.as_ref().cloned(),
         }
     }
 
@@ -364,6 +478,7 @@ impl<T> BufferPtr<T> {
             start: self.start + start,
             len: self.len - start,
             mem_tracker: self.mem_tracker.as_ref().cloned(),
+            pool: self.pool.as_ref().cloned(),
         }
     }
 
@@ -375,6 +490,7 @@ impl<T> BufferPtr<T> {
             start: self.start + start,
             len,
             mem_tracker: self.mem_tracker.as_ref().cloned(),
+            pool: self.pool.as_ref().cloned(),
         }
     }
 }
@@ -401,6 +517,11 @@ impl<T> Drop for BufferPtr<T> {
                 mc.alloc(-(self.data.capacity() as i64));
             }
         }
+        if let Some(pool) = self.pool.take() {
+            if let Some(data) = Arc::get_mut(&mut self.data) {
+                pool.put(mem::take(data));
+            }
+        }
     }
 }
 
@@ -542,4 +663,52 @@ mod tests {
         let expected: Vec<u8> = (30..40).collect();
         assert_eq!(ptr4.as_ref(), expected.as_slice());
     }
+
+    #[test]
+    fn test_buffer_pool() {
+        let mem_tracker = Arc::new(MemTracker::new());
+        let pool = ByteBufferPool::new(100).with_mem_tracker(mem_tracker.clone());
+
+        let buffer = pool.get(50);
+        assert!(buffer.capacity() >= 50);
+        let capacity = buffer.capacity();
+        pool.put(buffer);
+        assert_eq!(pool.pooled_bytes(), capacity as i64);
+        assert_eq!(mem_tracker.memory_usage(), capacity as i64);
+
+        // Too large to be recycled, and not kept as the pool would exceed its size
+        assert!(pool.get(80).capacity() >= 80);
+        pool.put(Vec::with_capacity(80));
+        assert_eq!(pool.pooled_bytes(), capacity as i64);
+
+        let mut buffer = pool.get(10);
+        assert_eq!(buffer.capacity(), capacity);
+        assert!(buffer.is_empty());
+        assert_eq!(pool.pooled_bytes(), 0);
+        assert_eq!(mem_tracker.memory_usage(), 0);
+
+        buffer.extend_from_slice(&[1, 2, 3]);
+        pool.put(buffer);
+        assert!(pool.get(capacity).is_empty());
+    }
+
+    #[test]
+    fn test_byte_ptr_pool() {
+        let pool = Arc::new(ByteBufferPool::new(1024));
+
+        let mut data = pool.get(20);
+        data.extend(0..20);
+        let capacity = data.capacity() as i64;
+        let ptr = ByteBufferPtr::new(data).with_pool(pool.clone());
+        assert!(ptr.is_pooled());
+
+        // The data is only recycled when all slices are dropped
+        let slice = ptr.range(5, 10);
+        assert!(slice.is_pooled());
+        drop(ptr);
+        assert_eq!(pool.pooled_bytes(), 0);
+        assert_eq!(slice.data(), &(5..15).collect::<Vec<u8>>()[..]);
+        drop(slice);
+        assert_eq!(pool.pooled_bytes(), capacity);
+    }
 }